@@ -0,0 +1,21 @@
+package rest.client.bench;
+
+import rest.client.models.ModelPerson;
+import retrofit2.Call;
+import retrofit2.http.GET;
+import retrofit2.http.Url;
+
+/**
+ * The Interface BenchService, retrofit service used by {@link ClientStacksBenchmark}.
+ *
+ * @author tonioc
+ */
+public interface BenchService {
+
+    @GET
+    Call<ModelPerson> person(@Url String url);
+
+    @GET
+    Call<ModelPerson[]> persons(@Url String url);
+
+}
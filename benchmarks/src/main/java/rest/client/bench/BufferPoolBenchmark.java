@@ -0,0 +1,96 @@
+package rest.client.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpServerErrorException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import rest.client.buffer.BufferPool;
+import rest.client.models.ModelPerson;
+import rest.client.strict.StrictRestClient;
+
+/**
+ * The Class BufferPoolBenchmark, allocation per call of the bodies of the RestTemplate path,
+ * with the {@link BufferPool} keeping its buffers (<i>pooled</i>) or keeping none, so every buffer
+ * is allocated (<i>unpooled</i>).
+ *
+ * <P>Run it with <code>-prof gc</code>, compare <i>gc.alloc.rate.norm</i> of both pools, the
+ * <i>memory</i> transport isolates the client from any I/O.
+ *
+ * @author tonioc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BufferPoolBenchmark {
+
+    private static final String URL = "http://localhost/person";
+
+    @Param({"pooled", "unpooled"})
+    private String pool;
+
+    private ModelPerson[] persons;
+    private StrictRestClient ok;
+    private StrictRestClient error;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        BufferPool bufferPool = ("pooled".equals(this.pool)
+                ? new BufferPool(BufferPool.DEFAULT_BUFFERS_PER_SIZE, false)
+                : new BufferPool(0, false));
+
+        byte[] person = Payloads.json(Payloads.person("Mr Stub"));
+        this.persons = Payloads.persons(20);
+
+        this.ok = new StrictRestClient(
+                StrictRestClient.DEFAULT_CONNECT_TIMEOUT_IN_MILLIS
+                , StrictRestClient.DEFAULT_READ_TIMEOUT_IN_MILLIS
+                , new InMemoryTransport(HttpStatus.OK, person))
+                .withBufferPool(bufferPool);
+
+        this.error = new StrictRestClient(
+                StrictRestClient.DEFAULT_CONNECT_TIMEOUT_IN_MILLIS
+                , StrictRestClient.DEFAULT_READ_TIMEOUT_IN_MILLIS
+                , new InMemoryTransport(HttpStatus.INTERNAL_SERVER_ERROR, person))
+                .withBufferPool(bufferPool);
+    }
+
+    @Benchmark
+    public ResponseEntity<JsonNode> get() {
+        return this.ok.execute(rt -> rt.getForEntity(URL, JsonNode.class));
+    }
+
+    @Benchmark
+    public ResponseEntity<JsonNode> post() {
+        return this.ok.execute(rt -> rt.postForEntity(URL, this.persons, JsonNode.class));
+    }
+
+    @Benchmark
+    public Object status500() {
+        try {
+            return this.error.execute(rt -> rt.getForEntity(URL, JsonNode.class));
+        }
+        catch (HttpServerErrorException ex) {
+            return ex;
+        }
+    }
+}
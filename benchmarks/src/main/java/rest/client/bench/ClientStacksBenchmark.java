@@ -0,0 +1,182 @@
+package rest.client.bench;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import okhttp3.OkHttpClient;
+import reactor.netty.http.client.HttpClient;
+import rest.client.models.ModelPerson;
+import rest.client.retrofit.JacksonConverterFactoryForTA;
+import rest.client.strict.StrictRestClient;
+import rest.client.ta.TaRestTemplate;
+import retrofit2.Call;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * The Class ClientStacksBenchmark, the same call done with every client stack of the project:
+ * {@link StrictRestClient}, {@link TaRestTemplate}, Retrofit with {@link JacksonConverterFactoryForTA}
+ * and WebClient (reactor netty), against an in-process {@link StubServer}.
+ *
+ * <P>Scenarios:
+ * <ul>
+ *   <li><b>person</b>: a small {@link ModelPerson} body.</li>
+ *   <li><b>persons</b>: a large body, an array of {@link #PERSONS_COUNT} persons.</li>
+ *   <li><b>status404</b>, <b>status500</b>: error paths, JSON error body.</li>
+ *   <li><b>noJson</b>: an html body where JSON is expected (AnyMessageConverter path in StrictRestClient).</li>
+ * </ul>
+ *
+ * <P>Error paths return the exception thrown (or the error body for Retrofit, that does not throw),
+ * each stack is used as an application would. Throughput and sample time (p50, p99) are measured,
+ * add <code>-prof gc</code> for the allocation rate, <code>-t N</code> for concurrent callers.
+ *
+ * @author tonioc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientStacksBenchmark {
+
+    /**
+     * The Constant PERSONS_COUNT = {@value #PERSONS_COUNT}.
+     */
+    public static final int PERSONS_COUNT = 1_000;
+
+    private static final int TIMEOUT_IN_MILLIS = 5_000;
+
+    @Param({"person", "persons", "status404", "status500", "noJson"})
+    private String scenario;
+
+    private StubServer server;
+    private String url;
+    private Class<?> type;
+
+    private StrictRestClient strict;
+    private TaRestTemplate ta;
+    private OkHttpClient okHttp;
+    private BenchService retrofit;
+    private WebClient webClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        this.server = new StubServer(8)
+                .route("/person", 200, "application/json", Payloads.json(Payloads.person("Mr Stub")))
+                .route("/persons", 200, "application/json", Payloads.json(Payloads.persons(PERSONS_COUNT)))
+                .route("/status404", 404, "application/json", "{\"error\":\"Not found\",\"status\":404}")
+                .route("/status500", 500, "application/json", "{\"error\":\"Internal error\",\"status\":500}")
+                .route("/noJson", 200, "text/html", "<html><body><h1>Not a json</h1></body></html>")
+                .start();
+
+        this.url = this.server.url("/" + this.scenario);
+        this.type = ("persons".equals(this.scenario) ? ModelPerson[].class : ModelPerson.class);
+
+        this.strict = new StrictRestClient(TIMEOUT_IN_MILLIS, TIMEOUT_IN_MILLIS);
+
+        this.ta = new TaRestTemplate(TIMEOUT_IN_MILLIS / 1_000, TIMEOUT_IN_MILLIS / 1_000);
+
+        this.okHttp = new OkHttpClient.Builder()
+                .connectTimeout(Duration.ofMillis(TIMEOUT_IN_MILLIS))
+                .readTimeout(Duration.ofMillis(TIMEOUT_IN_MILLIS))
+                .build();
+
+        this.retrofit = new Retrofit.Builder()
+                .baseUrl(this.server.url("/"))
+                .client(this.okHttp)
+                .addConverterFactory(JacksonConverterFactoryForTA.create())
+                .build()
+                .create(BenchService.class);
+
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, TIMEOUT_IN_MILLIS)
+                .responseTimeout(Duration.ofMillis(TIMEOUT_IN_MILLIS));
+
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(c -> c.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.okHttp.dispatcher().executorService().shutdown();
+        this.okHttp.connectionPool().evictAll();
+        this.server.close();
+    }
+
+    @Benchmark
+    public Object strictRestClient() {
+        try {
+            return this.strict.execute(rt -> rt.getForEntity(this.url, this.type));
+        }
+        catch (RuntimeException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object taRestTemplate() {
+        try {
+            return this.ta.execute(rt -> rt.getForEntity(this.url, this.type));
+        }
+        catch (RuntimeException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object retrofit() {
+
+        Call<?> call = (this.type == ModelPerson.class
+                ? this.retrofit.person(this.url)
+                : this.retrofit.persons(this.url));
+
+        try {
+            Response<?> response = call.execute();
+
+            if (response.isSuccessful()) {
+                return response.body();
+            }
+
+            return response.errorBody().string();
+        }
+        catch (IOException | RuntimeException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object webClient() {
+        try {
+            return this.webClient.get()
+                    .uri(this.url)
+                    .retrieve()
+                    .bodyToMono(this.type)
+                    .block();
+        }
+        catch (RuntimeException ex) {
+            return ex;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package rest.client.bench;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import rest.api.ErrorHdlBaseController;
+import rest.api.OMError;
+import rest.api.TaDataException;
+
+/**
+ * The Class ErrorHandlerBenchmark, the error responses of {@link ErrorHdlBaseController}, the
+ * <i>streamed</i> handler against the previous one, <i>tree</i>, which looked up the status by
+ * reflection and built a JsonNode, serialized here as the message converter would.
+ *
+ * <P>The exceptions are created once, only the handling is measured, run it with <code>-prof gc</code>.
+ *
+ * @author tonioc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorHandlerBenchmark {
+
+    @Param({"streamed", "tree"})
+    private String handler;
+
+    private ErrorHdlBaseController streamed;
+    private TreeErrorHandler tree;
+    private TaDataException taException;
+    private RuntimeException exception;
+
+    @Setup
+    public void setUp() {
+        this.streamed = new ErrorHdlBaseController();
+        this.tree = new TreeErrorHandler();
+        this.taException = new TaDataException("The order 1234 has no items, at least one is expected");
+        this.exception = new RuntimeException("Connection refused: localhost/127.0.0.1:8080");
+    }
+
+    @Benchmark
+    public Object taError() throws JsonProcessingException {
+        return ("tree".equals(this.handler)
+                ? this.tree.handleException((OMError) this.taException)
+                : this.streamed.handleException((OMError) this.taException).getBody());
+    }
+
+    @Benchmark
+    public Object unexpectedError() throws JsonProcessingException {
+        return ("tree".equals(this.handler)
+                ? this.tree.handleException(this.exception)
+                : this.streamed.handleException(this.exception).getBody());
+    }
+
+    /**
+     * The handler as it was, the tree serialized as MappingJackson2HttpMessageConverter does.
+     */
+    static final class TreeErrorHandler {
+
+        private final JsonNodeFactory jsonFactory = JsonNodeFactory.instance;
+        private final ObjectMapper mapper = new ObjectMapper();
+
+        byte[] handleException(final OMError ex) throws JsonProcessingException {
+
+            ResponseEntity<JsonNode> entity = ResponseEntity
+                    .status(getHttpStatusFromException((Exception) ex).orElse(HttpStatus.INTERNAL_SERVER_ERROR))
+                    .body(this.jsonFactory.objectNode()
+                        .put("errorSoruce", ex.getErrorSource())
+                        .put("errorCode", ex.getErrorCode())
+                        .put("errorMsg", ex.getErrorMessage()));
+
+            return this.mapper.writeValueAsBytes(entity.getBody());
+        }
+
+        byte[] handleException(final Exception ex) throws JsonProcessingException {
+
+            ResponseEntity<JsonNode> entity = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(this.jsonFactory.objectNode()
+                        .put("errorSoruce", "om")
+                        .put("errorCode", "unexpected")
+                        .put("errorMsg", ex.getMessage()));
+
+            return this.mapper.writeValueAsBytes(entity.getBody());
+        }
+
+        private Optional<HttpStatus> getHttpStatusFromException(final Exception ex) {
+
+            ResponseStatus rStatus = ex.getClass().getAnnotation(ResponseStatus.class);
+
+            if (rStatus != null) {
+                return Optional.ofNullable(rStatus.code());
+            }
+
+            return Optional.empty();
+        }
+    }
+}
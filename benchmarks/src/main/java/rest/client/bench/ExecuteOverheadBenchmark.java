@@ -0,0 +1,102 @@
+package rest.client.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import rest.client.strict.StrictRestClient;
+import rest.client.transport.ClientTransport;
+import rest.client.transport.SimpleClientTransport;
+
+/**
+ * The Class ExecuteOverheadBenchmark, overhead of {@link StrictRestClient#execute} (retry
+ * pipeline, classifier, body capture) compared with a bare RestTemplate using the same
+ * transport.
+ *
+ * <P>Run it with <code>-prof gc</code> to get the allocation per call
+ * (<i>gc.alloc.rate.norm</i>), the <i>memory</i> transport isolates the client overhead,
+ * the <i>http</i> one shows it relative to a real (loopback) call.
+ *
+ * @author tonioc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecuteOverheadBenchmark {
+
+    private static final byte[] JSON =
+            "{\"name\":\"Mr Stub\",\"age\":42}".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"memory", "http"})
+    private String transport;
+
+    private StubServer server;
+    private String url;
+    private RestTemplate bare;
+    private StrictRestClient strict;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        ClientTransport clientTransport;
+
+        if ("http".equals(this.transport)) {
+            this.server = new StubServer(4)
+                    .route("/ok", 200, "application/json", JSON)
+                    .start();
+            this.url = this.server.url("/ok");
+            clientTransport = new SimpleClientTransport();
+        }
+        else {
+            this.url = "http://localhost/ok";
+            clientTransport = new InMemoryTransport(HttpStatus.OK, JSON);
+        }
+
+        this.bare = new RestTemplate(clientTransport.createRequestFactory(
+                StrictRestClient.DEFAULT_CONNECT_TIMEOUT_IN_MILLIS
+                , StrictRestClient.DEFAULT_READ_TIMEOUT_IN_MILLIS));
+
+        this.strict = new StrictRestClient(
+                StrictRestClient.DEFAULT_CONNECT_TIMEOUT_IN_MILLIS
+                , StrictRestClient.DEFAULT_READ_TIMEOUT_IN_MILLIS
+                , clientTransport);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (this.server != null) {
+            this.server.close();
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<JsonNode> bareRestTemplate() {
+        return this.bare.getForEntity(this.url, JsonNode.class);
+    }
+
+    @Benchmark
+    public ResponseEntity<JsonNode> strictExecute() {
+        return this.strict.execute(rt -> rt.getForEntity(this.url, JsonNode.class));
+    }
+}
@@ -0,0 +1,47 @@
+package rest.client.bench;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import rest.client.transport.ClientTransport;
+
+/**
+ * The Class InMemoryTransport, answers every request with the same body without any
+ * I/O, used to measure the cost of the client itself.
+ *
+ * @author tonioc
+ */
+public final class InMemoryTransport implements ClientTransport {
+
+    private final byte[] body;
+    private final HttpStatus status;
+
+    /**
+     * Instantiates a new in memory transport.
+     *
+     * @param status the status answered
+     * @param body the JSON body answered
+     */
+    public InMemoryTransport(final HttpStatus status, final byte[] body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    @Override
+    public ClientHttpRequestFactory createRequestFactory(
+            final int connectTimeoutInMillis
+            , final int readTimeoutInMillis) {
+
+        return (uri, method) -> {
+            MockClientHttpResponse response = new MockClientHttpResponse(this.body, this.status);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            request.setResponse(response);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package rest.client.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import rest.client.models.ModelPerson;
+
+/**
+ * The Class Payloads, the bodies answered by the {@link StubServer} in the benchmarks.
+ *
+ * @author tonioc
+ */
+public final class Payloads {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Instantiates a new payloads.
+     */
+    private Payloads() {
+    }
+
+    /**
+     * Person, a small body (~150 bytes) shaped as {@link ModelPerson}.
+     *
+     * @param name the name
+     * @return the model person
+     */
+    public static ModelPerson person(final String name) {
+        return new ModelPerson(name)
+                .addAddr("Av. Corrientes", 1234)
+                .addAddr("Florida", 56)
+                .addAddr("Lavalle", 789);
+    }
+
+    /**
+     * Persons, a large body, an array of count {@link #person(String)}.
+     *
+     * @param count the count
+     * @return the model person[]
+     */
+    public static ModelPerson[] persons(final int count) {
+
+        ModelPerson[] persons = new ModelPerson[count];
+
+        for (int i = 0; i < count; i++) {
+            persons[i] = person("Person " + i);
+        }
+
+        return persons;
+    }
+
+    /**
+     * Serializes the object as JSON.
+     *
+     * @param value the value
+     * @return the json bytes
+     */
+    public static byte[] json(final Object value) {
+        try {
+            return MAPPER.writeValueAsBytes(value);
+        }
+        catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize payload", ex);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package rest.client.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * The Class StubServer, an in-process HTTP server (JDK HttpServer) answering canned
+ * responses, so benchmarks run offline and without Spring Boot.
+ *
+ * @author tonioc
+ */
+public final class StubServer implements AutoCloseable {
+
+    static {
+        // headers and body are written separately, avoid the Nagle / delayed ACK 40ms stall.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Instantiates a new stub server, on a random port of the loopback interface.
+     *
+     * @param threads the server threads
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public StubServer(final int threads) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1_024);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server.setExecutor(this.executor);
+    }
+
+    /**
+     * Adds a route answering always the same response.
+     *
+     * @param path the path
+     * @param status the HTTP status
+     * @param contentType the content type
+     * @param body the body
+     * @return the stub server
+     */
+    public StubServer route(final String path, final int status, final String contentType, final byte[] body) {
+
+        this.server.createContext(path, exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                while (in.read() != -1) {
+                    // request body is ignored, but must be consumed for keep-alive.
+                }
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+
+        return this;
+    }
+
+    /**
+     * Adds a route answering always the same response.
+     *
+     * @param path the path
+     * @param status the HTTP status
+     * @param contentType the content type
+     * @param body the body
+     * @return the stub server
+     */
+    public StubServer route(final String path, final int status, final String contentType, final String body) {
+        return route(path, status, contentType, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @return the stub server
+     */
+    public StubServer start() {
+        this.server.start();
+        return this;
+    }
+
+    /**
+     * Gets the url of the given path.
+     *
+     * @param path the path, starting with /
+     * @return the url
+     */
+    public String url(final String path) {
+        return "http://localhost:" + this.server.getAddress().getPort() + path;
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+}
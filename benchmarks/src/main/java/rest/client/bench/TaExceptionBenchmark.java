@@ -0,0 +1,91 @@
+package rest.client.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rest.api.ErrorHdlBaseController;
+import rest.api.OMError;
+import rest.api.OMErrorEnum;
+import rest.api.TaDataException;
+import rest.api.TaException;
+
+/**
+ * The Class TaExceptionBenchmark, throughput of a data error thrown <i>depth</i> frames below the handler,
+ * its message read as a log would and handled by {@link ErrorHdlBaseController}.
+ *
+ * <P>The error is created with stack trace (<i>stack</i>), without it (<i>stackless</i>), or is the
+ * shared instance of its code (<i>shared</i>).
+ *
+ * @author tonioc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaExceptionBenchmark {
+
+    private static final String MESSAGE = "The order has no items, at least one is expected";
+
+    @Param({"stack", "stackless", "shared"})
+    private String mode;
+
+    @Param({"64"})
+    private int depth;
+
+    private ErrorHdlBaseController controller;
+
+    @Setup
+    public void setUp() {
+        this.controller = new ErrorHdlBaseController();
+    }
+
+    @Benchmark
+    public Object throwAndHandle(final Blackhole bh) {
+        try {
+            return throwAt(this.depth);
+        }
+        catch (TaException ex) {
+            // as logged by the caller and the handler.
+            bh.consume(ex.getMessage());
+            bh.consume(ex.getMessage());
+            return this.controller.handleException((OMError) ex).getBody();
+        }
+    }
+
+    private Object throwAt(final int frames) {
+
+        if (frames == 0) {
+            throw create();
+        }
+
+        return throwAt(frames - 1);
+    }
+
+    private TaException create() {
+
+        switch (this.mode) {
+            case "stackless":
+                return new TaDataException(MESSAGE, null, false);
+
+            case "shared":
+                return TaException.shared(OMErrorEnum.OM_DATA_INCONSISTENCY);
+
+            default:
+                return new TaDataException(MESSAGE);
+        }
+    }
+}
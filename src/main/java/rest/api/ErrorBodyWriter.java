@@ -0,0 +1,219 @@
+package rest.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+/**
+ * The Class ErrorBodyWriter, writes the error body of the handlers of {@link ErrorHdlBaseController},
+ * <code>{"errorSoruce": .., "errorCode": .., "errorMsg": ..}</code>, no JSON tree is built.
+ *
+ * <P>The constant parts of the body are encoded once, <code>{"errorSoruce":"OM",</code> for each
+ * {@link OMErrorSourceEnum} and <code>"errorCode":"OM_TIMEOUT","errorMsg":</code> for each {@link OMErrorEnum},
+ * only the error message is encoded on each error. Other sources or codes are streamed with a JsonGenerator.
+ * Thread safe.
+ *
+ * @author tonioc
+ */
+public class ErrorBodyWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * The Constant UNEXPECTED_SOURCE = {@value #UNEXPECTED_SOURCE}, source of the errors that are not an OMError.
+     */
+    public static final String UNEXPECTED_SOURCE = "om";
+
+    /**
+     * The Constant UNEXPECTED_CODE = {@value #UNEXPECTED_CODE}, code of the errors that are not an OMError.
+     */
+    public static final String UNEXPECTED_CODE = "unexpected";
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    private static final ErrorBodyWriter DEFAULT = new ErrorBodyWriter("errorSoruce", "errorCode", "errorMsg");
+
+    private final SerializableString sourceField;
+    private final SerializableString codeField;
+    private final SerializableString messageField;
+
+    // read only once built.
+    private final Map<String, byte[]> sourceTemplates = new HashMap<>();
+    private final Map<String, byte[]> codeTemplates = new HashMap<>();
+
+    /**
+     * Instantiates a new error body writer.
+     *
+     * @param sourceField the name of the error source field
+     * @param codeField the name of the error code field
+     * @param messageField the name of the error message field
+     */
+    public ErrorBodyWriter(final String sourceField, final String codeField, final String messageField) {
+        this.sourceField = new SerializedString(sourceField);
+        this.codeField = new SerializedString(codeField);
+        this.messageField = new SerializedString(messageField);
+
+        addSourceTemplate(UNEXPECTED_SOURCE);
+        addCodeTemplate(UNEXPECTED_CODE);
+
+        for (OMErrorSourceEnum source : OMErrorSourceEnum.values()) {
+            addSourceTemplate(source.getCode());
+        }
+
+        for (OMErrorEnum code : OMErrorEnum.values()) {
+            addCodeTemplate(code.getErrorCode());
+        }
+    }
+
+    /**
+     * Gets the writer of the fields of {@link ErrorHdlBaseController}.
+     *
+     * @return the error body writer
+     */
+    public static ErrorBodyWriter getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Writes the error body in UTF-8.
+     *
+     * @param errorSource the error source
+     * @param errorCode the error code
+     * @param errorMessage the error message, may be null
+     * @return the body
+     */
+    public byte[] write(final String errorSource, final String errorCode, final String errorMessage) {
+
+        byte[] source = (errorSource == null ? null : this.sourceTemplates.get(errorSource));
+        byte[] code = (errorCode == null ? null : this.codeTemplates.get(errorCode));
+
+        if (source == null  ||  code == null) {
+            return stream(errorSource, errorCode, errorMessage);
+        }
+
+        // the template, the quoted message and the closing brace.
+        boolean plain = isPlainAscii(errorMessage);
+        byte[] message = (errorMessage == null ? NULL
+                : plain ? null
+                : JsonStringEncoder.getInstance().quoteAsUTF8(errorMessage));
+        int messageLength = (plain ? errorMessage.length() : message.length);
+        int quotes = (errorMessage == null ? 0 : 2);
+
+        byte[] body = new byte[source.length + code.length + messageLength + quotes + 1];
+        int pos = 0;
+
+        System.arraycopy(source, 0, body, pos, source.length);
+        pos += source.length;
+        System.arraycopy(code, 0, body, pos, code.length);
+        pos += code.length;
+
+        if (quotes > 0) {
+            body[pos++] = '"';
+        }
+
+        if (plain) {
+            // nothing to escape, one byte per char.
+            for (int i = 0; i < messageLength; i++) {
+                body[pos++] = (byte) errorMessage.charAt(i);
+            }
+        }
+        else {
+            System.arraycopy(message, 0, body, pos, messageLength);
+            pos += messageLength;
+        }
+
+        if (quotes > 0) {
+            body[pos++] = '"';
+        }
+
+        body[pos] = '}';
+
+        return body;
+    }
+
+    /**
+     * Writes the error body of the error in UTF-8.
+     *
+     * @param error the error
+     * @return the body
+     */
+    public byte[] write(final OMError error) {
+        return write(error.getErrorSource(), error.getErrorCode(), error.getErrorMessage());
+    }
+
+    /**
+     * Writes the error body of an error that is not an OMError, see {@link #UNEXPECTED_CODE}.
+     *
+     * @param errorMessage the error message, may be null
+     * @return the body
+     */
+    public byte[] writeUnexpected(final String errorMessage) {
+        return write(UNEXPECTED_SOURCE, UNEXPECTED_CODE, errorMessage);
+    }
+
+    private void addSourceTemplate(final String source) {
+        this.sourceTemplates.put(source, utf8("{\"" + quote(this.sourceField.getValue()) + "\":\""
+                + quote(source) + "\","));
+    }
+
+    private void addCodeTemplate(final String code) {
+        this.codeTemplates.put(code, utf8("\"" + quote(this.codeField.getValue()) + "\":\""
+                + quote(code) + "\",\"" + quote(this.messageField.getValue()) + "\":"));
+    }
+
+    private byte[] stream(final String errorSource, final String errorCode, final String errorMessage) {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+
+        try (JsonGenerator gen = JSON_FACTORY.createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeFieldName(this.sourceField);
+            gen.writeString(errorSource);
+            gen.writeFieldName(this.codeField);
+            gen.writeString(errorCode);
+            gen.writeFieldName(this.messageField);
+            gen.writeString(errorMessage);
+            gen.writeEndObject();
+        }
+        catch (IOException ex) {
+            // never happens, written in memory.
+            throw new UncheckedIOException(ex);
+        }
+
+        return out.toByteArray();
+    }
+
+    private static boolean isPlainAscii(final String value) {
+
+        if (value == null) {
+            return false;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c < 0x20  ||  c > 0x7E  ||  c == '"'  ||  c == '\\') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String quote(final String value) {
+        return new String(JsonStringEncoder.getInstance().quoteAsString(value));
+    }
+
+    private static byte[] utf8(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
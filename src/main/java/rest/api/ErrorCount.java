@@ -0,0 +1,89 @@
+package rest.api;
+
+/**
+ * The Class ErrorCount, the errors of an error code, source and HTTP status,
+ * as listed by {@link ErrorTelemetry}.
+ *
+ * @author tonioc
+ */
+public final class ErrorCount {
+
+    private final String code;
+    private final String source;
+    private final int status;
+    private final long count;
+    private final double perSecond;
+
+    /**
+     * Instantiates a new error count.
+     *
+     * @param code the error code
+     * @param source the error source
+     * @param status the HTTP status
+     * @param count the errors since started
+     * @param perSecond the errors per second in the rolling window
+     */
+    public ErrorCount(final String code
+            , final String source
+            , final int status
+            , final long count
+            , final double perSecond) {
+
+        this.code = code;
+        this.source = source;
+        this.status = status;
+        this.count = count;
+        this.perSecond = perSecond;
+    }
+
+    /**
+     * Gets the error code.
+     *
+     * @return the code
+     */
+    public String getCode() {
+        return this.code;
+    }
+
+    /**
+     * Gets the error source.
+     *
+     * @return the source
+     */
+    public String getSource() {
+        return this.source;
+    }
+
+    /**
+     * Gets the HTTP status.
+     *
+     * @return the status
+     */
+    public int getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Gets the errors since started.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Gets the errors per second in the rolling window of {@link ErrorTelemetry#WINDOW_SECONDS}.
+     *
+     * @return the rate
+     */
+    public double getPerSecond() {
+        return this.perSecond;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [source: %s, status: %d, count: %d, per second: %.2f]"
+                , this.code, this.source, this.status, this.count, this.perSecond);
+    }
+}
@@ -2,52 +2,102 @@ package rest.api;
 
 import java.util.Optional;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-
 /**
  * DOCUMENT .
+ *
+ * <P>The error bodies are streamed by an {@link ErrorBodyWriter}, and the {@link ResponseStatus}
+ * of each exception class is looked up once. Every error is counted by the {@link ErrorTelemetry},
+ * subclasses overriding the handlers should call {@link #recordError(String, String, HttpStatus)}.
+ *
  * @author tonioc
  *
  */
 public class ErrorHdlBaseController {
 
-    private JsonNodeFactory jsonFactory = JsonNodeFactory.instance;
+    private static final ClassValue<Optional<HttpStatus>> STATUS_BY_CLASS = new ClassValue<Optional<HttpStatus>>() {
+        @Override
+        protected Optional<HttpStatus> computeValue(final Class<?> type) {
+
+            ResponseStatus rStatus = type.getAnnotation(ResponseStatus.class);
+
+            if (rStatus != null) {
+                return Optional.ofNullable(rStatus.code());
+            }
+
+            return Optional.empty();
+        }
+    };
+
+    /**
+     * The headers of the error responses, read only.
+     */
+    protected static final HttpHeaders JSON_HEADERS = jsonHeaders();
+
+    private final ErrorBodyWriter errorBodyWriter = ErrorBodyWriter.getDefault();
+    private volatile ErrorTelemetry errorTelemetry = ErrorTelemetry.shared();
 
     @ExceptionHandler({ TaException.class, TaCheckedException.class})
-    public ResponseEntity<JsonNode> handleException(final OMError ex) {
-
-        return ResponseEntity.status(getHttpStatusFromException((Exception) ex).orElse(HttpStatus.INTERNAL_SERVER_ERROR)).body(
-            this.jsonFactory.objectNode()
-                .put("errorSoruce", ex.getErrorSource())
-                .put("errorCode", ex.getErrorCode())
-                .put("errorMsg", ex.getErrorMessage())
-            );
+    public ResponseEntity<?> handleException(final OMError ex) {
+
+        HttpStatus status = getHttpStatusFromException((Exception) ex).orElse(HttpStatus.INTERNAL_SERVER_ERROR);
+        recordError(ex.getErrorSource(), ex.getErrorCode(), status);
+
+        return new ResponseEntity<>(this.errorBodyWriter.write(ex), JSON_HEADERS, status);
     }
 
     @ExceptionHandler({ Exception.class})
-    public ResponseEntity<JsonNode> handleException(final Exception ex) {
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
-                this.jsonFactory.objectNode()
-                    .put("errorSoruce", "om")
-                    .put("errorCode", "unexpected")
-                    .put("errorMsg", ex.getMessage())
-                );
+    public ResponseEntity<?> handleException(final Exception ex) {
+
+        recordError(ErrorBodyWriter.UNEXPECTED_SOURCE, ErrorBodyWriter.UNEXPECTED_CODE, HttpStatus.INTERNAL_SERVER_ERROR);
+
+        return new ResponseEntity<>(this.errorBodyWriter.writeUnexpected(ex.getMessage())
+                , JSON_HEADERS
+                , HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
-    protected Optional<HttpStatus> getHttpStatusFromException(final Exception ex) {
+    /**
+     * Gets the error telemetry.
+     *
+     * @return the error telemetry
+     */
+    public ErrorTelemetry getErrorTelemetry() {
+        return this.errorTelemetry;
+    }
+
+    /**
+     * Sets where the errors are counted, by default {@link ErrorTelemetry#shared()}.
+     *
+     * @param errorTelemetry the new error telemetry
+     */
+    public void setErrorTelemetry(final ErrorTelemetry errorTelemetry) {
+        this.errorTelemetry = errorTelemetry;
+    }
 
-        ResponseStatus rStatus = ex.getClass().getAnnotation(ResponseStatus.class);
+    /**
+     * Counts an error in the error telemetry.
+     *
+     * @param errorSource the error source
+     * @param errorCode the error code
+     * @param status the HTTP status of the response
+     */
+    protected void recordError(final String errorSource, final String errorCode, final HttpStatus status) {
+        this.errorTelemetry.record(errorSource, errorCode, status.value());
+    }
 
-        if (rStatus != null) {
-            return Optional.ofNullable(rStatus.code());
-        }
+    protected Optional<HttpStatus> getHttpStatusFromException(final Exception ex) {
+        return STATUS_BY_CLASS.get(ex.getClass());
+    }
 
-        return Optional.empty();
+    private static HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
     }
 }
@@ -7,9 +7,6 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-
 /**
  * DOCUMENT .
  * @author tonioc
@@ -19,16 +16,17 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 @RequestMapping("eh2")
 public class ErrorHdlInheritedRestController extends ErrorHdlBaseController {
 
+    private static final ErrorBodyWriter TA_ERROR_BODY_WRITER =
+            new ErrorBodyWriter("taErrorSoruce", "taErrorCode", "taErrorMsg");
+
     @Override
     @ExceptionHandler({ TaException.class, TaCheckedException.class})
-    public ResponseEntity<JsonNode> handleException(final OMError ex) {
-
-        return ResponseEntity.status(getHttpStatusFromException((Exception) ex).orElse(HttpStatus.INTERNAL_SERVER_ERROR)).body(
-            JsonNodeFactory.instance.objectNode()
-                .put("taErrorSoruce", ex.getErrorSource())
-                .put("taErrorCode", ex.getErrorCode())
-                .put("taErrorMsg", ex.getErrorMessage())
-            );
+    public ResponseEntity<?> handleException(final OMError ex) {
+
+        HttpStatus status = getHttpStatusFromException((Exception) ex).orElse(HttpStatus.INTERNAL_SERVER_ERROR);
+        recordError(ex.getErrorSource(), ex.getErrorCode(), status);
+
+        return new ResponseEntity<>(TA_ERROR_BODY_WRITER.write(ex), JSON_HEADERS, status);
     }
 
     @GetMapping("/unexpected")
@@ -0,0 +1,350 @@
+package rest.api;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang3.Validate;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * The Class ErrorTelemetry, counts the errors handled by {@link ErrorHdlBaseController} by error code,
+ * error source and HTTP status, with their rate in a rolling window of {@link #WINDOW_SECONDS}.
+ *
+ * <P>Recording an error never allocates once its code, source and status were seen, counters are
+ * LongAdders and the window a ring of packed second and count. Up to {@link #MAX_KEYS} codes and sources
+ * are kept, the rest are counted under {@value #OTHER_KEY}.
+ *
+ * <P>The counts are listed in JMX with {@link #registerMBean()}, and are meters once bound to a registry:
+ * <ul>
+ * <li>{@value #ERRORS} - FunctionCounter, tags <i>code</i>, <i>source</i> and <i>status</i>
+ * </ul>
+ *
+ * @author tonioc
+ */
+public class ErrorTelemetry implements ErrorTelemetryMXBean, MeterBinder {
+
+    /**
+     * The Constant ERRORS = {@value}.
+     */
+    public static final String ERRORS = "reliant.api.errors";
+
+    /**
+     * The Constant WINDOW_SECONDS = {@value}, the rolling window of the rates.
+     */
+    public static final int WINDOW_SECONDS = 60;
+
+    /**
+     * The Constant DEFAULT_TOP = {@value}, error codes listed in {@link #getTopErrors()}.
+     */
+    public static final int DEFAULT_TOP = 10;
+
+    /**
+     * The Constant MAX_KEYS = {@value}, max code and source pairs counted on their own.
+     */
+    public static final int MAX_KEYS = 1024;
+
+    /**
+     * The Constant OTHER_KEY = {@value}, code and source of the errors beyond {@link #MAX_KEYS}.
+     */
+    public static final String OTHER_KEY = "*";
+
+    /**
+     * The Constant OBJECT_NAME = {@value}, name of the MBean.
+     */
+    public static final String OBJECT_NAME = "rest.api:type=ErrorTelemetry";
+
+    private static final String NONE = "none";
+
+    private static final int MIN_STATUS = 100;
+    private static final int MAX_STATUS = 599;
+
+    private static final ErrorTelemetry SHARED = new ErrorTelemetry();
+
+    // code -> source -> cells by status.
+    private final ConcurrentMap<String, ConcurrentMap<String, AtomicReferenceArray<ErrorCell>>> cells =
+            new ConcurrentHashMap<>();
+    private final AtomicInteger keys = new AtomicInteger();
+
+    private final CompositeMeterRegistry registry = new CompositeMeterRegistry();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Instantiates a new error telemetry, not registered in JMX nor bound to any registry.
+     */
+    public ErrorTelemetry() {
+        super();
+    }
+
+    /**
+     * Gets the telemetry shared by the controllers.
+     *
+     * @return the error telemetry
+     */
+    public static ErrorTelemetry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Records an error.
+     *
+     * @param source the error source
+     * @param code the error code
+     * @param status the HTTP status
+     */
+    public void record(final String source, final String code, final int status) {
+        cell(source, code, status).record(currentSecond());
+    }
+
+    @Override
+    public long getTotalErrors() {
+        return allCells().stream()
+                .mapToLong(cell -> cell.total.sum())
+                .sum();
+    }
+
+    @Override
+    public double getErrorsPerSecond() {
+
+        long second = currentSecond();
+
+        return allCells().stream()
+                .mapToDouble(cell -> cell.perSecond(second))
+                .sum();
+    }
+
+    @Override
+    public List<ErrorCount> getTopErrors() {
+        return topErrors(DEFAULT_TOP);
+    }
+
+    @Override
+    public List<ErrorCount> topErrors(final int max) {
+
+        long second = currentSecond();
+
+        return allCells().stream()
+                .map(cell -> new ErrorCount(cell.code, cell.source, cell.status, cell.total.sum(), cell.perSecond(second)))
+                .sorted(Comparator.comparingLong(ErrorCount::getCount).reversed())
+                .limit(max)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Registers the MBean in the platform MBean server as {@value #OBJECT_NAME}, if not registered yet.
+     *
+     * @return true, if registered by this call
+     */
+    public boolean registerMBean() {
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+
+            if (server.isRegistered(name)) {
+                return false;
+            }
+
+            server.registerMBean(this, name);
+            return true;
+        }
+        catch (JMException ex) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, ex);
+        }
+    }
+
+    /**
+     * Unregisters the MBean {@value #OBJECT_NAME}, if registered.
+     */
+    public void unregisterMBean() {
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+        catch (JMException ex) {
+            throw new IllegalStateException("Could not unregister " + OBJECT_NAME, ex);
+        }
+    }
+
+    /**
+     * Binds to a registry, meters already created are registered there too.
+     *
+     * @param meterRegistry the meter registry
+     */
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        Validate.notNull(meterRegistry, "meterRegistry should not be null");
+        this.registry.add(meterRegistry);
+    }
+
+    /**
+     * Unbinds from a registry, the meters already registered there are kept but no new ones are added.
+     *
+     * @param meterRegistry the meter registry
+     */
+    public void unbindFrom(final MeterRegistry meterRegistry) {
+        Validate.notNull(meterRegistry, "meterRegistry should not be null");
+        this.registry.remove(meterRegistry);
+    }
+
+    private ErrorCell cell(final String source, final String code, final int status) {
+
+        String codeKey = (code == null ? NONE : code);
+        String sourceKey = (source == null ? NONE : source);
+        int index = (status < MIN_STATUS  ||  status > MAX_STATUS ? 0 : status - MIN_STATUS);
+
+        AtomicReferenceArray<ErrorCell> byStatus = byStatus(codeKey, sourceKey);
+        ErrorCell cell = byStatus.get(index);
+
+        if (cell == null) {
+            cell = createCell(byStatus, index, codeKey, sourceKey, status);
+        }
+
+        return cell;
+    }
+
+    private AtomicReferenceArray<ErrorCell> byStatus(final String code, final String source) {
+
+        ConcurrentMap<String, AtomicReferenceArray<ErrorCell>> bySource = this.cells.get(code);
+
+        if (bySource != null) {
+            AtomicReferenceArray<ErrorCell> byStatus = bySource.get(source);
+
+            if (byStatus != null) {
+                return byStatus;
+            }
+        }
+
+        // a new code and source, counted as other if too many.
+        if (this.keys.get() >= MAX_KEYS  &&  !OTHER_KEY.equals(code)) {
+            return byStatus(OTHER_KEY, OTHER_KEY);
+        }
+
+        return this.cells.computeIfAbsent(code, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(source, k -> {
+                    this.keys.incrementAndGet();
+                    return new AtomicReferenceArray<>(MAX_STATUS - MIN_STATUS + 1);
+                });
+    }
+
+    private ErrorCell createCell(final AtomicReferenceArray<ErrorCell> byStatus
+            , final int index
+            , final String code
+            , final String source
+            , final int status) {
+
+        ErrorCell cell = new ErrorCell(code, source, status);
+
+        if (!byStatus.compareAndSet(index, null, cell)) {
+            return byStatus.get(index);
+        }
+
+        FunctionCounter.builder(ERRORS, cell.total, LongAdder::sum)
+                .tag("code", code)
+                .tag("source", source)
+                .tag("status", Integer.toString(status))
+                .description("Errors handled")
+                .register(this.registry);
+
+        return cell;
+    }
+
+    private List<ErrorCell> allCells() {
+
+        List<ErrorCell> all = new ArrayList<>();
+
+        for (Map<String, AtomicReferenceArray<ErrorCell>> bySource : this.cells.values()) {
+            for (AtomicReferenceArray<ErrorCell> byStatus : bySource.values()) {
+                for (int i = 0; i < byStatus.length(); i++) {
+                    ErrorCell cell = byStatus.get(i);
+
+                    if (cell != null) {
+                        all.add(cell);
+                    }
+                }
+            }
+        }
+
+        return all;
+    }
+
+    private long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - this.startNanos);
+    }
+
+    /**
+     * The counters of an error code, source and status.
+     */
+    private static final class ErrorCell {
+
+        private final String code;
+        private final String source;
+        private final int status;
+        private final LongAdder total = new LongAdder();
+
+        // one bucket per second of the window, high bits the second, low 32 bits the count.
+        private final AtomicLongArray window = new AtomicLongArray(WINDOW_SECONDS);
+
+        ErrorCell(final String code, final String source, final int status) {
+            this.code = code;
+            this.source = source;
+            this.status = status;
+        }
+
+        void record(final long second) {
+
+            this.total.increment();
+
+            int index = (int) (second % WINDOW_SECONDS);
+
+            while (true) {
+                long current = this.window.get(index);
+                long next = ((current >>> 32) == second ? current + 1 : (second << 32) | 1);
+
+                if (this.window.compareAndSet(index, current, next)) {
+                    return;
+                }
+            }
+        }
+
+        double perSecond(final long second) {
+
+            long count = 0;
+
+            for (int i = 0; i < WINDOW_SECONDS; i++) {
+                long bucket = this.window.get(i);
+
+                if (second - (bucket >>> 32) < WINDOW_SECONDS) {
+                    count += bucket & 0xFFFFFFFFL;
+                }
+            }
+
+            return (double) count / WINDOW_SECONDS;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package rest.api;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The Class ErrorTelemetryConfiguration, the {@link ErrorTelemetry} of the controllers as a bean,
+ * bound to the meter registry of the context when there is a single or primary one, and in JMX
+ * as {@value ErrorTelemetry#OBJECT_NAME} while the context is running.
+ *
+ * <P>The telemetry is {@link ErrorTelemetry#shared()}, it is unbound from the registry when the context
+ * is closed.
+ *
+ * @author tonioc
+ */
+@Configuration
+public class ErrorTelemetryConfiguration implements DisposableBean {
+
+    private volatile ErrorTelemetry boundTelemetry;
+    private volatile MeterRegistry boundRegistry;
+
+    @Bean(destroyMethod = "unregisterMBean")
+    public ErrorTelemetry errorTelemetry(final ObjectProvider<MeterRegistry> meterRegistry) {
+        ErrorTelemetry telemetry = ErrorTelemetry.shared();
+        telemetry.registerMBean();
+
+        MeterRegistry registry = meterRegistry.getIfUnique();
+
+        if (registry != null) {
+            telemetry.bindTo(registry);
+            this.boundTelemetry = telemetry;
+            this.boundRegistry = registry;
+        }
+
+        return telemetry;
+    }
+
+    @Override
+    public void destroy() {
+
+        if (this.boundRegistry != null) {
+            this.boundTelemetry.unbindFrom(this.boundRegistry);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package rest.api;
+
+import java.util.List;
+
+/**
+ * The Interface ErrorTelemetryMXBean, the error counts of {@link ErrorTelemetry} in JMX.
+ *
+ * @author tonioc
+ */
+public interface ErrorTelemetryMXBean {
+
+    /**
+     * Gets the errors since started.
+     *
+     * @return the total
+     */
+    long getTotalErrors();
+
+    /**
+     * Gets the errors per second in the rolling window.
+     *
+     * @return the rate
+     */
+    double getErrorsPerSecond();
+
+    /**
+     * Gets the {@link ErrorTelemetry#DEFAULT_TOP} error codes with most errors.
+     *
+     * @return the top errors
+     */
+    List<ErrorCount> getTopErrors();
+
+    /**
+     * The error codes with most errors.
+     *
+     * @param max the max error codes listed
+     * @return the top errors
+     */
+    List<ErrorCount> topErrors(int max);
+}
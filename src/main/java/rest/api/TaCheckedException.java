@@ -19,6 +19,9 @@ public class TaCheckedException extends Exception implements OMError {
     private String errorSource;
     private String friendlyMessage;
 
+    // getMessage() formatted once, until the error code changes.
+    private transient volatile String formattedMessage;
+
 
     /**
      * Instantiates a new ta exception.
@@ -58,9 +61,37 @@ public class TaCheckedException extends Exception implements OMError {
         super(pMessage, pCause);
     }
 
+    /**
+     * Instantiates a new ta exception, with or without stack trace.
+     *
+     * <P>For expected errors, as data errors, the stack trace is not needed and filling it
+     * is most of the cost of the exception, {@link #getStackTrace()} is then empty, and
+     * suppressed exceptions are not recorded.
+     *
+     * @param pMessage the message
+     * @param pCause the cause, may be null
+     * @param writableStackTrace false to create it without stack trace
+     */
+    public TaCheckedException(final String pMessage, final Throwable pCause, final boolean writableStackTrace) {
+        super(pMessage, pCause, writableStackTrace, writableStackTrace);
+    }
+
+    /**
+     * The message with the error code, <code>[errorCode] message</code>, formatted on the first call.
+     *
+     * @return the message
+     */
     @Override
     public String getMessage() {
-        return String.format("[%s] %s", getErrorCodeOrDefaultOMCode(), super.getMessage());
+
+        String message = this.formattedMessage;
+
+        if (message == null) {
+            message = "[" + getErrorCodeOrDefaultOMCode() + "] " + super.getMessage();
+            this.formattedMessage = message;
+        }
+
+        return message;
     }
 
     /**
@@ -97,6 +128,7 @@ public class TaCheckedException extends Exception implements OMError {
     public TaCheckedException withError(final String errorCode, final String errorMessage) {
         this.errorCode = errorCode;
         this.errorMessage = errorMessage;
+        this.formattedMessage = null;
         return this;
     }
 
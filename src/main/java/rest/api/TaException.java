@@ -1,5 +1,7 @@
 package rest.api;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
 
 import org.apache.commons.lang3.StringUtils;
@@ -19,6 +21,12 @@ public class TaException extends RuntimeException implements OMError {
     private String errorSource;
     private String friendlyMessage;
 
+    // getMessage() formatted once, until the error code changes.
+    private transient volatile String formattedMessage;
+
+    // shared instances can not be changed.
+    private transient boolean frozen;
+
 
     /**
      * Instantiates a new ta exception.
@@ -58,9 +66,51 @@ public class TaException extends RuntimeException implements OMError {
         super(pMessage, pCause);
     }
 
+    /**
+     * Instantiates a new ta exception, with or without stack trace.
+     *
+     * <P>For expected errors, as data errors, the stack trace is not needed and filling it
+     * is most of the cost of the exception, {@link #getStackTrace()} is then empty, and as
+     * in the shared instances suppressed exceptions are not recorded.
+     *
+     * @param pMessage the message
+     * @param pCause the cause, may be null
+     * @param writableStackTrace false to create it without stack trace
+     */
+    public TaException(final String pMessage, final Throwable pCause, final boolean writableStackTrace) {
+        super(pMessage, pCause, writableStackTrace, writableStackTrace);
+    }
+
+    /**
+     * Gets the shared instance of a constant error, without stack trace and immutable, its
+     * <i>with</i> methods throw UnsupportedOperationException.
+     *
+     * <P>Its message is the description of the error code, and its class the one of the code,
+     * {@link TaDataException}, {@link TaConfigException}, {@link TaUnexpectedException} or TaException.
+     *
+     * @param errorCode the error code
+     * @return the shared ta exception
+     */
+    public static TaException shared(final OMErrorEnum errorCode) {
+        return SharedErrors.ERRORS.get(errorCode);
+    }
+
+    /**
+     * The message with the error code, <code>[errorCode] message</code>, formatted on the first call.
+     *
+     * @return the message
+     */
     @Override
     public String getMessage() {
-        return String.format("[%s] %s", getErrorCodeOrDefaultOMCode(), super.getMessage());
+
+        String message = this.formattedMessage;
+
+        if (message == null) {
+            message = "[" + getErrorCodeOrDefaultOMCode() + "] " + super.getMessage();
+            this.formattedMessage = message;
+        }
+
+        return message;
     }
 
     /**
@@ -95,8 +145,10 @@ public class TaException extends RuntimeException implements OMError {
      * @return the ta exception
      */
     public TaException withError(final String errorCode, final String errorMessage) {
+        checkNotFrozen();
         this.errorCode = errorCode;
         this.errorMessage = errorMessage;
+        this.formattedMessage = null;
         return this;
     }
 
@@ -119,6 +171,7 @@ public class TaException extends RuntimeException implements OMError {
      * @return the ta exception
      */
     public TaException withErrorSource(final OMErrorSourceEnum errorSource) {
+        checkNotFrozen();
         this.errorSource = errorSource.getCode();
         return this;
     }
@@ -178,7 +231,56 @@ public class TaException extends RuntimeException implements OMError {
      * @return the ta exception
      */
     public TaException withFriendlyMessage(final String friendlyMsg) {
+        checkNotFrozen();
         this.friendlyMessage = friendlyMsg;
         return this;
     }
+
+    private void checkNotFrozen() {
+        if (this.frozen) {
+            throw new UnsupportedOperationException("Shared TaException " + getErrorCode() + " can not be changed");
+        }
+    }
+
+    /**
+     * The shared instances, created on the first use.
+     */
+    private static final class SharedErrors {
+
+        private static final Map<OMErrorEnum, TaException> ERRORS = new EnumMap<>(OMErrorEnum.class);
+
+        static {
+            for (OMErrorEnum code : OMErrorEnum.values()) {
+
+                String message = code.getErrorDescription();
+                TaException ex;
+
+                switch (code) {
+                    case OM_DATA_INCONSISTENCY:
+                    case OM_LEGACY_DATA_INCONSISTENCY:
+                        ex = new TaDataException(message, null, false);
+                        break;
+
+                    case OM_CONFIG_ERROR:
+                        ex = new TaConfigException(message, null, false);
+                        break;
+
+                    case OM_UNEXPECTED:
+                    case OM_LEGACY_UNEXPECTED:
+                        ex = new TaUnexpectedException(message, null, false);
+                        break;
+
+                    default:
+                        ex = new TaException(message, null, false);
+                        break;
+                }
+
+                ex.withErrorSource(OMErrorSourceEnum.OM);
+                ex.withErrorCode(code);
+                ex.frozen = true;
+
+                ERRORS.put(code, ex);
+            }
+        }
+    }
 }
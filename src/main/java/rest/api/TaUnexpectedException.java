@@ -56,4 +56,16 @@ public class TaUnexpectedException extends TaException {
         super(pMessage, pCause);
     }
 
+    /**
+     * Instantiates a new ta unexpected exception, with or without stack trace,
+     * see {@link TaException#TaException(String, Throwable, boolean)}.
+     *
+     * @param pMessage the message
+     * @param pCause the cause, may be null
+     * @param writableStackTrace false to create it without stack trace
+     */
+    public TaUnexpectedException(final String pMessage, final Throwable pCause, final boolean writableStackTrace) {
+        super(pMessage, pCause, writableStackTrace);
+    }
+
 }
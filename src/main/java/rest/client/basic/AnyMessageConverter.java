@@ -1,8 +1,7 @@
 package rest.client.basic;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Optional;
@@ -17,6 +16,9 @@ import org.springframework.http.converter.AbstractHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 
+import rest.client.buffer.BufferPool;
+import rest.client.diagnostic.DiagnosticSink;
+
 /**
  * DOCUMENT .
  * @author tonioc
@@ -27,10 +29,46 @@ public class AnyMessageConverter extends AbstractHttpMessageConverter<Object> {
     private static final Logger log = LoggerFactory.getLogger(AnyMessageConverter.class);
 
     /**
-     * Constructor.
+     * The Constant MAX_SHOWN_BYTES = {@value #MAX_SHOWN_BYTES}.
+     */
+    public static final int MAX_SHOWN_BYTES = 240;
+
+    private final BufferPool pool;
+    private volatile DiagnosticSink diagnosticSink = DiagnosticSink.shared();
+
+    /**
+     * Constructor, the body is read in a buffer of the {@link BufferPool#shared()} pool.
      */
     public AnyMessageConverter() {
+        this(BufferPool.shared());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pool the pool of the buffer where the body is read
+     */
+    public AnyMessageConverter(final BufferPool pool) {
         super(MediaType.ALL);
+        this.pool = pool;
+    }
+
+    /**
+     * Gets the diagnostic sink.
+     *
+     * @return the diagnostic sink
+     */
+    public DiagnosticSink getDiagnosticSink() {
+        return this.diagnosticSink;
+    }
+
+    /**
+     * Sets the sink where the unexpected bodies are reported, by default {@link DiagnosticSink#shared()}.
+     *
+     * @param diagnosticSink the new diagnostic sink
+     */
+    public void setDiagnosticSink(final DiagnosticSink diagnosticSink) {
+        this.diagnosticSink = diagnosticSink;
     }
 
     @Override
@@ -43,39 +81,40 @@ public class AnyMessageConverter extends AbstractHttpMessageConverter<Object> {
             throws IOException, HttpMessageNotReadableException {
 
         List<String> list = inputMessage.getHeaders().get(HttpHeaders.CONTENT_TYPE);
-        log.error("An un-managed media type arrived {} here is the content: ", list);
-
-        try (InputStreamReader reader = new InputStreamReader(inputMessage.getBody(), getCharset(inputMessage));
-             BufferedReader br = new BufferedReader(reader)) {
+        byte[] buffer = this.pool.acquire(MAX_SHOWN_BYTES + 1);
 
+        try {
+            InputStream body = inputMessage.getBody();
             int count = 0;
-            char[] chars = new char[80];
 
             do {
 
-                int charsRead = reader.read(chars);
-                if (charsRead == -1) {
+                int bytesRead = body.read(buffer, count, MAX_SHOWN_BYTES + 1 - count);
+                if (bytesRead == -1) {
                     break;
                 }
 
-                count += charsRead;
-                if (count > 240) {
-                    System.out.println("...");
-                    break;
-                }
-
-                System.out.print(new String(chars, 0, charsRead));
-
+                count += bytesRead;
             }
-            while (true);
-
-            System.out.println();
-            System.out.flush();
-
+            while (count <= MAX_SHOWN_BYTES);
+
+            // never printed here, under an incident every thread would wait on the output.
+            this.diagnosticSink.report(log
+                    , ReliantRestClientBodyInterceptor.currentHost()
+                    , list
+                    , (count > MAX_SHOWN_BYTES
+                            ? "An un-managed media type arrived, here are the first bytes of the content: "
+                            : "An un-managed media type arrived, here is the content: ")
+                    , buffer
+                    , Math.min(count, MAX_SHOWN_BYTES)
+                    , getCharset(inputMessage));
         }
         catch (Exception ex) {
             log.error("Could not transform input to String, body will not be shown", ex);
         }
+        finally {
+            this.pool.release(buffer);
+        }
 
         throw new HttpMessageNotReadableException("AnyConverter is used when no suitable converter is"
                 + " available, probably because an unexpected mediaType arrived."
@@ -0,0 +1,99 @@
+package rest.client.basic;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * The Class AsyncBackOff, back offs of asynchronous retries: instead of sleeping, the back off period
+ * is captured and the next attempt scheduled in a timer shared by all clients, no thread is kept waiting.
+ *
+ * <P>Used by {@link rest.client.strict.StrictRestClient#executeAsync(java.util.function.Function)} and by
+ * the <i>enqueue()</i> of the Retrofit calls.
+ *
+ * @author tonioc
+ */
+public final class AsyncBackOff {
+
+    /**
+     * Timer shared by all clients, it only hands attempts back to their executors.
+     */
+    private static final ScheduledThreadPoolExecutor RETRY_TIMER = createTimer();
+
+    /**
+     * The back off period requested in the current thread, instead of sleeping.
+     */
+    private static final ThreadLocal<long[]> BACK_OFF_PERIOD = ThreadLocal.withInitial(() -> new long[1]);
+
+    private static final Sleeper BACK_OFF_PERIOD_CAPTURE = period -> BACK_OFF_PERIOD.get()[0] = period;
+
+    /**
+     * Instantiates a new async back off.
+     */
+    private AsyncBackOff() {
+    }
+
+    /**
+     * Copy of the back off policy that does not sleep, it captures the back off period
+     * to schedule the next attempt, when the policy is not a {@link SleepingBackOffPolicy} it
+     * is returned as it is, and waits in the thread calling {@link #backOff(BackOffPolicy, BackOffContext)}.
+     *
+     * @param backOffPolicy the back off policy
+     * @return the back off policy to use with {@link #backOff(BackOffPolicy, BackOffContext)}
+     */
+    public static BackOffPolicy toAsyncBackOffPolicy(final BackOffPolicy backOffPolicy) {
+        return (backOffPolicy instanceof SleepingBackOffPolicy
+                ? ((SleepingBackOffPolicy<?>) backOffPolicy).withSleeper(BACK_OFF_PERIOD_CAPTURE)
+                : backOffPolicy);
+    }
+
+    /**
+     * Backs off, capturing the period instead of sleeping.
+     *
+     * @param backOffPolicy the back off policy, as returned by {@link #toAsyncBackOffPolicy(BackOffPolicy)}
+     * @param backOffContext the back off context
+     * @return the back off period in milliseconds, 0 or less to retry right away
+     * @throws RuntimeException if the policy fails, ex. BackOffInterruptedException
+     */
+    public static long backOff(final BackOffPolicy backOffPolicy, final BackOffContext backOffContext) {
+
+        long[] period = BACK_OFF_PERIOD.get();
+        period[0] = 0L;
+        backOffPolicy.backOff(backOffContext);
+
+        return period[0];
+    }
+
+    /**
+     * Schedules the next attempt in the shared timer.
+     *
+     * @param attempt the attempt, should only hand it to its executor
+     * @param periodMillis the back off period in milliseconds
+     * @return the future, cancelling it cancels the back off
+     */
+    public static Future<?> schedule(final Runnable attempt, final long periodMillis) {
+        return RETRY_TIMER.schedule(attempt, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates the timer.
+     *
+     * @return the scheduled thread pool executor
+     */
+    private static ScheduledThreadPoolExecutor createTimer() {
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("reliant-retry-timer-");
+        threadFactory.setDaemon(true);
+
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, threadFactory);
+        timer.setRemoveOnCancelPolicy(true);
+
+        return timer;
+    }
+}
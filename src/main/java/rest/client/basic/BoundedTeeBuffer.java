@@ -0,0 +1,92 @@
+package rest.client.basic;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * The Class BoundedTeeBuffer, receives a copy of the bytes read from a response body
+ * and keeps only the first <i>limit</i> bytes, the rest are counted and discarded.
+ *
+ * <P>One instance per thread is re-used by all the calls done in that thread,
+ * every call starts a new generation, so a capture taken from a previous generation
+ * can tell its bytes were overwritten.
+ *
+ * @author tonioc
+ */
+final class BoundedTeeBuffer extends OutputStream {
+
+    private static final ThreadLocal<BoundedTeeBuffer> BUFFERS = ThreadLocal.withInitial(BoundedTeeBuffer::new);
+
+    private byte[] data = new byte[0];
+    private int limit;
+    private int length;
+    private long total;
+    private long generation;
+
+    /**
+     * Gets the buffer of the current thread.
+     *
+     * @return the bounded tee buffer
+     */
+    static BoundedTeeBuffer current() {
+        return BUFFERS.get();
+    }
+
+    /**
+     * Starts a new capture, discarding the previous one.
+     *
+     * @param maxBytes the max bytes to keep
+     * @return the generation of this capture
+     */
+    long reset(final int maxBytes) {
+
+        if (this.data.length < maxBytes) {
+            this.data = new byte[maxBytes];
+        }
+
+        this.limit = maxBytes;
+        this.length = 0;
+        this.total = 0;
+        return ++this.generation;
+    }
+
+    @Override
+    public void write(final int b) {
+        this.total++;
+
+        if (this.length < this.limit) {
+            this.data[this.length++] = (byte) b;
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+        this.total += len;
+
+        int toCopy = Math.min(len, this.limit - this.length);
+
+        if (toCopy > 0) {
+            System.arraycopy(b, off, this.data, this.length, toCopy);
+            this.length += toCopy;
+        }
+    }
+
+    /**
+     * Copy of the captured bytes, only if still in the given generation.
+     *
+     * @param captureGeneration the generation returned by {@link #reset(int)}
+     * @return the bytes or null if the buffer was re-used by another call
+     */
+    byte[] copyOf(final long captureGeneration) {
+        return (captureGeneration == this.generation ? Arrays.copyOf(this.data, this.length) : null);
+    }
+
+    /**
+     * Checks if more bytes were read than captured.
+     *
+     * @return true, if truncated
+     */
+    boolean isTruncated() {
+        return this.total > this.length;
+    }
+}
@@ -0,0 +1,34 @@
+package rest.client.basic;
+
+import java.net.URI;
+
+/**
+ * The Class Hosts, the key used to keep state per host (circuit breakers, retry budgets...).
+ *
+ * @author tonioc
+ */
+public final class Hosts {
+
+    /**
+     * Instantiates a new hosts.
+     */
+    private Hosts() {
+    }
+
+    /**
+     * The host key of an URI, <i>host:port</i>, the default port of the scheme is used if none.
+     *
+     * @param uri the uri
+     * @return the host
+     */
+    public static String hostOf(final URI uri) {
+
+        int port = uri.getPort();
+
+        if (port < 0) {
+            port = ("https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80);
+        }
+
+        return uri.getHost() + ":" + port;
+    }
+}
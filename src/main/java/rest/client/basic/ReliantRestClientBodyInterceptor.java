@@ -1,32 +1,81 @@
 package rest.client.basic;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.charset.Charset;
-import java.util.Arrays;
 import java.util.Optional;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+import rest.client.diagnostic.DiagnosticSink;
 
 /**
  * When an HttpMessageNotReadableException is thrown by RestTemplate, for example none
  * parsable Json, the body of the message is lost, need that for log info.
  *
- * <P>To be able to do this you need to use <i>BufferingClientHttpRequestFactory</i> so
- * getBody() InputStream is not traversed here, and lost during the next phase of processing.
+ * <P>The body is not buffered, it is streamed to the message converters, while they read
+ * it the first {@link #getMaxCaptureBytes()} bytes are copied to a buffer of the current thread,
+ * re-used by every call done in that thread. Only when the body is requested (a failure
+ * is being logged) those bytes are copied to a {@link ResponseBodyCapture}.
+ *
+ * <P>The same interceptor is shared by all the calls of a RestTemplate, so the body is not kept
+ * in this instance, the capture is stored in the RetryContext of the current call
+ * (see {@link RetrySynchronizationManager}), under the {@link #RESPONSE_BODY_ATTRIBUTE} attribute,
+ * each attempt replaces the capture of the previous one. When there is no RetryContext
+ * (RestTemplate not called inside a RetryTemplate) nothing is captured.
+ *
+ * <P>The capture should be requested in the same thread, before it makes another call,
+ * after that the buffer is re-used and the capture is no longer available.
+ *
+ * <P>Captures are logged with {@link #report(Logger, String, ResponseBodyCapture)} through a
+ * {@link DiagnosticSink}, sampled per host and media type, the calling thread never waits for the log.
  *
  */
 public class ReliantRestClientBodyInterceptor implements ClientHttpRequestInterceptor {
 
-    private byte[] responseBody;
-    private Charset charset;
+    /**
+     * The RetryContext attribute where the capture is stored.
+     */
+    public static final String RESPONSE_BODY_ATTRIBUTE = "reliant.responseBody";
 
     /**
-     * Intercept and store the message in this instance.
+     * The Constant DEFAULT_MAX_CAPTURE_BYTES = {@value #DEFAULT_MAX_CAPTURE_BYTES}.
+     */
+    public static final int DEFAULT_MAX_CAPTURE_BYTES = 8 * 1024;
+
+    private volatile int maxCaptureBytes;
+    private volatile DiagnosticSink diagnosticSink = DiagnosticSink.shared();
+
+    /**
+     * Instantiates a new interceptor capturing up to {@link #DEFAULT_MAX_CAPTURE_BYTES}.
+     */
+    public ReliantRestClientBodyInterceptor() {
+        this(DEFAULT_MAX_CAPTURE_BYTES);
+    }
+
+    /**
+     * Instantiates a new interceptor.
+     *
+     * @param maxCaptureBytes the max bytes of the body captured for logging
+     */
+    public ReliantRestClientBodyInterceptor(final int maxCaptureBytes) {
+        setMaxCaptureBytes(maxCaptureBytes);
+    }
+
+    /**
+     * Intercept and register the capture of the message in the current RetryContext.
      *
      * @param request the request
      * @param body the body
@@ -39,44 +88,132 @@ public class ReliantRestClientBodyInterceptor implements ClientHttpRequestInterc
             , final byte[] body
             , final ClientHttpRequestExecution execution) throws IOException {
 
+        RetryContext context = RetrySynchronizationManager.getContext();
+
+        if (context == null) {
+            return execution.execute(request, body);
+        }
+
+        // a previous attempt body should never be shown for this one.
+        context.removeAttribute(RESPONSE_BODY_ATTRIBUTE);
+
         ClientHttpResponse response = execution.execute(request, body);
-        this.responseBody = null;
-        this.responseBody = IOUtils.toByteArray(response.getBody());
-        this.charset = getCharset(response);
 
-        return response;
+        BoundedTeeBuffer buffer = BoundedTeeBuffer.current();
+        long generation = buffer.reset(this.maxCaptureBytes);
+        context.setAttribute(RESPONSE_BODY_ATTRIBUTE, new PendingCapture(buffer, generation, getCharset(response)
+                , request.getURI(), response.getHeaders().getContentType()));
+
+        return new TeeClientHttpResponse(response, buffer);
+    }
+
+    /**
+     * Gets the max bytes of the body captured for logging.
+     *
+     * @return the max capture bytes
+     */
+    public int getMaxCaptureBytes() {
+        return this.maxCaptureBytes;
     }
 
+    /**
+     * Sets the max bytes of the body captured for logging, applies to the calls started after this one.
+     *
+     * @param maxCaptureBytes the new max capture bytes, greater or equal 0
+     */
+    public void setMaxCaptureBytes(final int maxCaptureBytes) {
+        Validate.isTrue(maxCaptureBytes >= 0, "maxCaptureBytes should not be negative");
+        this.maxCaptureBytes = maxCaptureBytes;
+    }
 
     /**
-     * Gets the response body.
+     * Gets the diagnostic sink.
      *
-     * @return the response body
+     * @return the diagnostic sink
      */
-    public byte[] getResponseBody() {
-        return this.responseBody;
+    public DiagnosticSink getDiagnosticSink() {
+        return this.diagnosticSink;
     }
 
     /**
-     * Gets the response body as string, if not able to convert to String will send
-     * the byte array.
+     * Sets the sink where the captures are reported, by default {@link DiagnosticSink#shared()}.
      *
-     * @return the response body as string
+     * @param diagnosticSink the new diagnostic sink
      */
-    public String getResponseBodyAsString() {
+    public void setDiagnosticSink(final DiagnosticSink diagnosticSink) {
+        Validate.notNull(diagnosticSink, "diagnosticSink should not be null");
+        this.diagnosticSink = diagnosticSink;
+    }
 
-        if (this.responseBody == null) {
-            return "";
-        }
+    /**
+     * Reports the capture to the diagnostic sink, logged later in the logger if not dropped.
+     *
+     * @param logger the logger
+     * @param message the message, followed by the body
+     * @param capture the capture
+     * @return true, if accepted by the sink
+     */
+    public boolean report(final Logger logger, final String message, final ResponseBodyCapture capture) {
+        return this.diagnosticSink.report(logger
+                , capture.getHost()
+                , capture.getMediaType()
+                , (capture.isTruncated() ? message + "(first " + capture.getBody().length + " bytes) " : message)
+                , capture.getBody()
+                , capture.getBody().length
+                , capture.getCharset());
+    }
 
-        try {
-            return new String(this.responseBody, this.charset);
-        }
-        catch (Exception ex) {
-            // Not able to transform to String,  send bytes
-            return "Cannot convert byte[] to String, hera are the bytes: " + Arrays.toString(this.responseBody);
+    /**
+     * The host of the response being read in the current call, for the diagnostics of the converters.
+     *
+     * @return the host, or null if not inside a call
+     */
+    static String currentHost() {
+
+        RetryContext context = RetrySynchronizationManager.getContext();
+        PendingCapture capture = (context == null ? null : (PendingCapture) context.getAttribute(RESPONSE_BODY_ATTRIBUTE));
+
+        return (capture == null ? null : Hosts.hostOf(capture.uri));
+    }
+
+    /**
+     * Gets the response body captured in the given context, this copies the captured bytes.
+     *
+     * @param context the retry context, may be null.
+     * @return the response body capture or Optional.empty() if nothing was captured or
+     *    the buffer was already re-used by another call.
+     */
+    public static Optional<ResponseBodyCapture> getCapture(final RetryContext context) {
+
+        if (context == null) {
+            return Optional.empty();
         }
 
+        return Optional.ofNullable((PendingCapture) context.getAttribute(RESPONSE_BODY_ATTRIBUTE))
+                .map(PendingCapture::snapshot);
+    }
+
+    /**
+     * Gets the response body of the current call, should be called inside the retry.
+     *
+     * @return the response body or null if nothing was captured.
+     */
+    public byte[] getResponseBody() {
+        return getCapture(RetrySynchronizationManager.getContext())
+                .map(ResponseBodyCapture::getBody)
+                .orElse(null);
+    }
+
+    /**
+     * Gets the response body of the current call as string, if not able to convert to String will send
+     * the byte array, should be called inside the retry.
+     *
+     * @return the response body as string
+     */
+    public String getResponseBodyAsString() {
+        return getCapture(RetrySynchronizationManager.getContext())
+                .map(ResponseBodyCapture::getBodyAsString)
+                .orElse("");
     }
 
     /**
@@ -92,4 +229,96 @@ public class ReliantRestClientBodyInterceptor implements ClientHttpRequestInterc
             .orElse(Charset.defaultCharset());
     }
 
+    /**
+     * The capture registered in the RetryContext, bytes are only copied in {@link #snapshot()}.
+     */
+    private static final class PendingCapture {
+
+        private final BoundedTeeBuffer buffer;
+        private final long generation;
+        private final Charset charset;
+        private final URI uri;
+        private final MediaType mediaType;
+
+        PendingCapture(final BoundedTeeBuffer buffer
+                , final long generation
+                , final Charset charset
+                , final URI uri
+                , final MediaType mediaType) {
+
+            this.buffer = buffer;
+            this.generation = generation;
+            this.charset = charset;
+            this.uri = uri;
+            this.mediaType = mediaType;
+        }
+
+        ResponseBodyCapture snapshot() {
+            byte[] bytes = this.buffer.copyOf(this.generation);
+
+            if (bytes == null) {
+                return null;
+            }
+
+            return new ResponseBodyCapture(bytes, this.charset, this.buffer.isTruncated()
+                    , Hosts.hostOf(this.uri), this.mediaType);
+        }
+    }
+
+    /**
+     * The response, copying to the buffer the bytes read by the converters.
+     */
+    private static final class TeeClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final BoundedTeeBuffer buffer;
+        private InputStream body;
+
+        TeeClientHttpResponse(final ClientHttpResponse delegate, final BoundedTeeBuffer buffer) {
+            this.delegate = delegate;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+
+            if (this.body == null) {
+                // no mark support, so a reset never copies the same bytes twice.
+                this.body = new TeeInputStream(this.delegate.getBody(), this.buffer) {
+                    @Override
+                    public boolean markSupported() {
+                        return false;
+                    }
+                };
+            }
+
+            return this.body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.delegate.getHeaders();
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return this.delegate.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return this.delegate.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return this.delegate.getStatusText();
+        }
+
+        @Override
+        public void close() {
+            this.delegate.close();
+        }
+    }
+
 }
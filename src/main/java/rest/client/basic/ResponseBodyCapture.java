@@ -0,0 +1,137 @@
+package rest.client.basic;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.springframework.http.MediaType;
+
+/**
+ * The Class ResponseBodyCapture, the response body received in one attempt, captured by
+ * {@link ReliantRestClientBodyInterceptor} for logging purposes.
+ *
+ * <P>Instances are immutable and bound to a single call (attempt), they are stored in the
+ * RetryContext of the call, never shared between calls.
+ *
+ * @author tonioc
+ */
+public final class ResponseBodyCapture {
+
+    private final byte[] body;
+    private final Charset charset;
+    private final boolean truncated;
+    private final String host;
+    private final MediaType mediaType;
+
+    /**
+     * Instantiates a new response body capture.
+     *
+     * @param body the body, the array is not copied, should not be modified after this call.
+     * @param charset the charset
+     */
+    public ResponseBodyCapture(final byte[] body, final Charset charset) {
+        this(body, charset, false);
+    }
+
+    /**
+     * Instantiates a new response body capture.
+     *
+     * @param body the body, or its first bytes if truncated, the array is not copied,
+     *    should not be modified after this call.
+     * @param charset the charset
+     * @param truncated true if only the first bytes of the body were captured
+     */
+    public ResponseBodyCapture(final byte[] body, final Charset charset, final boolean truncated) {
+        this(body, charset, truncated, null, null);
+    }
+
+    /**
+     * Instantiates a new response body capture.
+     *
+     * @param body the body, or its first bytes if truncated, the array is not copied,
+     *    should not be modified after this call.
+     * @param charset the charset
+     * @param truncated true if only the first bytes of the body were captured
+     * @param host the host of the request, may be null
+     * @param mediaType the media type of the response, may be null
+     */
+    public ResponseBodyCapture(final byte[] body
+            , final Charset charset
+            , final boolean truncated
+            , final String host
+            , final MediaType mediaType) {
+
+        this.body = body;
+        this.charset = charset;
+        this.truncated = truncated;
+        this.host = host;
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Gets the response body.
+     *
+     * @return the body
+     */
+    public byte[] getBody() {
+        return this.body;
+    }
+
+    /**
+     * Gets the charset.
+     *
+     * @return the charset
+     */
+    public Charset getCharset() {
+        return this.charset;
+    }
+
+    /**
+     * Checks if only the first bytes of the body were captured.
+     *
+     * @return true, if truncated
+     */
+    public boolean isTruncated() {
+        return this.truncated;
+    }
+
+    /**
+     * Gets the host of the request.
+     *
+     * @return the host, may be null
+     */
+    public String getHost() {
+        return this.host;
+    }
+
+    /**
+     * Gets the media type of the response.
+     *
+     * @return the media type, may be null
+     */
+    public MediaType getMediaType() {
+        return this.mediaType;
+    }
+
+    /**
+     * Gets the response body as string, if not able to convert to String will send
+     * the byte array, if truncated <i>...</i> is appended.
+     *
+     * @return the response body as string
+     */
+    public String getBodyAsString() {
+
+        if (this.body == null) {
+            return "";
+        }
+
+        try {
+            String str = new String(this.body, this.charset);
+            return (this.truncated ? str + "..." : str);
+        }
+        catch (Exception ex) {
+            // Not able to transform to String,  send bytes
+            return "Cannot convert byte[] to String, hera are the bytes: " + Arrays.toString(this.body);
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+package rest.client.breaker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Class CircuitBreaker, the breaker of a single host, created by a {@link CircuitBreakerRegistry}.
+ *
+ * <ul>
+ *   <li><b>CLOSED</b>: requests are sent, the outcome of the last <i>slidingWindowSize</i> calls is kept,
+ *   once at least <i>minimumCalls</i> were recorded and the failure rate reaches the threshold
+ *   the breaker opens.</li>
+ *   <li><b>OPEN</b>: requests are not sent, {@link CircuitBreakerOpenException} is thrown,
+ *   after <i>openDuration</i> the next call moves it to half open.</li>
+ *   <li><b>HALF_OPEN</b>: only <i>halfOpenCalls</i> probes are sent, if all of them succeed the breaker
+ *   closes (with an empty window), a single failure opens it again.</li>
+ * </ul>
+ *
+ * <P>Thread safe, the state of each host is guarded by its own lock.
+ *
+ * @author tonioc
+ */
+public class CircuitBreaker {
+
+    /**
+     * The Enum State.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String host;
+    private final int minimumCalls;
+    private final float failureRateThreshold;
+    private final long openDurationInNanos;
+    private final int halfOpenCalls;
+
+    // sliding window of the last outcomes, true = failure.
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+    private long notPermittedCalls;
+
+    /**
+     * Instantiates a new circuit breaker.
+     *
+     * @param host the host as <i>host:port</i>
+     * @param slidingWindowSize the sliding window size
+     * @param minimumCalls the minimum calls recorded before the failure rate is evaluated
+     * @param failureRateThreshold the failure rate threshold, in percent
+     * @param openDurationInMillis the time the breaker stays open
+     * @param halfOpenCalls the probes sent while half open
+     */
+    CircuitBreaker(final String host
+            , final int slidingWindowSize
+            , final int minimumCalls
+            , final float failureRateThreshold
+            , final long openDurationInMillis
+            , final int halfOpenCalls) {
+
+        this.host = host;
+        this.window = new boolean[slidingWindowSize];
+        this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationInNanos = TimeUnit.MILLISECONDS.toNanos(openDurationInMillis);
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * Checks if a request may be sent, moves an open breaker to half open when its open duration
+     * is over, every permitted call must be followed by {@link #onSuccess()}, {@link #onFailure()}
+     * or {@link #releasePermission()}.
+     *
+     * @return true, if the request may be sent
+     */
+    public synchronized boolean tryAcquirePermission() {
+
+        if (this.state == State.OPEN  &&  System.nanoTime() - this.openedAt >= this.openDurationInNanos) {
+            this.state = State.HALF_OPEN;
+            this.halfOpenPermits = this.halfOpenCalls;
+            this.halfOpenSuccesses = 0;
+        }
+
+        switch (this.state) {
+            case CLOSED:
+                return true;
+
+            case HALF_OPEN:
+                if (this.halfOpenPermits > 0) {
+                    this.halfOpenPermits--;
+                    return true;
+                }
+                break;
+
+            default:
+                break;
+        }
+
+        this.notPermittedCalls++;
+        return false;
+    }
+
+    /**
+     * Records a successful call.
+     */
+    public synchronized void onSuccess() {
+
+        if (this.state == State.CLOSED) {
+            record(false);
+        }
+        else if (this.state == State.HALF_OPEN  &&  ++this.halfOpenSuccesses >= this.halfOpenCalls) {
+            close();
+        }
+    }
+
+    /**
+     * Records a failed call.
+     */
+    public synchronized void onFailure() {
+
+        if (this.state == State.CLOSED) {
+            record(true);
+
+            if (this.windowCount >= this.minimumCalls  &&  failureRate() >= this.failureRateThreshold) {
+                open();
+            }
+        }
+        else if (this.state == State.HALF_OPEN) {
+            open();
+        }
+    }
+
+    /**
+     * Releases a permission without recording an outcome, the request was not sent or failed
+     * locally, ex. shed by a concurrency limiter. A half open breaker may send another probe.
+     */
+    public synchronized void releasePermission() {
+
+        if (this.state == State.HALF_OPEN  &&  this.halfOpenPermits < this.halfOpenCalls) {
+            this.halfOpenPermits++;
+        }
+    }
+
+    /**
+     * Gets the host.
+     *
+     * @return the host as <i>host:port</i>
+     */
+    public String getHost() {
+        return this.host;
+    }
+
+    /**
+     * Gets the state, an open breaker whose open duration is over is reported as OPEN
+     * until the next call moves it to HALF_OPEN.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        return this.state;
+    }
+
+    /**
+     * Gets the failure rate of the calls in the sliding window.
+     *
+     * @return the failure rate in percent, 0 if no call was recorded
+     */
+    public synchronized float getFailureRate() {
+        return failureRate();
+    }
+
+    /**
+     * Gets the number of calls not sent because the breaker was open.
+     *
+     * @return the not permitted calls
+     */
+    public synchronized long getNotPermittedCalls() {
+        return this.notPermittedCalls;
+    }
+
+    private float failureRate() {
+        return (this.windowCount == 0 ? 0f : this.windowFailures * 100f / this.windowCount);
+    }
+
+    private void record(final boolean failure) {
+
+        if (this.windowCount == this.window.length) {
+            if (this.window[this.windowIndex]) {
+                this.windowFailures--;
+            }
+        }
+        else {
+            this.windowCount++;
+        }
+
+        this.window[this.windowIndex] = failure;
+
+        if (failure) {
+            this.windowFailures++;
+        }
+
+        this.windowIndex = (this.windowIndex + 1) % this.window.length;
+    }
+
+    private void open() {
+        this.state = State.OPEN;
+        this.openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        this.state = State.CLOSED;
+        this.windowIndex = 0;
+        this.windowCount = 0;
+        this.windowFailures = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("CircuitBreaker [host=").append(this.host)
+            .append(", state=").append(getState())
+            .append(", failureRate=").append(getFailureRate())
+            .append("]");
+        return builder.toString();
+    }
+}
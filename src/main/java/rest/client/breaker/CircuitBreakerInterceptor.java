@@ -0,0 +1,110 @@
+package rest.client.breaker;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+import rest.client.basic.Hosts;
+import rest.client.stream.ConnectionAbort;
+
+/**
+ * The Class CircuitBreakerInterceptor, sends the request only if the circuit breaker of its host
+ * permits it, otherwise throws {@link CircuitBreakerOpenException}.
+ *
+ * <P>I/O errors (connect and read timeouts included) and 5xx responses are recorded as failures,
+ * any other response as a success. Other exceptions are local to the client, thrown by the interceptors
+ * that follow (deadline exceeded, shed by the concurrency limiter...), they release the permission
+ * without recording anything, so they never open the breaker of a healthy host.
+ *
+ * <P>The breaker used is stored in the RetryContext of the current call, under the
+ * {@link #CIRCUIT_BREAKER_ATTRIBUTE} attribute, so the retry policy can stop retrying a host whose
+ * breaker has just opened.
+ *
+ * @author tonioc
+ */
+public class CircuitBreakerInterceptor implements ClientHttpRequestInterceptor {
+
+    /**
+     * The RetryContext attribute where the breaker of the last attempt is stored.
+     */
+    public static final String CIRCUIT_BREAKER_ATTRIBUTE = "reliant.circuitBreaker";
+
+    private final CircuitBreakerRegistry registry;
+
+    /**
+     * Instantiates a new circuit breaker interceptor.
+     *
+     * @param registry the registry
+     */
+    public CircuitBreakerInterceptor(final CircuitBreakerRegistry registry) {
+        Validate.notNull(registry, "registry should not be null");
+        this.registry = registry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request
+            , final byte[] body
+            , final ClientHttpRequestExecution execution) throws IOException {
+
+        CircuitBreaker breaker = this.registry.getCircuitBreaker(Hosts.hostOf(request.getURI()));
+
+        RetryContext context = RetrySynchronizationManager.getContext();
+
+        if (context != null) {
+            context.setAttribute(CIRCUIT_BREAKER_ATTRIBUTE, breaker);
+        }
+
+        if (!breaker.tryAcquirePermission()) {
+            throw new CircuitBreakerOpenException(breaker.getHost());
+        }
+
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+
+            if (response.getRawStatusCode() >= 500) {
+                breaker.onFailure();
+            }
+            else {
+                breaker.onSuccess();
+            }
+
+            return response;
+        }
+        catch (IOException ex) {
+            // aborted by the client, ex. a cancelled hedge, not a failure of the host.
+            if (ConnectionAbort.wasAborted()) {
+                breaker.releasePermission();
+            }
+            else {
+                breaker.onFailure();
+            }
+            throw ex;
+        }
+        catch (RuntimeException ex) {
+            breaker.releasePermission();
+            throw ex;
+        }
+    }
+
+    /**
+     * Gets the circuit breaker used by the last attempt of the given context.
+     *
+     * @param context the retry context, may be null.
+     * @return the circuit breaker or Optional.empty() if the call did not go through a breaker.
+     */
+    public static Optional<CircuitBreaker> getCircuitBreaker(final RetryContext context) {
+
+        if (context == null) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable((CircuitBreaker) context.getAttribute(CIRCUIT_BREAKER_ATTRIBUTE));
+    }
+}
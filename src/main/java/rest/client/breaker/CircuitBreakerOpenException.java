@@ -0,0 +1,37 @@
+package rest.client.breaker;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * The Class CircuitBreakerOpenException, thrown without sending the request when the
+ * circuit breaker of the host is open (or half open with all its probes in flight).
+ *
+ * <P>It is a RestClientException, not an I/O error, so it is never retried.
+ *
+ * @author tonioc
+ */
+public class CircuitBreakerOpenException extends RestClientException {
+
+    private static final long serialVersionUID = 4023189620947722610L;
+
+    private final String host;
+
+    /**
+     * Instantiates a new circuit breaker open exception.
+     *
+     * @param host the host as <i>host:port</i>
+     */
+    public CircuitBreakerOpenException(final String host) {
+        super("Circuit breaker open for host: " + host + ", request not sent");
+        this.host = host;
+    }
+
+    /**
+     * Gets the host whose circuit breaker is open.
+     *
+     * @return the host as <i>host:port</i>
+     */
+    public String getHost() {
+        return this.host;
+    }
+}
@@ -0,0 +1,182 @@
+package rest.client.breaker;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * The Class CircuitBreakerRegistry, holds one {@link CircuitBreaker} per host, all of them
+ * with the same configuration.
+ *
+ * <h2>Simple use:</h2>
+ * <pre>
+ * {@code
+ * ....
+ *    CircuitBreakerRegistry breakers = new CircuitBreakerRegistry()
+ *          .withSlidingWindowSize(20)
+ *          .withMinimumCalls(10)
+ *          .withFailureRateThreshold(50)
+ *          .withOpenDuration(30_000);
+ *
+ *    StrictRestClient strictRest = new StrictRestClient()
+ *          .withCircuitBreaker(breakers);
+ * ....
+ *    // export
+ *    Map<String, CircuitBreaker.State> states = breakers.getStates();
+ * }
+ * </pre>
+ *
+ * <P>One instance can be shared by several clients, the breaker of a host will then count the
+ * calls of all of them. Configuration must be done before the first breaker is created.
+ *
+ * @author tonioc
+ */
+public class CircuitBreakerRegistry {
+
+    /**
+     * The Constant DEFAULT_SLIDING_WINDOW_SIZE = {@value #DEFAULT_SLIDING_WINDOW_SIZE}.
+     */
+    public static final int DEFAULT_SLIDING_WINDOW_SIZE = 20;
+
+    /**
+     * The Constant DEFAULT_MINIMUM_CALLS = {@value #DEFAULT_MINIMUM_CALLS}.
+     */
+    public static final int DEFAULT_MINIMUM_CALLS = 10;
+
+    /**
+     * The Constant DEFAULT_FAILURE_RATE_THRESHOLD = {@value #DEFAULT_FAILURE_RATE_THRESHOLD} percent.
+     */
+    public static final float DEFAULT_FAILURE_RATE_THRESHOLD = 50f;
+
+    /**
+     * The Constant DEFAULT_OPEN_DURATION_IN_MILLIS = {@value #DEFAULT_OPEN_DURATION_IN_MILLIS}.
+     */
+    public static final long DEFAULT_OPEN_DURATION_IN_MILLIS = 30_000L;
+
+    /**
+     * The Constant DEFAULT_HALF_OPEN_CALLS = {@value #DEFAULT_HALF_OPEN_CALLS}.
+     */
+    public static final int DEFAULT_HALF_OPEN_CALLS = 3;
+
+    private int slidingWindowSize = DEFAULT_SLIDING_WINDOW_SIZE;
+    private int minimumCalls = DEFAULT_MINIMUM_CALLS;
+    private float failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+    private long openDuration = DEFAULT_OPEN_DURATION_IN_MILLIS;
+    private int halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * Number of the last calls used to compute the failure rate.
+     *
+     * @param size the size, if less or equal 0 {@link #DEFAULT_SLIDING_WINDOW_SIZE} will be used.
+     * @return the circuit breaker registry
+     */
+    public CircuitBreakerRegistry withSlidingWindowSize(final int size) {
+        checkNotStarted();
+        this.slidingWindowSize = (size <= 0 ? DEFAULT_SLIDING_WINDOW_SIZE : size);
+        return this;
+    }
+
+    /**
+     * Minimum calls recorded before the failure rate is evaluated, at most the sliding window size.
+     *
+     * @param calls the calls, if less or equal 0 {@link #DEFAULT_MINIMUM_CALLS} will be used.
+     * @return the circuit breaker registry
+     */
+    public CircuitBreakerRegistry withMinimumCalls(final int calls) {
+        checkNotStarted();
+        this.minimumCalls = (calls <= 0 ? DEFAULT_MINIMUM_CALLS : calls);
+        return this;
+    }
+
+    /**
+     * Failure rate that opens the breaker.
+     *
+     * @param percent the percent, greater than 0 and less or equal 100
+     * @return the circuit breaker registry
+     */
+    public CircuitBreakerRegistry withFailureRateThreshold(final float percent) {
+        checkNotStarted();
+        Validate.isTrue(percent > 0  &&  percent <= 100, "failure rate threshold should be in (0, 100]");
+        this.failureRateThreshold = percent;
+        return this;
+    }
+
+    /**
+     * Time the breaker stays open before letting probes through.
+     *
+     * @param millis the millis, if less or equal 0 {@link #DEFAULT_OPEN_DURATION_IN_MILLIS} will be used.
+     * @return the circuit breaker registry
+     */
+    public CircuitBreakerRegistry withOpenDuration(final long millis) {
+        checkNotStarted();
+        this.openDuration = (millis <= 0 ? DEFAULT_OPEN_DURATION_IN_MILLIS : millis);
+        return this;
+    }
+
+    /**
+     * Probes sent while half open, all of them must succeed to close the breaker.
+     *
+     * @param calls the calls, if less or equal 0 {@link #DEFAULT_HALF_OPEN_CALLS} will be used.
+     * @return the circuit breaker registry
+     */
+    public CircuitBreakerRegistry withHalfOpenCalls(final int calls) {
+        checkNotStarted();
+        this.halfOpenCalls = (calls <= 0 ? DEFAULT_HALF_OPEN_CALLS : calls);
+        return this;
+    }
+
+    /**
+     * Gets the circuit breaker of the host, creating it if needed.
+     *
+     * @param host the host as <i>host:port</i>, see {@link rest.client.basic.Hosts#hostOf(java.net.URI)}
+     * @return the circuit breaker
+     */
+    public CircuitBreaker getCircuitBreaker(final String host) {
+
+        CircuitBreaker breaker = this.breakers.get(host);
+
+        if (breaker == null) {
+            breaker = this.breakers.computeIfAbsent(host, h -> new CircuitBreaker(h
+                    , this.slidingWindowSize
+                    , this.minimumCalls
+                    , this.failureRateThreshold
+                    , this.openDuration
+                    , this.halfOpenCalls));
+        }
+
+        return breaker;
+    }
+
+    /**
+     * Gets the circuit breakers created so far.
+     *
+     * @return the circuit breakers
+     */
+    public Collection<CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableCollection(this.breakers.values());
+    }
+
+    /**
+     * Gets the state of every host, a snapshot sorted by host.
+     *
+     * @return the states
+     */
+    public Map<String, CircuitBreaker.State> getStates() {
+
+        Map<String, CircuitBreaker.State> states = new TreeMap<>();
+        this.breakers.forEach((host, breaker) -> states.put(host, breaker.getState()));
+
+        return states;
+    }
+
+    private void checkNotStarted() {
+        Validate.validState(this.breakers.isEmpty(), "Circuit breakers already created, cannot be configured");
+    }
+}
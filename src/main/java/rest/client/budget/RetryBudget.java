@@ -0,0 +1,301 @@
+package rest.client.budget;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * The Class RetryBudget, caps the retries done by all the calls, globally and per host, so a
+ * partial outage does not multiply the load on the failing service.
+ *
+ * <P>Each budget is a token bucket: every first attempt deposits <i>retryRatio</i> tokens, every retry
+ * withdraws one, so retries are at most <i>retryRatio</i> of the calls. To let low traffic clients
+ * retry, <i>minRetriesPerSecond</i> tokens are added over time. Tokens are capped to <i>maxTokens</i>,
+ * which bounds the window in which unused budget is kept.
+ *
+ * <P>A retry needs a token from the host budget and from the global one, when any of them is
+ * exhausted the failure is not retried.
+ *
+ * <h2>Simple use:</h2>
+ * <pre>
+ * {@code
+ * ....
+ *    RetryBudget budget = new RetryBudget()
+ *          .withRetryRatio(0.1f)
+ *          .withMinRetriesPerSecond(1);
+ *
+ *    StrictRestClient strictRest = new StrictRestClient()
+ *          .withRetryBudget(budget);
+ * ....
+ *    long denied = budget.getGlobal().getRetriesDenied();
+ * }
+ * </pre>
+ *
+ * <P>One instance can be shared by several clients. Configuration must be done before the first
+ * call.
+ *
+ * @author tonioc
+ */
+public class RetryBudget {
+
+    /**
+     * The Constant DEFAULT_RETRY_RATIO = {@value #DEFAULT_RETRY_RATIO}.
+     */
+    public static final float DEFAULT_RETRY_RATIO = 0.2f;
+
+    /**
+     * The Constant DEFAULT_MIN_RETRIES_PER_SECOND = {@value #DEFAULT_MIN_RETRIES_PER_SECOND}.
+     */
+    public static final float DEFAULT_MIN_RETRIES_PER_SECOND = 1f;
+
+    /**
+     * The Constant DEFAULT_MAX_TOKENS = {@value #DEFAULT_MAX_TOKENS}.
+     */
+    public static final int DEFAULT_MAX_TOKENS = 100;
+
+    private float retryRatio = DEFAULT_RETRY_RATIO;
+    private float minRetriesPerSecond = DEFAULT_MIN_RETRIES_PER_SECOND;
+    private int maxTokens = DEFAULT_MAX_TOKENS;
+
+    private volatile Bucket global;
+    private final ConcurrentMap<String, Bucket> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Tokens deposited by each first attempt, the max ratio of retries to calls.
+     *
+     * @param ratio the ratio, greater or equal 0
+     * @return the retry budget
+     */
+    public RetryBudget withRetryRatio(final float ratio) {
+        checkNotStarted();
+        Validate.isTrue(ratio >= 0, "retry ratio should not be negative");
+        this.retryRatio = ratio;
+        return this;
+    }
+
+    /**
+     * Tokens added every second, whatever the traffic.
+     *
+     * @param retries the retries per second, greater or equal 0
+     * @return the retry budget
+     */
+    public RetryBudget withMinRetriesPerSecond(final float retries) {
+        checkNotStarted();
+        Validate.isTrue(retries >= 0, "min retries per second should not be negative");
+        this.minRetriesPerSecond = retries;
+        return this;
+    }
+
+    /**
+     * Max tokens kept in each budget.
+     *
+     * @param max the max, if less or equal 0 {@link #DEFAULT_MAX_TOKENS} will be used.
+     * @return the retry budget
+     */
+    public RetryBudget withMaxTokens(final int max) {
+        checkNotStarted();
+        this.maxTokens = (max <= 0 ? DEFAULT_MAX_TOKENS : max);
+        return this;
+    }
+
+    /**
+     * Records the first attempt of a call in the global budget.
+     */
+    public void onFirstAttempt() {
+        getGlobal().deposit();
+    }
+
+    /**
+     * Records the first attempt of a call in the budget of its host, once the host is known.
+     *
+     * @param host the host as <i>host:port</i>
+     */
+    public void onFirstAttemptToHost(final String host) {
+        getHost(host).deposit();
+    }
+
+    /**
+     * Withdraws a token for a retry from the host and global budgets.
+     *
+     * @param host the host as <i>host:port</i>, null if unknown, only the global budget is used.
+     * @return true, if the retry may be done
+     */
+    public boolean tryAcquireRetry(final String host) {
+
+        Bucket hostBucket = (host == null ? null : getHost(host));
+
+        if (hostBucket != null  &&  !hostBucket.tryAcquire()) {
+            return false;
+        }
+
+        if (!getGlobal().tryAcquire()) {
+            if (hostBucket != null) {
+                hostBucket.refund();
+            }
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the global budget.
+     *
+     * @return the global
+     */
+    public Bucket getGlobal() {
+
+        Bucket bucket = this.global;
+
+        if (bucket == null) {
+            synchronized (this) {
+                if (this.global == null) {
+                    this.global = new Bucket(this.retryRatio, this.minRetriesPerSecond, this.maxTokens);
+                }
+                bucket = this.global;
+            }
+        }
+
+        return bucket;
+    }
+
+    /**
+     * Gets the budget of a host, creating it if needed.
+     *
+     * @param host the host as <i>host:port</i>
+     * @return the budget
+     */
+    public Bucket getHost(final String host) {
+
+        Bucket bucket = this.hosts.get(host);
+
+        if (bucket == null) {
+            bucket = this.hosts.computeIfAbsent(host
+                    , h -> new Bucket(this.retryRatio, this.minRetriesPerSecond, this.maxTokens));
+        }
+
+        return bucket;
+    }
+
+    /**
+     * Gets the budgets of the hosts seen so far, a snapshot sorted by host.
+     *
+     * @return the hosts
+     */
+    public Map<String, Bucket> getHosts() {
+        return new TreeMap<>(this.hosts);
+    }
+
+    private void checkNotStarted() {
+        Validate.validState(this.global == null  &&  this.hosts.isEmpty()
+                , "Retry budget already in use, cannot be configured");
+    }
+
+    /**
+     * The Class Bucket, a token bucket with its counters.
+     */
+    public static final class Bucket {
+
+        private final float retryRatio;
+        private final double tokensPerNano;
+        private final int maxTokens;
+
+        private double tokens;
+        private long lastRefill;
+
+        private long firstAttempts;
+        private long retriesAllowed;
+        private long retriesDenied;
+
+        Bucket(final float retryRatio, final float minRetriesPerSecond, final int maxTokens) {
+            this.retryRatio = retryRatio;
+            this.tokensPerNano = minRetriesPerSecond / (double) TimeUnit.SECONDS.toNanos(1);
+            this.maxTokens = maxTokens;
+            this.tokens = Math.min(minRetriesPerSecond, maxTokens);
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized void deposit() {
+            this.firstAttempts++;
+            this.tokens = Math.min(this.maxTokens, this.tokens + this.retryRatio);
+        }
+
+        synchronized boolean tryAcquire() {
+
+            refill();
+
+            if (this.tokens >= 1) {
+                this.tokens -= 1;
+                this.retriesAllowed++;
+                return true;
+            }
+
+            this.retriesDenied++;
+            return false;
+        }
+
+        synchronized void refund() {
+            this.tokens = Math.min(this.maxTokens, this.tokens + 1);
+            this.retriesAllowed--;
+            this.retriesDenied++;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            this.tokens = Math.min(this.maxTokens, this.tokens + (now - this.lastRefill) * this.tokensPerNano);
+            this.lastRefill = now;
+        }
+
+        /**
+         * Gets the available tokens, the retries that could be done now.
+         *
+         * @return the available tokens
+         */
+        public synchronized double getAvailableTokens() {
+            refill();
+            return this.tokens;
+        }
+
+        /**
+         * Gets the first attempts recorded.
+         *
+         * @return the first attempts
+         */
+        public synchronized long getFirstAttempts() {
+            return this.firstAttempts;
+        }
+
+        /**
+         * Gets the retries allowed, the budget consumed.
+         *
+         * @return the retries allowed
+         */
+        public synchronized long getRetriesAllowed() {
+            return this.retriesAllowed;
+        }
+
+        /**
+         * Gets the retries denied because the budget was exhausted.
+         *
+         * @return the retries denied
+         */
+        public synchronized long getRetriesDenied() {
+            return this.retriesDenied;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append("Bucket [tokens=").append(getAvailableTokens())
+                .append(", firstAttempts=").append(getFirstAttempts())
+                .append(", retriesAllowed=").append(getRetriesAllowed())
+                .append(", retriesDenied=").append(getRetriesDenied())
+                .append("]");
+            return builder.toString();
+        }
+    }
+}
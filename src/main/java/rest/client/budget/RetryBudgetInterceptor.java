@@ -0,0 +1,63 @@
+package rest.client.budget;
+
+import java.io.IOException;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+import rest.client.basic.Hosts;
+
+/**
+ * The Class RetryBudgetInterceptor, deposits in the host {@link RetryBudget} the first attempt of each call
+ * and stores the host of the last attempt in the RetryContext, under the {@link #HOST_ATTRIBUTE} attribute,
+ * so {@link RetryBudgetPolicy} knows which host budget a retry should use.
+ *
+ * @author tonioc
+ */
+public class RetryBudgetInterceptor implements ClientHttpRequestInterceptor {
+
+    /**
+     * The RetryContext attribute where the host of the last attempt is stored.
+     */
+    public static final String HOST_ATTRIBUTE = "reliant.budget.host";
+
+    private static final String DEPOSITED_ATTRIBUTE = "reliant.budget.deposited";
+
+    private final RetryBudget budget;
+
+    /**
+     * Instantiates a new retry budget interceptor.
+     *
+     * @param budget the budget
+     */
+    public RetryBudgetInterceptor(final RetryBudget budget) {
+        Validate.notNull(budget, "budget should not be null");
+        this.budget = budget;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request
+            , final byte[] body
+            , final ClientHttpRequestExecution execution) throws IOException {
+
+        RetryContext context = RetrySynchronizationManager.getContext();
+
+        if (context != null) {
+            String host = Hosts.hostOf(request.getURI());
+            context.setAttribute(HOST_ATTRIBUTE, host);
+
+            // once per call, a lambda may send several requests.
+            if (!context.hasAttribute(DEPOSITED_ATTRIBUTE)) {
+                context.setAttribute(DEPOSITED_ATTRIBUTE, Boolean.TRUE);
+                this.budget.onFirstAttemptToHost(host);
+            }
+        }
+
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,90 @@
+package rest.client.budget;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+
+/**
+ * The Class RetryBudgetPolicy, a RetryPolicy that retries only when the delegate policy would
+ * and the {@link RetryBudget} has a token for it.
+ *
+ * <P>Each call deposits in the global budget when opened, the host budget is fed by
+ * {@link RetryBudgetInterceptor}.
+ *
+ * <P>RetryTemplate asks canRetry more than once per failure, the answer is kept in the RetryContext
+ * so a single token is withdrawn per retry.
+ *
+ * @author tonioc
+ */
+public class RetryBudgetPolicy implements RetryPolicy {
+
+    private static final String DECIDED_ATTRIBUTE = "reliant.budget.decided";
+
+    private final RetryPolicy delegate;
+    private final RetryBudget budget;
+
+    /**
+     * Instantiates a new retry budget policy.
+     *
+     * @param delegate the delegate
+     * @param budget the budget
+     */
+    public RetryBudgetPolicy(final RetryPolicy delegate, final RetryBudget budget) {
+        Validate.notNull(delegate, "delegate should not be null");
+        Validate.notNull(budget, "budget should not be null");
+        this.delegate = delegate;
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean canRetry(final RetryContext context) {
+
+        if (!this.delegate.canRetry(context)) {
+            return false;
+        }
+
+        // before the first attempt.
+        if (context.getRetryCount() == 0) {
+            return true;
+        }
+
+        Decision decision = (Decision) context.getAttribute(DECIDED_ATTRIBUTE);
+
+        if (decision == null  ||  decision.retryCount != context.getRetryCount()) {
+            String host = (String) context.getAttribute(RetryBudgetInterceptor.HOST_ATTRIBUTE);
+            decision = new Decision(context.getRetryCount(), this.budget.tryAcquireRetry(host));
+            context.setAttribute(DECIDED_ATTRIBUTE, decision);
+        }
+
+        return decision.retry;
+    }
+
+    @Override
+    public RetryContext open(final RetryContext parent) {
+        this.budget.onFirstAttempt();
+        return this.delegate.open(parent);
+    }
+
+    @Override
+    public void close(final RetryContext context) {
+        this.delegate.close(context);
+    }
+
+    @Override
+    public void registerThrowable(final RetryContext context, final Throwable throwable) {
+        this.delegate.registerThrowable(context, throwable);
+    }
+
+    /**
+     * The budget decision for a retry count.
+     */
+    private static final class Decision {
+        private final int retryCount;
+        private final boolean retry;
+
+        Decision(final int retryCount, final boolean retry) {
+            this.retryCount = retryCount;
+            this.retry = retry;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package rest.client.buffer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * The Class BufferPool, byte arrays re-used by the bodies of the RestTemplate path (the request
+ * bodies buffered for the interceptors, the bodies of the error responses...), instead of
+ * allocating new ones for every request.
+ *
+ * <P>Buffers come in size classes, powers of 2 from {@link #MIN_BUFFER_SIZE} to {@link #MAX_BUFFER_SIZE},
+ * a buffer acquired is at least of the size asked for, usually bigger. Each class keeps at most
+ * <i>buffersPerSize</i> free buffers, when it is empty a new buffer is allocated, and when full the buffer
+ * released is left to the GC. Bigger buffers are always allocated and never kept.
+ *
+ * <P>A buffer acquired must be released once, and not used after that. When leaks are tracked (the
+ * default when the debug level of this class is enabled) the stack trace of each acquisition is kept
+ * until the release, see {@link #getOutstanding()} and {@link #logOutstanding()}.
+ *
+ * <P>Meters, it is a {@link MeterBinder}, all of them tagged by <i>size</i> (the size class or <i>oversize</i>):
+ * <ul>
+ *   <li>{@value #POOLED} - gauge of the free buffers in the pool.</li>
+ *   <li>{@value #IN_USE} - gauge of the buffers acquired and not released.</li>
+ *   <li>{@value #ALLOCATED} - counter of the buffers allocated, because the pool was empty.</li>
+ * </ul>
+ *
+ * <P>Thread safe.
+ *
+ * @author tonioc
+ */
+public class BufferPool implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(BufferPool.class);
+
+    /**
+     * The Constant MIN_BUFFER_SIZE = {@value #MIN_BUFFER_SIZE}.
+     */
+    public static final int MIN_BUFFER_SIZE = 1024;
+
+    /**
+     * The Constant MAX_BUFFER_SIZE = {@value #MAX_BUFFER_SIZE}.
+     */
+    public static final int MAX_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The Constant DEFAULT_BUFFERS_PER_SIZE = {@value #DEFAULT_BUFFERS_PER_SIZE}.
+     */
+    public static final int DEFAULT_BUFFERS_PER_SIZE = 32;
+
+    /**
+     * The Constant POOLED = {@value #POOLED}.
+     */
+    public static final String POOLED = "reliant.buffer.pool.pooled";
+
+    /**
+     * The Constant IN_USE = {@value #IN_USE}.
+     */
+    public static final String IN_USE = "reliant.buffer.pool.inuse";
+
+    /**
+     * The Constant ALLOCATED = {@value #ALLOCATED}.
+     */
+    public static final String ALLOCATED = "reliant.buffer.pool.allocated";
+
+    private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+    private static final int SIZE_CLASSES = Integer.numberOfTrailingZeros(MAX_BUFFER_SIZE) - MIN_SHIFT + 1;
+
+    private static final BufferPool SHARED = new BufferPool();
+
+    private final List<ArrayBlockingQueue<byte[]>> free = new ArrayList<>(SIZE_CLASSES);
+    private final AtomicInteger[] inUse = new AtomicInteger[SIZE_CLASSES + 1];
+    private final LongAdder[] allocated = new LongAdder[SIZE_CLASSES + 1];
+    private final Map<byte[], Throwable> outstanding;
+    private final int buffersPerSize;
+
+    /**
+     * Instantiates a new buffer pool of {@link #DEFAULT_BUFFERS_PER_SIZE} buffers per size class, tracking
+     * leaks if debug is enabled for this class.
+     */
+    public BufferPool() {
+        this(DEFAULT_BUFFERS_PER_SIZE, log.isDebugEnabled());
+    }
+
+    /**
+     * Instantiates a new buffer pool.
+     *
+     * @param buffersPerSize the max free buffers kept per size class, 0 to keep none
+     * @param trackLeaks true to keep the stack trace of each acquisition until its release
+     */
+    public BufferPool(final int buffersPerSize, final boolean trackLeaks) {
+        Validate.isTrue(buffersPerSize >= 0, "buffersPerSize should be positive or 0, it is: %d", buffersPerSize);
+
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            this.free.add(new ArrayBlockingQueue<>(Math.max(1, buffersPerSize)));
+        }
+
+        for (int i = 0; i <= SIZE_CLASSES; i++) {
+            this.inUse[i] = new AtomicInteger();
+            this.allocated[i] = new LongAdder();
+        }
+
+        this.buffersPerSize = buffersPerSize;
+        this.outstanding = (trackLeaks ? Collections.synchronizedMap(new IdentityHashMap<>()) : null);
+    }
+
+    /**
+     * Gets the pool shared by the clients that were not given one.
+     *
+     * @return the buffer pool
+     */
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Acquires a buffer of at least minSize bytes, it should be released with {@link #release(byte[])}.
+     *
+     * @param minSize the min size
+     * @return the buffer, its content is undefined
+     */
+    public byte[] acquire(final int minSize) {
+
+        int index = sizeClassOf(minSize);
+        byte[] buffer = null;
+
+        if (index < SIZE_CLASSES) {
+            buffer = this.free.get(index).poll();
+        }
+
+        if (buffer == null) {
+            buffer = new byte[index < SIZE_CLASSES ? sizeOf(index) : minSize];
+            this.allocated[index].increment();
+        }
+
+        this.inUse[index].incrementAndGet();
+
+        if (this.outstanding != null) {
+            this.outstanding.put(buffer, new Throwable("Buffer of " + buffer.length + " bytes acquired here"));
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Releases a buffer acquired from this pool, null is ignored.
+     *
+     * @param buffer the buffer
+     */
+    public void release(final byte[] buffer) {
+
+        if (buffer == null) {
+            return;
+        }
+
+        if (this.outstanding != null  &&  this.outstanding.remove(buffer) == null) {
+            log.warn("Buffer of {} bytes released but not acquired, or released twice", buffer.length
+                    , new Throwable("Released here"));
+            return;
+        }
+
+        int index = sizeClassOf(buffer.length);
+
+        if (index < SIZE_CLASSES  &&  buffer.length != sizeOf(index)) {
+            // not from this pool.
+            return;
+        }
+
+        this.inUse[index].decrementAndGet();
+
+        if (index < SIZE_CLASSES  &&  this.buffersPerSize > 0) {
+            this.free.get(index).offer(buffer);
+        }
+    }
+
+    /**
+     * A buffer of at least minSize bytes with the first <i>length</i> bytes of the given one,
+     * which is released.
+     *
+     * @param buffer the buffer, acquired from this pool
+     * @param length the bytes to keep
+     * @param minSize the min size
+     * @return the new buffer
+     */
+    public byte[] grow(final byte[] buffer, final int length, final int minSize) {
+
+        byte[] grown = acquire(minSize);
+        System.arraycopy(buffer, 0, grown, 0, length);
+        release(buffer);
+
+        return grown;
+    }
+
+    /**
+     * Buffers acquired and not released yet.
+     *
+     * @return the count, -1 if leaks are not tracked
+     */
+    public int getOutstanding() {
+        return (this.outstanding == null ? -1 : this.outstanding.size());
+    }
+
+    /**
+     * Logs the stack trace of the acquisition of each buffer not released yet, when leaks are tracked.
+     */
+    public void logOutstanding() {
+
+        if (this.outstanding == null) {
+            return;
+        }
+
+        List<Throwable> traces;
+
+        synchronized (this.outstanding) {
+            traces = new ArrayList<>(this.outstanding.values());
+        }
+
+        traces.forEach(trace -> log.warn("Buffer not released", trace));
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+
+        for (int i = 0; i <= SIZE_CLASSES; i++) {
+            String size = (i < SIZE_CLASSES ? String.valueOf(sizeOf(i)) : "oversize");
+
+            if (i < SIZE_CLASSES) {
+                Gauge.builder(POOLED, this.free.get(i), ArrayBlockingQueue::size)
+                        .tag("size", size)
+                        .description("Free buffers in the pool")
+                        .register(registry);
+            }
+
+            Gauge.builder(IN_USE, this.inUse[i], AtomicInteger::get)
+                    .tag("size", size)
+                    .description("Buffers acquired and not released")
+                    .register(registry);
+
+            FunctionCounter.builder(ALLOCATED, this.allocated[i], LongAdder::sum)
+                    .tag("size", size)
+                    .description("Buffers allocated because the pool had none")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * The size class of a buffer of the given size, {@link #SIZE_CLASSES} when too big to be pooled.
+     */
+    private static int sizeClassOf(final int size) {
+
+        if (size <= MIN_BUFFER_SIZE) {
+            return 0;
+        }
+
+        if (size > MAX_BUFFER_SIZE) {
+            return SIZE_CLASSES;
+        }
+
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+    }
+
+    private static int sizeOf(final int sizeClass) {
+        return MIN_BUFFER_SIZE << sizeClass;
+    }
+}
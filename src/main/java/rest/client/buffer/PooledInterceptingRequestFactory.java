@@ -0,0 +1,160 @@
+package rest.client.buffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import rest.client.stream.ConnectionAbort;
+
+/**
+ * The Class PooledInterceptingRequestFactory, same as the Spring InterceptingClientHttpRequestFactory,
+ * the requests go through the interceptors and then to the requests of the transport, but the body
+ * written by the message converters is buffered in a {@link BufferPool} buffer.
+ *
+ * <P>Interceptors need the body as a <i>byte[]</i> of its exact size, so a request with a body still
+ * allocates that array, requests without a body (ex. GET) allocate none. The buffer is returned when
+ * the request is executed, if writing the body fails the request is not executed and the buffer is
+ * left to the GC.
+ *
+ * @author tonioc
+ */
+class PooledInterceptingRequestFactory implements ClientHttpRequestFactory {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final ClientHttpRequestFactory requestFactory;
+    private final List<ClientHttpRequestInterceptor> interceptors;
+    private final BufferPool pool;
+
+    /**
+     * Instantiates a new pooled intercepting request factory.
+     *
+     * @param requestFactory the request factory of the transport
+     * @param interceptors the interceptors, in order
+     * @param pool the pool
+     */
+    PooledInterceptingRequestFactory(final ClientHttpRequestFactory requestFactory
+            , final List<ClientHttpRequestInterceptor> interceptors
+            , final BufferPool pool) {
+
+        this.requestFactory = requestFactory;
+        this.interceptors = interceptors;
+        this.pool = pool;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(final URI uri, final HttpMethod httpMethod) {
+        return new PooledInterceptingRequest(uri, httpMethod);
+    }
+
+    /**
+     * The request built by the message converters.
+     */
+    private final class PooledInterceptingRequest extends AbstractClientHttpRequest {
+
+        private final URI uri;
+        private final HttpMethod method;
+        private PooledOutputStream body;
+
+        PooledInterceptingRequest(final URI uri, final HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return this.method;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return this.method.name();
+        }
+
+        @Override
+        public URI getURI() {
+            return this.uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(final HttpHeaders headers) {
+
+            if (this.body == null) {
+                this.body = new PooledOutputStream(PooledInterceptingRequestFactory.this.pool);
+            }
+
+            return this.body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(final HttpHeaders headers) throws IOException {
+
+            byte[] bytes;
+
+            if (this.body == null) {
+                bytes = EMPTY;
+            }
+            else {
+                bytes = this.body.toByteArray();
+                this.body.release();
+            }
+
+            if (headers.getContentLength() < 0) {
+                headers.setContentLength(bytes.length);
+            }
+
+            return new Execution().execute(this, bytes);
+        }
+    }
+
+    /**
+     * The chain of interceptors of one request.
+     */
+    private final class Execution implements ClientHttpRequestExecution {
+
+        private final Iterator<ClientHttpRequestInterceptor> iterator =
+                PooledInterceptingRequestFactory.this.interceptors.iterator();
+
+        @Override
+        public ClientHttpResponse execute(final HttpRequest request, final byte[] body) throws IOException {
+
+            if (this.iterator.hasNext()) {
+                return this.iterator.next().intercept(request, body, this);
+            }
+
+            ClientHttpRequest delegate = PooledInterceptingRequestFactory.this.requestFactory
+                    .createRequest(request.getURI(), request.getMethod());
+            request.getHeaders().forEach((key, value) -> delegate.getHeaders().addAll(key, value));
+
+            if (body.length > 0) {
+                if (delegate instanceof StreamingHttpOutputMessage) {
+                    ((StreamingHttpOutputMessage) delegate).setBody(out -> StreamUtils.copy(body, out));
+                }
+                else {
+                    StreamUtils.copy(body, delegate.getBody());
+                }
+            }
+
+            ClientHttpResponse response = delegate.execute();
+
+            // a stream closed early aborts this connection, see ConnectionAbort.
+            ConnectionAbort.onResponse(response);
+
+            return response;
+        }
+    }
+}
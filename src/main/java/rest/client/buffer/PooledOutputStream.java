@@ -0,0 +1,119 @@
+package rest.client.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * The Class PooledOutputStream, an in memory output stream whose buffer is taken from a {@link BufferPool},
+ * when it is full a bigger one is taken and the previous one returned.
+ *
+ * <P>The buffer is acquired on the first write and returned on {@link #release()}, which must be called,
+ * after that it can be written again. As with ByteArrayOutputStream closing it has no effect, writers
+ * closing their stream do not lose the bytes. Not thread safe.
+ *
+ * @author tonioc
+ */
+public final class PooledOutputStream extends OutputStream {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final BufferPool pool;
+    private byte[] buffer;
+    private int count;
+
+    /**
+     * Instantiates a new pooled output stream.
+     *
+     * @param pool the pool
+     */
+    public PooledOutputStream(final BufferPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void write(final int b) {
+        ensureCapacity(this.count + 1);
+        this.buffer[this.count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+        ensureCapacity(this.count + len);
+        System.arraycopy(b, off, this.buffer, this.count, len);
+        this.count += len;
+    }
+
+    /**
+     * Writes everything left in the input stream.
+     *
+     * @param in the input stream, not closed
+     * @return the bytes read
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public long readFrom(final InputStream in) throws IOException {
+
+        long total = 0;
+
+        while (true) {
+            ensureCapacity(this.count + 1);
+
+            int read = in.read(this.buffer, this.count, this.buffer.length - this.count);
+
+            if (read < 0) {
+                return total;
+            }
+
+            this.count += read;
+            total += read;
+        }
+    }
+
+    /**
+     * The bytes written.
+     *
+     * @return the size
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * The buffer, valid only until the next write or release.
+     *
+     * @return the buffer, its first {@link #size()} bytes were written, may be null when nothing was written.
+     */
+    public byte[] buffer() {
+        return this.buffer;
+    }
+
+    /**
+     * A copy of the bytes written, of their exact size.
+     *
+     * @return the bytes
+     */
+    public byte[] toByteArray() {
+        return (this.count == 0 ? EMPTY : Arrays.copyOf(this.buffer, this.count));
+    }
+
+    /**
+     * Returns the buffer to the pool, the bytes written are discarded.
+     */
+    public void release() {
+        this.pool.release(this.buffer);
+        this.buffer = null;
+        this.count = 0;
+    }
+
+    private void ensureCapacity(final int minCapacity) {
+
+        if (this.buffer == null) {
+            this.buffer = this.pool.acquire(minCapacity);
+        }
+        else if (minCapacity > this.buffer.length) {
+            // at least doubled, as the size classes.
+            this.buffer = this.pool.grow(this.buffer, this.count, Math.max(minCapacity, this.buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package rest.client.buffer;
+
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * The Class PooledRestTemplate, a RestTemplate whose request bodies are buffered for the interceptors
+ * in buffers of a {@link BufferPool}, see {@link PooledInterceptingRequestFactory}.
+ *
+ * <P>Without interceptors the requests of the transport are used as they are, as in RestTemplate.
+ *
+ * @author tonioc
+ */
+public class PooledRestTemplate extends RestTemplate {
+
+    private volatile BufferPool pool;
+    private ClientHttpRequestFactory transportFactory;
+    private volatile ClientHttpRequestFactory interceptingFactory;
+
+    /**
+     * Instantiates a new pooled rest template.
+     *
+     * @param requestFactory the request factory of the transport
+     * @param pool the pool
+     */
+    public PooledRestTemplate(final ClientHttpRequestFactory requestFactory, final BufferPool pool) {
+        super();
+
+        Validate.notNull(pool, "pool should not be null");
+
+        this.pool = pool;
+        setRequestFactory(requestFactory);
+    }
+
+    /**
+     * Gets the pool.
+     *
+     * @return the pool
+     */
+    public BufferPool getBufferPool() {
+        return this.pool;
+    }
+
+    /**
+     * Sets the pool, requests already created keep the previous one.
+     *
+     * @param bufferPool the new buffer pool
+     */
+    public void setBufferPool(final BufferPool bufferPool) {
+        Validate.notNull(bufferPool, "pool should not be null");
+        this.pool = bufferPool;
+        this.interceptingFactory = null;
+    }
+
+    @Override
+    public void setRequestFactory(final ClientHttpRequestFactory requestFactory) {
+        super.setRequestFactory(requestFactory);
+        this.transportFactory = requestFactory;
+        this.interceptingFactory = null;
+    }
+
+    @Override
+    public void setInterceptors(final List<ClientHttpRequestInterceptor> interceptors) {
+        super.setInterceptors(interceptors);
+        this.interceptingFactory = null;
+    }
+
+    @Override
+    public ClientHttpRequestFactory getRequestFactory() {
+
+        List<ClientHttpRequestInterceptor> interceptors = getInterceptors();
+
+        if (interceptors.isEmpty()) {
+            return this.transportFactory;
+        }
+
+        ClientHttpRequestFactory factory = this.interceptingFactory;
+
+        if (factory == null) {
+            factory = new PooledInterceptingRequestFactory(this.transportFactory, interceptors, this.pool);
+            this.interceptingFactory = factory;
+        }
+
+        return factory;
+    }
+}
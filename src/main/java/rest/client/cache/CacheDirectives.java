@@ -0,0 +1,133 @@
+package rest.client.cache;
+
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * The Class CacheDirectives, the Cache-Control directives (RFC 7234 section 5.2) of a request
+ * or a response used by {@link HttpCacheInterceptor}, unknown directives are ignored.
+ *
+ * @author tonioc
+ */
+final class CacheDirectives {
+
+    /**
+     * No directives.
+     */
+    static final CacheDirectives NONE = new CacheDirectives();
+
+    boolean noStore;
+    boolean noCache;
+    boolean mustRevalidate;
+    boolean isPublic;
+    boolean onlyIfCached;
+    long maxAge = -1L;
+    long sMaxAge = -1L;
+    long minFresh = -1L;
+    long maxStale = -1L;
+
+    private CacheDirectives() {
+        super();
+    }
+
+    /**
+     * Parses the Cache-Control headers, a request <i>Pragma: no-cache</i> without Cache-Control is no-cache.
+     *
+     * @param headers the headers
+     * @return the cache directives
+     */
+    static CacheDirectives of(final HttpHeaders headers) {
+
+        List<String> values = headers.get(HttpHeaders.CACHE_CONTROL);
+
+        if (values == null  ||  values.isEmpty()) {
+            List<String> pragma = headers.get(HttpHeaders.PRAGMA);
+
+            if (pragma != null  &&  pragma.stream().anyMatch(p -> p.toLowerCase().contains("no-cache"))) {
+                CacheDirectives directives = new CacheDirectives();
+                directives.noCache = true;
+                return directives;
+            }
+
+            return NONE;
+        }
+
+        CacheDirectives directives = new CacheDirectives();
+
+        for (String value : values) {
+            for (String directive : value.split(",")) {
+                directives.parse(directive.trim().toLowerCase());
+            }
+        }
+
+        return directives;
+    }
+
+    private void parse(final String directive) {
+
+        int eq = directive.indexOf('=');
+        String name = (eq < 0 ? directive : directive.substring(0, eq).trim());
+        String arg = (eq < 0 ? null : directive.substring(eq + 1).trim());
+
+        switch (name) {
+            case "no-store":
+                this.noStore = true;
+                break;
+            case "no-cache":
+                // no-cache="header" only restricts those headers, revalidating is stricter.
+                this.noCache = true;
+                break;
+            case "must-revalidate":
+            case "proxy-revalidate":
+                this.mustRevalidate = true;
+                break;
+            case "public":
+                this.isPublic = true;
+                break;
+            case "only-if-cached":
+                this.onlyIfCached = true;
+                break;
+            case "max-age":
+                this.maxAge = seconds(arg);
+                break;
+            case "s-maxage":
+                this.sMaxAge = seconds(arg);
+                break;
+            case "min-fresh":
+                this.minFresh = seconds(arg);
+                break;
+            case "max-stale":
+                this.maxStale = (arg == null ? Long.MAX_VALUE : seconds(arg));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Delta seconds of a directive, -1 if missing or invalid, a too big value is Integer.MAX_VALUE
+     * (RFC 7234 section 1.2.1).
+     *
+     * @param arg the argument
+     * @return the seconds
+     */
+    private static long seconds(final String arg) {
+
+        if (arg == null) {
+            return -1L;
+        }
+
+        String value = (arg.startsWith("\"") && arg.endsWith("\"") && arg.length() > 1
+                ? arg.substring(1, arg.length() - 1)
+                : arg);
+
+        try {
+            long seconds = Long.parseLong(value);
+            return (seconds < 0 ? -1L : Math.min(seconds, Integer.MAX_VALUE));
+        }
+        catch (NumberFormatException ex) {
+            return (value.chars().allMatch(Character::isDigit) && !value.isEmpty() ? Integer.MAX_VALUE : -1L);
+        }
+    }
+}
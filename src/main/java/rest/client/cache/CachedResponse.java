@@ -0,0 +1,350 @@
+package rest.client.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * The Class CachedResponse, a stored response and the times needed to calculate its age
+ * and freshness (RFC 7234 section 4.2), immutable.
+ *
+ * @author tonioc
+ */
+final class CachedResponse {
+
+    private static final long HEURISTIC_MAX_MILLIS = 24L * 60 * 60 * 1_000;
+
+    private final int status;
+    private final String statusText;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final long requestTime;
+    private final long responseTime;
+    private final Map<String, List<String>> varyValues;
+    private final CacheDirectives directives;
+    private final long freshnessLifetime;
+    private final long correctedInitialAge;
+
+    /**
+     * Instantiates a new cached response.
+     *
+     * @param status the status
+     * @param statusText the status text
+     * @param headers the response headers
+     * @param body the body, not copied
+     * @param requestTime the time the request was sent, in millis
+     * @param responseTime the time the response was received, in millis
+     * @param requestHeaders the request headers, the values of the headers named in Vary are kept
+     */
+    CachedResponse(final int status
+            , final String statusText
+            , final HttpHeaders headers
+            , final byte[] body
+            , final long requestTime
+            , final long responseTime
+            , final HttpHeaders requestHeaders) {
+
+        this.status = status;
+        this.statusText = statusText;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(copyOf(headers));
+        this.body = body;
+        this.requestTime = requestTime;
+        this.responseTime = responseTime;
+        this.directives = CacheDirectives.of(this.headers);
+        this.varyValues = varyValues(this.headers, requestHeaders);
+        this.freshnessLifetime = freshnessLifetime();
+        this.correctedInitialAge = correctedInitialAge();
+    }
+
+    /**
+     * A copy of this response updated with the headers of a 304 (RFC 7234 section 4.3.4).
+     *
+     * @param notModified the headers of the 304 response
+     * @param newRequestTime the request time of the revalidation
+     * @param newResponseTime the response time of the revalidation
+     * @param requestHeaders the request headers
+     * @return the updated cached response
+     */
+    CachedResponse revalidated(final HttpHeaders notModified
+            , final long newRequestTime
+            , final long newResponseTime
+            , final HttpHeaders requestHeaders) {
+
+        HttpHeaders merged = copyOf(this.headers);
+
+        notModified.forEach((name, values) -> {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)
+                    &&  !HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)
+                    &&  !HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                merged.put(name, values);
+            }
+        });
+
+        return new CachedResponse(this.status, this.statusText, merged, this.body
+                , newRequestTime, newResponseTime, requestHeaders);
+    }
+
+    /**
+     * Checks if the Vary headers of the request match the ones of the request that got this response.
+     *
+     * @param requestHeaders the request headers
+     * @return true, if it can be used for the request
+     */
+    boolean matches(final HttpHeaders requestHeaders) {
+
+        for (Map.Entry<String, List<String>> vary : this.varyValues.entrySet()) {
+            if (!Objects.equals(vary.getValue(), requestHeaders.get(vary.getKey()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if fresh enough for a request with the directives.
+     *
+     * @param now the now, in millis
+     * @param request the request directives
+     * @return true, if it can be served without revalidation
+     */
+    boolean isFresh(final long now, final CacheDirectives request) {
+
+        if (this.directives.noCache  ||  request.noCache) {
+            return false;
+        }
+
+        long age = currentAge(now);
+        long lifetime = this.freshnessLifetime;
+
+        if (request.maxAge >= 0) {
+            lifetime = Math.min(lifetime, request.maxAge * 1_000);
+        }
+
+        if (request.minFresh >= 0) {
+            age += request.minFresh * 1_000;
+        }
+
+        if (age < lifetime) {
+            return true;
+        }
+
+        // serving stale is not allowed for must-revalidate responses.
+        return request.maxStale >= 0
+                &&  !this.directives.mustRevalidate
+                &&  (request.maxStale == Long.MAX_VALUE  ||  age - lifetime < request.maxStale * 1_000);
+    }
+
+    /**
+     * Checks for validators, ETag or Last-Modified.
+     *
+     * @return true, if it can be revalidated with a conditional request
+     */
+    boolean hasValidators() {
+        return this.headers.getETag() != null  ||  this.headers.containsKey(HttpHeaders.LAST_MODIFIED);
+    }
+
+    /**
+     * Adds the conditional headers, If-None-Match and If-Modified-Since, to a request.
+     *
+     * @param requestHeaders the request headers
+     */
+    void addConditions(final HttpHeaders requestHeaders) {
+
+        String etag = this.headers.getETag();
+
+        if (etag != null) {
+            requestHeaders.setIfNoneMatch(etag);
+        }
+
+        String lastModified = this.headers.getFirst(HttpHeaders.LAST_MODIFIED);
+
+        if (lastModified != null) {
+            requestHeaders.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        }
+    }
+
+    /**
+     * Current age, in millis (RFC 7234 section 4.2.3).
+     *
+     * @param now the now, in millis
+     * @return the current age
+     */
+    long currentAge(final long now) {
+        return this.correctedInitialAge + Math.max(0L, now - this.responseTime);
+    }
+
+    /**
+     * Gets the size of the body.
+     *
+     * @return the size in bytes
+     */
+    int size() {
+        return this.body.length;
+    }
+
+    /**
+     * A new response with this status, headers and body, and the Age header.
+     *
+     * @param now the now, in millis
+     * @return the client http response
+     */
+    ClientHttpResponse toResponse(final long now) {
+
+        HttpHeaders responseHeaders = copyOf(this.headers);
+        responseHeaders.set(HttpHeaders.AGE, Long.toString(currentAge(now) / 1_000));
+
+        return new CachedClientHttpResponse(this.status, this.statusText
+                , HttpHeaders.readOnlyHttpHeaders(responseHeaders), this.body);
+    }
+
+    /**
+     * The 504 (Gateway Timeout) answered to only-if-cached requests not in the cache (RFC 7234 section 5.2.1.7).
+     *
+     * @return the client http response
+     */
+    static ClientHttpResponse gatewayTimeout() {
+        return new CachedClientHttpResponse(HttpStatus.GATEWAY_TIMEOUT.value()
+                , HttpStatus.GATEWAY_TIMEOUT.getReasonPhrase()
+                , HttpHeaders.EMPTY
+                , new byte[0]);
+    }
+
+    /**
+     * Freshness lifetime, in millis (RFC 7234 section 4.2.1), as a private cache s-maxage is ignored.
+     *
+     * @return the freshness lifetime
+     */
+    private long freshnessLifetime() {
+
+        if (this.directives.maxAge >= 0) {
+            return this.directives.maxAge * 1_000;
+        }
+
+        long date = dateOf(HttpHeaders.DATE);
+        date = (date < 0 ? this.responseTime : date);
+
+        if (this.headers.containsKey(HttpHeaders.EXPIRES)) {
+            // an invalid Expires, ex. "0", means already expired.
+            return Math.max(0L, this.headers.getExpires() - date);
+        }
+
+        long lastModified = dateOf(HttpHeaders.LAST_MODIFIED);
+
+        if (lastModified >= 0  &&  lastModified < date) {
+            // heuristic freshness (section 4.2.2), 10% of the time since last modified.
+            return Math.min(HEURISTIC_MAX_MILLIS, (date - lastModified) / 10);
+        }
+
+        return 0L;
+    }
+
+    /**
+     * Corrected initial age, in millis (RFC 7234 section 4.2.3).
+     *
+     * @return the corrected initial age
+     */
+    private long correctedInitialAge() {
+
+        long date = dateOf(HttpHeaders.DATE);
+        long apparentAge = (date < 0 ? 0L : Math.max(0L, this.responseTime - date));
+        long ageValue = 0L;
+
+        try {
+            String age = this.headers.getFirst(HttpHeaders.AGE);
+            ageValue = (age == null ? 0L : Math.max(0L, Long.parseLong(age.trim()) * 1_000));
+        }
+        catch (NumberFormatException ex) {
+            // invalid Age header, ignored.
+        }
+
+        long correctedAgeValue = ageValue + (this.responseTime - this.requestTime);
+
+        return Math.max(apparentAge, correctedAgeValue);
+    }
+
+    private long dateOf(final String name) {
+        try {
+            return this.headers.getFirstDate(name);
+        }
+        catch (IllegalArgumentException ex) {
+            return -1L;
+        }
+    }
+
+    private static Map<String, List<String>> varyValues(final HttpHeaders headers, final HttpHeaders requestHeaders) {
+
+        List<String> vary = headers.getVary();
+
+        if (vary.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        vary.forEach(name -> values.put(name, requestHeaders.get(name)));
+
+        return values;
+    }
+
+    private static HttpHeaders copyOf(final HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        return copy;
+    }
+
+    /**
+     * The response served from the cache.
+     */
+    private static final class CachedClientHttpResponse implements ClientHttpResponse {
+
+        private final int status;
+        private final String statusText;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        CachedClientHttpResponse(final int status, final String statusText, final HttpHeaders headers, final byte[] body) {
+            this.status = status;
+            this.statusText = statusText;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(this.body);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.headers;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.valueOf(this.status);
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return this.status;
+        }
+
+        @Override
+        public String getStatusText() {
+            return this.statusText;
+        }
+
+        @Override
+        public void close() {
+            // nothing to release.
+        }
+    }
+}
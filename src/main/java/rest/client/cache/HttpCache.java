@@ -0,0 +1,337 @@
+package rest.client.cache;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.http.HttpHeaders;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * The Class HttpCache, in memory storage of the responses cached by {@link HttpCacheInterceptor},
+ * bounded by entries and bytes, the least recently used URIs are evicted first.
+ *
+ * <P>Each URI keeps up to {@link #MAX_VARIANTS} responses, one per combination of the request headers
+ * named in its Vary header.
+ *
+ * <h2>Simple use:</h2>
+ * <pre>
+ * {@code
+ * ....
+ *    HttpCache cache = new HttpCache()
+ *          .withMaxEntries(500)
+ *          .withMaxBytes(5 * 1024 * 1024);
+ *
+ *    StrictRestClient strictRest = new StrictRestClient()
+ *          .withCache(cache);
+ * ....
+ * }
+ * </pre>
+ *
+ * <P>Hits, misses and revalidations are counted, it is a {@link MeterBinder} exposing them as
+ * {@value #REQUESTS} (tagged by <i>result</i>) and the cache size as {@value #SIZE}.
+ *
+ * @author tonioc
+ */
+public class HttpCache implements MeterBinder {
+
+    /**
+     * The Constant DEFAULT_MAX_ENTRIES = {@value #DEFAULT_MAX_ENTRIES}.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1_000;
+
+    /**
+     * The Constant DEFAULT_MAX_BYTES = {@value #DEFAULT_MAX_BYTES}.
+     */
+    public static final long DEFAULT_MAX_BYTES = 10L * 1024 * 1024;
+
+    /**
+     * The Constant DEFAULT_MAX_ENTRY_BYTES = {@value #DEFAULT_MAX_ENTRY_BYTES}.
+     */
+    public static final int DEFAULT_MAX_ENTRY_BYTES = 512 * 1024;
+
+    /**
+     * The Constant MAX_VARIANTS = {@value #MAX_VARIANTS}, responses kept per URI.
+     */
+    public static final int MAX_VARIANTS = 4;
+
+    /**
+     * The Constant REQUESTS = {@value #REQUESTS}.
+     */
+    public static final String REQUESTS = "reliant.client.cache.requests";
+
+    /**
+     * The Constant SIZE = {@value #SIZE}.
+     */
+    public static final String SIZE = "reliant.client.cache.size";
+
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private int maxEntryBytes = DEFAULT_MAX_ENTRY_BYTES;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+
+    // access ordered, the first is the least recently used.
+    private final LinkedHashMap<String, List<CachedResponse>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private int entryCount;
+    private long bytes;
+
+    /**
+     * Max responses kept.
+     *
+     * @param max the max, if less or equal 0 {@link #DEFAULT_MAX_ENTRIES} will be used.
+     * @return the http cache
+     */
+    public synchronized HttpCache withMaxEntries(final int max) {
+        this.maxEntries = (max <= 0 ? DEFAULT_MAX_ENTRIES : max);
+        evict();
+        return this;
+    }
+
+    /**
+     * Max bytes of the bodies kept.
+     *
+     * @param max the max, if less or equal 0 {@link #DEFAULT_MAX_BYTES} will be used.
+     * @return the http cache
+     */
+    public synchronized HttpCache withMaxBytes(final long max) {
+        this.maxBytes = (max <= 0 ? DEFAULT_MAX_BYTES : max);
+        evict();
+        return this;
+    }
+
+    /**
+     * Max bytes of a body to be cached, bigger responses are not buffered nor cached.
+     *
+     * @param max the max, if less or equal 0 {@link #DEFAULT_MAX_ENTRY_BYTES} will be used.
+     * @return the http cache
+     */
+    public synchronized HttpCache withMaxEntryBytes(final int max) {
+        this.maxEntryBytes = (max <= 0 ? DEFAULT_MAX_ENTRY_BYTES : max);
+        return this;
+    }
+
+    /**
+     * Gets the max bytes of a body to be cached.
+     *
+     * @return the max entry bytes
+     */
+    public synchronized int getMaxEntryBytes() {
+        return this.maxEntryBytes;
+    }
+
+    /**
+     * Gets the responses served from the cache without contacting the server.
+     *
+     * @return the hits
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Gets the requests sent to the server without a response to revalidate, or whose
+     * revalidation returned a new response.
+     *
+     * @return the misses
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Gets the responses served from the cache after a 304 (Not Modified) revalidation.
+     *
+     * @return the revalidations
+     */
+    public long getRevalidations() {
+        return this.revalidations.sum();
+    }
+
+    /**
+     * Gets the responses kept.
+     *
+     * @return the size
+     */
+    public synchronized int getSize() {
+        return this.entryCount;
+    }
+
+    /**
+     * Gets the bytes of the bodies kept.
+     *
+     * @return the bytes
+     */
+    public synchronized long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Removes the responses of an URI.
+     *
+     * @param uri the uri
+     */
+    public void invalidate(final URI uri) {
+        remove(keyOf(uri));
+    }
+
+    /**
+     * Removes all the responses.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.entryCount = 0;
+        this.bytes = 0L;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+
+        FunctionCounter.builder(REQUESTS, this.hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder(REQUESTS, this.misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder(REQUESTS, this.revalidations, LongAdder::sum).tag("result", "revalidated")
+            .register(registry);
+
+        Gauge.builder(SIZE, this, HttpCache::getSize).register(registry);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("HttpCache [hits=").append(getHits())
+            .append(", misses=").append(getMisses())
+            .append(", revalidations=").append(getRevalidations())
+            .append(", size=").append(getSize())
+            .append(", bytes=").append(getBytes())
+            .append("]");
+        return builder.toString();
+    }
+
+    // ============================================================================
+    //   ### -  Used by HttpCacheInterceptor
+    // ============================================================================
+
+    void onHit() {
+        this.hits.increment();
+    }
+
+    void onMiss() {
+        this.misses.increment();
+    }
+
+    void onRevalidation() {
+        this.revalidations.increment();
+    }
+
+    /**
+     * Gets the response stored for an URI matching the Vary headers of the request.
+     *
+     * @param key the key, see {@link #keyOf(URI)}
+     * @param requestHeaders the request headers
+     * @return the cached response or null if none
+     */
+    synchronized CachedResponse get(final String key, final HttpHeaders requestHeaders) {
+
+        List<CachedResponse> variants = this.entries.get(key);
+
+        if (variants != null) {
+            for (CachedResponse variant : variants) {
+                if (variant.matches(requestHeaders)) {
+                    return variant;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Stores a response, replacing the one with the same Vary headers if any.
+     *
+     * @param key the key, see {@link #keyOf(URI)}
+     * @param response the response
+     * @param requestHeaders the request headers
+     */
+    synchronized void put(final String key, final CachedResponse response, final HttpHeaders requestHeaders) {
+
+        List<CachedResponse> variants = this.entries.computeIfAbsent(key, k -> new ArrayList<>(1));
+        Iterator<CachedResponse> it = variants.iterator();
+
+        while (it.hasNext()) {
+            CachedResponse variant = it.next();
+
+            if (variant.matches(requestHeaders)) {
+                it.remove();
+                this.entryCount--;
+                this.bytes -= variant.size();
+            }
+        }
+
+        if (variants.size() >= MAX_VARIANTS) {
+            CachedResponse oldest = variants.remove(0);
+            this.entryCount--;
+            this.bytes -= oldest.size();
+        }
+
+        variants.add(response);
+        this.entryCount++;
+        this.bytes += response.size();
+
+        evict();
+    }
+
+    /**
+     * Removes the responses of an URI.
+     *
+     * @param key the key, see {@link #keyOf(URI)}
+     */
+    synchronized void remove(final String key) {
+
+        List<CachedResponse> variants = this.entries.remove(key);
+
+        if (variants != null) {
+            variants.forEach(v -> {
+                this.entryCount--;
+                this.bytes -= v.size();
+            });
+        }
+    }
+
+    /**
+     * The key of an URI, without fragment.
+     *
+     * @param uri the uri
+     * @return the key
+     */
+    static String keyOf(final URI uri) {
+        String key = uri.toString();
+        int fragment = key.indexOf('#');
+        return (fragment < 0 ? key : key.substring(0, fragment));
+    }
+
+    private void evict() {
+
+        Iterator<Map.Entry<String, List<CachedResponse>>> it = this.entries.entrySet().iterator();
+
+        while ((this.entryCount > this.maxEntries  ||  this.bytes > this.maxBytes)  &&  it.hasNext()) {
+            List<CachedResponse> variants = it.next().getValue();
+            it.remove();
+
+            for (CachedResponse v : variants) {
+                this.entryCount--;
+                this.bytes -= v.size();
+            }
+        }
+    }
+}
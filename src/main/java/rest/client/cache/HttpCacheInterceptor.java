@@ -0,0 +1,266 @@
+package rest.client.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * The Class HttpCacheInterceptor, a private HTTP cache (RFC 7234) of GET responses kept in a {@link HttpCache}.
+ *
+ * <ul>
+ *   <li>Fresh responses (Cache-Control max-age, Expires or heuristic from Last-Modified) are served
+ *       without contacting the server.</li>
+ *   <li>Stale responses with ETag or Last-Modified are revalidated with If-None-Match / If-Modified-Since,
+ *       on 304 (Not Modified) the cached response is served, updated with the 304 headers.</li>
+ *   <li>Request Cache-Control no-cache, max-age, min-fresh, max-stale and only-if-cached are honored,
+ *       no-store requests and requests with their own conditional headers bypass the cache.</li>
+ *   <li>Responses are stored per Vary headers, Vary: * is never stored.</li>
+ *   <li>Successful POST, PUT, PATCH and DELETE invalidate the responses of their URI.</li>
+ * </ul>
+ *
+ * <P>Should be the first interceptor, a hit does not go through any other one: it is never retried,
+ * recorded in metrics nor counted by circuit breakers, limiters and retry budgets of hosts.
+ *
+ * @author tonioc
+ */
+public class HttpCacheInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Set<Integer> CACHEABLE_BY_DEFAULT = Collections.unmodifiableSet(new HashSet<>(
+            Arrays.asList(200, 203, 204, 300, 301, 404, 405, 410, 414, 501)));
+
+    private static final Set<HttpMethod> INVALIDATING = Collections.unmodifiableSet(new HashSet<>(
+            Arrays.asList(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE)));
+
+    private final HttpCache cache;
+
+    /**
+     * Instantiates a new http cache interceptor.
+     *
+     * @param cache the cache, may be shared with other interceptors.
+     */
+    public HttpCacheInterceptor(final HttpCache cache) {
+        Validate.notNull(cache, "cache should not be null");
+        this.cache = cache;
+    }
+
+    /**
+     * Gets the cache.
+     *
+     * @return the cache
+     */
+    public HttpCache getCache() {
+        return this.cache;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request
+            , final byte[] body
+            , final ClientHttpRequestExecution execution) throws IOException {
+
+        HttpMethod method = request.getMethod();
+        HttpHeaders requestHeaders = request.getHeaders();
+
+        if (method != HttpMethod.GET) {
+
+            ClientHttpResponse response = execution.execute(request, body);
+
+            if (INVALIDATING.contains(method)  &&  response.getRawStatusCode() < 400) {
+                this.cache.invalidate(request.getURI());
+            }
+
+            return response;
+        }
+
+        CacheDirectives directives = CacheDirectives.of(requestHeaders);
+
+        if (directives.noStore  ||  isConditional(requestHeaders)) {
+            return execution.execute(request, body);
+        }
+
+        String key = HttpCache.keyOf(request.getURI());
+        CachedResponse cached = this.cache.get(key, requestHeaders);
+        long now = System.currentTimeMillis();
+
+        if (cached != null  &&  cached.isFresh(now, directives)) {
+            this.cache.onHit();
+            return cached.toResponse(now);
+        }
+
+        if (directives.onlyIfCached) {
+            this.cache.onMiss();
+            return CachedResponse.gatewayTimeout();
+        }
+
+        if (cached != null  &&  cached.hasValidators()) {
+            cached.addConditions(requestHeaders);
+        }
+        else {
+            cached = null;
+        }
+
+        long requestTime = System.currentTimeMillis();
+        ClientHttpResponse response = execution.execute(request, body);
+        long responseTime = System.currentTimeMillis();
+
+        if (cached != null  &&  response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+            CachedResponse updated = cached.revalidated(response.getHeaders(), requestTime, responseTime, requestHeaders);
+            response.close();
+
+            this.cache.put(key, updated, requestHeaders);
+            this.cache.onRevalidation();
+
+            return updated.toResponse(responseTime);
+        }
+
+        this.cache.onMiss();
+
+        if (!isStorable(requestHeaders, response)) {
+            return response;
+        }
+
+        return store(key, requestHeaders, response, requestTime, responseTime);
+    }
+
+    /**
+     * Buffers the body and stores the response if not bigger than the max entry bytes.
+     *
+     * @return the response to return, its body read from the buffer.
+     */
+    private ClientHttpResponse store(final String key
+            , final HttpHeaders requestHeaders
+            , final ClientHttpResponse response
+            , final long requestTime
+            , final long responseTime) throws IOException {
+
+        int maxEntryBytes = this.cache.getMaxEntryBytes();
+
+        if (response.getHeaders().getContentLength() > maxEntryBytes) {
+            return response;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        InputStream in = response.getBody();
+        byte[] chunk = new byte[4_096];
+        int read;
+
+        while (buffer.size() <= maxEntryBytes  &&  (read = in.read(chunk)) != -1) {
+            buffer.write(chunk, 0, read);
+        }
+
+        if (buffer.size() > maxEntryBytes) {
+            // too big, the bytes read are given back in front of the rest of the body.
+            return new BufferedClientHttpResponse(response
+                    , new SequenceInputStream(new ByteArrayInputStream(buffer.toByteArray()), in));
+        }
+
+        CachedResponse cached = new CachedResponse(response.getRawStatusCode()
+                , response.getStatusText()
+                , response.getHeaders()
+                , buffer.toByteArray()
+                , requestTime
+                , responseTime
+                , requestHeaders);
+
+        this.cache.put(key, cached, requestHeaders);
+        response.close();
+
+        return cached.toResponse(responseTime);
+    }
+
+    /**
+     * Checks if the response may be stored (RFC 7234 section 3).
+     */
+    private static boolean isStorable(final HttpHeaders requestHeaders, final ClientHttpResponse response)
+            throws IOException {
+
+        HttpHeaders headers = response.getHeaders();
+        CacheDirectives directives = CacheDirectives.of(headers);
+
+        if (directives.noStore  ||  headers.getVary().contains("*")) {
+            return false;
+        }
+
+        if (requestHeaders.containsKey(HttpHeaders.AUTHORIZATION)
+                &&  !(directives.isPublic  ||  directives.mustRevalidate  ||  directives.sMaxAge >= 0)) {
+            return false;
+        }
+
+        boolean explicit = directives.maxAge >= 0  ||  headers.containsKey(HttpHeaders.EXPIRES);
+
+        if (!explicit  &&  !CACHEABLE_BY_DEFAULT.contains(response.getRawStatusCode())) {
+            return false;
+        }
+
+        // worth storing, fresh for a while or can be revalidated.
+        return explicit
+                ||  headers.getETag() != null
+                ||  headers.containsKey(HttpHeaders.LAST_MODIFIED);
+    }
+
+    private static boolean isConditional(final HttpHeaders requestHeaders) {
+        return requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH)
+                ||  requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE)
+                ||  requestHeaders.containsKey(HttpHeaders.IF_MATCH)
+                ||  requestHeaders.containsKey(HttpHeaders.IF_UNMODIFIED_SINCE)
+                ||  requestHeaders.containsKey(HttpHeaders.RANGE);
+    }
+
+    /**
+     * A response whose body was partially read.
+     */
+    private static final class BufferedClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final InputStream body;
+
+        BufferedClientHttpResponse(final ClientHttpResponse delegate, final InputStream body) {
+            this.delegate = delegate;
+            this.body = body;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return this.body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.delegate.getHeaders();
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return this.delegate.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return this.delegate.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return this.delegate.getStatusText();
+        }
+
+        @Override
+        public void close() {
+            this.delegate.close();
+        }
+    }
+}
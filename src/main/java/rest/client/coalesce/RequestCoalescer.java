@@ -0,0 +1,303 @@
+package rest.client.coalesce;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The Class RequestCoalescer, single-flight of idempotent requests: while a request is in flight, identical
+ * requests (same method, URI, response type and selected headers) wait for its result instead of being sent.
+ *
+ * <P>The whole group shares the execution, retries included, all of them get the same response
+ * or the same exception. Mutable bodies are copied for each request, the one executing it included,
+ * {@link JsonNode} by default, see {@link #withCopier(Class, UnaryOperator)}, other bodies are shared and
+ * should be treated as read only.
+ *
+ * <h2>Simple use:</h2>
+ * <pre>
+ * {@code
+ * ....
+ *    StrictRestClient strictRest = new StrictRestClient()
+ *          .withCoalescing(new RequestCoalescer());
+ *
+ *    ResponseEntity<JsonNode> result = strictRest.executeCoalesced(
+ *          RequestEntity.get(URI.create("http://localhost:9090/ok")).build()
+ *          , JsonNode.class);
+ * ....
+ * }
+ * </pre>
+ *
+ * <P>Keys do not include the client, an instance should only be shared by clients with the same configuration.
+ *
+ * @author tonioc
+ */
+public class RequestCoalescer {
+
+    /**
+     * The headers that are part of the key by default, Accept, Accept-Language and Authorization.
+     */
+    public static final List<String> DEFAULT_KEY_HEADERS = Collections.unmodifiableList(Arrays.asList(
+            HttpHeaders.ACCEPT
+            , HttpHeaders.ACCEPT_LANGUAGE
+            , HttpHeaders.AUTHORIZATION));
+
+    private List<String> keyHeaders = DEFAULT_KEY_HEADERS;
+    private final Map<Class<?>, UnaryOperator<Object>> copiers = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Key, CompletableFuture<ResponseEntity<?>>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    /**
+     * Instantiates a new request coalescer.
+     */
+    public RequestCoalescer() {
+        withCopier(JsonNode.class, JsonNode::deepCopy);
+    }
+
+    /**
+     * The request headers that are part of the key, requests differing in other headers are coalesced.
+     *
+     * @param headers the header names, case insensitive
+     * @return the request coalescer
+     */
+    public RequestCoalescer withKeyHeaders(final String... headers) {
+        Validate.noNullElements(headers, "header names should not be null");
+
+        TreeSet<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        names.addAll(Arrays.asList(headers));
+        this.keyHeaders = Collections.unmodifiableList(new ArrayList<>(names));
+
+        return this;
+    }
+
+    /**
+     * How bodies of a type are copied for the followers.
+     *
+     * @param <T> the generic type
+     * @param type the body type, applies to its subclasses too
+     * @param copier the copier
+     * @return the request coalescer
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RequestCoalescer withCopier(final Class<T> type, final UnaryOperator<T> copier) {
+        Validate.notNull(type, "type should not be null");
+        Validate.notNull(copier, "copier should not be null");
+        this.copiers.put(type, (UnaryOperator<Object>) copier);
+        return this;
+    }
+
+    /**
+     * Gets the executions done, one per group of coalesced requests.
+     *
+     * @return the executed
+     */
+    public long getExecuted() {
+        return this.executed.sum();
+    }
+
+    /**
+     * Gets the requests collapsed, the ones that waited for the execution of an identical one.
+     *
+     * @return the collapsed
+     */
+    public long getCollapsed() {
+        return this.collapsed.sum();
+    }
+
+    /**
+     * Gets the executions in flight.
+     *
+     * @return the in flight
+     */
+    public int getInFlight() {
+        return this.inFlight.size();
+    }
+
+    /**
+     * Executes the call, or waits for the identical one in flight. Requests not GET, HEAD nor OPTIONS
+     * are always executed.
+     *
+     * @param <T> the generic type
+     * @param request the request, used as key
+     * @param responseType the response type, part of the key
+     * @param call the call executing the request, in this thread.
+     * @return the response entity
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(final RequestEntity<?> request
+            , final Class<T> responseType
+            , final Supplier<ResponseEntity<T>> call) {
+
+        Validate.notNull(request, "request should not be null");
+        Validate.notNull(call, "call should not be null");
+
+        if (!isIdempotent(request.getMethod())) {
+            return call.get();
+        }
+
+        Key key = new Key(request.getMethod(), request.getUrl(), responseType, keyHeaderValues(request.getHeaders()));
+        CompletableFuture<ResponseEntity<?>> flight = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> leader = this.inFlight.putIfAbsent(key, flight);
+
+        if (leader != null) {
+            this.collapsed.increment();
+            return copyOf((ResponseEntity<T>) await(leader));
+        }
+
+        this.executed.increment();
+
+        try {
+            ResponseEntity<T> response = call.get();
+            // removed first, requests arriving now start a new execution.
+            this.inFlight.remove(key, flight);
+            flight.complete(response);
+            // the followers copy the response of the flight, it must not be changed.
+            return copyOf(response);
+        }
+        catch (RuntimeException | Error ex) {
+            this.inFlight.remove(key, flight);
+            flight.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("RequestCoalescer [executed=").append(getExecuted())
+            .append(", collapsed=").append(getCollapsed())
+            .append(", inFlight=").append(getInFlight())
+            .append("]");
+        return builder.toString();
+    }
+
+    private static ResponseEntity<?> await(final CompletableFuture<ResponseEntity<?>> leader) {
+        try {
+            return leader.get();
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new RuntimeException("Execute coalesced error", ex.getCause());
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Execute coalesced interrupted", ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> copyOf(final ResponseEntity<T> response) {
+
+        T body = response.getBody();
+
+        if (body == null) {
+            return response;
+        }
+
+        UnaryOperator<Object> copier = this.copiers.get(body.getClass());
+
+        if (copier == null) {
+            copier = this.copiers.entrySet().stream()
+                    .filter(e -> e.getKey().isInstance(body))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        if (copier == null) {
+            return response;
+        }
+
+        return new ResponseEntity<>((T) copier.apply(body), response.getHeaders(), response.getStatusCodeValue());
+    }
+
+    private Map<String, List<String>> keyHeaderValues(final HttpHeaders headers) {
+
+        Map<String, List<String>> values = new LinkedHashMap<>();
+
+        for (String name : this.keyHeaders) {
+            List<String> value = headers.get(name);
+
+            if (value != null) {
+                values.put(name.toLowerCase(), value);
+            }
+        }
+
+        return values;
+    }
+
+    private static boolean isIdempotent(final HttpMethod method) {
+        return method == HttpMethod.GET  ||  method == HttpMethod.HEAD  ||  method == HttpMethod.OPTIONS;
+    }
+
+    /**
+     * The key of a request.
+     */
+    private static final class Key {
+
+        private final HttpMethod method;
+        private final URI uri;
+        private final Class<?> responseType;
+        private final Map<String, List<String>> headers;
+        private final int hash;
+
+        Key(final HttpMethod method, final URI uri, final Class<?> responseType, final Map<String, List<String>> headers) {
+            this.method = method;
+            this.uri = uri;
+            this.responseType = responseType;
+            this.headers = headers;
+            this.hash = Objects.hash(method, uri, responseType, headers);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return this.method == other.method
+                    &&  this.uri.equals(other.uri)
+                    &&  Objects.equals(this.responseType, other.responseType)
+                    &&  this.headers.equals(other.headers);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package rest.client.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+
+/**
+ * The Class CompressionInterceptor, asks for compressed responses (<i>Accept-Encoding: gzip, deflate</i>)
+ * and decompresses them while they are read, the body is never buffered, the converters and every
+ * interceptor before this one see the decompressed body and headers (no <i>Content-Encoding</i>
+ * nor <i>Content-Length</i>).
+ *
+ * <P>Request bodies of at least {@link #withRequestCompression(int)} bytes are sent gzipped, with
+ * <i>Content-Encoding: gzip</i>, disabled by default as the server must accept them.
+ *
+ * <P>The headers added are only seen by the interceptors after this one, so the interceptors before it
+ * (ex. the cache matching <i>Vary: Accept-Encoding</i>) see the request as it was built.
+ * Responses already decompressed by the transport (Apache HttpClient does it) are left as they are.
+ *
+ * @author tonioc
+ */
+public class CompressionInterceptor implements ClientHttpRequestInterceptor {
+
+    /**
+     * The Constant ACCEPT_ENCODING = {@value #ACCEPT_ENCODING}.
+     */
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    /**
+     * The Constant GZIP = {@value #GZIP}.
+     */
+    public static final String GZIP = "gzip";
+
+    /**
+     * The Constant DEFLATE = {@value #DEFLATE}.
+     */
+    public static final String DEFLATE = "deflate";
+
+    private volatile int requestMinBytes = -1;
+
+    /**
+     * Request bodies of at least minBytes bytes are sent gzipped, bodies already encoded are sent as they are.
+     *
+     * @param minBytes the min bytes of the body, small bodies grow when compressed.
+     * @return the compression interceptor
+     */
+    public CompressionInterceptor withRequestCompression(final int minBytes) {
+        Validate.isTrue(minBytes >= 0, "minBytes should be positive or 0, it is: %d", minBytes);
+        this.requestMinBytes = minBytes;
+        return this;
+    }
+
+    /**
+     * Gets the min bytes of a request body to be compressed.
+     *
+     * @return the min bytes, -1 when request bodies are not compressed
+     */
+    public int getRequestMinBytes() {
+        return this.requestMinBytes;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request
+            , final byte[] body
+            , final ClientHttpRequestExecution execution) throws IOException {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(request.getHeaders());
+
+        if (!headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, ACCEPT_ENCODING);
+        }
+
+        byte[] sentBody = body;
+        int minBytes = this.requestMinBytes;
+
+        if (minBytes >= 0
+                &&  body.length > 0
+                &&  body.length >= minBytes
+                &&  !headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+
+            sentBody = gzip(body);
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            headers.setContentLength(sentBody.length);
+        }
+
+        ClientHttpResponse response = execution.execute(new HttpRequestWrapper(request) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        }, sentBody);
+
+        String encoding = getContentEncoding(response.getHeaders());
+
+        return (GZIP.equals(encoding)  ||  DEFLATE.equals(encoding)
+                ? new DecompressingClientHttpResponse(response, GZIP.equals(encoding))
+                : response);
+    }
+
+    /**
+     * Gets the content encoding of the headers, lower case.
+     *
+     * @param headers the headers
+     * @return the content encoding, null if none
+     */
+    static String getContentEncoding(final HttpHeaders headers) {
+        String encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+        return (encoding == null ? null : encoding.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static byte[] gzip(final byte[] body) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,131 @@
+package rest.client.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * The Class DecompressingClientHttpResponse, a gzip or deflate response whose body is decompressed
+ * while it is read.
+ *
+ * <P>The decompressor is created the first time the body is requested, empty bodies (ex. 304, HEAD)
+ * are returned as they are. Deflate bodies may come with the zlib header, as the HTTP spec says,
+ * or raw as some servers send them.
+ *
+ * <P>Closing the response closes the decompressor first, its native memory is freed, and then the
+ * compressed response.
+ *
+ * @author tonioc
+ */
+class DecompressingClientHttpResponse implements ClientHttpResponse {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final ClientHttpResponse response;
+    private final boolean gzip;
+    private final HttpHeaders headers;
+    private InputStream body;
+    private Inflater inflater;
+
+    /**
+     * Instantiates a new decompressing client http response.
+     *
+     * @param response the compressed response
+     * @param gzip true for gzip, false for deflate
+     */
+    DecompressingClientHttpResponse(final ClientHttpResponse response, final boolean gzip) {
+        this.response = response;
+        this.gzip = gzip;
+
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(response.getHeaders());
+        copy.remove(HttpHeaders.CONTENT_ENCODING);
+        copy.remove(HttpHeaders.CONTENT_LENGTH);
+        this.headers = HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+
+        if (this.body == null) {
+            PushbackInputStream in = new PushbackInputStream(this.response.getBody(), 2);
+            byte[] head = new byte[2];
+            int read = IOUtils.read(in, head);
+
+            if (read == 0) {
+                this.body = in;
+            }
+            else {
+                in.unread(head, 0, read);
+
+                if (this.gzip) {
+                    this.body = new GZIPInputStream(in, BUFFER_SIZE);
+                }
+                else {
+                    // not ended by the stream, it is not its default inflater.
+                    this.inflater = new Inflater(!isZlibHeader(head, read));
+                    this.body = new InflaterInputStream(in, this.inflater, BUFFER_SIZE);
+                }
+            }
+        }
+
+        return this.body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return this.headers;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() throws IOException {
+        return this.response.getStatusCode();
+    }
+
+    @Override
+    public int getRawStatusCode() throws IOException {
+        return this.response.getRawStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return this.response.getStatusText();
+    }
+
+    @Override
+    public void close() {
+
+        try {
+            if (this.body != null) {
+                this.body.close();
+            }
+        }
+        catch (IOException ex) {
+            // closing, the response is closed anyway.
+        }
+        finally {
+            if (this.inflater != null) {
+                this.inflater.end();
+            }
+            this.response.close();
+        }
+    }
+
+    /**
+     * Checks if the body starts with a zlib header (RFC 1950): deflate method and a valid check.
+     */
+    private static boolean isZlibHeader(final byte[] head, final int read) {
+        int cmf = head[0] & 0xFF;
+        int flg = (read > 1 ? head[1] & 0xFF : 0);
+
+        return read > 1  &&  (cmf & 0x0F) == 8  &&  ((cmf << 8) | flg) % 31 == 0;
+    }
+}
@@ -0,0 +1,170 @@
+package rest.client.deadline;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+/**
+ * The Class Deadline, the instant a call (all its attempts and back offs) must be done.
+ *
+ * <P>The deadline of the current call is kept in its RetryContext, under the {@link #DEADLINE_ATTRIBUTE}
+ * attribute, transports read it with {@link #current()} to shrink the connect and read timeouts
+ * of each attempt to the remaining time.
+ *
+ * @author tonioc
+ */
+public final class Deadline {
+
+    /**
+     * The RetryContext attribute where the deadline of the call is stored.
+     */
+    public static final String DEADLINE_ATTRIBUTE = "reliant.deadline";
+
+    private static final Sleeper BOUNDED_SLEEPER = Deadline::sleepWithinDeadline;
+
+    private final long timeoutInMillis;
+    private final long expiresAt;
+
+    /**
+     * Instantiates a new deadline.
+     *
+     * @param timeoutInMillis the timeout in millis
+     */
+    private Deadline(final long timeoutInMillis) {
+        this.timeoutInMillis = timeoutInMillis;
+        this.expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMillis);
+    }
+
+    /**
+     * A deadline the given millis from now.
+     *
+     * @param timeoutInMillis the timeout in millis, greater than 0
+     * @return the deadline
+     */
+    public static Deadline afterMillis(final long timeoutInMillis) {
+        Validate.isTrue(timeoutInMillis > 0, "timeout should be greater than 0");
+        return new Deadline(timeoutInMillis);
+    }
+
+    /**
+     * A deadline the given duration from now.
+     *
+     * @param timeout the timeout
+     * @return the deadline
+     */
+    public static Deadline after(final Duration timeout) {
+        Validate.notNull(timeout, "timeout should not be null");
+        return afterMillis(timeout.toMillis());
+    }
+
+    /**
+     * Gets the deadline of the call running in this thread.
+     *
+     * @return the deadline, or null if the call has none.
+     */
+    public static Deadline current() {
+        return of(RetrySynchronizationManager.getContext());
+    }
+
+    /**
+     * Gets the deadline of a call.
+     *
+     * @param context the retry context of the call, may be null.
+     * @return the deadline, or null if the call has none.
+     */
+    public static Deadline of(final RetryContext context) {
+        return (context == null ? null : (Deadline) context.getAttribute(DEADLINE_ATTRIBUTE));
+    }
+
+    /**
+     * Binds this deadline to the call.
+     *
+     * @param context the retry context of the call
+     */
+    public void bind(final RetryContext context) {
+        context.setAttribute(DEADLINE_ATTRIBUTE, this);
+    }
+
+    /**
+     * Gets the time left.
+     *
+     * @return the remaining millis, 0 or less if expired.
+     */
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.expiresAt - System.nanoTime());
+    }
+
+    /**
+     * Checks if expired.
+     *
+     * @return true, if expired
+     */
+    public boolean isExpired() {
+        return this.expiresAt - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Gets the timeout this deadline was created with.
+     *
+     * @return the timeout in millis
+     */
+    public long getTimeoutInMillis() {
+        return this.timeoutInMillis;
+    }
+
+    /**
+     * Shrinks a timeout to the remaining time.
+     *
+     * @param timeoutInMillis the configured timeout, 0 means infinite.
+     * @return the timeout to use, never 0 (infinite).
+     * @throws DeadlineExceededException if expired
+     */
+    public int shrink(final int timeoutInMillis) {
+
+        long remaining = remainingMillis();
+
+        if (remaining <= 0) {
+            throw new DeadlineExceededException(this, null);
+        }
+
+        return (int) (timeoutInMillis <= 0 ? remaining : Math.min(timeoutInMillis, remaining));
+    }
+
+    /**
+     * Copy of the back off policy that never sleeps past the deadline of the current call,
+     * throws {@link DeadlineExceededException} instead.
+     *
+     * <P>Only {@link SleepingBackOffPolicy} can be bounded, other policies are returned as they are.
+     *
+     * @param backOffPolicy the back off policy
+     * @return the bounded back off policy
+     */
+    public static BackOffPolicy bounded(final BackOffPolicy backOffPolicy) {
+        return (backOffPolicy instanceof SleepingBackOffPolicy
+                ? ((SleepingBackOffPolicy<?>) backOffPolicy).withSleeper(BOUNDED_SLEEPER)
+                : backOffPolicy);
+    }
+
+    private static void sleepWithinDeadline(final long backOffPeriod) throws InterruptedException {
+
+        RetryContext context = RetrySynchronizationManager.getContext();
+        Deadline deadline = of(context);
+
+        if (deadline != null  &&  backOffPeriod >= deadline.remainingMillis()) {
+            throw new DeadlineExceededException(deadline, context.getLastThrowable());
+        }
+
+        Thread.sleep(backOffPeriod);
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline [timeout=" + this.timeoutInMillis + "ms, remaining=" + remainingMillis() + "ms]";
+    }
+}
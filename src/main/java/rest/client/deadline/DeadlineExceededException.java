@@ -0,0 +1,38 @@
+package rest.client.deadline;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * The Class DeadlineExceededException, the deadline of the call was reached, or the next back off
+ * would end after it.
+ *
+ * <P>Never retried, the cause is the error of the last attempt, if any.
+ *
+ * @author tonioc
+ */
+public class DeadlineExceededException extends RestClientException {
+
+    private static final long serialVersionUID = -2871536112906359518L;
+
+    private final long timeoutInMillis;
+
+    /**
+     * Instantiates a new deadline exceeded exception.
+     *
+     * @param deadline the deadline
+     * @param cause the error of the last attempt, may be null.
+     */
+    public DeadlineExceededException(final Deadline deadline, final Throwable cause) {
+        super("Deadline of " + deadline.getTimeoutInMillis() + "ms exceeded", cause);
+        this.timeoutInMillis = deadline.getTimeoutInMillis();
+    }
+
+    /**
+     * Gets the timeout of the deadline exceeded.
+     *
+     * @return the timeout in millis
+     */
+    public long getTimeoutInMillis() {
+        return this.timeoutInMillis;
+    }
+}
@@ -0,0 +1,42 @@
+package rest.client.deadline;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * The Class DeadlineInterceptor, when the call has a {@link Deadline} the remaining time is sent
+ * downstream in the {@link #DEADLINE_HEADER} header, an expired call is not sent.
+ *
+ * @author tonioc
+ */
+public class DeadlineInterceptor implements ClientHttpRequestInterceptor {
+
+    /**
+     * The header with the millis left to the caller deadline.
+     */
+    public static final String DEADLINE_HEADER = "X-Deadline-Remaining-Ms";
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request
+            , final byte[] body
+            , final ClientHttpRequestExecution execution) throws IOException {
+
+        Deadline deadline = Deadline.current();
+
+        if (deadline != null) {
+            long remaining = deadline.remainingMillis();
+
+            if (remaining <= 0) {
+                throw new DeadlineExceededException(deadline, null);
+            }
+
+            request.getHeaders().set(DEADLINE_HEADER, Long.toString(remaining));
+        }
+
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,452 @@
+package rest.client.diagnostic;
+
+import java.io.Closeable;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * The Class DiagnosticSink, diagnostics of unexpected responses (bodies that cannot be read, unexpected
+ * media types...) logged without making the request threads wait, neither on System.out nor on
+ * the appenders of the logger.
+ *
+ * <P>{@link #report(Logger, String, Object, String, byte[], int, Charset)} never blocks: the event is
+ * put in a lock-free bounded ring buffer and a background daemon thread takes it out and logs it,
+ * at error level, in the logger given. Events are sampled, at most <i>permitsPerSecond</i> per
+ * host and media type, the rest are dropped, and when the ring is full they are dropped too.
+ * The next event logged for a host and media type tells how many of them were dropped by the sampling.
+ *
+ * <P>During an incident (ex. a downstream suddenly answering HTML) a few samples of each kind
+ * are logged and the request threads go on.
+ *
+ * <P>Meters, it is a {@link MeterBinder}:
+ * <ul>
+ *   <li>{@value #LOGGED} - counter of the events logged.</li>
+ *   <li>{@value #DROPPED} - counter of the events dropped, tagged by <i>reason</i>, <i>sampled</i>
+ *       or <i>full</i>.</li>
+ * </ul>
+ *
+ * @author tonioc
+ */
+public class DiagnosticSink implements MeterBinder, Closeable {
+
+    /**
+     * The Constant DEFAULT_CAPACITY = {@value #DEFAULT_CAPACITY}.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The Constant DEFAULT_PERMITS_PER_SECOND = {@value #DEFAULT_PERMITS_PER_SECOND}.
+     */
+    public static final int DEFAULT_PERMITS_PER_SECOND = 5;
+
+    /**
+     * The Constant MAX_KEYS = {@value #MAX_KEYS}, beyond this host and media type pairs share one sampling window.
+     */
+    public static final int MAX_KEYS = 1024;
+
+    /**
+     * The Constant LOGGED = {@value #LOGGED}.
+     */
+    public static final String LOGGED = "reliant.diagnostic.logged";
+
+    /**
+     * The Constant DROPPED = {@value #DROPPED}.
+     */
+    public static final String DROPPED = "reliant.diagnostic.dropped";
+
+    private static final String OTHER_KEY = "*";
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final DiagnosticSink SHARED = new DiagnosticSink();
+
+    private final AtomicReferenceArray<Event> ring;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final int permitsPerSecond;
+    private final ConcurrentMap<String, SampleWindow> windows = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+
+    private final LongAdder logged = new LongAdder();
+    private final LongAdder droppedSampled = new LongAdder();
+    private final LongAdder droppedFull = new LongAdder();
+
+    private final Thread drainer;
+    private volatile boolean closed;
+
+    /**
+     * Instantiates a new diagnostic sink of {@link #DEFAULT_CAPACITY} events and
+     * {@link #DEFAULT_PERMITS_PER_SECOND} per host and media type.
+     */
+    public DiagnosticSink() {
+        this(DEFAULT_CAPACITY, DEFAULT_PERMITS_PER_SECOND);
+    }
+
+    /**
+     * Instantiates a new diagnostic sink, its thread is started.
+     *
+     * @param capacity the events waiting to be logged, rounded up to a power of 2
+     * @param permitsPerSecond the events logged per second for each host and media type
+     */
+    public DiagnosticSink(final int capacity, final int permitsPerSecond) {
+        Validate.isTrue(capacity > 0, "capacity should be positive, it is: %d", capacity);
+        Validate.isTrue(permitsPerSecond > 0, "permitsPerSecond should be positive, it is: %d", permitsPerSecond);
+
+        int size = Integer.highestOneBit(capacity);
+        size = (size < capacity ? size << 1 : size);
+
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.permitsPerSecond = permitsPerSecond;
+
+        this.drainer = new Thread(this::drain, "reliant-diagnostic-sink");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    /**
+     * Gets the sink shared by the clients.
+     *
+     * @return the diagnostic sink
+     */
+    public static DiagnosticSink shared() {
+        return SHARED;
+    }
+
+    /**
+     * Reports an event to be logged, the body bytes are copied only when the event is accepted.
+     *
+     * @param logger the logger where it is logged
+     * @param host the host of the request, may be null if not known
+     * @param mediaType the media type of the response, may be null
+     * @param message the message, followed by the body when logged
+     * @param body the body, may be null
+     * @param length the bytes of the body to log
+     * @param charset the charset of the body
+     * @return true, if accepted, false if dropped
+     */
+    public boolean report(final Logger logger
+            , final String host
+            , final Object mediaType
+            , final String message
+            , final byte[] body
+            , final int length
+            , final Charset charset) {
+
+        long dropped = sample(host, mediaType);
+
+        if (dropped < 0) {
+            return false;
+        }
+
+        byte[] copy = (body == null ? null : Arrays.copyOf(body, Math.min(length, body.length)));
+
+        return offer(new Event(logger, host, mediaType, message, copy
+                , (charset == null ? Charset.defaultCharset() : charset), null, dropped));
+    }
+
+    /**
+     * Reports an event to be logged, with a body already decoded.
+     *
+     * @param logger the logger where it is logged
+     * @param host the host of the request, may be null if not known
+     * @param mediaType the media type of the response, may be null
+     * @param message the message, followed by the body when logged
+     * @param body the body, may be null
+     * @return true, if accepted, false if dropped
+     */
+    public boolean report(final Logger logger
+            , final String host
+            , final Object mediaType
+            , final String message
+            , final String body) {
+
+        long dropped = sample(host, mediaType);
+
+        if (dropped < 0) {
+            return false;
+        }
+
+        return offer(new Event(logger, host, mediaType, message, null, null, body, dropped));
+    }
+
+    /**
+     * Waits until every event accepted was logged, for tests and shutdown.
+     *
+     * @param timeoutMillis the timeout in millis
+     * @return true, if drained, false if the timeout elapsed
+     */
+    public boolean awaitDrained(final long timeoutMillis) {
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        while (this.head < this.tail.get()) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the events logged.
+     *
+     * @return the count
+     */
+    public long getLogged() {
+        return this.logged.sum();
+    }
+
+    /**
+     * Gets the events dropped by the sampling.
+     *
+     * @return the count
+     */
+    public long getDroppedSampled() {
+        return this.droppedSampled.sum();
+    }
+
+    /**
+     * Gets the events dropped because the ring was full.
+     *
+     * @return the count
+     */
+    public long getDroppedFull() {
+        return this.droppedFull.sum();
+    }
+
+    /**
+     * Stops the thread once the events accepted are logged, events reported after this are never logged.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.drainer);
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+
+        FunctionCounter.builder(LOGGED, this.logged, LongAdder::sum)
+                .description("Diagnostic events logged")
+                .register(registry);
+
+        FunctionCounter.builder(DROPPED, this.droppedSampled, LongAdder::sum)
+                .tag("reason", "sampled")
+                .description("Diagnostic events dropped")
+                .register(registry);
+
+        FunctionCounter.builder(DROPPED, this.droppedFull, LongAdder::sum)
+                .tag("reason", "full")
+                .description("Diagnostic events dropped")
+                .register(registry);
+    }
+
+    /**
+     * Takes a permit of the window of the host and media type.
+     *
+     * @return the events dropped by this window since the last one accepted, or -1 if dropped
+     */
+    private long sample(final String host, final Object mediaType) {
+
+        String key = host + ' ' + mediaType;
+        SampleWindow window = this.windows.get(key);
+
+        if (window == null) {
+            window = (this.windows.size() < MAX_KEYS
+                    ? this.windows.computeIfAbsent(key, k -> new SampleWindow())
+                    : this.windows.computeIfAbsent(OTHER_KEY, k -> new SampleWindow()));
+        }
+
+        long dropped = window.tryAcquire(this.permitsPerSecond, currentSecond());
+
+        if (dropped < 0) {
+            this.droppedSampled.increment();
+        }
+
+        return dropped;
+    }
+
+    /**
+     * The seconds since this sink was created, System.nanoTime() may be negative.
+     */
+    private long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - this.startNanos);
+    }
+
+    /**
+     * Puts the event in the ring, lock-free, many producers.
+     */
+    private boolean offer(final Event event) {
+
+        if (this.closed) {
+            this.droppedFull.increment();
+            return false;
+        }
+
+        long slot;
+
+        do {
+            slot = this.tail.get();
+
+            if (slot - this.head >= this.ring.length()) {
+                this.droppedFull.increment();
+                return false;
+            }
+        }
+        while (!this.tail.compareAndSet(slot, slot + 1));
+
+        // the drainer waits for the slot to be set once it was claimed.
+        this.ring.lazySet((int) slot & this.mask, event);
+        return true;
+    }
+
+    /**
+     * The loop of the drainer thread, the only consumer.
+     */
+    private void drain() {
+
+        while (true) {
+            long current = this.head;
+
+            if (current == this.tail.get()) {
+                if (this.closed) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+
+            int index = (int) current & this.mask;
+            Event event = this.ring.get(index);
+
+            if (event == null) {
+                // claimed but not set yet.
+                Thread.yield();
+                continue;
+            }
+
+            try {
+                event.log();
+                this.logged.increment();
+            }
+            catch (RuntimeException ex) {
+                // a failing appender must not stop the drainer.
+            }
+
+            // the slot is free for the producers once logged.
+            this.ring.lazySet(index, null);
+            this.head = current + 1;
+        }
+    }
+
+    /**
+     * The sampling window of a host and media type, one second long.
+     */
+    private static final class SampleWindow {
+
+        // second 0 and no permit taken, the seconds are never negative.
+        private final AtomicLong state = new AtomicLong(0L);
+        private final AtomicLong dropped = new AtomicLong();
+
+        /**
+         * Takes a permit of the current second.
+         *
+         * @param permits the permits per second
+         * @param second the current second, 0 or more
+         * @return the events dropped since the last accepted, or -1 if none left
+         */
+        long tryAcquire(final int permits, final long second) {
+
+            while (true) {
+                long current = this.state.get();
+                // high bits the second, low 20 bits the permits taken.
+                long currentSecond = current >> 20;
+                long taken = current & 0xFFFFF;
+
+                long next;
+
+                if (currentSecond != second) {
+                    next = (second << 20) | 1;
+                }
+                else if (taken < permits) {
+                    next = current + 1;
+                }
+                else {
+                    this.dropped.incrementAndGet();
+                    return -1L;
+                }
+
+                if (this.state.compareAndSet(current, next)) {
+                    return this.dropped.getAndSet(0);
+                }
+            }
+        }
+    }
+
+    /**
+     * The Class Event, what is logged, formatted in the drainer thread.
+     */
+    private static final class Event {
+
+        private final Logger logger;
+        private final String host;
+        private final Object mediaType;
+        private final String message;
+        private final byte[] body;
+        private final Charset charset;
+        private final String bodyText;
+        private final long dropped;
+
+        Event(final Logger logger
+                , final String host
+                , final Object mediaType
+                , final String message
+                , final byte[] body
+                , final Charset charset
+                , final String bodyText
+                , final long dropped) {
+
+            this.logger = logger;
+            this.host = host;
+            this.mediaType = mediaType;
+            this.message = message;
+            this.body = body;
+            this.charset = charset;
+            this.bodyText = bodyText;
+            this.dropped = dropped;
+        }
+
+        void log() {
+
+            String text = (this.bodyText != null ? this.bodyText
+                    : this.body == null ? "" : new String(this.body, this.charset));
+
+            if (this.dropped > 0) {
+                this.logger.error("{}{} [host: {}, mediaType: {}, {} similar events dropped]"
+                        , this.message, text, this.host, this.mediaType, this.dropped);
+            }
+            else {
+                this.logger.error("{}{} [host: {}, mediaType: {}]", this.message, text, this.host, this.mediaType);
+            }
+        }
+    }
+}
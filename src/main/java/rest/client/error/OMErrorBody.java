@@ -0,0 +1,212 @@
+package rest.client.error;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.lang3.Validate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import rest.api.OMError;
+import rest.api.OMErrorEnum;
+import rest.api.OMErrorSourceEnum;
+
+/**
+ * The Class OMErrorBody, the error body written by {@link rest.api.ErrorHdlBaseController},
+ * <code>{"errorSoruce": .., "errorCode": .., "errorMsg": ..}</code>, or its <i>ta</i> prefixed variant
+ * of {@link rest.api.ErrorHdlInheritedRestController}.
+ *
+ * <P>The body is parsed on the first access to any of its values, with a streaming parser of a shared
+ * ObjectReader, only the fields of the root object are read, nested values are skipped.
+ * A body that is not an OMError has no error code, see {@link #isOMError()}.
+ *
+ * @author tonioc
+ */
+public final class OMErrorBody implements OMError {
+
+    private static final ObjectReader READER = new ObjectMapper().reader();
+
+    private static final Map<String, OMErrorEnum> ERROR_CODES = new HashMap<>();
+
+    static {
+        for (OMErrorEnum code : OMErrorEnum.values()) {
+            ERROR_CODES.put(code.getErrorCode(), code);
+        }
+    }
+
+    private final byte[] body;
+    private final Charset charset;
+
+    private volatile boolean parsed;
+    private String errorSource;
+    private String errorCode;
+    private String errorMessage;
+
+    /**
+     * Instantiates a new OM error body, nothing is parsed until a value is requested.
+     *
+     * @param body the body, not copied
+     * @param charset the charset, if null the encoding is detected as JSON does.
+     */
+    public OMErrorBody(final byte[] body, final Charset charset) {
+        Validate.notNull(body, "body should not be null");
+        this.body = body;
+        this.charset = charset;
+    }
+
+    /**
+     * Checks if the body is an OMError, it has an error code.
+     *
+     * @return true, if OM error
+     */
+    public boolean isOMError() {
+        return getErrorCode() != null;
+    }
+
+    /**
+     * The error source as received, null if not present.
+     */
+    @Override
+    public String getErrorSource() {
+        parse();
+        return this.errorSource;
+    }
+
+    /**
+     * The error code as received, null if not present.
+     */
+    @Override
+    public String getErrorCode() {
+        parse();
+        return this.errorCode;
+    }
+
+    /**
+     * The error message as received, null if not present.
+     */
+    @Override
+    public String getErrorMessage() {
+        parse();
+        return this.errorMessage;
+    }
+
+    /**
+     * Not sent by the error handlers, always empty.
+     */
+    @Override
+    public Optional<String> getFriendlyMessage() {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the error code as one of the {@link OMErrorEnum}.
+     *
+     * @return the error code, empty if not present or not one of the enum.
+     */
+    public Optional<OMErrorEnum> getErrorCodeEnum() {
+        String code = getErrorCode();
+        return (code == null ? Optional.empty() : Optional.ofNullable(ERROR_CODES.get(code)));
+    }
+
+    /**
+     * Gets the error source as one of the {@link OMErrorSourceEnum}.
+     *
+     * @return the error source, empty if not present or not one of the enum.
+     */
+    public Optional<OMErrorSourceEnum> getErrorSourceEnum() {
+        return OMErrorSourceEnum.findByCode(getErrorSource());
+    }
+
+    private void parse() {
+
+        if (this.parsed) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!this.parsed) {
+                parseFields();
+                // the fields are published by this volatile write.
+                this.parsed = true;
+            }
+        }
+    }
+
+    private void parseFields() {
+
+        String source = null;
+        String code = null;
+        String message = null;
+
+        try (JsonParser parser = createParser()) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+                String name = parser.getCurrentName();
+
+                if (!parser.nextToken().isScalarValue()) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                switch (name) {
+                    case "errorSoruce":
+                    case "errorSource":
+                    case "taErrorSoruce":
+                    case "taErrorSource":
+                        source = parser.getValueAsString();
+                        break;
+
+                    case "errorCode":
+                    case "taErrorCode":
+                        code = parser.getValueAsString();
+                        break;
+
+                    case "errorMsg":
+                    case "taErrorMsg":
+                        message = parser.getValueAsString();
+                        break;
+
+                    default:
+                        break;
+                }
+
+                if (source != null  &&  code != null  &&  message != null) {
+                    break;
+                }
+            }
+        }
+        catch (IOException ex) {
+            // not JSON, not an OMError.
+            return;
+        }
+
+        this.errorSource = source;
+        this.errorCode = code;
+        this.errorMessage = message;
+    }
+
+    private JsonParser createParser() throws IOException {
+
+        if (this.charset == null
+                || StandardCharsets.UTF_8.equals(this.charset)
+                || StandardCharsets.US_ASCII.equals(this.charset)) {
+            return READER.createParser(this.body);
+        }
+
+        return READER.createParser(new InputStreamReader(new ByteArrayInputStream(this.body), this.charset));
+    }
+}
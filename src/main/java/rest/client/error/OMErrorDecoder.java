@@ -0,0 +1,155 @@
+package rest.client.error;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClientResponseException;
+
+import okhttp3.ResponseBody;
+import rest.api.OMErrorEnum;
+import rest.api.TaConfigException;
+import rest.api.TaDataException;
+import rest.api.TaException;
+import rest.api.TaUnexpectedException;
+import retrofit2.HttpException;
+
+/**
+ * The Class OMErrorDecoder, turns the HTTP errors whose body is an {@link OMErrorBody} into the
+ * {@link TaException} of its error code, the HTTP exception is its cause, with the status, headers and body.
+ *
+ * <P>Error codes mapped by default:
+ * <ul>
+ * <li>OM_DATA_INCONSISTENCY, OM_LEGACY_DATA_INCONSISTENCY - {@link TaDataException}
+ * <li>OM_CONFIG_ERROR - {@link TaConfigException}
+ * <li>OM_UNEXPECTED, OM_LEGACY_UNEXPECTED - {@link TaUnexpectedException}
+ * <li>Any other code - {@link TaException}
+ * </ul>
+ *
+ * <P>The error code and source received are kept by the exception, sources that are not
+ * one of {@link rest.api.OMErrorSourceEnum} are reported as OM. Bodies that are not JSON are not parsed.
+ *
+ * @author tonioc
+ */
+public class OMErrorDecoder {
+
+    private final Map<OMErrorEnum, BiFunction<String, Throwable, ? extends TaException>> exceptions =
+            new EnumMap<>(OMErrorEnum.class);
+
+    /**
+     * Instantiates a new OM error decoder with the default mappings.
+     */
+    public OMErrorDecoder() {
+        this.exceptions.put(OMErrorEnum.OM_DATA_INCONSISTENCY, TaDataException::new);
+        this.exceptions.put(OMErrorEnum.OM_LEGACY_DATA_INCONSISTENCY, TaDataException::new);
+        this.exceptions.put(OMErrorEnum.OM_CONFIG_ERROR, TaConfigException::new);
+        this.exceptions.put(OMErrorEnum.OM_UNEXPECTED, TaUnexpectedException::new);
+        this.exceptions.put(OMErrorEnum.OM_LEGACY_UNEXPECTED, TaUnexpectedException::new);
+    }
+
+    /**
+     * Maps an error code to an exception, should be configured before the decoder is used.
+     *
+     * @param errorCode the error code
+     * @param exception creates the exception from the error message and the HTTP exception
+     * @return the OM error decoder
+     */
+    public OMErrorDecoder withMapping(final OMErrorEnum errorCode
+            , final BiFunction<String, Throwable, ? extends TaException> exception) {
+
+        Validate.notNull(errorCode, "errorCode should not be null");
+        Validate.notNull(exception, "exception should not be null");
+
+        this.exceptions.put(errorCode, exception);
+        return this;
+    }
+
+    /**
+     * Decodes the error body of a RestTemplate error.
+     *
+     * @param ex the HTTP exception
+     * @return the TaException, empty if the body is not an OMError.
+     */
+    public Optional<TaException> decode(final RestClientResponseException ex) {
+
+        HttpHeaders headers = ex.getResponseHeaders();
+        MediaType mediaType = (headers == null ? null : headers.getContentType());
+
+        if (mediaType != null  &&  !isJson(mediaType.getSubtype())) {
+            return Optional.empty();
+        }
+
+        return decode(new OMErrorBody(ex.getResponseBodyAsByteArray()
+                , (mediaType == null ? null : mediaType.getCharset())), ex);
+    }
+
+    /**
+     * Decodes the error body of a Retrofit error, the body is peeked, it can still be read from the response.
+     *
+     * @param ex the HTTP exception
+     * @return the TaException, empty if the body is not an OMError.
+     */
+    public Optional<TaException> decode(final HttpException ex) {
+
+        ResponseBody errorBody = (ex.response() == null ? null : ex.response().errorBody());
+
+        if (errorBody == null) {
+            return Optional.empty();
+        }
+
+        okhttp3.MediaType mediaType = errorBody.contentType();
+
+        if (mediaType != null  &&  !isJson(mediaType.subtype())) {
+            return Optional.empty();
+        }
+
+        byte[] body;
+
+        try {
+            body = errorBody.source().peek().readByteArray();
+        }
+        catch (IOException ioe) {
+            return Optional.empty();
+        }
+
+        Charset charset = (mediaType == null ? null : mediaType.charset());
+
+        return decode(new OMErrorBody(body, charset), ex);
+    }
+
+    /**
+     * Creates the exception of the error body.
+     *
+     * @param body the error body
+     * @param cause the HTTP exception
+     * @return the TaException, empty if the body is not an OMError.
+     */
+    public Optional<TaException> decode(final OMErrorBody body, final Throwable cause) {
+
+        if (!body.isOMError()) {
+            return Optional.empty();
+        }
+
+        String message = (body.getErrorMessage() == null ? cause.getMessage() : body.getErrorMessage());
+
+        TaException ex = body.getErrorCodeEnum()
+                .map(this.exceptions::get)
+                .map(creator -> (TaException) creator.apply(message, cause))
+                .orElseGet(() -> new TaException(message, cause));
+
+        ex.withErrorCode(body.getErrorCode());
+        body.getErrorSourceEnum().ifPresent(ex::withErrorSource);
+
+        return Optional.of(ex);
+    }
+
+    private static boolean isJson(final String subtype) {
+        return "json".equalsIgnoreCase(subtype)  ||  subtype.toLowerCase().endsWith("+json");
+    }
+}
@@ -0,0 +1,228 @@
+package rest.client.hedge;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.Validate;
+
+import rest.client.budget.RetryBudget;
+
+/**
+ * The Class HedgePolicy, when a hedged call has not completed after the hedge delay a second attempt
+ * is sent, the first one completing successfully is used and the other one is cancelled.
+ *
+ * <P>The delay is fixed, or the given percentile of the latencies observed for the endpoint
+ * (the fixed delay is used until {@link #withMinSamples(int) minSamples} latencies were observed).
+ *
+ * <P>Hedges are limited by a budget, by default {@link #DEFAULT_HEDGE_RATIO} of the calls, so they
+ * cannot double the load of a slow service.
+ *
+ * <h2>Simple use:</h2>
+ * <pre>
+ * {@code
+ * ....
+ *    StrictRestClient strictRest = new StrictRestClient()
+ *          .withHedging(new HedgePolicy()
+ *                 .withDelay(200)
+ *                 .withPercentileDelay(95));
+ *
+ *    // only for idempotent calls
+ *    ResponseEntity<ModelPerson> result = strictRest
+ *          .executeHedged("person", rt -> rt.getForEntity("http://localhost:9090/person/john", ModelPerson.class));
+ * ....
+ * }
+ * </pre>
+ *
+ * @author tonioc
+ */
+public class HedgePolicy {
+
+    /**
+     * The Constant DEFAULT_DELAY_IN_MILLIS = {@value #DEFAULT_DELAY_IN_MILLIS}.
+     */
+    public static final long DEFAULT_DELAY_IN_MILLIS = 500L;
+
+    /**
+     * The Constant DEFAULT_HEDGE_RATIO = {@value #DEFAULT_HEDGE_RATIO}.
+     */
+    public static final float DEFAULT_HEDGE_RATIO = 0.1f;
+
+    /**
+     * The Constant DEFAULT_MIN_SAMPLES = {@value #DEFAULT_MIN_SAMPLES}.
+     */
+    public static final int DEFAULT_MIN_SAMPLES = 20;
+
+    /**
+     * The Constant DEFAULT_WINDOW_SIZE = {@value #DEFAULT_WINDOW_SIZE}, latencies kept per endpoint.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 256;
+
+    private long delay = DEFAULT_DELAY_IN_MILLIS;
+    private double percentile = 0;
+    private int minSamples = DEFAULT_MIN_SAMPLES;
+    private RetryBudget budget;
+
+    private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+
+    /**
+     * Fixed delay before sending the hedge.
+     *
+     * @param millis the millis, if less or equal 0 {@link #DEFAULT_DELAY_IN_MILLIS} will be used.
+     * @return the hedge policy
+     */
+    public HedgePolicy withDelay(final long millis) {
+        checkNotStarted();
+        this.delay = (millis <= 0 ? DEFAULT_DELAY_IN_MILLIS : millis);
+        return this;
+    }
+
+    /**
+     * Delay as a percentile of the latencies observed for the endpoint.
+     *
+     * @param percentile the percentile, ex. 95, greater than 0 and less than 100
+     * @return the hedge policy
+     */
+    public HedgePolicy withPercentileDelay(final double percentile) {
+        checkNotStarted();
+        Validate.isTrue(percentile > 0  &&  percentile < 100, "percentile should be in (0, 100)");
+        this.percentile = percentile;
+        return this;
+    }
+
+    /**
+     * Latencies observed before the percentile delay is used.
+     *
+     * @param samples the samples, if less or equal 0 {@link #DEFAULT_MIN_SAMPLES} will be used.
+     * @return the hedge policy
+     */
+    public HedgePolicy withMinSamples(final int samples) {
+        checkNotStarted();
+        this.minSamples = Math.min(DEFAULT_WINDOW_SIZE, (samples <= 0 ? DEFAULT_MIN_SAMPLES : samples));
+        return this;
+    }
+
+    /**
+     * Budget of the hedges, each hedged call deposits in it, each hedge withdraws a token.
+     *
+     * @param budget the budget, default one with a ratio of {@link #DEFAULT_HEDGE_RATIO}
+     * @return the hedge policy
+     */
+    public HedgePolicy withBudget(final RetryBudget budget) {
+        checkNotStarted();
+        Validate.notNull(budget, "budget should not be null");
+
+        synchronized (this) {
+            this.budget = budget;
+        }
+
+        return this;
+    }
+
+    /**
+     * Gets the delay before sending a hedge for the endpoint.
+     *
+     * @param endpoint the endpoint
+     * @return the delay in millis
+     */
+    public long getDelay(final String endpoint) {
+
+        if (this.percentile > 0) {
+            LatencyWindow window = this.latencies.get(endpoint);
+
+            if (window != null  &&  window.getCount() >= this.minSamples) {
+                return Math.max(1L, window.getPercentile());
+            }
+        }
+
+        return this.delay;
+    }
+
+    /**
+     * Records the latency of a successful attempt.
+     *
+     * @param endpoint the endpoint
+     * @param millis the millis
+     */
+    public void recordLatency(final String endpoint, final long millis) {
+
+        if (this.percentile > 0) {
+            LatencyWindow window = this.latencies.get(endpoint);
+
+            if (window == null) {
+                window = this.latencies.computeIfAbsent(endpoint
+                        , e -> new LatencyWindow(DEFAULT_WINDOW_SIZE, this.percentile));
+            }
+
+            window.record(millis);
+        }
+    }
+
+    /**
+     * Records a hedged call in the budget.
+     */
+    public void onCall() {
+        getBudget().onFirstAttempt();
+    }
+
+    /**
+     * Withdraws a token from the budget to send a hedge.
+     *
+     * @return true, if the hedge may be sent
+     */
+    public boolean tryAcquireHedge() {
+
+        if (getBudget().tryAcquireRetry(null)) {
+            this.hedgesSent.increment();
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Records that the hedge completed before the first attempt.
+     */
+    public void onHedgeWon() {
+        this.hedgesWon.increment();
+    }
+
+    /**
+     * Gets the hedges sent.
+     *
+     * @return the hedges sent
+     */
+    public long getHedgesSent() {
+        return this.hedgesSent.sum();
+    }
+
+    /**
+     * Gets the hedges that completed before the first attempt.
+     *
+     * @return the hedges won
+     */
+    public long getHedgesWon() {
+        return this.hedgesWon.sum();
+    }
+
+    /**
+     * Gets the budget, hedges denied are its retries denied.
+     *
+     * @return the budget
+     */
+    public synchronized RetryBudget getBudget() {
+
+        if (this.budget == null) {
+            this.budget = new RetryBudget().withRetryRatio(DEFAULT_HEDGE_RATIO);
+        }
+
+        return this.budget;
+    }
+
+    private void checkNotStarted() {
+        Validate.validState(this.latencies.isEmpty()  &&  this.hedgesSent.sum() == 0
+                , "Hedge policy already in use, cannot be configured");
+    }
+}
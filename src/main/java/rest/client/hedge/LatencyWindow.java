@@ -0,0 +1,62 @@
+package rest.client.hedge;
+
+import java.util.Arrays;
+
+/**
+ * The Class LatencyWindow, the last latencies of an endpoint, the percentile is recomputed
+ * every {@link #RECOMPUTE_EVERY} samples, not on every read.
+ *
+ * @author tonioc
+ */
+class LatencyWindow {
+
+    static final int RECOMPUTE_EVERY = 16;
+
+    private final long[] samples;
+    private final double percentile;
+    private int index;
+    private int count;
+    private int sinceRecompute;
+    private long cachedPercentile = -1;
+
+    /**
+     * Instantiates a new latency window.
+     *
+     * @param size the samples kept
+     * @param percentile the percentile, ex. 95
+     */
+    LatencyWindow(final int size, final double percentile) {
+        this.samples = new long[size];
+        this.percentile = percentile;
+    }
+
+    synchronized void record(final long millis) {
+        this.samples[this.index] = millis;
+        this.index = (this.index + 1) % this.samples.length;
+
+        if (this.count < this.samples.length) {
+            this.count++;
+        }
+
+        if (++this.sinceRecompute >= RECOMPUTE_EVERY  ||  this.cachedPercentile < 0) {
+            this.cachedPercentile = compute();
+            this.sinceRecompute = 0;
+        }
+    }
+
+    synchronized int getCount() {
+        return this.count;
+    }
+
+    synchronized long getPercentile() {
+        return this.cachedPercentile;
+    }
+
+    private long compute() {
+        long[] sorted = Arrays.copyOf(this.samples, this.count);
+        Arrays.sort(sorted);
+
+        int pos = (int) Math.ceil(this.percentile / 100d * this.count) - 1;
+        return sorted[Math.max(0, Math.min(pos, this.count - 1))];
+    }
+}
@@ -0,0 +1,38 @@
+package rest.client.limit;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * The Class ConcurrencyLimitExceededException, the request was shed without being sent: the concurrency
+ * limit of the host was reached and the wait queue was full, or the wait timed out.
+ *
+ * <P>It is a RestClientException, not an I/O error, so it is never retried.
+ *
+ * @author tonioc
+ */
+public class ConcurrencyLimitExceededException extends RestClientException {
+
+    private static final long serialVersionUID = -6212718530987414529L;
+
+    private final String host;
+
+    /**
+     * Instantiates a new concurrency limit exceeded exception.
+     *
+     * @param host the host as <i>host:port</i>
+     * @param reason the reason
+     */
+    public ConcurrencyLimitExceededException(final String host, final String reason) {
+        super("Concurrency limit exceeded for host: " + host + ", " + reason + ", request not sent");
+        this.host = host;
+    }
+
+    /**
+     * Gets the host.
+     *
+     * @return the host as <i>host:port</i>
+     */
+    public String getHost() {
+        return this.host;
+    }
+}
@@ -0,0 +1,75 @@
+package rest.client.limit;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import rest.client.basic.Hosts;
+import rest.client.stream.ConnectionAbort;
+
+/**
+ * The Class ConcurrencyLimitInterceptor, RestTemplate adapter of the {@link ConcurrencyLimiter},
+ * each request (each attempt of a call, back off periods hold no permit) waits for a permit of its host.
+ *
+ * <P>The RTT measured is the time to receive the response headers.
+ *
+ * @author tonioc
+ */
+public class ConcurrencyLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final ConcurrencyLimiter limiter;
+
+    /**
+     * Instantiates a new concurrency limit interceptor.
+     *
+     * @param limiter the limiter
+     */
+    public ConcurrencyLimitInterceptor(final ConcurrencyLimiter limiter) {
+        Validate.notNull(limiter, "limiter should not be null");
+        this.limiter = limiter;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request
+            , final byte[] body
+            , final ClientHttpRequestExecution execution) throws IOException {
+
+        HostLimit.Permit permit;
+
+        try {
+            permit = this.limiter.getHostLimit(Hosts.hostOf(request.getURI())).acquire();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a concurrency permit");
+        }
+
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+
+            if (ConcurrencyLimiter.isOverloaded(response.getRawStatusCode())) {
+                permit.onDropped();
+            }
+            else {
+                permit.onSuccess();
+            }
+
+            return response;
+        }
+        catch (IOException ex) {
+            // aborted by the client, ex. a cancelled hedge, not a sign of overload.
+            if (!ConnectionAbort.wasAborted()) {
+                permit.onDropped();
+            }
+            throw ex;
+        }
+        finally {
+            permit.onIgnore();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package rest.client.limit;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * The Class ConcurrencyLimiter, holds one adaptive {@link HostLimit} per host, all of them with
+ * the same configuration, shared by the client stacks through their adapters:
+ * <ul>
+ *   <li>StrictRestClient: {@link rest.client.strict.StrictRestClient#withConcurrencyLimiter(ConcurrencyLimiter)}</li>
+ *   <li>Retrofit (OkHttp): {@link OkHttpConcurrencyLimitInterceptor}</li>
+ *   <li>WebClient: {@link WebClientConcurrencyLimitFilter}</li>
+ * </ul>
+ *
+ * <h2>Simple use:</h2>
+ * <pre>
+ * {@code
+ * ....
+ *    ConcurrencyLimiter limiter = new ConcurrencyLimiter()
+ *          .withInitialLimit(10)
+ *          .withMaxLimit(100)
+ *          .withMaxQueue(50)
+ *          .withQueueTimeout(500);
+ *
+ *    StrictRestClient strictRest = new StrictRestClient()
+ *          .withConcurrencyLimiter(limiter);
+ * ....
+ * }
+ * </pre>
+ *
+ * <P>Configuration must be done before the first host limit is created.
+ *
+ * @author tonioc
+ */
+public class ConcurrencyLimiter {
+
+    /**
+     * The Constant DEFAULT_INITIAL_LIMIT = {@value #DEFAULT_INITIAL_LIMIT}.
+     */
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+
+    /**
+     * The Constant DEFAULT_MIN_LIMIT = {@value #DEFAULT_MIN_LIMIT}.
+     */
+    public static final int DEFAULT_MIN_LIMIT = 1;
+
+    /**
+     * The Constant DEFAULT_MAX_LIMIT = {@value #DEFAULT_MAX_LIMIT}.
+     */
+    public static final int DEFAULT_MAX_LIMIT = 200;
+
+    /**
+     * The Constant DEFAULT_BACK_OFF_RATIO = {@value #DEFAULT_BACK_OFF_RATIO}.
+     */
+    public static final double DEFAULT_BACK_OFF_RATIO = 0.9d;
+
+    /**
+     * The Constant DEFAULT_RTT_TOLERANCE = {@value #DEFAULT_RTT_TOLERANCE}.
+     */
+    public static final double DEFAULT_RTT_TOLERANCE = 2.0d;
+
+    /**
+     * The Constant DEFAULT_MAX_QUEUE = {@value #DEFAULT_MAX_QUEUE}.
+     */
+    public static final int DEFAULT_MAX_QUEUE = 50;
+
+    /**
+     * The Constant DEFAULT_QUEUE_TIMEOUT_IN_MILLIS = {@value #DEFAULT_QUEUE_TIMEOUT_IN_MILLIS}.
+     */
+    public static final long DEFAULT_QUEUE_TIMEOUT_IN_MILLIS = 1_000L;
+
+    private int initialLimit = DEFAULT_INITIAL_LIMIT;
+    private int minLimit = DEFAULT_MIN_LIMIT;
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+    private double backOffRatio = DEFAULT_BACK_OFF_RATIO;
+    private double rttTolerance = DEFAULT_RTT_TOLERANCE;
+    private int maxQueue = DEFAULT_MAX_QUEUE;
+    private long queueTimeout = DEFAULT_QUEUE_TIMEOUT_IN_MILLIS;
+
+    private final ConcurrentMap<String, HostLimit> limits = new ConcurrentHashMap<>();
+
+    /**
+     * Limit of each host before any RTT is measured.
+     *
+     * @param limit the limit, if less or equal 0 {@link #DEFAULT_INITIAL_LIMIT} will be used.
+     * @return the concurrency limiter
+     */
+    public ConcurrencyLimiter withInitialLimit(final int limit) {
+        checkNotStarted();
+        this.initialLimit = (limit <= 0 ? DEFAULT_INITIAL_LIMIT : limit);
+        return this;
+    }
+
+    /**
+     * Lowest limit of a host.
+     *
+     * @param limit the limit, if less or equal 0 {@link #DEFAULT_MIN_LIMIT} will be used.
+     * @return the concurrency limiter
+     */
+    public ConcurrencyLimiter withMinLimit(final int limit) {
+        checkNotStarted();
+        this.minLimit = (limit <= 0 ? DEFAULT_MIN_LIMIT : limit);
+        return this;
+    }
+
+    /**
+     * Highest limit of a host.
+     *
+     * @param limit the limit, if less or equal 0 {@link #DEFAULT_MAX_LIMIT} will be used.
+     * @return the concurrency limiter
+     */
+    public ConcurrencyLimiter withMaxLimit(final int limit) {
+        checkNotStarted();
+        this.maxLimit = (limit <= 0 ? DEFAULT_MAX_LIMIT : limit);
+        return this;
+    }
+
+    /**
+     * Multiplicative decrease applied on drops and RTT growth.
+     *
+     * @param ratio the ratio, greater than 0 and less than 1
+     * @return the concurrency limiter
+     */
+    public ConcurrencyLimiter withBackOffRatio(final double ratio) {
+        checkNotStarted();
+        Validate.isTrue(ratio > 0  &&  ratio < 1, "back off ratio should be in (0, 1)");
+        this.backOffRatio = ratio;
+        return this;
+    }
+
+    /**
+     * RTT growth, relative to the minimum RTT, tolerated before decreasing the limit.
+     *
+     * @param tolerance the tolerance, greater than 1
+     * @return the concurrency limiter
+     */
+    public ConcurrencyLimiter withRttTolerance(final double tolerance) {
+        checkNotStarted();
+        Validate.isTrue(tolerance > 1, "rtt tolerance should be greater than 1");
+        this.rttTolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * Max requests waiting per host, over it requests are shed.
+     *
+     * @param max the max, greater or equal 0
+     * @return the concurrency limiter
+     */
+    public ConcurrencyLimiter withMaxQueue(final int max) {
+        checkNotStarted();
+        Validate.isTrue(max >= 0, "max queue should not be negative");
+        this.maxQueue = max;
+        return this;
+    }
+
+    /**
+     * Max time a request waits for a permit before being shed.
+     *
+     * @param millis the millis, if less or equal 0 {@link #DEFAULT_QUEUE_TIMEOUT_IN_MILLIS} will be used.
+     * @return the concurrency limiter
+     */
+    public ConcurrencyLimiter withQueueTimeout(final long millis) {
+        checkNotStarted();
+        this.queueTimeout = (millis <= 0 ? DEFAULT_QUEUE_TIMEOUT_IN_MILLIS : millis);
+        return this;
+    }
+
+    /**
+     * Gets the limit of the host, creating it if needed.
+     *
+     * @param host the host as <i>host:port</i>, see {@link rest.client.basic.Hosts#hostOf(java.net.URI)}
+     * @return the host limit
+     */
+    public HostLimit getHostLimit(final String host) {
+
+        HostLimit limit = this.limits.get(host);
+
+        if (limit == null) {
+            limit = this.limits.computeIfAbsent(host, h -> new HostLimit(h
+                    , Math.max(this.minLimit, Math.min(this.initialLimit, this.maxLimit))
+                    , this.minLimit
+                    , this.maxLimit
+                    , this.backOffRatio
+                    , this.rttTolerance
+                    , this.maxQueue
+                    , this.queueTimeout));
+        }
+
+        return limit;
+    }
+
+    /**
+     * Gets the host limits created so far.
+     *
+     * @return the host limits
+     */
+    public Collection<HostLimit> getHostLimits() {
+        return Collections.unmodifiableCollection(this.limits.values());
+    }
+
+    /**
+     * Gets the current limit of every host, a snapshot sorted by host.
+     *
+     * @return the limits
+     */
+    public Map<String, Integer> getLimits() {
+
+        Map<String, Integer> snapshot = new TreeMap<>();
+        this.limits.forEach((host, limit) -> snapshot.put(host, limit.getLimit()));
+
+        return snapshot;
+    }
+
+    /**
+     * Checks if a response status means the host is overloaded.
+     *
+     * @param status the status
+     * @return true, if 429 or 503
+     */
+    static boolean isOverloaded(final int status) {
+        return status == 429  ||  status == 503;
+    }
+
+    private void checkNotStarted() {
+        Validate.validState(this.limits.isEmpty(), "Host limits already created, cannot be configured");
+    }
+}
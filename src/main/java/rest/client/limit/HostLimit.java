@@ -0,0 +1,315 @@
+package rest.client.limit;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * The Class HostLimit, the adaptive concurrency limit of a single host, created by a {@link ConcurrencyLimiter}.
+ *
+ * <P>AIMD driven by the round trip time: while the RTT stays under <i>rttTolerance</i> times the minimum RTT
+ * observed and the limit is being used (half of it in flight), the limit grows by 1, when the RTT
+ * grows over that or a request is dropped (timeout, I/O error, 429, 503) the limit is multiplied
+ * by <i>backOffRatio</i>.
+ *
+ * <P>Requests over the limit wait in a bounded FIFO queue, when it is full or the wait times out
+ * the request is shed with {@link ConcurrencyLimitExceededException}. Waiting is never done on a
+ * thread owned by this class, {@link #acquireAsync()} returns a future.
+ *
+ * @author tonioc
+ */
+public class HostLimit {
+
+    private static final ScheduledThreadPoolExecutor QUEUE_TIMER;
+
+    static {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("reliant-limit-timer-");
+        threadFactory.setDaemon(true);
+
+        QUEUE_TIMER = new ScheduledThreadPoolExecutor(1, threadFactory);
+        QUEUE_TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private static final int RTT_WINDOW = 100;
+
+    private final String host;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backOffRatio;
+    private final double rttTolerance;
+    private final int maxQueue;
+    private final long queueTimeoutInMillis;
+
+    private double limit;
+    private int inFlight;
+    private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+
+    private long minRtt = Long.MAX_VALUE;
+    private long windowMinRtt = Long.MAX_VALUE;
+    private int windowSamples;
+
+    private long shed;
+
+    HostLimit(final String host
+            , final int initialLimit
+            , final int minLimit
+            , final int maxLimit
+            , final double backOffRatio
+            , final double rttTolerance
+            , final int maxQueue
+            , final long queueTimeoutInMillis) {
+
+        this.host = host;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backOffRatio = backOffRatio;
+        this.rttTolerance = rttTolerance;
+        this.maxQueue = maxQueue;
+        this.queueTimeoutInMillis = queueTimeoutInMillis;
+    }
+
+    /**
+     * Acquires a permit to send a request, every permit must be released with one of
+     * {@link Permit#onSuccess()}, {@link Permit#onDropped()} or {@link Permit#onIgnore()}.
+     *
+     * @return the future permit, completed with {@link ConcurrencyLimitExceededException} if shed,
+     *    cancelling it while waiting removes it from the queue.
+     */
+    public CompletableFuture<Permit> acquireAsync() {
+
+        CompletableFuture<Permit> waiter;
+
+        synchronized (this) {
+            if (this.waiters.isEmpty()  &&  this.inFlight < getLimitInt()) {
+                this.inFlight++;
+                return CompletableFuture.completedFuture(new Permit());
+            }
+
+            if (this.waiters.size() >= this.maxQueue) {
+                this.shed++;
+                return failed("wait queue full");
+            }
+
+            waiter = new CompletableFuture<>();
+            this.waiters.add(waiter);
+        }
+
+        ScheduledFuture<?> timeout = QUEUE_TIMER.schedule(() -> {
+            if (waiter.completeExceptionally(new ConcurrencyLimitExceededException(this.host, "wait timed out"))) {
+                synchronized (this) {
+                    this.shed++;
+                }
+            }
+        }, this.queueTimeoutInMillis, TimeUnit.MILLISECONDS);
+
+        waiter.whenComplete((p, th) -> {
+            timeout.cancel(false);
+
+            if (th != null) {
+                synchronized (this) {
+                    this.waiters.remove(waiter);
+                }
+            }
+        });
+
+        return waiter;
+    }
+
+    /**
+     * Acquires a permit, waiting in this thread.
+     *
+     * @return the permit
+     * @throws ConcurrencyLimitExceededException if shed
+     * @throws InterruptedException if interrupted while waiting, the wait is cancelled, or the permit
+     *    released if it was granted meanwhile.
+     */
+    public Permit acquire() throws InterruptedException {
+
+        CompletableFuture<Permit> future = acquireAsync();
+
+        try {
+            return future.get();
+        }
+        catch (ExecutionException ex) {
+            throw (ConcurrencyLimitExceededException) ex.getCause();
+        }
+        catch (InterruptedException ex) {
+
+            // granted meanwhile, the permit is not used but must be given back.
+            if (!future.cancel(false)  &&  !future.isCompletedExceptionally()) {
+                future.join().onIgnore();
+            }
+
+            throw ex;
+        }
+    }
+
+    /**
+     * Gets the host.
+     *
+     * @return the host as <i>host:port</i>
+     */
+    public String getHost() {
+        return this.host;
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return the limit
+     */
+    public synchronized int getLimit() {
+        return getLimitInt();
+    }
+
+    /**
+     * Gets the requests in flight.
+     *
+     * @return the in flight
+     */
+    public synchronized int getInFlight() {
+        return this.inFlight;
+    }
+
+    /**
+     * Gets the requests waiting.
+     *
+     * @return the waiting
+     */
+    public synchronized int getWaiting() {
+        return this.waiters.size();
+    }
+
+    /**
+     * Gets the requests shed.
+     *
+     * @return the shed
+     */
+    public synchronized long getShed() {
+        return this.shed;
+    }
+
+    private int getLimitInt() {
+        return (int) this.limit;
+    }
+
+    private CompletableFuture<Permit> failed(final String reason) {
+        CompletableFuture<Permit> future = new CompletableFuture<>();
+        future.completeExceptionally(new ConcurrencyLimitExceededException(this.host, reason));
+        return future;
+    }
+
+    private void release(final long rtt, final boolean dropped, final boolean ignore) {
+
+        List<CompletableFuture<Permit>> granted = new ArrayList<>();
+
+        synchronized (this) {
+            int inFlightBefore = this.inFlight;
+            this.inFlight--;
+
+            if (!ignore) {
+                adapt(rtt, dropped, inFlightBefore);
+            }
+
+            while (!this.waiters.isEmpty()  &&  this.inFlight < getLimitInt()) {
+                granted.add(this.waiters.poll());
+                this.inFlight++;
+            }
+        }
+
+        // completed out of the lock, waiters may run the request in this thread.
+        for (CompletableFuture<Permit> waiter : granted) {
+            Permit permit = new Permit();
+
+            if (!waiter.complete(permit)) {
+                // timed out or cancelled meanwhile
+                permit.onIgnore();
+            }
+        }
+    }
+
+    private void adapt(final long rtt, final boolean dropped, final int inFlightBefore) {
+
+        if (dropped) {
+            this.limit = Math.max(this.minLimit, this.limit * this.backOffRatio);
+            return;
+        }
+
+        this.windowMinRtt = Math.min(this.windowMinRtt, rtt);
+        this.minRtt = Math.min(this.minRtt, rtt);
+
+        // the minimum is re-learnt every window, so a permanent change of the host is followed.
+        if (++this.windowSamples >= RTT_WINDOW) {
+            this.minRtt = this.windowMinRtt;
+            this.windowMinRtt = Long.MAX_VALUE;
+            this.windowSamples = 0;
+        }
+
+        if (rtt > this.minRtt * this.rttTolerance) {
+            this.limit = Math.max(this.minLimit, this.limit * this.backOffRatio);
+        }
+        else if (inFlightBefore * 2 >= getLimitInt()) {
+            this.limit = Math.min(this.maxLimit, this.limit + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("HostLimit [host=").append(this.host)
+            .append(", limit=").append(getLimit())
+            .append(", inFlight=").append(getInFlight())
+            .append(", waiting=").append(getWaiting())
+            .append(", shed=").append(getShed())
+            .append("]");
+        return builder.toString();
+    }
+
+    /**
+     * The Class Permit, released once, by the first call to one of its methods.
+     */
+    public final class Permit {
+
+        private final long start = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        /**
+         * The request completed, its RTT is used to adapt the limit.
+         */
+        public void onSuccess() {
+            if (this.released.compareAndSet(false, true)) {
+                release(System.nanoTime() - this.start, false, false);
+            }
+        }
+
+        /**
+         * The request timed out or the host is overloaded, the limit decreases.
+         */
+        public void onDropped() {
+            if (this.released.compareAndSet(false, true)) {
+                release(0L, true, false);
+            }
+        }
+
+        /**
+         * The request says nothing about the host (cancelled, local error), the limit is unchanged.
+         */
+        public void onIgnore() {
+            if (this.released.compareAndSet(false, true)) {
+                release(0L, false, true);
+            }
+        }
+    }
+}
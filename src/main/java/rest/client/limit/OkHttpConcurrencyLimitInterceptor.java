@@ -0,0 +1,74 @@
+package rest.client.limit;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import org.apache.commons.lang3.Validate;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * The Class OkHttpConcurrencyLimitInterceptor, OkHttp (Retrofit) adapter of the {@link ConcurrencyLimiter},
+ * to be added as an application interceptor, so each call waits for a permit of its host.
+ *
+ * <P>A shed call fails with an IOException caused by {@link ConcurrencyLimitExceededException}, which
+ * Retrofit reports as any other failure, in <i>execute</i> and <i>enqueue</i>.
+ *
+ * <P>The OkHttp Dispatcher limits (<i>maxRequestsPerHost</i>) still apply, they should be higher
+ * than the max limit.
+ *
+ * @author tonioc
+ */
+public class OkHttpConcurrencyLimitInterceptor implements Interceptor {
+
+    private final ConcurrencyLimiter limiter;
+
+    /**
+     * Instantiates a new ok http concurrency limit interceptor.
+     *
+     * @param limiter the limiter
+     */
+    public OkHttpConcurrencyLimitInterceptor(final ConcurrencyLimiter limiter) {
+        Validate.notNull(limiter, "limiter should not be null");
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+
+        String host = chain.request().url().host() + ":" + chain.request().url().port();
+        HostLimit.Permit permit;
+
+        try {
+            permit = this.limiter.getHostLimit(host).acquire();
+        }
+        catch (ConcurrencyLimitExceededException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a concurrency permit");
+        }
+
+        try {
+            Response response = chain.proceed(chain.request());
+
+            if (ConcurrencyLimiter.isOverloaded(response.code())) {
+                permit.onDropped();
+            }
+            else {
+                permit.onSuccess();
+            }
+
+            return response;
+        }
+        catch (IOException ex) {
+            permit.onDropped();
+            throw ex;
+        }
+        finally {
+            permit.onIgnore();
+        }
+    }
+}
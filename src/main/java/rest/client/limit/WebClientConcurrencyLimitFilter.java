@@ -0,0 +1,71 @@
+package rest.client.limit;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import reactor.core.publisher.Mono;
+import rest.client.basic.Hosts;
+
+/**
+ * The Class WebClientConcurrencyLimitFilter, WebClient adapter of the {@link ConcurrencyLimiter},
+ * each exchange waits for a permit of its host, without blocking any thread.
+ *
+ * <P>A shed exchange fails with {@link ConcurrencyLimitExceededException}.
+ *
+ * <pre>
+ * {@code
+ *    WebClient client = WebClient.builder()
+ *          .filter(new WebClientConcurrencyLimitFilter(limiter))
+ *          .build();
+ * }
+ * </pre>
+ *
+ * @author tonioc
+ */
+public class WebClientConcurrencyLimitFilter implements ExchangeFilterFunction {
+
+    private final ConcurrencyLimiter limiter;
+
+    /**
+     * Instantiates a new web client concurrency limit filter.
+     *
+     * @param limiter the limiter
+     */
+    public WebClientConcurrencyLimitFilter(final ConcurrencyLimiter limiter) {
+        Validate.notNull(limiter, "limiter should not be null");
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(final ClientRequest request, final ExchangeFunction next) {
+
+        return Mono.defer(() -> {
+            CompletableFuture<HostLimit.Permit> future =
+                    this.limiter.getHostLimit(Hosts.hostOf(request.url())).acquireAsync();
+
+            return Mono.fromFuture(future)
+                    .doOnCancel(() -> {
+                        // granted meanwhile, the permit may never reach the exchange, it must be given back.
+                        if (!future.cancel(false)  &&  !future.isCompletedExceptionally()) {
+                            future.join().onIgnore();
+                        }
+                    })
+                    .flatMap(permit -> next.exchange(request)
+                            .doOnNext(response -> {
+                                if (ConcurrencyLimiter.isOverloaded(response.rawStatusCode())) {
+                                    permit.onDropped();
+                                }
+                                else {
+                                    permit.onSuccess();
+                                }
+                            })
+                            .doOnError(th -> permit.onDropped())
+                            .doFinally(signal -> permit.onIgnore()));
+        });
+    }
+}
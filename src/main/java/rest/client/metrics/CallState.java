@@ -0,0 +1,84 @@
+package rest.client.metrics;
+
+/**
+ * The Class CallState, what {@link MetricsRetryPolicy} needs to record a call when it ends, kept in
+ * the RetryContext of the call by {@link MetricsRetryPolicy#open(org.springframework.retry.RetryContext)}
+ * and updated in place by each attempt.
+ *
+ * @author tonioc
+ */
+final class CallState {
+
+    /**
+     * The RetryContext attribute where the state of the call is stored.
+     */
+    static final String ATTRIBUTE = "reliant.metrics.call";
+
+    private final long start = System.nanoTime();
+    private Route route;
+    private int status = Route.NO_STATUS;
+    private Throwable error;
+
+    /**
+     * Gets the start of the call.
+     *
+     * @return the start, in nanos
+     */
+    long getStart() {
+        return this.start;
+    }
+
+    /**
+     * Gets the route, set by the first attempt.
+     *
+     * @return the route, null if no request was sent
+     */
+    Route getRoute() {
+        return this.route;
+    }
+
+    /**
+     * Sets the route.
+     *
+     * @param route the new route
+     */
+    void setRoute(final Route route) {
+        this.route = route;
+    }
+
+    /**
+     * Gets the status index of the last response.
+     *
+     * @return the status
+     */
+    int getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Sets the status index of the last response.
+     *
+     * @param status the new status
+     */
+    void setStatus(final int status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets the error of the last attempt.
+     *
+     * @return the error, null if none
+     */
+    Throwable getError() {
+        return this.error;
+    }
+
+    /**
+     * Sets the error of the last attempt.
+     *
+     * @param error the new error
+     */
+    void setError(final Throwable error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,257 @@
+package rest.client.metrics;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.HttpMethod;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import rest.client.basic.Hosts;
+
+/**
+ * The Class ClientMetrics, the meters of the calls done by one or more clients, see
+ * {@link rest.client.strict.StrictRestClient#withMetrics(ClientMetrics)}.
+ *
+ * <P>Meters, all of them tagged by <i>host</i>, <i>uri</i> (the path of the URI template,
+ * ex. /person/{name}, or {@value #NO_TEMPLATE} for requests sent with an URI, ex. a RequestEntity, or with
+ * a string without variables, ex. <code>"http://host/person/" + name</code>) and <i>method</i>:
+ * <ul>
+ *   <li>{@value #ATTEMPTS} - timer of each attempt, the time on the wire (and in the interceptors that
+ *       follow, ex. waiting a concurrency permit), also tagged by <i>status</i> (series: 2xx, 5xx... NONE
+ *       if no response), <i>exception</i> (I/O error class or none) and <i>attempt</i> (1, 2, 3, 4+).</li>
+ *   <li>{@value #CALLS} - timer of each call, end-to-end, attempts and back offs, also tagged by
+ *       <i>status</i> (of the last response) and <i>exception</i> (the one thrown or none).</li>
+ *   <li>{@value #RETRIES} - counter of the retries done.</li>
+ *   <li>{@value #IN_FLIGHT} - gauge of the calls in progress.</li>
+ * </ul>
+ * Timers publish percentile histograms.
+ *
+ * <P>Meters are registered in the registries this instance is bound to, it is a {@link MeterBinder},
+ * so with Spring Boot Actuator it is enough to declare it as a bean:
+ * <pre>
+ * {@code
+ *    @Bean
+ *    public ClientMetrics clientMetrics() {
+ *        return new ClientMetrics();
+ *    }
+ *
+ *    @Bean
+ *    public StrictRestClient strictRestClient(final ClientMetrics metrics) {
+ *        return new StrictRestClient().withMetrics(metrics);
+ *    }
+ * }
+ * </pre>
+ *
+ * <P>Tags are built once per route (URI template, or scheme and authority when there is no template,
+ * and method) and meters once per tag combination, recording a call only looks them up. Expanded URIs
+ * are never tags, their number is unbounded. Up to {@link #MAX_ROUTES} templates and authorities are kept,
+ * the calls to the rest are tagged with host and uri {@value #OTHER_ROUTE}.
+ *
+ * @author tonioc
+ */
+public class ClientMetrics implements MeterBinder {
+
+    /**
+     * The Constant ATTEMPTS = {@value #ATTEMPTS}.
+     */
+    public static final String ATTEMPTS = "reliant.client.attempts";
+
+    /**
+     * The Constant CALLS = {@value #CALLS}.
+     */
+    public static final String CALLS = "reliant.client.calls";
+
+    /**
+     * The Constant RETRIES = {@value #RETRIES}.
+     */
+    public static final String RETRIES = "reliant.client.retries";
+
+    /**
+     * The Constant IN_FLIGHT = {@value #IN_FLIGHT}.
+     */
+    public static final String IN_FLIGHT = "reliant.client.inflight";
+
+    /**
+     * The Constant NO_TEMPLATE = {@value #NO_TEMPLATE}, the uri tag of requests without URI template.
+     */
+    public static final String NO_TEMPLATE = "none";
+
+    /**
+     * The Constant MAX_ROUTES = {@value}, max URI templates and authorities tagged on their own.
+     */
+    public static final int MAX_ROUTES = 1024;
+
+    /**
+     * The Constant OTHER_ROUTE = {@value}, host and uri tags of the calls beyond {@link #MAX_ROUTES}.
+     */
+    public static final String OTHER_ROUTE = "other";
+
+    private final CompositeMeterRegistry registry = new CompositeMeterRegistry();
+
+    // by URI template, and by scheme and authority for requests without template.
+    private final ConcurrentMap<String, Route[]> routes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, Route[]>> untemplatedRoutes = new ConcurrentHashMap<>();
+    private final AtomicInteger routeKeys = new AtomicInteger();
+    private final Route[] otherRoutes = new Route[HttpMethod.values().length];
+    private final Map<Class<?>, String> exceptionTags = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new client metrics, not bound to any registry.
+     */
+    public ClientMetrics() {
+        super();
+    }
+
+    /**
+     * Instantiates a new client metrics bound to the registry.
+     *
+     * @param registry the registry
+     */
+    public ClientMetrics(final MeterRegistry registry) {
+        bindTo(registry);
+    }
+
+    /**
+     * Binds to a registry, meters already created are registered there too.
+     *
+     * @param meterRegistry the meter registry
+     */
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        this.registry.add(meterRegistry);
+    }
+
+    /**
+     * Gets the route of a request.
+     *
+     * @param template the URI template, may be null when the request was done with an URI,
+     *        without variables it is not a template.
+     * @param uri the uri of the request
+     * @param method the method
+     * @return the route
+     */
+    Route getRoute(final String template, final URI uri, final HttpMethod method) {
+
+        String uriTemplate = (isTemplate(template) ? template : null);
+        Route[] byMethod = (uriTemplate != null ? byTemplate(uriTemplate) : byAuthority(uri));
+        Route route = byMethod[method.ordinal()];
+
+        if (route == null) {
+            synchronized (byMethod) {
+                route = byMethod[method.ordinal()];
+
+                if (route == null) {
+                    route = (byMethod == this.otherRoutes
+                            ? new Route(this, OTHER_ROUTE, OTHER_ROUTE, method.name())
+                            : new Route(this, Hosts.hostOf(uri), uriTag(uriTemplate), method.name()));
+                    byMethod[method.ordinal()] = route;
+                }
+            }
+        }
+
+        return route;
+    }
+
+    /**
+     * Gets the registry meters are registered in.
+     *
+     * @return the registry
+     */
+    MeterRegistry getRegistry() {
+        return this.registry;
+    }
+
+    /**
+     * Gets the exception tag of a class.
+     *
+     * @param type the exception class
+     * @return the tag
+     */
+    String exceptionTag(final Class<?> type) {
+        return this.exceptionTags.computeIfAbsent(type
+                , t -> (t.getSimpleName().isEmpty() ? t.getName() : t.getSimpleName()));
+    }
+
+    /**
+     * The path of the template, without scheme, authority nor query.
+     *
+     * @param template the template, may be null
+     * @return the uri tag, {@value #NO_TEMPLATE} if there is no template
+     */
+    static String uriTag(final String template) {
+
+        if (template == null) {
+            return NO_TEMPLATE;
+        }
+
+        String path = template;
+        int scheme = path.indexOf("://");
+
+        if (scheme >= 0) {
+            int slash = path.indexOf('/', scheme + 3);
+            path = (slash < 0 ? "/" : path.substring(slash));
+        }
+
+        int query = path.indexOf('?');
+
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+
+        return (path.isEmpty() ? "/" : path);
+    }
+
+    private static boolean isTemplate(final String template) {
+        return template != null  &&  template.indexOf('{') >= 0;
+    }
+
+    private Route[] byTemplate(final String template) {
+
+        Route[] byMethod = this.routes.get(template);
+
+        if (byMethod == null) {
+            byMethod = newRoutes(this.routes, template);
+        }
+
+        return byMethod;
+    }
+
+    private Route[] byAuthority(final URI uri) {
+
+        // URI keeps its scheme and raw authority, looking them up builds no key.
+        String scheme = (uri.getScheme() == null ? "" : uri.getScheme());
+        String authority = (uri.getRawAuthority() == null ? "" : uri.getRawAuthority());
+
+        ConcurrentMap<String, Route[]> byAuthority = this.untemplatedRoutes.get(scheme);
+
+        if (byAuthority == null) {
+            byAuthority = this.untemplatedRoutes.computeIfAbsent(scheme, k -> new ConcurrentHashMap<>());
+        }
+
+        Route[] byMethod = byAuthority.get(authority);
+
+        if (byMethod == null) {
+            byMethod = newRoutes(byAuthority, authority);
+        }
+
+        return byMethod;
+    }
+
+    private Route[] newRoutes(final ConcurrentMap<String, Route[]> map, final String key) {
+
+        // a new template or authority, the other routes if too many.
+        if (this.routeKeys.get() >= MAX_ROUTES) {
+            return this.otherRoutes;
+        }
+
+        return map.computeIfAbsent(key, k -> {
+            this.routeKeys.incrementAndGet();
+            return new Route[HttpMethod.values().length];
+        });
+    }
+}
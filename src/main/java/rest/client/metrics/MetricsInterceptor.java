@@ -0,0 +1,95 @@
+package rest.client.metrics;
+
+import java.io.IOException;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+/**
+ * The Class MetricsInterceptor, records each attempt in the {@link ClientMetrics} and keeps in the
+ * {@link CallState} of the RetryContext what {@link MetricsRetryPolicy} needs to record the call when
+ * it ends: its route, the status of the last response and the error of the last attempt.
+ *
+ * <P>Should be the first interceptor, so attempts failing in other interceptors (circuit breaker open,
+ * shed by the concurrency limiter...) are recorded too.
+ *
+ * @author tonioc
+ */
+public class MetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    /**
+     * The RetryContext attribute where the URI template of the last request is stored.
+     */
+    public static final String URI_TEMPLATE_ATTRIBUTE = "reliant.metrics.uriTemplate";
+
+    private final ClientMetrics metrics;
+
+    /**
+     * Instantiates a new metrics interceptor.
+     *
+     * @param metrics the metrics
+     */
+    public MetricsInterceptor(final ClientMetrics metrics) {
+        Validate.notNull(metrics, "metrics should not be null");
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request
+            , final byte[] body
+            , final ClientHttpRequestExecution execution) throws IOException {
+
+        HttpMethod method = request.getMethod();
+
+        if (method == null) {
+            return execution.execute(request, body);
+        }
+
+        RetryContext context = RetrySynchronizationManager.getContext();
+
+        // only calls opened by MetricsRetryPolicy are recorded when they end.
+        CallState call = (context == null ? null : (CallState) context.getAttribute(CallState.ATTRIBUTE));
+        Route route = (call == null ? null : call.getRoute());
+
+        if (route == null) {
+            String template = (context == null ? null : (String) context.getAttribute(URI_TEMPLATE_ATTRIBUTE));
+            route = this.metrics.getRoute(template, request.getURI(), method);
+
+            if (call != null) {
+                call.setRoute(route);
+                route.onCallStarted();
+            }
+        }
+
+        int attempt = (context == null ? 1 : context.getRetryCount() + 1);
+
+        if (call != null) {
+            call.setError(null);
+            call.setStatus(Route.NO_STATUS);
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            int status = Route.statusIndex(response.getRawStatusCode());
+            route.recordAttempt(attempt, status, null, System.nanoTime() - start);
+
+            if (call != null) {
+                call.setStatus(status);
+            }
+
+            return response;
+        }
+        catch (IOException | RuntimeException ex) {
+            route.recordAttempt(attempt, Route.NO_STATUS, ex.getClass(), System.nanoTime() - start);
+            throw ex;
+        }
+    }
+}
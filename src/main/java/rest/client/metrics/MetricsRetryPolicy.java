@@ -0,0 +1,73 @@
+package rest.client.metrics;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+
+/**
+ * The Class MetricsRetryPolicy, a RetryPolicy that behaves as the delegate policy and records each call,
+ * end-to-end, in the {@link ClientMetrics} when it is closed.
+ *
+ * <P>Used with {@link MetricsInterceptor}, calls that never sent a request have no route and are not recorded.
+ *
+ * @author tonioc
+ */
+public class MetricsRetryPolicy implements RetryPolicy {
+
+    private final RetryPolicy delegate;
+
+    /**
+     * Instantiates a new metrics retry policy.
+     *
+     * @param delegate the delegate
+     */
+    public MetricsRetryPolicy(final RetryPolicy delegate) {
+        Validate.notNull(delegate, "delegate should not be null");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean canRetry(final RetryContext context) {
+        return this.delegate.canRetry(context);
+    }
+
+    @Override
+    public RetryContext open(final RetryContext parent) {
+        RetryContext context = this.delegate.open(parent);
+        context.setAttribute(CallState.ATTRIBUTE, new CallState());
+        return context;
+    }
+
+    @Override
+    public void close(final RetryContext context) {
+
+        this.delegate.close(context);
+
+        CallState call = (CallState) context.getAttribute(CallState.ATTRIBUTE);
+
+        if (call == null  ||  call.getRoute() == null) {
+            return;
+        }
+
+        Throwable error = call.getError();
+
+        // every failed attempt is registered, the last one is not a retry unless it succeeded.
+        int retries = (error == null ? context.getRetryCount() : context.getRetryCount() - 1);
+
+        call.getRoute().recordCall(call.getStatus()
+                , (error == null ? null : error.getClass())
+                , System.nanoTime() - call.getStart()
+                , Math.max(0, retries));
+    }
+
+    @Override
+    public void registerThrowable(final RetryContext context, final Throwable throwable) {
+        this.delegate.registerThrowable(context, throwable);
+
+        CallState call = (CallState) context.getAttribute(CallState.ATTRIBUTE);
+
+        if (call != null) {
+            call.setError(throwable);
+        }
+    }
+}
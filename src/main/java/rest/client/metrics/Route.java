@@ -0,0 +1,154 @@
+package rest.client.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * The Class Route, the meters of one URI template (or host, without template) and method, created lazily the first time each
+ * tag combination is recorded and then only looked up.
+ *
+ * @author tonioc
+ */
+final class Route {
+
+    /**
+     * Index of the NONE status, no response received.
+     */
+    static final int NO_STATUS = 0;
+
+    private static final String[] STATUS_TAGS = {"NONE", "1xx", "2xx", "3xx", "4xx", "5xx", "UNKNOWN"};
+    private static final String[] ATTEMPT_TAGS = {"1", "2", "3", "4+"};
+    private static final String NO_EXCEPTION = "none";
+
+    private final ClientMetrics metrics;
+    private final Tags tags;
+
+    private final AtomicReferenceArray<Timer> attempts =
+            new AtomicReferenceArray<>(STATUS_TAGS.length * ATTEMPT_TAGS.length);
+    private final ConcurrentMap<Class<?>, AtomicReferenceArray<Timer>> failedAttempts = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Timer> calls = new AtomicReferenceArray<>(STATUS_TAGS.length);
+    private final ConcurrentMap<Class<?>, AtomicReferenceArray<Timer>> failedCalls = new ConcurrentHashMap<>();
+
+    private final LongAdder retries = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Instantiates a new route.
+     *
+     * @param metrics the metrics
+     * @param host the host
+     * @param uri the uri tag
+     * @param method the method
+     */
+    Route(final ClientMetrics metrics, final String host, final String uri, final String method) {
+        this.metrics = metrics;
+        this.tags = Tags.of("host", host, "uri", uri, "method", method);
+
+        FunctionCounter.builder(ClientMetrics.RETRIES, this.retries, LongAdder::sum)
+            .tags(this.tags)
+            .description("Retries done")
+            .register(metrics.getRegistry());
+
+        Gauge.builder(ClientMetrics.IN_FLIGHT, this.inFlight, AtomicInteger::get)
+            .tags(this.tags)
+            .description("Calls in progress")
+            .register(metrics.getRegistry());
+    }
+
+    /**
+     * The status index of a response status.
+     *
+     * @param rawStatus the raw status
+     * @return the status index
+     */
+    static int statusIndex(final int rawStatus) {
+        int series = rawStatus / 100;
+        return (series >= 1  &&  series <= 5 ? series : STATUS_TAGS.length - 1);
+    }
+
+    /**
+     * A call started.
+     */
+    void onCallStarted() {
+        this.inFlight.incrementAndGet();
+    }
+
+    /**
+     * Records an attempt.
+     *
+     * @param attempt the attempt, 1 the first one
+     * @param status the status index
+     * @param exception the exception class, null if none
+     * @param nanos the duration in nanos
+     */
+    void recordAttempt(final int attempt, final int status, final Class<?> exception, final long nanos) {
+
+        int attemptIndex = Math.min(attempt, ATTEMPT_TAGS.length) - 1;
+        AtomicReferenceArray<Timer> timers = (exception == null
+                ? this.attempts
+                : this.failedAttempts.computeIfAbsent(exception
+                        , e -> new AtomicReferenceArray<>(STATUS_TAGS.length * ATTEMPT_TAGS.length)));
+
+        int slot = status * ATTEMPT_TAGS.length + attemptIndex;
+        Timer timer = timers.get(slot);
+
+        if (timer == null) {
+            timer = Timer.builder(ClientMetrics.ATTEMPTS)
+                .tags(this.tags)
+                .tag("status", STATUS_TAGS[status])
+                .tag("exception", exception == null ? NO_EXCEPTION : this.metrics.exceptionTag(exception))
+                .tag("attempt", ATTEMPT_TAGS[attemptIndex])
+                .description("Attempts, time on the wire")
+                .publishPercentileHistogram()
+                .register(this.metrics.getRegistry());
+            timers.set(slot, timer);
+        }
+
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a call, ended.
+     *
+     * @param status the status index of the last response
+     * @param exception the exception class thrown, null if none
+     * @param nanos the duration in nanos, including back offs
+     * @param retryCount the retries done
+     */
+    void recordCall(final int status, final Class<?> exception, final long nanos, final int retryCount) {
+
+        this.inFlight.decrementAndGet();
+
+        if (retryCount > 0) {
+            this.retries.add(retryCount);
+        }
+
+        AtomicReferenceArray<Timer> timers = (exception == null
+                ? this.calls
+                : this.failedCalls.computeIfAbsent(exception, e -> new AtomicReferenceArray<>(STATUS_TAGS.length)));
+
+        Timer timer = timers.get(status);
+
+        if (timer == null) {
+            timer = Timer.builder(ClientMetrics.CALLS)
+                .tags(this.tags)
+                .tag("status", STATUS_TAGS[status])
+                .tag("exception", exception == null ? NO_EXCEPTION : this.metrics.exceptionTag(exception))
+                .description("Calls, end-to-end including back offs")
+                .publishPercentileHistogram()
+                .register(this.metrics.getRegistry());
+            timers.set(status, timer);
+        }
+
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,54 @@
+package rest.client.metrics;
+
+import java.net.URI;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetrySynchronizationManager;
+import org.springframework.web.util.UriTemplateHandler;
+
+/**
+ * The Class UriTemplateCaptureHandler, stores the URI template being expanded in the RetryContext
+ * of the current call, under the {@link MetricsInterceptor#URI_TEMPLATE_ATTRIBUTE} attribute, so
+ * meters are tagged with the template (/person/{name}) instead of the expanded URI. Strings without
+ * variables, ex. <code>"http://host/person/" + name</code>, are not templates, {@link ClientMetrics}
+ * tags them as {@value ClientMetrics#NO_TEMPLATE}.
+ *
+ * @author tonioc
+ */
+public class UriTemplateCaptureHandler implements UriTemplateHandler {
+
+    private final UriTemplateHandler delegate;
+
+    /**
+     * Instantiates a new uri template capture handler.
+     *
+     * @param delegate the delegate, ex. <code>restTemplate.getUriTemplateHandler()</code>
+     */
+    public UriTemplateCaptureHandler(final UriTemplateHandler delegate) {
+        Validate.notNull(delegate, "delegate should not be null");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public URI expand(final String uriTemplate, final Map<String, ?> uriVariables) {
+        capture(uriTemplate);
+        return this.delegate.expand(uriTemplate, uriVariables);
+    }
+
+    @Override
+    public URI expand(final String uriTemplate, final Object... uriVariables) {
+        capture(uriTemplate);
+        return this.delegate.expand(uriTemplate, uriVariables);
+    }
+
+    private static void capture(final String uriTemplate) {
+
+        RetryContext context = RetrySynchronizationManager.getContext();
+
+        if (context != null) {
+            context.setAttribute(MetricsInterceptor.URI_TEMPLATE_ATTRIBUTE, uriTemplate);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package rest.client.reactive;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.web.reactive.function.UnsupportedMediaTypeException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The Class AnyMessageReader, reactive counterpart of {@link rest.client.basic.AnyMessageConverter}:
+ * the last reader, used when no other one can read the body, logs a prefix of the body
+ * ({@value #MAX_LOGGED_BYTES} bytes at most) and fails with {@link UnsupportedMediaTypeException},
+ * as the WebClient does when no reader is found.
+ *
+ * <P>Only the logged prefix is read, the rest of the body is discarded.
+ *
+ * @author tonioc
+ */
+public class AnyMessageReader implements HttpMessageReader<Object> {
+
+    /**
+     * The Constant MAX_LOGGED_BYTES = {@value #MAX_LOGGED_BYTES}.
+     */
+    public static final int MAX_LOGGED_BYTES = 240;
+
+    private static final Logger log = LoggerFactory.getLogger(AnyMessageReader.class);
+
+    @Override
+    public List<MediaType> getReadableMediaTypes() {
+        return Collections.singletonList(MediaType.ALL);
+    }
+
+    @Override
+    public boolean canRead(final ResolvableType elementType, final MediaType mediaType) {
+        return true;
+    }
+
+    @Override
+    public Flux<Object> read(final ResolvableType elementType
+            , final ReactiveHttpInputMessage message
+            , final Map<String, Object> hints) {
+
+        return readMono(elementType, message, hints).flux();
+    }
+
+    @Override
+    public Mono<Object> readMono(final ResolvableType elementType
+            , final ReactiveHttpInputMessage message
+            , final Map<String, Object> hints) {
+
+        MediaType contentType = message.getHeaders().getContentType();
+
+        // one more byte than logged, to know if the body was truncated.
+        return DataBufferUtils.join(DataBufferUtils.takeUntilByteCount(message.getBody(), MAX_LOGGED_BYTES + 1L))
+                .map(buffer -> prefixOf(buffer, getCharset(contentType)))
+                .defaultIfEmpty("")
+                .flatMap(prefix -> {
+                    log.error("An un-managed media type arrived {} here is the content: {}", contentType, prefix);
+
+                    return Mono.error(new UnsupportedMediaTypeException(contentType
+                            , Collections.emptyList()
+                            , elementType));
+                });
+    }
+
+    private static String prefixOf(final DataBuffer buffer, final Charset charset) {
+
+        try {
+            int length = Math.min(buffer.readableByteCount(), MAX_LOGGED_BYTES);
+            byte[] bytes = new byte[length];
+            buffer.read(bytes);
+
+            return new String(bytes, charset) + (buffer.readableByteCount() > 0 ? "..." : "");
+        }
+        finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static Charset getCharset(final MediaType contentType) {
+        return Optional.ofNullable(contentType)
+            .map(MediaType::getCharset)
+            .orElse(Charset.defaultCharset());
+    }
+}
@@ -0,0 +1,288 @@
+package rest.client.reactive;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ConnectTimeoutException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.retry.Retry;
+
+/**
+ * ReliantWebClient a wrapper over a WebClient on Reactor Netty with the policies of
+ * {@link rest.client.strict.StrictRestClient}, without blocking any thread.
+ *
+ * <h2>Simple use:</h2>
+ * <pre>
+ * {@code
+ * ....
+ *    // Construct with default timeouts
+ *    ReliantWebClient reliant = new ReliantWebClient();
+ *
+ *    // call your webclient method as a lamba.
+ *    Mono<ResponseEntity<JsonNode>> result = reliant
+ *          .execute(webClient -> webClient.get()
+ *                  .uri("http://localhost:9090/person/{name}", "Andres")
+ *                  .retrieve()
+ *                  .toEntity(JsonNode.class));
+ * ....
+ * }
+ * </pre>
+ *
+ * <h2>How Exceptions are handled (signaled by the Mono returned by {@link #execute(Function)}):</h2>
+ *
+ * <ol>
+ * <li>WebClientResponseException - Status not 2xx, 1xx and 3xx included, see {@link StrictStatusFilter} (0 retries)
+ * <li>WebClientRequestException - connect timeout (3 retries, exponential back off)
+ * <li>WebClientRequestException - I/O or read timeout (0 retries)
+ * <li>UnsupportedMediaTypeException - no reader for the body, logs its first bytes,
+ *     see {@link AnyMessageReader} (0 retries)
+ * <li>DecodingException - ex. Json parse error (0 retries)
+ * </ol>
+ *
+ * <P>With <code>retrieve()</code> the errors reading a 2xx body are wrapped in a WebClientResponseException.
+ *
+ * <P>The {@link #getWebClient()} has the same status handling, but its calls are not retried.
+ *
+ * @author tonioc
+ */
+public class ReliantWebClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ReliantWebClient.class);
+
+    /**
+     * The Constant DEFAULT_CONNECT_TIMEOUT_IN_MILLIS = {@value #DEFAULT_CONNECT_TIMEOUT_IN_MILLIS}.
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT_IN_MILLIS = 5_000;
+
+    /**
+     * The Constant DEFAULT_READ_TIMEOUT_IN_MILLIS = {@value #DEFAULT_READ_TIMEOUT_IN_MILLIS}
+     */
+    public static final int DEFAULT_READ_TIMEOUT_IN_MILLIS = 30_000;
+
+    /**
+     * The Constant DEFAULT_MAX_RETRIES = {@value #DEFAULT_MAX_RETRIES}, retries of a connect timeout.
+     */
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    /**
+     * The Constant DEFAULT_INITIAL_BACK_OFF_IN_MILLIS = {@value #DEFAULT_INITIAL_BACK_OFF_IN_MILLIS},
+     * doubled on each retry.
+     */
+    public static final long DEFAULT_INITIAL_BACK_OFF_IN_MILLIS = 7_500L;
+
+    /**
+     * The Constant DEFAULT_MAX_BACK_OFF_IN_MILLIS = {@value #DEFAULT_MAX_BACK_OFF_IN_MILLIS}.
+     */
+    public static final long DEFAULT_MAX_BACK_OFF_IN_MILLIS = 150_000L;
+
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final WebClient webClient;
+
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private long initialBackOff = DEFAULT_INITIAL_BACK_OFF_IN_MILLIS;
+    private long maxBackOff = DEFAULT_MAX_BACK_OFF_IN_MILLIS;
+    private volatile Retry retry;
+
+    /**
+     * Constructor with default timeouts, {@link #DEFAULT_READ_TIMEOUT_IN_MILLIS} and
+     * {@link #DEFAULT_CONNECT_TIMEOUT_IN_MILLIS}.
+     */
+    public ReliantWebClient() {
+        this(0, 0);
+    }
+
+    /**
+     * Instantiates a new reliant web client, with readTimeout and default connectionTimeout.
+     *
+     * @param readTimeout the read timeout, if less or equal 0 {@link #DEFAULT_READ_TIMEOUT_IN_MILLIS} will be used.
+     */
+    public ReliantWebClient(final int readTimeout) {
+        this(0, readTimeout);
+    }
+
+    /**
+     * Instantiates a new reliant web client, with connect and read timeout.
+     *
+     * @param connectTimeout the connect timeout, if less or equal 0 {@link #DEFAULT_CONNECT_TIMEOUT_IN_MILLIS} will be used.
+     * @param readTimeout the read timeout, if less or equal 0 {@link #DEFAULT_READ_TIMEOUT_IN_MILLIS} will be used.
+     */
+    public ReliantWebClient(final int connectTimeout, final int readTimeout) {
+        this.connectTimeout = (connectTimeout <= 0 ? DEFAULT_CONNECT_TIMEOUT_IN_MILLIS : connectTimeout);
+        this.readTimeout = (readTimeout <= 0 ? DEFAULT_READ_TIMEOUT_IN_MILLIS : readTimeout);
+        this.webClient = createWebClient(createHttpClient(this.connectTimeout, this.readTimeout)).build();
+    }
+
+    /**
+     * Retries of a connect timeout, {@link #DEFAULT_MAX_RETRIES} by default.
+     *
+     * @param retries the retries, 0 for none
+     * @return the reliant web client
+     */
+    public ReliantWebClient withMaxRetries(final int retries) {
+        Validate.isTrue(retries >= 0, "retries should not be negative");
+        this.maxRetries = retries;
+        this.retry = null;
+        return this;
+    }
+
+    /**
+     * The exponential back off between retries, {@link #DEFAULT_INITIAL_BACK_OFF_IN_MILLIS} doubled on each retry
+     * up to {@link #DEFAULT_MAX_BACK_OFF_IN_MILLIS} by default.
+     *
+     * @param initialMillis the first back off, in millis
+     * @param maxMillis the max back off, in millis
+     * @return the reliant web client
+     */
+    public ReliantWebClient withBackOff(final long initialMillis, final long maxMillis) {
+        Validate.isTrue(initialMillis > 0, "initialMillis should be greater than 0");
+        Validate.isTrue(maxMillis >= initialMillis, "maxMillis should not be less than initialMillis");
+        this.initialBackOff = initialMillis;
+        this.maxBackOff = maxMillis;
+        this.retry = null;
+        return this;
+    }
+
+    /**
+     * Gets the underlying WebClient.
+     *
+     * @return the web client
+     */
+    public WebClient getWebClient() {
+        return this.webClient;
+    }
+
+    /**
+     * Execute the provided lambda function that recieves {@link WebClient} as an argument, the lambda
+     * is called again for each retry, when the returned Mono is subscribed.
+     *
+     * @see ReliantWebClient ReliantWebClient for the exceptions signaled by the Mono.
+     * @param <T> the generic type
+     * @param function the function receiving a {@link WebClient} argument and returning a Mono,
+     *    ex. of a ResponseEntity.
+     * @return the mono, nothing is sent until subscribed
+     */
+    public <T> Mono<T> execute(final Function<WebClient, Mono<T>> function) {
+
+        Validate.notNull(function, "Function argument should not be null");
+
+        return Mono.defer(() -> function.apply(this.webClient))
+                .retryWhen(getRetry());
+    }
+
+    /**
+     * Checks if the exception, or any of its causes, is a connect timeout.
+     *
+     * @param th the exception
+     * @return true, if connect timeout
+     */
+    public static boolean isConnectTimeout(final Throwable th) {
+        return ExceptionUtils.indexOfType(th, ConnectTimeoutException.class) >= 0
+                ||  ExceptionUtils.getThrowableList(th).stream()
+                        .anyMatch(t -> t.getMessage() != null
+                                &&  t.getMessage().toLowerCase().contains("connect timed out"));
+    }
+
+    /**
+     * Gets the retry, built the first time it is needed with {@link #createRetry()}, and then shared
+     * by all the calls.
+     *
+     * @return the retry
+     */
+    protected Retry getRetry() {
+
+        Retry result = this.retry;
+
+        if (result == null) {
+            result = createRetry();
+            this.retry = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Create the retry, only connect timeouts are retried, after an exponential back off that does not
+     * block any thread, the last error is signaled when the retries are exhausted.
+     *
+     * @return the retry
+     */
+    protected Retry createRetry() {
+
+        return Retry.backoff(this.maxRetries, Duration.ofMillis(this.initialBackOff))
+                .maxBackoff(Duration.ofMillis(this.maxBackOff))
+                .jitter(0d)
+                .filter(ReliantWebClient::isConnectTimeout)
+                .doBeforeRetry(signal -> log.info("Retry #" + (signal.totalRetries() + 1)
+                        + " caused by: " + signal.failure()))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    /**
+     * Creates the http client, with the connect and read (response) timeouts.
+     *
+     * @param connectTimeout the connect timeout
+     * @param readTimeout the read timeout
+     * @return the http client
+     */
+    protected HttpClient createHttpClient(final int connectTimeout, final int readTimeout) {
+        return HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .responseTimeout(Duration.ofMillis(readTimeout));
+    }
+
+    /**
+     * Creates the web client builder, over the http client, with the {@link StrictStatusFilter}
+     * and the {@link AnyMessageReader} after the default readers, override to customize it.
+     *
+     * @param httpClient the http client
+     * @return the web client builder
+     */
+    protected WebClient.Builder createWebClient(final HttpClient httpClient) {
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .exchangeStrategies(new AnyReaderLastStrategies(ExchangeStrategies.withDefaults()))
+                .filter(new StrictStatusFilter());
+    }
+
+    /**
+     * The strategies of a delegate with the {@link AnyMessageReader} as the last reader.
+     */
+    private static final class AnyReaderLastStrategies implements ExchangeStrategies {
+
+        private final List<HttpMessageReader<?>> readers;
+        private final List<HttpMessageWriter<?>> writers;
+
+        AnyReaderLastStrategies(final ExchangeStrategies delegate) {
+            List<HttpMessageReader<?>> list = new ArrayList<>(delegate.messageReaders());
+            list.add(new AnyMessageReader());
+            this.readers = Collections.unmodifiableList(list);
+            this.writers = delegate.messageWriters();
+        }
+
+        @Override
+        public List<HttpMessageReader<?>> messageReaders() {
+            return this.readers;
+        }
+
+        @Override
+        public List<HttpMessageWriter<?>> messageWriters() {
+            return this.writers;
+        }
+    }
+}
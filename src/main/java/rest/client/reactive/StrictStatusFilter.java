@@ -0,0 +1,36 @@
+package rest.client.reactive;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The Class StrictStatusFilter, reactive counterpart of {@link rest.client.strict.StrictResponseErrorHandler}:
+ * any status not 2xx, 1xx and 3xx included, fails the exchange with a {@link WebClientResponseException}
+ * containing the body, a subclass of it for the known 4xx and 5xx.
+ *
+ * @author tonioc
+ */
+public class StrictStatusFilter implements ExchangeFilterFunction {
+
+    @Override
+    public Mono<ClientResponse> filter(final ClientRequest request, final ExchangeFunction next) {
+
+        return next.exchange(request)
+                .flatMap(response -> {
+                    HttpStatus.Series series = HttpStatus.Series.resolve(response.rawStatusCode());
+
+                    if (series == HttpStatus.Series.SUCCESSFUL) {
+                        return Mono.just(response);
+                    }
+
+                    // the body is read and released by the exception.
+                    return response.createException().flatMap(Mono::error);
+                });
+    }
+}
@@ -0,0 +1,284 @@
+package rest.client.retrofit;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
+
+import okhttp3.Request;
+import okio.Timeout;
+import rest.client.basic.AsyncBackOff;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * The Class ReliantCall, a {@link Call} adapted by {@link ReliantCallAdapterFactory}, each attempt is
+ * a clone of the original call.
+ *
+ * <P>Same retry decisions in <i>execute()</i> and <i>enqueue()</i>, the RetryPolicy is asked after each
+ * failed attempt, but in <i>enqueue()</i> instead of sleeping during the back off the next attempt
+ * is scheduled in the timer of {@link AsyncBackOff}.
+ *
+ * @author tonioc
+ * @param <T> the generic type
+ */
+final class ReliantCall<T> implements Call<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(ReliantCall.class);
+
+    private final Call<T> delegate;
+    private final ReliantCallAdapterFactory factory;
+    private final Executor callbackExecutor;
+
+    private final AtomicBoolean executed = new AtomicBoolean();
+    private final AtomicBoolean delivered = new AtomicBoolean();
+    private volatile boolean canceled;
+    private volatile Call<T> current;
+    private volatile Future<?> pending;
+    private volatile AsyncAttempts async;
+    private int attempts;
+
+    /**
+     * Instantiates a new reliant call.
+     *
+     * @param delegate the call, never executed, cloned for each attempt
+     * @param factory the factory with the policies
+     * @param callbackExecutor the executor of the callbacks, if null they run in the OkHttp threads.
+     */
+    ReliantCall(final Call<T> delegate, final ReliantCallAdapterFactory factory, final Executor callbackExecutor) {
+        this.delegate = delegate;
+        this.factory = factory;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+
+        markExecuted();
+
+        return this.factory.getRetryTemplate().execute(context -> {
+            logRetry(context);
+            return successful(nextAttempt().execute());
+        });
+    }
+
+    @Override
+    public void enqueue(final Callback<T> callback) {
+
+        markExecuted();
+
+        RetryPolicy retryPolicy = this.factory.getRetryPolicy();
+        BackOffPolicy backOffPolicy = this.factory.getAsyncBackOffPolicy();
+        RetryContext context = retryPolicy.open(null);
+
+        this.async = new AsyncAttempts(callback, retryPolicy, backOffPolicy, context, backOffPolicy.start(context));
+        this.async.run();
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return this.executed.get();
+    }
+
+    @Override
+    public void cancel() {
+
+        this.canceled = true;
+
+        Call<T> call = this.current;
+
+        if (call != null) {
+            call.cancel();
+        }
+
+        Future<?> future = this.pending;
+
+        if (future != null  &&  future.cancel(false)) {
+            // the back off will not end, canceled now.
+            this.async.fail(new IOException("Canceled"));
+        }
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return this.canceled;
+    }
+
+    @Override
+    public Call<T> clone() {
+        return new ReliantCall<>(this.delegate.clone(), this.factory, this.callbackExecutor);
+    }
+
+    @Override
+    public Request request() {
+        return this.delegate.request();
+    }
+
+    @Override
+    public Timeout timeout() {
+        return this.delegate.timeout();
+    }
+
+    private void markExecuted() {
+        if (!this.executed.compareAndSet(false, true)) {
+            throw new IllegalStateException("Already executed.");
+        }
+    }
+
+    /**
+     * The call of the next attempt, the original one first and then its clones.
+     *
+     * @return the call
+     * @throws IOException if canceled
+     */
+    private synchronized Call<T> nextAttempt() throws IOException {
+
+        if (this.canceled) {
+            throw new IOException("Canceled");
+        }
+
+        Call<T> call = (this.attempts++ == 0 ? this.delegate : this.delegate.clone());
+        this.current = call;
+
+        if (this.canceled) {
+            // canceled meanwhile, before cancel() could see this call.
+            call.cancel();
+        }
+
+        return call;
+    }
+
+    private Response<T> successful(final Response<T> response) {
+
+        if (!response.isSuccessful()) {
+            // the error body was already buffered by Retrofit.
+            throw this.factory.toException(response);
+        }
+
+        return response;
+    }
+
+    private static void logRetry(final RetryContext context) {
+        if (context.getRetryCount() > 0) {
+            log.info("Retry #" + context.getRetryCount()
+                    +  " caused by: "
+                    +  (context.getLastThrowable() == null ? "Unknown Reason" : context.getLastThrowable().toString())
+                    );
+        }
+    }
+
+    /**
+     * The attempts of one <i>enqueue()</i>, each one enqueued when the back off of the previous one ends.
+     */
+    private final class AsyncAttempts implements Runnable, Callback<T> {
+
+        private final Callback<T> callback;
+        private final RetryPolicy retryPolicy;
+        private final BackOffPolicy backOffPolicy;
+        private final RetryContext context;
+        private final BackOffContext backOffContext;
+
+        AsyncAttempts(final Callback<T> callback
+                , final RetryPolicy retryPolicy
+                , final BackOffPolicy backOffPolicy
+                , final RetryContext context
+                , final BackOffContext backOffContext) {
+
+            this.callback = callback;
+            this.retryPolicy = retryPolicy;
+            this.backOffPolicy = backOffPolicy;
+            this.context = context;
+            this.backOffContext = backOffContext;
+        }
+
+        /**
+         * Enqueues the next attempt.
+         */
+        @Override
+        public void run() {
+
+            logRetry(this.context);
+
+            try {
+                nextAttempt().enqueue(this);
+            }
+            catch (IOException ex) {
+                onFailure(null, ex);
+            }
+        }
+
+        @Override
+        public void onResponse(final Call<T> call, final Response<T> response) {
+
+            if (response.isSuccessful()) {
+                this.retryPolicy.close(this.context);
+                deliver(() -> this.callback.onResponse(ReliantCall.this, response));
+            }
+            else {
+                onFailure(call, ReliantCall.this.factory.toException(response));
+            }
+        }
+
+        @Override
+        public void onFailure(final Call<T> call, final Throwable th) {
+
+            this.retryPolicy.registerThrowable(this.context, th);
+
+            if (ReliantCall.this.canceled  ||  !this.retryPolicy.canRetry(this.context)) {
+                fail(th);
+                return;
+            }
+
+            long period;
+
+            try {
+                period = AsyncBackOff.backOff(this.backOffPolicy, this.backOffContext);
+            }
+            catch (RuntimeException ex) {
+                fail(th);
+                return;
+            }
+
+            if (period <= 0L) {
+                run();
+                return;
+            }
+
+            ReliantCall.this.pending = AsyncBackOff.schedule(this, period);
+
+            if (ReliantCall.this.canceled  &&  ReliantCall.this.pending.cancel(false)) {
+                fail(new IOException("Canceled"));
+            }
+        }
+
+        private void fail(final Throwable th) {
+            this.retryPolicy.close(this.context);
+            deliver(() -> this.callback.onFailure(ReliantCall.this, th));
+        }
+
+        /**
+         * Delivers the result once, in the callback executor if any.
+         */
+        private void deliver(final Runnable delivery) {
+
+            if (!ReliantCall.this.delivered.compareAndSet(false, true)) {
+                return;
+            }
+
+            if (ReliantCall.this.callbackExecutor == null) {
+                delivery.run();
+            }
+            else {
+                ReliantCall.this.callbackExecutor.execute(delivery);
+            }
+        }
+    }
+}
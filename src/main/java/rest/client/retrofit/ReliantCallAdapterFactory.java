@@ -0,0 +1,238 @@
+package rest.client.retrofit;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.policy.ExceptionClassifierRetryPolicy;
+import org.springframework.retry.policy.NeverRetryPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import rest.api.TaException;
+import rest.client.basic.AsyncBackOff;
+import rest.client.basic.ReliantRestClientClassifier;
+import rest.client.error.OMErrorDecoder;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.HttpException;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * The Class ReliantCallAdapterFactory, Retrofit services returning {@link Call} get the retry and
+ * status rules of {@link rest.client.strict.StrictRestClient}.
+ *
+ * <h2>Simple use:</h2>
+ * <pre>
+ * {@code
+ * ....
+ *    MyService service = new Retrofit.Builder()
+ *          .baseUrl("http://localhost:9090/")
+ *          .addCallAdapterFactory(ReliantCallAdapterFactory.create())
+ *          .addConverterFactory(JacksonConverterFactory.create())
+ *          .build()
+ *          .create(MyService.class);
+ * ....
+ * }
+ * </pre>
+ *
+ * <h2>How Exceptions are handled (thrown by <i>execute()</i> or passed to <i>Callback.onFailure()</i>):</h2>
+ *
+ * <ol>
+ * <li>HttpException - Status not 2xx, 1xx and 3xx included, the response has the error body (0 retries)
+ * <li>TaException - error with an OMError body, with {@link #withErrorDecoder(OMErrorDecoder)},
+ *     its cause is the HttpException (0 retries)
+ * <li>IOException - connect timeout (3 retries)
+ * <li>IOException - I/O, read timeout or canceled (0 retries)
+ * <li>RuntimeException - ex. Json parse error (0 retries)
+ * </ol>
+ *
+ * <P>Back offs of <i>enqueue()</i> are scheduled in a timer, no thread is kept waiting, <i>execute()</i>
+ * waits in the calling thread. Cancelling the call cancels the OkHttp call in flight or the pending back off.
+ *
+ * @author tonioc
+ */
+public class ReliantCallAdapterFactory extends CallAdapter.Factory {
+
+    private volatile RetryTemplate retryTemplate;
+    private volatile RetryPolicy retryPolicy;
+    private volatile BackOffPolicy asyncBackOffPolicy;
+    private volatile OMErrorDecoder errorDecoder;
+
+    /**
+     * Creates a factory with the default policies.
+     *
+     * @return the reliant call adapter factory
+     */
+    public static ReliantCallAdapterFactory create() {
+        return new ReliantCallAdapterFactory();
+    }
+
+    /**
+     * Errors whose body is an OMError, as written by {@link rest.api.ErrorHdlBaseController}, fail
+     * with the {@link TaException} of their error code instead of the HttpException.
+     *
+     * @param decoder the error decoder
+     * @return the reliant call adapter factory
+     */
+    public ReliantCallAdapterFactory withErrorDecoder(final OMErrorDecoder decoder) {
+        this.errorDecoder = decoder;
+        return this;
+    }
+
+    @Override
+    public CallAdapter<?, ?> get(final Type returnType, final Annotation[] annotations, final Retrofit retrofit) {
+
+        if (getRawType(returnType) != Call.class) {
+            return null;
+        }
+
+        if (!(returnType instanceof ParameterizedType)) {
+            throw new IllegalArgumentException("Call return type must be parameterized as Call<Foo> or Call<? extends Foo>");
+        }
+
+        Type responseType = getParameterUpperBound(0, (ParameterizedType) returnType);
+        Executor callbackExecutor = retrofit.callbackExecutor();
+
+        return new CallAdapter<Object, Call<?>>() {
+
+            @Override
+            public Type responseType() {
+                return responseType;
+            }
+
+            @Override
+            public Call<?> adapt(final Call<Object> call) {
+                return new ReliantCall<>(call, ReliantCallAdapterFactory.this, callbackExecutor);
+            }
+        };
+    }
+
+    /**
+     * The exception of a response not 2xx, decoded if there is an error decoder.
+     *
+     * @param response the response
+     * @return the exception
+     */
+    RuntimeException toException(final Response<?> response) {
+
+        HttpException ex = new HttpException(response);
+        OMErrorDecoder decoder = this.errorDecoder;
+        Optional<TaException> decoded = (decoder == null ? Optional.empty() : decoder.decode(ex));
+
+        return (decoded.isPresent() ? decoded.get() : ex);
+    }
+
+    /**
+     * Gets the retry template of <i>execute()</i>, built the first time it is needed.
+     *
+     * @return the retry template
+     */
+    RetryTemplate getRetryTemplate() {
+
+        RetryTemplate template = this.retryTemplate;
+
+        if (template == null) {
+            template = new RetryTemplate();
+            template.setRetryPolicy(getRetryPolicy());
+            template.setBackOffPolicy(createBackOffPolicy());
+            this.retryTemplate = template;
+        }
+
+        return template;
+    }
+
+    /**
+     * Gets the retry policy, built the first time it is needed with {@link #createRetryPolicy()}.
+     *
+     * @return the retry policy
+     */
+    RetryPolicy getRetryPolicy() {
+
+        RetryPolicy policy = this.retryPolicy;
+
+        if (policy == null) {
+            policy = createRetryPolicy();
+            this.retryPolicy = policy;
+        }
+
+        return policy;
+    }
+
+    /**
+     * Gets the back off policy of <i>enqueue()</i>, see {@link AsyncBackOff#toAsyncBackOffPolicy(BackOffPolicy)}.
+     *
+     * @return the back off policy
+     */
+    BackOffPolicy getAsyncBackOffPolicy() {
+
+        BackOffPolicy policy = this.asyncBackOffPolicy;
+
+        if (policy == null) {
+            policy = AsyncBackOff.toAsyncBackOffPolicy(createBackOffPolicy());
+            this.asyncBackOffPolicy = policy;
+        }
+
+        return policy;
+    }
+
+    /**
+     * Create retry policy, called once per factory, the policy must keep the state of each call
+     * in its RetryContext.
+     *
+     * @return the retry policy
+     */
+    public RetryPolicy createRetryPolicy() {
+
+        RetryPolicy retry3 = new SimpleRetryPolicy(4);
+        RetryPolicy neverRetry = new NeverRetryPolicy();
+
+        Map<Class<? extends Throwable>, RetryPolicy> map = new HashMap<>();
+        map.put(IOException.class, retry3);
+        map.put(HttpException.class, neverRetry);
+        map.put(TaException.class, neverRetry);
+
+        ExceptionClassifierRetryPolicy policy = new ExceptionClassifierRetryPolicy();
+        policy.setExceptionClassifier(new ReliantRestClientClassifier(map
+                , (th, rp) -> (th instanceof IOException  &&  !isConnectTimeout(th) ? neverRetry : rp)));
+
+        return policy;
+    }
+
+    /**
+     * Create back off policy, called once per factory, the policy must keep the state of each call
+     * in its BackOffContext.
+     *
+     * @return the back off policy
+     */
+    public BackOffPolicy createBackOffPolicy() {
+
+        ExponentialBackOffPolicy bop = new ExponentialBackOffPolicy();
+        bop.setMultiplier(2);
+        bop.setMaxInterval(150_000L);
+        bop.setInitialInterval(7_500L);
+
+        return bop;
+    }
+
+    /**
+     * Checks if the exception, or any of its causes, is a connect timeout.
+     *
+     * @param th the exception
+     * @return true, if connect timeout
+     */
+    public static boolean isConnectTimeout(final Throwable th) {
+        return ExceptionUtils.getThrowableList(th).stream()
+                .anyMatch(t -> t.getMessage() != null  &&  t.getMessage().toLowerCase().contains("connect timed out"));
+    }
+}
@@ -0,0 +1,131 @@
+package rest.client.stream;
+
+import java.io.IOException;
+
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+/**
+ * The Class ConnectionAbort, aborts the connection of a request instead of waiting for it or releasing it.
+ *
+ * <P>Blocking I/O ignores interrupts, and closing a response reads the rest of its body so the connection
+ * can be kept alive. While set in the RetryContext of the current attempt, under the {@link #ATTRIBUTE}
+ * attribute, {@link #abort()} closes the connection of the request sent, ex. a stream closed early
+ * (see {@link rest.client.strict.StrictRestClient#executeStream(org.springframework.http.RequestEntity, Class)})
+ * or a cancelled async attempt (see
+ * {@link rest.client.strict.StrictRestClient#executeAsync(java.util.function.Function)}):
+ * <ul>
+ *   <li>With the action set by the transport in {@link #onAbort(Runnable)}, ex. the
+ *       {@link rest.client.transport.PooledClientTransport} aborts the request, waiting a connection,
+ *       connecting or reading, and the connection is not returned to the pool.</li>
+ *   <li>Otherwise the body of the response of the transport, kept by {@link #onResponse(ClientHttpResponse)},
+ *       is closed without reading it.</li>
+ * </ul>
+ * Once aborted, actions and responses set afterwards are aborted right away.
+ *
+ * @author tonioc
+ */
+public final class ConnectionAbort {
+
+    /**
+     * The RetryContext attribute where the abort of the current attempt is stored.
+     */
+    public static final String ATTRIBUTE = "reliant.stream.abort";
+
+    private volatile Runnable action;
+    private volatile ClientHttpResponse response;
+    private volatile boolean aborted;
+
+    /**
+     * Gets the abort of the current attempt.
+     *
+     * @return the connection abort, null if none
+     */
+    public static ConnectionAbort current() {
+
+        RetryContext context = RetrySynchronizationManager.getContext();
+
+        return (context == null ? null : (ConnectionAbort) context.getAttribute(ATTRIBUTE));
+    }
+
+    /**
+     * Checks if the current attempt was aborted, its I/O errors are not failures of the host.
+     *
+     * @return true, if aborted
+     */
+    public static boolean wasAborted() {
+
+        ConnectionAbort abort = current();
+
+        return abort != null  &&  abort.isAborted();
+    }
+
+    /**
+     * Keeps the response of the transport if the current attempt has a {@link ConnectionAbort}.
+     *
+     * @param transportResponse the response of the transport, below every interceptor
+     */
+    public static void onResponse(final ClientHttpResponse transportResponse) {
+
+        ConnectionAbort abort = current();
+
+        if (abort != null) {
+            abort.response = transportResponse;
+
+            if (abort.aborted) {
+                abort.abort();
+            }
+        }
+    }
+
+    /**
+     * Sets how the transport aborts the connection of the request being sent.
+     *
+     * @param abortAction the abort action, may be run more than once
+     */
+    public void onAbort(final Runnable abortAction) {
+        this.action = abortAction;
+
+        if (this.aborted) {
+            abortAction.run();
+        }
+    }
+
+    /**
+     * Checks if aborted.
+     *
+     * @return true, if aborted
+     */
+    public boolean isAborted() {
+        return this.aborted;
+    }
+
+    /**
+     * Aborts the connection of the request sent, if any, the response should still be closed after.
+     */
+    public void abort() {
+
+        this.aborted = true;
+
+        Runnable abortAction = this.action;
+
+        if (abortAction != null) {
+            abortAction.run();
+            return;
+        }
+
+        ClientHttpResponse transportResponse = this.response;
+
+        if (transportResponse == null) {
+            return;
+        }
+
+        try {
+            transportResponse.getBody().close();
+        }
+        catch (IOException ex) {
+            // aborting, nothing else to do.
+        }
+    }
+}
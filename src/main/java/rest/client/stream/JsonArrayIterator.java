@@ -0,0 +1,217 @@
+package rest.client.stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.lang3.Validate;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * The Class JsonArrayIterator, the elements of a JSON array read one at a time from an open body,
+ * only the current element is in memory whatever the size of the array.
+ *
+ * <P>The resource holding the body (the response) is closed when the end of the array is reached,
+ * or when this iterator, or the {@link #stream()}, is closed, it should be closed when not read to the end:
+ * <pre>
+ * {@code
+ *    try (Stream<ModelPerson> persons = iterator.stream()) {
+ *        persons.forEach(...);
+ *    }
+ * }
+ * </pre>
+ *
+ * <P>When closed before the end of the array the abort set with {@link #withAbort(Runnable)}, if any,
+ * is run before closing the resource, ex. so the rest of the body is not downloaded.
+ *
+ * <P>Errors reading the body are thrown as {@link UncheckedIOException}, not thread safe.
+ *
+ * @author tonioc
+ * @param <T> the generic type
+ */
+public final class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+
+    private final JsonParser parser;
+    private final ObjectReader elementReader;
+    private final Closeable resource;
+    private Runnable abort;
+
+    private T next;
+    private boolean ready;
+    private boolean ended;
+    private boolean closed;
+
+    /**
+     * Instantiates a new json array iterator, positioned at the start of the array.
+     *
+     * @param parser the parser of the body, before the array
+     * @param elementReader the reader of each element
+     * @param resource the resource closed with this iterator, may be null
+     * @throws IOException if the body can not be read or is not a JSON array
+     */
+    public JsonArrayIterator(final JsonParser parser, final ObjectReader elementReader, final Closeable resource)
+            throws IOException {
+
+        Validate.notNull(parser, "parser should not be null");
+        Validate.notNull(elementReader, "elementReader should not be null");
+
+        this.parser = parser;
+        this.elementReader = elementReader;
+        this.resource = resource;
+
+        JsonToken token = parser.nextToken();
+
+        if (token != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected a JSON array but found: " + token);
+        }
+    }
+
+    /**
+     * Creates an iterator over the array in the body, the resource is closed if it fails.
+     *
+     * @param <T> the generic type
+     * @param mapper the mapper
+     * @param body the body
+     * @param elementReader the reader of each element
+     * @param resource the resource holding the body, closed with this iterator
+     * @return the json array iterator
+     * @throws IOException if the body can not be read or is not a JSON array
+     */
+    public static <T> JsonArrayIterator<T> of(final ObjectMapper mapper
+            , final InputStream body
+            , final ObjectReader elementReader
+            , final Closeable resource) throws IOException {
+
+        try {
+            JsonParser parser = mapper.getFactory().createParser(body);
+
+            if (resource != null) {
+                // the resource releases the body, ex. draining it to keep the connection alive.
+                parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            }
+
+            return new JsonArrayIterator<>(parser, elementReader, resource);
+        }
+        catch (IOException | RuntimeException ex) {
+            if (resource != null) {
+                resource.close();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Sets the action run when closed before the end of the array.
+     *
+     * @param action the action, ex. aborting the connection of the body
+     * @return the json array iterator
+     */
+    public JsonArrayIterator<T> withAbort(final Runnable action) {
+        this.abort = action;
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+
+        if (this.ready) {
+            return true;
+        }
+
+        if (this.ended  ||  this.closed) {
+            return false;
+        }
+
+        try {
+            JsonToken token = this.parser.nextToken();
+
+            if (token == JsonToken.END_ARRAY  ||  token == null) {
+                this.ended = true;
+                // the whole body was read, the connection can be released.
+                close();
+                return false;
+            }
+
+            this.next = this.elementReader.readValue(this.parser);
+            this.ready = true;
+
+            return true;
+        }
+        catch (IOException ex) {
+            try {
+                close();
+            }
+            catch (IOException closeEx) {
+                ex.addSuppressed(closeEx);
+            }
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public T next() {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        T element = this.next;
+        this.next = null;
+        this.ready = false;
+
+        return element;
+    }
+
+    /**
+     * A sequential stream of the elements, closing it closes this iterator.
+     *
+     * @return the stream
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(this::closeUnchecked);
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+
+        try {
+            if (!this.ended  &&  this.abort != null) {
+                this.abort.run();
+            }
+            this.parser.close();
+        }
+        finally {
+            if (this.resource != null) {
+                this.resource.close();
+            }
+        }
+    }
+
+    private void closeUnchecked() {
+        try {
+            close();
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package rest.client.strict;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+import rest.client.basic.AsyncBackOff;
+import rest.client.basic.ReliantRetryCallback;
+import rest.client.stream.ConnectionAbort;
+
+/**
+ * The Class AsyncRetryExecution, one asynchronous call of {@link StrictRestClient#executeAsync(java.util.function.Function)}.
+ *
+ * <P>Same retry decisions as the RetryTemplate used by {@link StrictRestClient#execute(java.util.function.Function)},
+ * the RetryPolicy is asked after each failed attempt, but instead of sleeping during the back off the
+ * next attempt is scheduled in a timer, and no thread is kept waiting.
+ *
+ * <P>The back off period is captured by {@link AsyncBackOff}, when the policy is not a
+ * SleepingBackOffPolicy it will wait in the executor thread.
+ *
+ * <P>The RetryContext is closed once, however the call ends: completed, failed, rejected by the executor
+ * or cancelled, in-flight attempt or pending back off. When cancelled during an attempt it is closed
+ * when the attempt returns.
+ *
+ * <P>Each attempt has a {@link ConnectionAbort} in the RetryContext, cancelling the call aborts the connection
+ * of the in-flight attempt, blocking I/O ignores the interrupt.
+ *
+ * @param <T> the generic type
+ */
+class AsyncRetryExecution<T> implements Runnable {
+
+    private final RetryPolicy retryPolicy;
+    private final BackOffPolicy backOffPolicy;
+    private final ReliantRetryCallback<T> callback;
+    private final ExecutorService executor;
+    private final CompletableFuture<ResponseEntity<T>> result = new CompletableFuture<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicInteger running = new AtomicInteger();
+
+    private RetryContext context;
+    private BackOffContext backOffContext;
+    private volatile Future<?> pending;
+    private volatile ConnectionAbort abort;
+
+    /**
+     * Instantiates a new async retry execution.
+     *
+     * @param retryPolicy the retry policy
+     * @param backOffPolicy the back off policy, as returned by {@link AsyncBackOff#toAsyncBackOffPolicy(BackOffPolicy)}
+     * @param callback the callback
+     * @param executor the executor where attempts are run
+     */
+    AsyncRetryExecution(
+            final RetryPolicy retryPolicy
+            , final BackOffPolicy backOffPolicy
+            , final ReliantRetryCallback<T> callback
+            , final ExecutorService executor) {
+
+        this.retryPolicy = retryPolicy;
+        this.backOffPolicy = backOffPolicy;
+        this.callback = callback;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts the first attempt.
+     *
+     * @return the completable future, cancelling it cancels the in-flight attempt or pending back off.
+     */
+    CompletableFuture<ResponseEntity<T>> start() {
+
+        this.context = this.retryPolicy.open(null);
+        this.backOffContext = this.backOffPolicy.start(this.context);
+
+        this.result.whenComplete((r, th) -> {
+            if (this.result.isCancelled()) {
+                cancelPending();
+            }
+            if (this.running.get() == 0) {
+                closeContext();
+            }
+        });
+
+        submitAttempt();
+        return this.result;
+    }
+
+    /**
+     * Runs one attempt, in an executor thread.
+     */
+    @Override
+    public void run() {
+
+        // counted before checking the result, so a concurrent completion either sees it or is seen.
+        this.running.incrementAndGet();
+
+        if (this.result.isDone()) {
+            endAttempt();
+            return;
+        }
+
+        RetrySynchronizationManager.register(this.context);
+
+        ConnectionAbort attemptAbort = new ConnectionAbort();
+        this.context.setAttribute(ConnectionAbort.ATTRIBUTE, attemptAbort);
+        this.abort = attemptAbort;
+
+        // cancelled meanwhile, aborted before sending.
+        if (this.result.isCancelled()) {
+            attemptAbort.abort();
+        }
+
+        try {
+            ResponseEntity<T> response = this.callback.doWithRetry(this.context);
+            closeContext();
+            this.result.complete(response);
+        }
+        catch (Throwable th) {
+
+            this.retryPolicy.registerThrowable(this.context, th);
+
+            if (this.result.isDone() || !this.retryPolicy.canRetry(this.context)) {
+                closeContext();
+                this.result.completeExceptionally(th);
+            }
+            else {
+                scheduleRetry(th);
+            }
+        }
+        finally {
+            RetrySynchronizationManager.clear();
+            endAttempt();
+        }
+    }
+
+    /**
+     * Schedule next attempt after the back off period.
+     *
+     * @param lastError the last error
+     */
+    private void scheduleRetry(final Throwable lastError) {
+
+        long period;
+
+        try {
+            period = AsyncBackOff.backOff(this.backOffPolicy, this.backOffContext);
+        }
+        catch (RuntimeException ex) {
+            closeContext();
+            this.result.completeExceptionally(lastError);
+            return;
+        }
+
+        if (period <= 0L) {
+            submitAttempt();
+            return;
+        }
+
+        setPending(AsyncBackOff.schedule(this::submitAttempt, period));
+    }
+
+    /**
+     * Submit an attempt to the executor.
+     */
+    private void submitAttempt() {
+
+        try {
+            setPending(this.executor.submit(this));
+        }
+        catch (RejectedExecutionException ex) {
+            this.result.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * An attempt ended, the context is closed if the result was completed meanwhile.
+     */
+    private void endAttempt() {
+        if (this.running.decrementAndGet() == 0  &&  this.result.isDone()) {
+            closeContext();
+        }
+    }
+
+    /**
+     * Closes the retry context, only the first time.
+     */
+    private void closeContext() {
+        if (this.closed.compareAndSet(false, true)) {
+            this.retryPolicy.close(this.context);
+        }
+    }
+
+    /**
+     * Sets the pending attempt or back off, cancelling it if the result was cancelled meanwhile.
+     *
+     * @param future the new pending
+     */
+    private void setPending(final Future<?> future) {
+        this.pending = future;
+
+        if (this.result.isCancelled()) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Cancel pending attempt or back off, the connection of an in-flight attempt is aborted
+     * and its thread interrupted.
+     */
+    private void cancelPending() {
+        Future<?> future = this.pending;
+
+        if (future != null) {
+            future.cancel(true);
+        }
+
+        ConnectionAbort attemptAbort = this.abort;
+
+        if (attemptAbort != null) {
+            attemptAbort.abort();
+        }
+    }
+}
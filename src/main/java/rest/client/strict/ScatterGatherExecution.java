@@ -0,0 +1,139 @@
+package rest.client.strict;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import rest.client.deadline.Deadline;
+import rest.client.deadline.DeadlineExceededException;
+
+/**
+ * The Class ScatterGatherExecution, one call of {@link StrictRestClient#scatterGather(java.util.Collection, int, Deadline)}.
+ *
+ * <P>Up to <i>parallelism</i> workers run in the executor, each one takes the next function not started and
+ * executes it with {@link StrictRestClient#execute(Deadline, Function)}, so every branch has its retries
+ * and all of them stop at the same deadline. When the deadline is reached the workers are interrupted
+ * and the branches not ended fail with {@link DeadlineExceededException}.
+ *
+ * @author tonioc
+ * @param <T> the generic type
+ */
+class ScatterGatherExecution<T> {
+
+    private final StrictRestClient client;
+    private final List<Function<RestTemplate, ResponseEntity<T>>> functions;
+    private final Deadline deadline;
+
+    private final AtomicReferenceArray<ScatterResult<T>> results;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Instantiates a new scatter gather execution.
+     *
+     * @param client the client
+     * @param functions the functions
+     * @param deadline the deadline
+     */
+    ScatterGatherExecution(final StrictRestClient client
+            , final List<Function<RestTemplate, ResponseEntity<T>>> functions
+            , final Deadline deadline) {
+
+        this.client = client;
+        this.functions = functions;
+        this.deadline = deadline;
+        this.results = new AtomicReferenceArray<>(functions.size());
+    }
+
+    /**
+     * Runs the branches and waits until all of them end or the deadline is reached.
+     *
+     * @param executor the executor
+     * @param parallelism the max branches running at the same time
+     * @return the results, in the order of the functions
+     */
+    List<ScatterResult<T>> run(final ExecutorService executor, final int parallelism) {
+
+        int workers = Math.min(parallelism, this.functions.size());
+        CountDownLatch done = new CountDownLatch(workers);
+        List<Future<?>> futures = new ArrayList<>(workers);
+
+        for (int i = 0; i < workers; i++) {
+            try {
+                futures.add(executor.submit(() -> work(done)));
+            }
+            catch (RejectedExecutionException ex) {
+                done.countDown();
+            }
+        }
+
+        if (futures.isEmpty()  &&  workers > 0) {
+            // executor saturated, at least this thread works.
+            work(new CountDownLatch(1));
+        }
+
+        try {
+            done.await(Math.max(0L, this.deadline.remainingMillis()), TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+
+        List<ScatterResult<T>> gathered = new ArrayList<>(this.functions.size());
+
+        for (int i = 0; i < this.functions.size(); i++) {
+            // a branch ending now is too late, the first result set wins.
+            this.results.compareAndSet(i, null
+                    , ScatterResult.failure(i, new DeadlineExceededException(this.deadline, null)));
+            gathered.add(this.results.get(i));
+        }
+
+        return gathered;
+    }
+
+    /**
+     * Executes functions not started, until none is left.
+     *
+     * @param done the latch counted down when this worker ends
+     */
+    private void work(final CountDownLatch done) {
+
+        try {
+            int index;
+
+            while ((index = this.next.getAndIncrement()) < this.functions.size()) {
+
+                ScatterResult<T> result;
+
+                if (this.deadline.isExpired()  ||  Thread.currentThread().isInterrupted()) {
+                    result = ScatterResult.failure(index, new DeadlineExceededException(this.deadline, null));
+                }
+                else {
+                    try {
+                        result = ScatterResult.success(index, this.client.execute(this.deadline, this.functions.get(index)));
+                    }
+                    catch (RuntimeException ex) {
+                        result = ScatterResult.failure(index, ex);
+                    }
+                }
+
+                this.results.compareAndSet(index, null, result);
+            }
+        }
+        finally {
+            done.countDown();
+        }
+    }
+}
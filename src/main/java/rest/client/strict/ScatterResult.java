@@ -0,0 +1,113 @@
+package rest.client.strict;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * The Class ScatterResult, the outcome of one branch of {@link StrictRestClient#scatterGather(java.util.Collection, int,
+ * rest.client.deadline.Deadline)}, either the response or the failure.
+ *
+ * @param <T> the generic type
+ * @author tonioc
+ */
+public final class ScatterResult<T> {
+
+    private final int index;
+    private final ResponseEntity<T> response;
+    private final RuntimeException error;
+
+    private ScatterResult(final int index, final ResponseEntity<T> response, final RuntimeException error) {
+        this.index = index;
+        this.response = response;
+        this.error = error;
+    }
+
+    /**
+     * A successful branch.
+     *
+     * @param <T> the generic type
+     * @param index the index
+     * @param response the response
+     * @return the scatter result
+     */
+    static <T> ScatterResult<T> success(final int index, final ResponseEntity<T> response) {
+        return new ScatterResult<>(index, response, null);
+    }
+
+    /**
+     * A failed branch.
+     *
+     * @param <T> the generic type
+     * @param index the index
+     * @param error the error
+     * @return the scatter result
+     */
+    static <T> ScatterResult<T> failure(final int index, final RuntimeException error) {
+        return new ScatterResult<>(index, null, error);
+    }
+
+    /**
+     * Gets the index of the branch, its position in the functions.
+     *
+     * @return the index
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Checks if the branch succeeded.
+     *
+     * @return true, if success
+     */
+    public boolean isSuccess() {
+        return this.error == null;
+    }
+
+    /**
+     * Gets the response.
+     *
+     * @return the response, null if failed.
+     */
+    public ResponseEntity<T> getResponse() {
+        return this.response;
+    }
+
+    /**
+     * Gets the error, thrown by the branch or {@link rest.client.deadline.DeadlineExceededException} if the overall
+     * deadline was reached before it ended.
+     *
+     * @return the error, null if succeeded.
+     */
+    public RuntimeException getError() {
+        return this.error;
+    }
+
+    /**
+     * Gets the response, or throws the error.
+     *
+     * @return the response
+     */
+    public ResponseEntity<T> getOrThrow() {
+
+        if (this.error != null) {
+            throw this.error;
+        }
+
+        return this.response;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("ScatterResult [index=").append(this.index);
+
+        if (this.error == null) {
+            builder.append(", status=").append(this.response == null ? null : this.response.getStatusCodeValue());
+        }
+        else {
+            builder.append(", error=").append(this.error);
+        }
+
+        return builder.append("]").toString();
+    }
+}
@@ -1,25 +1,95 @@
 package rest.client.strict;
 
 import java.io.IOException;
+import java.util.Optional;
 
+import org.apache.commons.lang3.Validate;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestClientResponseException;
+
+import rest.api.TaException;
+import rest.client.buffer.BufferPool;
+import rest.client.buffer.PooledOutputStream;
+import rest.client.error.OMErrorDecoder;
 
 
 /**
  * The Class StrictResponseErrorHandler.
+ *
+ * <P>Error bodies are read in a buffer of the {@link BufferPool}, only the exact copy kept
+ * by the exception is allocated.
+ *
+ * <P>With an {@link OMErrorDecoder} the errors with an OMError body are thrown as its {@link TaException},
+ * with the HTTP exception as cause.
  */
 public class StrictResponseErrorHandler extends DefaultResponseErrorHandler {
 
+    private final BufferPool pool;
+    private volatile OMErrorDecoder errorDecoder;
+
+    /**
+     * Instantiates a new strict response error handler using the {@link BufferPool#shared()} pool.
+     */
+    public StrictResponseErrorHandler() {
+        this(BufferPool.shared());
+    }
+
+    /**
+     * Instantiates a new strict response error handler.
+     *
+     * @param pool the buffer pool
+     */
+    public StrictResponseErrorHandler(final BufferPool pool) {
+        Validate.notNull(pool, "pool should not be null");
+        this.pool = pool;
+    }
+
     @Override
     protected boolean hasError(final HttpStatus statusCode) {
         return (statusCode.series() != HttpStatus.Series.SUCCESSFUL);
     }
 
+    /**
+     * Gets the error decoder.
+     *
+     * @return the error decoder, null if errors are not decoded
+     */
+    public OMErrorDecoder getErrorDecoder() {
+        return this.errorDecoder;
+    }
+
+    /**
+     * Sets the error decoder.
+     *
+     * @param errorDecoder the error decoder, null to throw the HTTP exceptions as they are.
+     */
+    public void setErrorDecoder(final OMErrorDecoder errorDecoder) {
+        this.errorDecoder = errorDecoder;
+    }
+
     @Override
     public void handleError(final ClientHttpResponse response) throws IOException {
 
+        try {
+            handleHttpError(response);
+        }
+        catch (RestClientResponseException ex) {
+
+            OMErrorDecoder decoder = this.errorDecoder;
+            Optional<TaException> decoded = (decoder == null ? Optional.empty() : decoder.decode(ex));
+
+            if (decoded.isPresent()) {
+                throw decoded.get();
+            }
+
+            throw ex;
+        }
+    }
+
+    private void handleHttpError(final ClientHttpResponse response) throws IOException {
+
         // TODO Manage Http-Status 503, and handle retry in a better way ?
         int statusCode = response.getRawStatusCode();
 
@@ -38,4 +108,22 @@ public class StrictResponseErrorHandler extends DefaultResponseErrorHandler {
             super.handleError(response);
         }
     }
+
+    @Override
+    protected byte[] getResponseBody(final ClientHttpResponse response) {
+
+        PooledOutputStream body = new PooledOutputStream(this.pool);
+
+        try {
+            body.readFrom(response.getBody());
+            return body.toByteArray();
+        }
+        catch (IOException ex) {
+            // ignore, as DefaultResponseErrorHandler.
+            return new byte[0];
+        }
+        finally {
+            body.release();
+        }
+    }
 }
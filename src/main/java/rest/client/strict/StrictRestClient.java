@@ -1,37 +1,91 @@
 package rest.client.strict;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
 import org.springframework.retry.RetryPolicy;
 import org.springframework.retry.backoff.BackOffPolicy;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.policy.ExceptionClassifierRetryPolicy;
 import org.springframework.retry.policy.NeverRetryPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetrySynchronizationManager;
 import org.springframework.retry.support.RetryTemplate;
-import org.springframework.util.CollectionUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import rest.api.TaException;
 import rest.client.basic.AnyMessageConverter;
+import rest.client.basic.AsyncBackOff;
 import rest.client.basic.ReliantRestClientBodyInterceptor;
 import rest.client.basic.ReliantRestClientClassifier;
 import rest.client.basic.ReliantRetryCallback;
+import rest.client.basic.ResponseBodyCapture;
+import rest.client.breaker.CircuitBreaker;
+import rest.client.breaker.CircuitBreakerInterceptor;
+import rest.client.breaker.CircuitBreakerOpenException;
+import rest.client.breaker.CircuitBreakerRegistry;
+import rest.client.budget.RetryBudget;
+import rest.client.budget.RetryBudgetInterceptor;
+import rest.client.budget.RetryBudgetPolicy;
+import rest.client.buffer.BufferPool;
+import rest.client.buffer.PooledRestTemplate;
+import rest.client.cache.HttpCache;
+import rest.client.cache.HttpCacheInterceptor;
+import rest.client.coalesce.RequestCoalescer;
+import rest.client.compress.CompressionInterceptor;
+import rest.client.deadline.Deadline;
+import rest.client.deadline.DeadlineExceededException;
+import rest.client.deadline.DeadlineInterceptor;
+import rest.client.diagnostic.DiagnosticSink;
+import rest.client.error.OMErrorDecoder;
+import rest.client.hedge.HedgePolicy;
+import rest.client.limit.ConcurrencyLimitExceededException;
+import rest.client.limit.ConcurrencyLimitInterceptor;
+import rest.client.limit.ConcurrencyLimiter;
+import rest.client.metrics.ClientMetrics;
+import rest.client.metrics.MetricsInterceptor;
+import rest.client.metrics.MetricsRetryPolicy;
+import rest.client.metrics.UriTemplateCaptureHandler;
+import rest.client.stream.ConnectionAbort;
+import rest.client.stream.JsonArrayIterator;
+import rest.client.transport.ClientTransport;
+import rest.client.transport.SimpleClientTransport;
 
 /**
  * StrictRestClient a wrapper over RestTemplate with standard retry policies and timeout periods,
@@ -56,6 +110,18 @@ import rest.client.basic.ReliantRetryCallback;
  * }
  * </pre>
  *
+ * <P>By default JDK HttpURLConnection is used to send requests, use
+ * {@link #StrictRestClient(int, int, ClientTransport)} with a
+ * {@link rest.client.transport.PooledClientTransport} for a bounded keep-alive connection pool.
+ *
+ * <P>With {@link #withCircuitBreaker(CircuitBreakerRegistry)} requests to a failing host are not sent
+ * while its breaker is open, with {@link #withRetryBudget(RetryBudget)} retries are capped across calls
+ * and with {@link #withConcurrencyLimiter(ConcurrencyLimiter)} requests in flight to each host are limited.
+ * Attempts, retries and calls are measured with {@link #withMetrics(ClientMetrics)}. GET responses are
+ * cached following their Cache-Control, ETag and Last-Modified headers with {@link #withCache(HttpCache)}.
+ * Large JSON arrays are read one element at a time with {@link #executeStream(RequestEntity, Class)}.
+ * Compressed responses are requested and decompressed while read with {@link #withCompression(CompressionInterceptor)}.
+ *
  * <h2>How Exceptions are handled (thrown by and while calling {@link #execute(Function)}):</h2>
  *
  * <ol>
@@ -67,6 +133,10 @@ import rest.client.basic.ReliantRetryCallback;
  *
  * <li>RestClientException - (0 retries)
  * <ul>
+ *     <li>CircuitBreakerOpenException - circuit breaker of the host open, request not sent (0 retries)
+ *     <li>DeadlineExceededException - deadline of {@link #execute(Deadline, Function)} reached (0 retries)
+ *     <li>ConcurrencyLimitExceededException - request shed by the concurrency limiter, not sent (0 retries)
+ *     <li>ResourceAccessException - connect timeout, once the breaker of the host opened (0 retries)
  *     <li>ResourceAccessException - connect timeout (3 retries)
  *     <li>ResourceAccessException - I/O or read timeout (0 retries)
  *     <li>RestClientResponseException <b>(contains body if present in the Response)</b>:
@@ -77,6 +147,8 @@ import rest.client.basic.ReliantRetryCallback;
  *         <li>UnknownHttpStatusCodeException - Custom or Unknown StatusCode (0 retries)
  *     </ul></li>
  * </ul></li>
+ *
+ * <li>TaException - error with an OMError body, with {@link #withErrorDecoder(OMErrorDecoder)} (0 retries)
  * </ol>
  */
 public class StrictRestClient {
@@ -93,9 +165,33 @@ public class StrictRestClient {
      */
     public static final int DEFAULT_READ_TIMEOUT_IN_MILLIS = 30_000;
 
+    /**
+     * The Constant DEFAULT_ASYNC_THREADS = {@value #DEFAULT_ASYNC_THREADS}, threads of the default
+     * executor used by {@link #executeAsync(Function)}.
+     */
+    public static final int DEFAULT_ASYNC_THREADS = 16;
+
+    /**
+     * The Constant DEFAULT_ASYNC_QUEUE_SIZE = {@value #DEFAULT_ASYNC_QUEUE_SIZE}, attempts waiting
+     * for a thread in the default executor used by {@link #executeAsync(Function)}.
+     */
+    public static final int DEFAULT_ASYNC_QUEUE_SIZE = 1_000;
+
+    // interceptors that go before any other, in this order.
+    private static final List<Class<?>> LEADING_INTERCEPTORS = Arrays.asList(
+            HttpCacheInterceptor.class
+            , MetricsInterceptor.class
+            , CircuitBreakerInterceptor.class);
+
     private RestTemplateContext rtContext;
     private int connectTimeout;
     private int readTimeout;
+    private ExecutorService asyncExecutor;
+    private RetryBudget retryBudget;
+    private ClientMetrics metrics;
+    private volatile RequestCoalescer coalescer;
+    private volatile HedgePolicy hedgePolicy;
+    private volatile RetryPipeline retryPipeline;
 
     /**
      * Constructor with default timeouts, {@link #DEFAULT_READ_TIMEOUT_IN_MILLIS} and
@@ -121,9 +217,24 @@ public class StrictRestClient {
      * @param readTimeout the read timeout, if less or equal 0 {@link #DEFAULT_READ_TIMEOUT_IN_MILLIS} will be used.
      */
     public StrictRestClient(final int connectTimeout, final int readTimeout) {
+        this(connectTimeout, readTimeout, null);
+    }
+
+    /**
+     * Instantiates a new reliant rest client, with connect and read timeout and the transport
+     * used to send the requests.
+     *
+     * @param connectTimeout the connect timeout, if less or equal 0 {@link #DEFAULT_CONNECT_TIMEOUT_IN_MILLIS} will be used.
+     * @param readTimeout the read timeout, if less or equal 0 {@link #DEFAULT_READ_TIMEOUT_IN_MILLIS} will be used.
+     * @param transport the transport, if null {@link SimpleClientTransport} will be used.
+     */
+    public StrictRestClient(final int connectTimeout, final int readTimeout, final ClientTransport transport) {
         this.connectTimeout = (connectTimeout <= 0 ? DEFAULT_CONNECT_TIMEOUT_IN_MILLIS : connectTimeout);
         this.readTimeout = (readTimeout <= 0 ? DEFAULT_READ_TIMEOUT_IN_MILLIS : readTimeout);
-        this.rtContext = createRestTemplateContext(this.connectTimeout, this.readTimeout);
+        this.rtContext = createRestTemplateContext(
+                (transport == null ? new SimpleClientTransport() : transport)
+                , this.connectTimeout
+                , this.readTimeout);
     }
 
     /**
@@ -135,6 +246,40 @@ public class StrictRestClient {
         return this.rtContext;
     }
 
+    /**
+     * Gets the retry pipeline, built the first time it is needed with {@link #createRetryPolicy()}
+     * (limited by the retry budget and measured, if any) and {@link #createBackOffPolicy()}, and then shared by all the calls.
+     *
+     * @return the retry pipeline
+     */
+    protected RetryPipeline getRetryPipeline() {
+
+        RetryPipeline pipeline = this.retryPipeline;
+
+        if (pipeline == null) {
+            synchronized (this) {
+                pipeline = this.retryPipeline;
+
+                if (pipeline == null) {
+                    RetryPolicy retryPolicy = createRetryPolicy();
+
+                    if (this.retryBudget != null) {
+                        retryPolicy = new RetryBudgetPolicy(retryPolicy, this.retryBudget);
+                    }
+
+                    if (this.metrics != null) {
+                        retryPolicy = new MetricsRetryPolicy(retryPolicy);
+                    }
+
+                    pipeline = new RetryPipeline(retryPolicy, createBackOffPolicy());
+                    this.retryPipeline = pipeline;
+                }
+            }
+        }
+
+        return pipeline;
+    }
+
     /**
      * Gets the underlying RestTemplate.
      *
@@ -157,16 +302,64 @@ public class StrictRestClient {
 
         Validate.notNull(function, "Function argument should not be null");
 
-        // Use the policy...
-        RetryTemplate template = new RetryTemplate();
-        template.setRetryPolicy(createRetryPolicy());
-        template.setBackOffPolicy(createBackOffPolicy());
+        ReliantRetryCallback<T> rcc =
+                new ReliantRetryCallback<>(getRestTemplateContext().restTemplate, function);
+
+        try {
+            return getRetryPipeline().retryTemplate.execute(rcc);
+        }
+        catch (RuntimeException ex) {
+            throw ex;
+        }
+        catch (Throwable ex) {
+            throw new RuntimeException("Execute RetryTemplate error", ex);
+        }
+
+    }
+
+    /**
+     * Execute the provided lambda function that recieves {@link RestTemplate} as an argument, all the attempts
+     * and back offs must be done before the deadline.
+     *
+     * <P>The connect and read timeouts of each attempt are shrunk to the time left, no back off ending after
+     * the deadline is waited and the time left is sent in the {@link DeadlineInterceptor#DEADLINE_HEADER} header.
+     *
+     * @see StrictRestClient StrictRestClient for the exceptions thrown by this method.
+     * @param <T> the generic type
+     * @param deadline the deadline, ex. <code>Deadline.afterMillis(2_000)</code>
+     * @param function the function receiving a {@link RestTemplate} argument and returning a
+     *    ResponseEntity.
+     * @return the response entity
+     * @throws DeadlineExceededException when the deadline is reached, caused by the last attempt error if any.
+     */
+    public <T> ResponseEntity<T> execute(final Deadline deadline
+            , final Function<RestTemplate, ResponseEntity<T>> function) {
+
+        Validate.notNull(deadline, "Deadline argument should not be null");
+        Validate.notNull(function, "Function argument should not be null");
 
         ReliantRetryCallback<T> rcc =
                 new ReliantRetryCallback<>(getRestTemplateContext().restTemplate, function);
 
+        RetryCallback<ResponseEntity<T>, RuntimeException> bounded = context -> {
+            deadline.bind(context);
+
+            if (deadline.isExpired()) {
+                throw new DeadlineExceededException(deadline, context.getLastThrowable());
+            }
+
+            return rcc.doWithRetry(context);
+        };
+
         try {
-            return template.execute(rcc);
+            return getRetryPipeline().retryTemplate.execute(bounded);
+        }
+        catch (ResourceAccessException ex) {
+            // the timeout of the attempt was the time left.
+            if (deadline.isExpired()) {
+                throw new DeadlineExceededException(deadline, ex);
+            }
+            throw ex;
         }
         catch (RuntimeException ex) {
             throw ex;
@@ -174,7 +367,529 @@ public class StrictRestClient {
         catch (Throwable ex) {
             throw new RuntimeException("Execute RetryTemplate error", ex);
         }
+    }
+
+    /**
+     * Execute asynchronously the provided lambda function that recieves {@link RestTemplate} as an argument.
+     *
+     * <P>Attempts run in the async executor (see {@link #withAsyncExecutor(ExecutorService)}), the same
+     * retry policy of {@link #execute(Function)} is used, but back off periods are scheduled in a timer,
+     * no thread sleeps waiting for the next attempt.
+     *
+     * <P>Cancelling the returned future cancels the pending back off or interrupts the in-flight attempt,
+     * no more attempts will be done.
+     *
+     * @see StrictRestClient StrictRestClient for the exceptions completing the future.
+     * @param <T> the generic type
+     * @param function the function receiving a {@link RestTemplate} argument and returning a
+     *    ResponseEntity.
+     * @return the completable future, completed with the response entity or the last exception, when
+     *    the executor rejects an attempt it is completed with a RejectedExecutionException.
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> executeAsync(
+            final Function<RestTemplate, ResponseEntity<T>> function) {
+
+        Validate.notNull(function, "Function argument should not be null");
+
+        ReliantRetryCallback<T> rcc =
+                new ReliantRetryCallback<>(getRestTemplateContext().restTemplate, function);
+
+        RetryPipeline pipeline = getRetryPipeline();
+
+        return new AsyncRetryExecution<>(pipeline.retryPolicy, pipeline.asyncBackOffPolicy, rcc, getAsyncExecutor())
+                .start();
+    }
+
+    /**
+     * Execute the provided <b>idempotent</b> lambda function, hedging it: if it did not complete after the
+     * hedge delay (see {@link #withHedging(HedgePolicy)}) the function is executed again, the first
+     * successful response is returned and the other execution is cancelled, the connection of its
+     * in-flight request is aborted.
+     *
+     * <P>Both executions run in the async executor, each one with the retries of {@link #execute(Function)},
+     * this thread waits for the result. Without hedge policy it is the same as {@link #execute(Function)}.
+     *
+     * @see StrictRestClient StrictRestClient for the exceptions thrown by this method.
+     * @param <T> the generic type
+     * @param endpoint the endpoint name, latencies are kept per endpoint for percentile hedge delays.
+     * @param function the function receiving a {@link RestTemplate} argument and returning a
+     *    ResponseEntity, it will be called twice when hedged.
+     * @return the response entity, when both executions fail the exception of the first one is thrown.
+     */
+    public <T> ResponseEntity<T> executeHedged(final String endpoint
+            , final Function<RestTemplate, ResponseEntity<T>> function) {
+
+        Validate.notNull(endpoint, "Endpoint argument should not be null");
+        Validate.notNull(function, "Function argument should not be null");
+
+        HedgePolicy hedge = this.hedgePolicy;
+
+        if (hedge == null) {
+            return execute(function);
+        }
+
+        hedge.onCall();
+
+        CompletableFuture<ResponseEntity<T>> first = timed(hedge, endpoint, executeAsync(function), true);
+        CompletableFuture<ResponseEntity<T>> second = null;
+
+        try {
+            try {
+                return first.get(hedge.getDelay(endpoint), TimeUnit.MILLISECONDS);
+            }
+            catch (TimeoutException ex) {
+                // straggler, hedge it if the budget allows.
+            }
+
+            if (!hedge.tryAcquireHedge()) {
+                return first.get();
+            }
+
+            second = timed(hedge, endpoint, executeAsync(function), false);
+
+            CompletableFuture<ResponseEntity<T>> winner = firstSuccessful(first, second);
+            ResponseEntity<T> result = winner.get();
+
+            if (second.isDone()  &&  !second.isCompletedExceptionally()  &&  second.join() == result) {
+                hedge.onHedgeWon();
+            }
+
+            return result;
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new RuntimeException("Execute hedged error", ex.getCause());
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Execute hedged interrupted", ex);
+        }
+        finally {
+            // the loser, or both if interrupted.
+            first.cancel(true);
+
+            if (second != null) {
+                second.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Execute the provided lambda functions in parallel (scatter) and wait for all of them (gather), each one
+     * with the retries of {@link #execute(Deadline, Function)}, all of them bounded by the same deadline.
+     *
+     * <P>At most <i>parallelism</i> functions run at the same time, in the async executor (see
+     * {@link #withAsyncExecutor(ExecutorService)}), which bounds the parallelism too. This thread waits until
+     * all of them end or the deadline is reached, the functions not ended by then are interrupted.
+     *
+     * @param <T> the generic type
+     * @param functions the functions receiving a {@link RestTemplate} argument and returning a ResponseEntity.
+     * @param parallelism the max functions running at the same time, greater than 0.
+     * @param deadline the deadline of the whole scatter gather, ex. <code>Deadline.afterMillis(2_000)</code>
+     * @return one result per function, in the iteration order of the functions, with its response or its error,
+     *    {@link DeadlineExceededException} when the deadline was reached before it ended.
+     */
+    public <T> List<ScatterResult<T>> scatterGather(
+            final Collection<? extends Function<RestTemplate, ResponseEntity<T>>> functions
+            , final int parallelism
+            , final Deadline deadline) {
+
+        Validate.notNull(functions, "Functions argument should not be null");
+        Validate.noNullElements(functions, "Functions should not be null");
+        Validate.isTrue(parallelism > 0, "Parallelism should be greater than 0");
+        Validate.notNull(deadline, "Deadline argument should not be null");
+
+        return new ScatterGatherExecution<T>(this, new ArrayList<>(functions), deadline)
+                .run(getAsyncExecutor(), parallelism);
+    }
+
+    /**
+     * Execute the request, coalescing it (see {@link #withCoalescing(RequestCoalescer)}): if an identical
+     * idempotent request is in flight this thread waits for its response instead of sending another one.
+     *
+     * <P>The request is sent with the retries of {@link #execute(Function)}, once for the whole group,
+     * every request of the group gets the response or the exception. Without coalescer it is the same as
+     * <code>execute(rt -&gt; rt.exchange(request, responseType))</code>.
+     *
+     * @see StrictRestClient StrictRestClient for the exceptions thrown by this method.
+     * @param <T> the generic type
+     * @param request the request, method, URI and headers are the key.
+     * @param responseType the response type
+     * @return the response entity
+     */
+    public <T> ResponseEntity<T> executeCoalesced(final RequestEntity<?> request, final Class<T> responseType) {
+
+        Validate.notNull(request, "Request argument should not be null");
+        Validate.notNull(responseType, "Response type argument should not be null");
+
+        Function<RestTemplate, ResponseEntity<T>> function = rt -> rt.exchange(request, responseType);
+        RequestCoalescer requestCoalescer = this.coalescer;
+
+        if (requestCoalescer == null) {
+            return execute(function);
+        }
+
+        return requestCoalescer.execute(request, responseType, () -> execute(function));
+    }
+
+    /**
+     * Execute the request, and read the JSON array of its response one element at a time, while the
+     * stream is consumed, only the current element is in memory whatever the size of the array.
+     *
+     * <P>The request is sent with the retries of {@link #execute(Function)} until the response status is
+     * received, errors reading the elements are thrown by the stream as {@link java.io.UncheckedIOException}
+     * and are not retried.
+     *
+     * <P>The stream keeps the connection open, it is released when the end of the array is reached, or
+     * aborted when the stream is closed before, the rest of the body is not downloaded. It should be
+     * closed when not read to the end:
+     * <pre>
+     * {@code
+     *    try (Stream<ModelPerson> persons = strictRest.executeStream(
+     *            RequestEntity.get(URI.create("http://localhost:9090/persons")).build()
+     *            , ModelPerson.class)) {
+     *        persons.forEach(...);
+     *    }
+     * }
+     * </pre>
+     *
+     * @see StrictRestClient StrictRestClient for the exceptions thrown by this method.
+     * @param <T> the generic type
+     * @param request the request
+     * @param elementType the type of the elements of the array
+     * @return the stream of elements
+     */
+    public <T> Stream<T> executeStream(final RequestEntity<?> request, final Class<T> elementType) {
+
+        Validate.notNull(request, "Request argument should not be null");
+        Validate.notNull(elementType, "Element type argument should not be null");
+
+        ObjectMapper mapper = getObjectMapper();
+        ObjectReader elementReader = mapper.readerFor(elementType);
+
+        RetryCallback<JsonArrayIterator<T>, RuntimeException> callback = context -> {
+            if (context.getRetryCount() > 0) {
+                log.info("Retry #" + context.getRetryCount() + " caused by: " + context.getLastThrowable());
+            }
+            return openStream(request, elementType, mapper, elementReader);
+        };
+
+        return getRetryPipeline().retryTemplate.execute(callback).stream();
+    }
+
+    /**
+     * Sets the request coalescer used by {@link #executeCoalesced(RequestEntity, Class)}.
+     *
+     * @param requestCoalescer the request coalescer
+     * @return the strict rest client
+     */
+    public StrictRestClient withCoalescing(final RequestCoalescer requestCoalescer) {
+        Validate.notNull(requestCoalescer, "Request coalescer should not be null");
+        this.coalescer = requestCoalescer;
+        return this;
+    }
+
+    /**
+     * Sets the hedge policy used by {@link #executeHedged(String, Function)}.
+     *
+     * @param policy the hedge policy
+     * @return the strict rest client
+     */
+    public StrictRestClient withHedging(final HedgePolicy policy) {
+        Validate.notNull(policy, "Hedge policy should not be null");
+        this.hedgePolicy = policy;
+        return this;
+    }
+
+    /**
+     * Records in the hedge policy the latency of the execution when it ends, failed or cancelled too.
+     * A cancelled primary is the straggler, its time until cancelled is a lower bound of its latency,
+     * a cancelled hedge is not recorded, it only lost against a primary that was already slow.
+     */
+    private static <T> CompletableFuture<ResponseEntity<T>> timed(
+            final HedgePolicy hedge
+            , final String endpoint
+            , final CompletableFuture<ResponseEntity<T>> future
+            , final boolean primary) {
+
+        long start = System.nanoTime();
+
+        future.whenComplete((r, th) -> {
+            if (primary  ||  !future.isCancelled()) {
+                hedge.recordLatency(endpoint, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * A future completed with the first successful result, or the exception of the first future
+     * if both fail.
+     */
+    private static <T> CompletableFuture<ResponseEntity<T>> firstSuccessful(
+            final CompletableFuture<ResponseEntity<T>> first
+            , final CompletableFuture<ResponseEntity<T>> second) {
+
+        CompletableFuture<ResponseEntity<T>> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+
+        for (CompletableFuture<ResponseEntity<T>> future : Arrays.asList(first, second)) {
+            future.whenComplete((result, th) -> {
+                if (th == null) {
+                    winner.complete(result);
+                }
+                else if (failures.incrementAndGet() == 2) {
+                    first.whenComplete((r, firstTh) -> winner.completeExceptionally(firstTh));
+                }
+            });
+        }
+
+        return winner;
+    }
+
+    /**
+     * Sets the executor where {@link #executeAsync(Function)} attempts are run, should be bounded,
+     * if not set a pool of {@link #DEFAULT_ASYNC_THREADS} threads and a queue of
+     * {@link #DEFAULT_ASYNC_QUEUE_SIZE} is created the first time it is needed.
+     *
+     * @param executor the executor
+     * @return the strict rest client
+     */
+    public StrictRestClient withAsyncExecutor(final ExecutorService executor) {
+        Validate.notNull(executor, "Executor should not be null");
+
+        synchronized (this) {
+            this.asyncExecutor = executor;
+        }
+
+        return this;
+    }
+
+    /**
+     * Max bytes of a response body kept to be logged when it cannot be read by the message converters,
+     * the body is never buffered, only these first bytes are copied while it is read.
+     *
+     * @param maxBytes the max bytes, default {@link ReliantRestClientBodyInterceptor#DEFAULT_MAX_CAPTURE_BYTES}
+     * @return the strict rest client
+     */
+    public StrictRestClient withMaxBodyCapture(final int maxBytes) {
+        getRestTemplateContext().bodyInterceptor.setMaxCaptureBytes(maxBytes);
+        return this;
+    }
+
+    /**
+     * Buffers of request bodies, error bodies and unreadable bodies are taken from the pool,
+     * by default from {@link BufferPool#shared()}.
+     *
+     * @param pool the buffer pool, may be shared with other clients.
+     * @return the strict rest client
+     */
+    public StrictRestClient withBufferPool(final BufferPool pool) {
+        Validate.notNull(pool, "Buffer pool should not be null");
+
+        PooledRestTemplate rt = (PooledRestTemplate) getRestTemplate();
+        rt.setBufferPool(pool);
+        StrictResponseErrorHandler errorHandler = new StrictResponseErrorHandler(pool);
+        errorHandler.setErrorDecoder(((StrictResponseErrorHandler) rt.getErrorHandler()).getErrorDecoder());
+        rt.setErrorHandler(errorHandler);
+        rt.getMessageConverters().replaceAll(converter -> (converter instanceof AnyMessageConverter
+                ? pooledConverter(pool, ((AnyMessageConverter) converter).getDiagnosticSink())
+                : converter));
+
+        return this;
+    }
+
+    /**
+     * Unreadable bodies and un-managed media types are logged through the sink, sampled and never blocking
+     * the calling thread, by default through {@link DiagnosticSink#shared()}.
+     *
+     * @param sink the diagnostic sink, may be shared with other clients.
+     * @return the strict rest client
+     */
+    public StrictRestClient withDiagnosticSink(final DiagnosticSink sink) {
+        Validate.notNull(sink, "Diagnostic sink should not be null");
+
+        getRestTemplateContext().bodyInterceptor.setDiagnosticSink(sink);
+        getRestTemplate().getMessageConverters().stream()
+                .filter(AnyMessageConverter.class::isInstance)
+                .forEach(converter -> ((AnyMessageConverter) converter).setDiagnosticSink(sink));
+
+        return this;
+    }
 
+    private static AnyMessageConverter pooledConverter(final BufferPool pool, final DiagnosticSink sink) {
+        AnyMessageConverter converter = new AnyMessageConverter(pool);
+        converter.setDiagnosticSink(sink);
+        return converter;
+    }
+
+    /**
+     * Errors whose body is an OMError, as written by {@link rest.api.ErrorHdlBaseController}, are thrown
+     * as the {@link TaException} of their error code, with the HTTP exception as cause, never retried.
+     *
+     * @param decoder the error decoder, may be shared with other clients.
+     * @return the strict rest client
+     */
+    public StrictRestClient withErrorDecoder(final OMErrorDecoder decoder) {
+        Validate.notNull(decoder, "Error decoder should not be null");
+
+        ((StrictResponseErrorHandler) getRestTemplate().getErrorHandler()).setErrorDecoder(decoder);
+        return this;
+    }
+
+    /**
+     * Sends requests through the per host circuit breakers of the registry, when the breaker of a host
+     * is open requests are not sent and {@link CircuitBreakerOpenException} is thrown, never retried.
+     *
+     * @param registry the circuit breaker registry, may be shared with other clients.
+     * @return the strict rest client
+     */
+    public StrictRestClient withCircuitBreaker(final CircuitBreakerRegistry registry) {
+
+        // an open breaker fails before anything else is done, the failure is still recorded.
+        addLeadingInterceptor(new CircuitBreakerInterceptor(registry));
+
+        return this;
+    }
+
+    /**
+     * Retries are done only if the budget, global and of the host, allows them, so retries
+     * cannot multiply the load of a failing service.
+     *
+     * @param budget the retry budget, may be shared with other clients.
+     * @return the strict rest client
+     */
+    public StrictRestClient withRetryBudget(final RetryBudget budget) {
+        Validate.notNull(budget, "Retry budget should not be null");
+
+        RestTemplate rt = getRestTemplate();
+
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(rt.getInterceptors());
+        interceptors.add(new RetryBudgetInterceptor(budget));
+        rt.setInterceptors(interceptors);
+
+        synchronized (this) {
+            this.retryBudget = budget;
+            this.retryPipeline = null;
+        }
+
+        return this;
+    }
+
+    /**
+     * Each request (attempt) waits for a permit of the adaptive limit of its host, when the wait
+     * queue is full or the queue timeout elapses the request is not sent and
+     * {@link ConcurrencyLimitExceededException} is thrown, never retried.
+     *
+     * <P>Permits are held per attempt, not while waiting a back off.
+     *
+     * @param limiter the concurrency limiter, may be shared with other clients.
+     * @return the strict rest client
+     */
+    public StrictRestClient withConcurrencyLimiter(final ConcurrencyLimiter limiter) {
+
+        RestTemplate rt = getRestTemplate();
+
+        // last interceptor, the RTT measured is the one of the request itself.
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(rt.getInterceptors());
+        interceptors.add(new ConcurrencyLimitInterceptor(limiter));
+        rt.setInterceptors(interceptors);
+
+        return this;
+    }
+
+    /**
+     * Records attempts, retries and calls in the metrics, see {@link ClientMetrics} for the meters.
+     *
+     * @param clientMetrics the client metrics, may be shared with other clients.
+     * @return the strict rest client
+     */
+    public StrictRestClient withMetrics(final ClientMetrics clientMetrics) {
+        Validate.notNull(clientMetrics, "Client metrics should not be null");
+
+        RestTemplate rt = getRestTemplate();
+        rt.setUriTemplateHandler(new UriTemplateCaptureHandler(rt.getUriTemplateHandler()));
+
+        // every attempt is recorded, also the ones failing in other interceptors.
+        addLeadingInterceptor(new MetricsInterceptor(clientMetrics));
+
+        synchronized (this) {
+            this.metrics = clientMetrics;
+            this.retryPipeline = null;
+        }
+
+        return this;
+    }
+
+    /**
+     * Asks for gzip or deflate responses and decompresses them while they are read, request bodies are
+     * compressed as configured in the interceptor, see {@link CompressionInterceptor}.
+     *
+     * <P>Bodies captured for logging ({@link #withMaxBodyCapture(int)}) and cached responses are
+     * kept decompressed.
+     *
+     * @param interceptor the compression interceptor
+     * @return the strict rest client
+     */
+    public StrictRestClient withCompression(final CompressionInterceptor interceptor) {
+        Validate.notNull(interceptor, "Compression interceptor should not be null");
+
+        RestTemplate rt = getRestTemplate();
+
+        // after the body interceptor, it captures the decompressed body.
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(rt.getInterceptors());
+        interceptors.add(interceptor);
+        rt.setInterceptors(interceptors);
+
+        return this;
+    }
+
+    /**
+     * Caches GET responses in the cache, see {@link HttpCacheInterceptor} for the HTTP caching rules.
+     *
+     * <P>The cache is the first interceptor, a request answered by a fresh cached response goes through
+     * no other one: it is never retried, recorded in metrics nor counted by the circuit breaker, the
+     * concurrency limiter or the retry budget of its host. The function is run once, as without cache.
+     *
+     * @param cache the cache, may be shared with other clients.
+     * @return the strict rest client
+     */
+    public StrictRestClient withCache(final HttpCache cache) {
+
+        HttpCacheInterceptor interceptor = new HttpCacheInterceptor(cache);
+
+        // a hit goes through no other interceptor.
+        addLeadingInterceptor(interceptor);
+
+        return this;
+    }
+
+    /**
+     * Gets the async executor, creating the default one if none was set.
+     *
+     * @return the async executor
+     */
+    protected synchronized ExecutorService getAsyncExecutor() {
+
+        if (this.asyncExecutor == null) {
+
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("strict-rest-async-");
+            threadFactory.setDaemon(true);
+
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    DEFAULT_ASYNC_THREADS, DEFAULT_ASYNC_THREADS
+                    , 60L, TimeUnit.SECONDS
+                    , new ArrayBlockingQueue<>(DEFAULT_ASYNC_QUEUE_SIZE)
+                    , threadFactory);
+            executor.allowCoreThreadTimeOut(true);
+
+            this.asyncExecutor = executor;
+        }
+
+        return this.asyncExecutor;
     }
 
     // ============================================================================
@@ -190,40 +905,155 @@ public class StrictRestClient {
 
     }
 
+    /**
+     * The Class RetryPipeline, the retry and back off policies used by all the calls of this client,
+     * immutable and thread safe, the state of each call is kept in its RetryContext.
+     */
+    protected static final class RetryPipeline {
+        public final RetryPolicy retryPolicy;
+        public final BackOffPolicy backOffPolicy;
+        public final BackOffPolicy asyncBackOffPolicy;
+        public final RetryTemplate retryTemplate;
+
+        /**
+         * Instantiates a new retry pipeline.
+         *
+         * @param retryPolicy the retry policy
+         * @param backOffPolicy the back off policy
+         */
+        RetryPipeline(final RetryPolicy retryPolicy, final BackOffPolicy backOffPolicy) {
+            this.retryPolicy = retryPolicy;
+            this.backOffPolicy = backOffPolicy;
+            this.asyncBackOffPolicy = AsyncBackOff.toAsyncBackOffPolicy(backOffPolicy);
+
+            this.retryTemplate = new RetryTemplate();
+            this.retryTemplate.setRetryPolicy(retryPolicy);
+            this.retryTemplate.setBackOffPolicy(Deadline.bounded(backOffPolicy));
+        }
+    }
+
+    /**
+     * Sends the request through the RestTemplate interceptors and error handler, without closing the response.
+     *
+     * @return the iterator over the array of the response
+     */
+    private <T> JsonArrayIterator<T> openStream(final RequestEntity<?> request
+            , final Class<T> elementType
+            , final ObjectMapper mapper
+            , final ObjectReader elementReader) {
+
+        RestTemplate rt = getRestTemplate();
+        ClientHttpResponse response = null;
+
+        // closed before the end, the rest of the body is not downloaded.
+        ConnectionAbort abort = new ConnectionAbort();
+        RetryContext context = RetrySynchronizationManager.getContext();
+
+        if (context != null) {
+            context.setAttribute(ConnectionAbort.ATTRIBUTE, abort);
+        }
+
+        try {
+            ClientHttpRequest httpRequest = rt.getRequestFactory().createRequest(request.getUrl(), request.getMethod());
+            rt.httpEntityCallback(request, elementType).doWithRequest(httpRequest);
+            response = httpRequest.execute();
+
+            if (rt.getErrorHandler().hasError(response)) {
+                rt.getErrorHandler().handleError(request.getUrl(), request.getMethod(), response);
+            }
+
+            return JsonArrayIterator.<T>of(mapper, response.getBody(), elementReader, response)
+                    .withAbort(abort::abort);
+        }
+        catch (JsonProcessingException ex) {
+            // already closed by the iterator.
+            throw new HttpMessageNotReadableException("JSON parse error: " + ex.getOriginalMessage(), ex, response);
+        }
+        catch (IOException ex) {
+            closeQuietly(response);
+            // same message as RestTemplate, the retry policy looks for the connect timeout in it.
+            throw new ResourceAccessException("I/O error on " + request.getMethod() + " request for \""
+                    + request.getUrl() + "\": " + ex.getMessage(), ex);
+        }
+        catch (RuntimeException ex) {
+            closeQuietly(response);
+            throw ex;
+        }
+    }
+
+    private static void closeQuietly(final ClientHttpResponse response) {
+        if (response != null) {
+            response.close();
+        }
+    }
+
+    /**
+     * Gets the object mapper of the RestTemplate JSON converter.
+     *
+     * @return the object mapper
+     */
+    private ObjectMapper getObjectMapper() {
+        return getRestTemplate().getMessageConverters().stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(converter -> ((MappingJackson2HttpMessageConverter) converter).getObjectMapper())
+                .findFirst()
+                .orElseGet(ObjectMapper::new);
+    }
+
+    /**
+     * Adds one of the {@link #LEADING_INTERCEPTORS}, before any other interceptor and after the
+     * leading ones that go first.
+     *
+     * @param interceptor the interceptor
+     */
+    private void addLeadingInterceptor(final ClientHttpRequestInterceptor interceptor) {
+
+        RestTemplate rt = getRestTemplate();
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(rt.getInterceptors());
+        int rank = LEADING_INTERCEPTORS.indexOf(interceptor.getClass());
+        int index = 0;
+
+        while (index < interceptors.size()) {
+            int other = LEADING_INTERCEPTORS.indexOf(interceptors.get(index).getClass());
+
+            if (other < 0  ||  other > rank) {
+                break;
+            }
+
+            index++;
+        }
+
+        interceptors.add(index, interceptor);
+        rt.setInterceptors(interceptors);
+    }
+
     /**
      * Create rest template context.
      *
+     * @param transport the transport
      * @param connectTimeoutInMillis the connect timeout in millis
      * @param readTimeoutInMillis the read timeout in millis
      * @return the rest template
      */
     private RestTemplateContext createRestTemplateContext(
-            final int connectTimeoutInMillis
+            final ClientTransport transport
+            , final int connectTimeoutInMillis
             , final int readTimeoutInMillis)  {
 
-        SimpleClientHttpRequestFactory simpleClientHttpRequestFactory = new SimpleClientHttpRequestFactory();
-        simpleClientHttpRequestFactory.setConnectTimeout(connectTimeoutInMillis);
-        simpleClientHttpRequestFactory.setReadTimeout(readTimeoutInMillis);
-
-        // We need this to let the body interceptor read the body request
-        // without exhausting the input stream.
-        BufferingClientHttpRequestFactory buffReqFactory =
-                new BufferingClientHttpRequestFactory(simpleClientHttpRequestFactory);
-
-
-        RestTemplate rt = new RestTemplate(buffReqFactory);
+        // No buffering, the body interceptor only keeps a bounded copy of what
+        // the converters read, request bodies are buffered in pooled buffers.
+        BufferPool pool = BufferPool.shared();
+        RestTemplate rt = new PooledRestTemplate(
+                transport.createRequestFactory(connectTimeoutInMillis, readTimeoutInMillis), pool);
         ReliantRestClientBodyInterceptor interceptor = new ReliantRestClientBodyInterceptor();
-        rt.setErrorHandler(new StrictResponseErrorHandler());
-        rt.getMessageConverters().add(new AnyMessageConverter());
-
-        // Add interceptor
-        List<ClientHttpRequestInterceptor> interceptors = rt.getInterceptors();
-        if (CollectionUtils.isEmpty(interceptors)) {
-            interceptors = new ArrayList<>();
-            rt.setInterceptors(interceptors);
-        }
+        rt.setErrorHandler(new StrictResponseErrorHandler(pool));
+        rt.getMessageConverters().add(new AnyMessageConverter(pool));
 
+        // Add interceptor, setInterceptors copies the list so it must be added before.
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(rt.getInterceptors());
+        interceptors.add(new DeadlineInterceptor());
         interceptors.add(interceptor);
+        rt.setInterceptors(interceptors);
 
         RestTemplateContext ctx = new RestTemplateContext();
         ctx.bodyInterceptor = interceptor;
@@ -233,7 +1063,8 @@ public class StrictRestClient {
     }
 
     /**
-     * Create retry policy.
+     * Create retry policy, called once per client, the policy must keep the state of each call
+     * in its RetryContext.
      *
      * @return the retry policy
      */
@@ -246,6 +1077,10 @@ public class StrictRestClient {
         map.put(ResourceAccessException.class, retry3);
         map.put(RestClientResponseException.class, neverRetry);
         map.put(HttpMessageNotReadableException.class, neverRetry);
+        map.put(CircuitBreakerOpenException.class, neverRetry);
+        map.put(DeadlineExceededException.class, neverRetry);
+        map.put(ConcurrencyLimitExceededException.class, neverRetry);
+        map.put(TaException.class, neverRetry);
 
         BiFunction<Throwable, RetryPolicy, RetryPolicy> classifier = ( (th, rp) ->  {
 
@@ -261,6 +1096,11 @@ public class StrictRestClient {
                     return neverRetry;
                 }
 
+                if (isCircuitBreakerOpen()) {
+                    // this failure opened the breaker, do not wait the back off to fail fast.
+                    return neverRetry;
+                }
+
             }
 
             // In spring 5.1 instead of throwing an HttpMessageNotReadableException
@@ -275,12 +1115,12 @@ public class StrictRestClient {
                 showBody = true;
             }
 
-            if (showBody && getRestTemplateContext().bodyInterceptor != null) {
+            if (showBody) {
                 // if we do not do this, the body of the original message is lost
-                // and we will not be able to see it.
-                log.error("Received message had problems with HttpReaders and/or MesageConverters, body => "
-                        + getRestTemplateContext().bodyInterceptor.getResponseBodyAsString()
-                        );
+                // and we will not be able to see it, the body is the one captured
+                // for this call, stored in its retry context.
+                ReliantRestClientBodyInterceptor.getCapture(RetrySynchronizationManager.getContext())
+                    .ifPresent(capture -> logUnreadableBody(th, capture));
             }
 
             return rp;
@@ -293,7 +1133,33 @@ public class StrictRestClient {
     }
 
     /**
-     * Create back off policy.
+     * Checks if the circuit breaker used by the current call is open.
+     *
+     * @return true, if the call went through a breaker and it is open
+     */
+    private static boolean isCircuitBreakerOpen() {
+        return CircuitBreakerInterceptor.getCircuitBreaker(RetrySynchronizationManager.getContext())
+                .map(breaker -> breaker.getState() == CircuitBreaker.State.OPEN)
+                .orElse(false);
+    }
+
+    /**
+     * Logs the body of a response that could not be read by HttpReaders and/or MessageConverters,
+     * called in the thread that registers the exception, with the body captured for that same call,
+     * by default reported to the {@link DiagnosticSink} of the body interceptor.
+     *
+     * @param th the exception thrown
+     * @param capture the response body captured
+     */
+    protected void logUnreadableBody(final Throwable th, final ResponseBodyCapture capture) {
+        getRestTemplateContext().bodyInterceptor.report(log
+                , "Received message had problems with HttpReaders and/or MesageConverters, body => "
+                , capture);
+    }
+
+    /**
+     * Create back off policy, called once per client, the policy must keep the state of each call
+     * in its BackOffContext.
      *
      * @return the back off policy
      */
@@ -0,0 +1,30 @@
+package rest.client.transport;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+/**
+ * The Interface ClientTransport, the wire level (connections, sockets, pools) used
+ * by {@link rest.client.strict.StrictRestClient} to send requests.
+ *
+ * <P>Implementations must honor the connect and read timeouts received, and must throw
+ * a {@link java.net.SocketTimeoutException} with a <i>connect timed out</i> message (or
+ * an exception caused by it) when a connection could not be established in time, that is
+ * what the StrictRestClient classifier uses to decide a retry.
+ *
+ * <P>When the call has a {@link rest.client.deadline.Deadline} (see {@link rest.client.deadline.Deadline#current()})
+ * the timeouts of each request should be shrunk to the time left.
+ *
+ * @author tonioc
+ */
+public interface ClientTransport {
+
+    /**
+     * Creates the request factory to be used by the underlying RestTemplate.
+     *
+     * @param connectTimeoutInMillis the connect timeout in millis
+     * @param readTimeoutInMillis the read timeout in millis
+     * @return the client http request factory
+     */
+    ClientHttpRequestFactory createRequestFactory(int connectTimeoutInMillis, int readTimeoutInMillis);
+
+}
@@ -0,0 +1,343 @@
+package rest.client.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import rest.client.deadline.Deadline;
+import rest.client.stream.ConnectionAbort;
+
+/**
+ * The Class PooledClientTransport, a keep-alive transport backed by an Apache HttpClient
+ * bounded connection pool.
+ *
+ * <h2>Simple use:</h2>
+ * <pre>
+ * {@code
+ * ....
+ *    PooledClientTransport transport = new PooledClientTransport()
+ *          .withMaxConnections(200)
+ *          .withMaxConnectionsPerHost(20)
+ *          .withMaxConnectionsForHost("http://localhost:9090", 50)
+ *          .withAcquireTimeout(1_000);
+ *
+ *    StrictRestClient strictRest = new StrictRestClient(2_000, 10_000, transport);
+ * ....
+ *    // when the application stops
+ *    transport.close();
+ * }
+ * </pre>
+ *
+ * <P>One instance can be shared by several StrictRestClient, all of them will use the same pool,
+ * each one with its own connect/read timeouts.
+ *
+ * <P>When no connection is available in the pool after the acquire timeout, a
+ * <i>ConnectionPoolTimeoutException</i> is thrown (wrapped in a ResourceAccessException by RestTemplate),
+ * it is <b>not</b> a connect timeout, so it will not be retried.
+ *
+ * <P>When the call has a {@link Deadline} the connect, read and acquire timeouts are shrunk to the time left.
+ *
+ * @author tonioc
+ */
+public class PooledClientTransport implements ClientTransport, Closeable {
+
+    /**
+     * The Constant DEFAULT_MAX_CONNECTIONS = {@value #DEFAULT_MAX_CONNECTIONS}.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS = 200;
+
+    /**
+     * The Constant DEFAULT_MAX_CONNECTIONS_PER_HOST = {@value #DEFAULT_MAX_CONNECTIONS_PER_HOST}.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+
+    /**
+     * The Constant DEFAULT_ACQUIRE_TIMEOUT_IN_MILLIS = {@value #DEFAULT_ACQUIRE_TIMEOUT_IN_MILLIS}.
+     */
+    public static final int DEFAULT_ACQUIRE_TIMEOUT_IN_MILLIS = 5_000;
+
+    /**
+     * The Constant DEFAULT_MAX_IDLE_IN_MILLIS = {@value #DEFAULT_MAX_IDLE_IN_MILLIS}.
+     */
+    public static final long DEFAULT_MAX_IDLE_IN_MILLIS = 30_000L;
+
+    /**
+     * The Constant DEFAULT_TIME_TO_LIVE_IN_MILLIS = {@value #DEFAULT_TIME_TO_LIVE_IN_MILLIS}.
+     */
+    public static final long DEFAULT_TIME_TO_LIVE_IN_MILLIS = 300_000L;
+
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+    private int acquireTimeout = DEFAULT_ACQUIRE_TIMEOUT_IN_MILLIS;
+    private long maxIdle = DEFAULT_MAX_IDLE_IN_MILLIS;
+    private long timeToLive = DEFAULT_TIME_TO_LIVE_IN_MILLIS;
+    private final Map<String, Integer> hostLimits = new LinkedHashMap<>();
+
+    private final AtomicLong connectionsCreated = new AtomicLong();
+    private PoolingHttpClientConnectionManager connectionManager;
+    private IdleConnectionEvictor evictor;
+
+    /**
+     * Max connections in the pool, all hosts included.
+     *
+     * @param max the max, if less or equal 0 {@link #DEFAULT_MAX_CONNECTIONS} will be used.
+     * @return the pooled client transport
+     */
+    public PooledClientTransport withMaxConnections(final int max) {
+        checkNotStarted();
+        this.maxConnections = (max <= 0 ? DEFAULT_MAX_CONNECTIONS : max);
+        return this;
+    }
+
+    /**
+     * Max connections to a single host (route), unless changed with {@link #withMaxConnectionsForHost(String, int)}.
+     *
+     * @param max the max, if less or equal 0 {@link #DEFAULT_MAX_CONNECTIONS_PER_HOST} will be used.
+     * @return the pooled client transport
+     */
+    public PooledClientTransport withMaxConnectionsPerHost(final int max) {
+        checkNotStarted();
+        this.maxConnectionsPerHost = (max <= 0 ? DEFAULT_MAX_CONNECTIONS_PER_HOST : max);
+        return this;
+    }
+
+    /**
+     * Max connections for the given host.
+     *
+     * @param hostUrl the host as <i>scheme://host:port</i>, ex. http://localhost:9090
+     * @param max the max connections for this host
+     * @return the pooled client transport
+     */
+    public PooledClientTransport withMaxConnectionsForHost(final String hostUrl, final int max) {
+        checkNotStarted();
+        Validate.notBlank(hostUrl, "hostUrl should not be blank");
+        Validate.isTrue(max > 0, "max connections should be greater than 0");
+        this.hostLimits.put(hostUrl, max);
+        return this;
+    }
+
+    /**
+     * Max time waiting for a connection from the pool, when all connections to the host are leased.
+     *
+     * @param acquireTimeoutInMillis the acquire timeout, if less or equal 0 {@link #DEFAULT_ACQUIRE_TIMEOUT_IN_MILLIS}
+     *    will be used.
+     * @return the pooled client transport
+     */
+    public PooledClientTransport withAcquireTimeout(final int acquireTimeoutInMillis) {
+        checkNotStarted();
+        this.acquireTimeout = (acquireTimeoutInMillis <= 0 ? DEFAULT_ACQUIRE_TIMEOUT_IN_MILLIS : acquireTimeoutInMillis);
+        return this;
+    }
+
+    /**
+     * Idle connections older than this value are evicted from the pool by a background thread.
+     *
+     * @param maxIdleInMillis the max idle, if less or equal 0 {@link #DEFAULT_MAX_IDLE_IN_MILLIS} will be used.
+     * @return the pooled client transport
+     */
+    public PooledClientTransport withMaxIdle(final long maxIdleInMillis) {
+        checkNotStarted();
+        this.maxIdle = (maxIdleInMillis <= 0 ? DEFAULT_MAX_IDLE_IN_MILLIS : maxIdleInMillis);
+        return this;
+    }
+
+    /**
+     * Connections are never re-used after this time, even if not idle.
+     *
+     * @param timeToLiveInMillis the time to live, if less or equal 0 {@link #DEFAULT_TIME_TO_LIVE_IN_MILLIS}
+     *    will be used.
+     * @return the pooled client transport
+     */
+    public PooledClientTransport withTimeToLive(final long timeToLiveInMillis) {
+        checkNotStarted();
+        this.timeToLive = (timeToLiveInMillis <= 0 ? DEFAULT_TIME_TO_LIVE_IN_MILLIS : timeToLiveInMillis);
+        return this;
+    }
+
+    @Override
+    public ClientHttpRequestFactory createRequestFactory(
+            final int connectTimeoutInMillis
+            , final int readTimeoutInMillis) {
+
+        RequestConfig config = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutInMillis)
+                .setSocketTimeout(readTimeoutInMillis)
+                .setConnectionRequestTimeout(this.acquireTimeout)
+                .build();
+
+        // Retries are decided by StrictRestClient, never by the transport.
+        CloseableHttpClient client = HttpClients.custom()
+                .setConnectionManager(getConnectionManager())
+                .setConnectionManagerShared(true)
+                .setDefaultRequestConfig(config)
+                .disableAutomaticRetries()
+                .build();
+
+        return new HttpComponentsClientHttpRequestFactory(client) {
+            @Override
+            protected HttpUriRequest createHttpUriRequest(final HttpMethod httpMethod, final URI uri) {
+
+                HttpUriRequest request = super.createHttpUriRequest(httpMethod, uri);
+                ConnectionAbort abort = ConnectionAbort.current();
+
+                if (abort != null) {
+                    // waiting a connection, connecting or reading, the connection is not returned to the pool.
+                    abort.onAbort(request::abort);
+                }
+
+                return request;
+            }
+
+            @Override
+            protected HttpContext createHttpContext(final HttpMethod httpMethod, final URI uri) {
+
+                Deadline deadline = Deadline.current();
+
+                if (deadline == null) {
+                    return null;
+                }
+
+                HttpClientContext context = HttpClientContext.create();
+                context.setRequestConfig(RequestConfig.copy(config)
+                        .setConnectTimeout(deadline.shrink(connectTimeoutInMillis))
+                        .setSocketTimeout(deadline.shrink(readTimeoutInMillis))
+                        .setConnectionRequestTimeout(deadline.shrink(PooledClientTransport.this.acquireTimeout))
+                        .build());
+
+                return context;
+            }
+        };
+    }
+
+    /**
+     * Gets the number of connections opened since this transport was created, when
+     * connections are re-used this number stays far below the number of requests.
+     *
+     * @return the connections created
+     */
+    public long getConnectionsCreated() {
+        return this.connectionsCreated.get();
+    }
+
+    /**
+     * Gets the pool stats (leased, available, pending and max).
+     *
+     * @return the pool stats
+     */
+    public PoolStats getPoolStats() {
+        return getConnectionManager().getTotalStats();
+    }
+
+    /**
+     * Stops the eviction thread and closes all pooled connections.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+
+        if (this.evictor != null) {
+            this.evictor.shutdown();
+        }
+
+        if (this.connectionManager != null) {
+            this.connectionManager.close();
+        }
+    }
+
+    /**
+     * Gets the connection manager, creating it the first time.
+     *
+     * @return the connection manager
+     */
+    private synchronized PoolingHttpClientConnectionManager getConnectionManager() {
+
+        if (this.connectionManager == null) {
+
+            Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", SSLConnectionSocketFactory.getSocketFactory())
+                    .build();
+
+            HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> connFactory =
+                    (route, config) -> {
+                        this.connectionsCreated.incrementAndGet();
+                        return ManagedHttpClientConnectionFactory.INSTANCE
+                                .create(route, config == null ? ConnectionConfig.DEFAULT : config);
+                    };
+
+            PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager(
+                    registry, connFactory, null, null, this.timeToLive, TimeUnit.MILLISECONDS);
+
+            cm.setMaxTotal(this.maxConnections);
+            cm.setDefaultMaxPerRoute(this.maxConnectionsPerHost);
+            cm.setValidateAfterInactivity(2_000);
+
+            for (Map.Entry<String, Integer> entry : this.hostLimits.entrySet()) {
+                cm.setMaxPerRoute(new HttpRoute(toTargetHost(entry.getKey())), entry.getValue());
+            }
+
+            this.evictor = new IdleConnectionEvictor(cm
+                    , Math.max(1_000L, this.maxIdle / 2), TimeUnit.MILLISECONDS
+                    , this.maxIdle, TimeUnit.MILLISECONDS);
+            this.evictor.start();
+
+            this.connectionManager = cm;
+        }
+
+        return this.connectionManager;
+    }
+
+    /**
+     * To target host, with the default port of the scheme when not present, same as
+     * the routes planned by HttpClient.
+     *
+     * @param hostUrl the host url
+     * @return the http host
+     */
+    private static HttpHost toTargetHost(final String hostUrl) {
+
+        HttpHost host = HttpHost.create(hostUrl);
+
+        if (host.getPort() > 0) {
+            return host;
+        }
+
+        int port = ("https".equalsIgnoreCase(host.getSchemeName()) ? 443 : 80);
+        return new HttpHost(host.getHostName(), port, host.getSchemeName());
+    }
+
+    /**
+     * Check configuration is done before the pool is created.
+     */
+    private synchronized void checkNotStarted() {
+        Validate.validState(this.connectionManager == null, "Pool already created, configure it before using it");
+    }
+}
@@ -0,0 +1,63 @@
+package rest.client.transport;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import rest.client.deadline.Deadline;
+import rest.client.stream.ConnectionAbort;
+
+/**
+ * The Class SimpleClientTransport, uses JDK HttpURLConnection through
+ * {@link SimpleClientHttpRequestFactory}, this is the default transport.
+ *
+ * <P>When the call has a {@link Deadline} timeouts are shrunk to the time left. When the attempt has
+ * a {@link ConnectionAbort} the connection is disconnected on abort.
+ *
+ * <P>Request bodies are streamed (fixed length when known), not buffered again by the request.
+ *
+ * <P>No pool can be sized here, keep-alive depends on the JDK <i>http.keepAlive</i>
+ * and <i>http.maxConnections</i> system properties.
+ *
+ * @author tonioc
+ */
+public class SimpleClientTransport implements ClientTransport {
+
+    @Override
+    public ClientHttpRequestFactory createRequestFactory(
+            final int connectTimeoutInMillis
+            , final int readTimeoutInMillis) {
+
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory() {
+            @Override
+            protected void prepareConnection(final HttpURLConnection connection, final String httpMethod)
+                    throws IOException {
+
+                super.prepareConnection(connection, httpMethod);
+
+                Deadline deadline = Deadline.current();
+
+                if (deadline != null) {
+                    connection.setConnectTimeout(deadline.shrink(connectTimeoutInMillis));
+                    connection.setReadTimeout(deadline.shrink(readTimeoutInMillis));
+                }
+
+                ConnectionAbort abort = ConnectionAbort.current();
+
+                if (abort != null) {
+                    abort.onAbort(connection::disconnect);
+                }
+            }
+        };
+        factory.setConnectTimeout(connectTimeoutInMillis);
+        factory.setReadTimeout(readTimeoutInMillis);
+
+        // the body is already buffered for the interceptors, it is written as it is.
+        factory.setBufferRequestBody(false);
+
+        return factory;
+    }
+
+}
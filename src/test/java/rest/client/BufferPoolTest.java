@@ -0,0 +1,121 @@
+package rest.client;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import rest.client.buffer.BufferPool;
+import rest.client.strict.HttpNot2xxStatusCodeException;
+import rest.client.strict.StrictRestClient;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class BufferPoolTest extends Assertions {
+
+    private static final int CALLS = 50;
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * Buffers are of the size classes, bigger ones of the exact size.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testSizeClasses() throws Exception {
+
+        BufferPool pool = new BufferPool(2, true);
+
+        byte[] small = pool.acquire(1);
+        byte[] medium = pool.acquire(BufferPool.MIN_BUFFER_SIZE + 1);
+        byte[] big = pool.acquire(BufferPool.MAX_BUFFER_SIZE + 1);
+
+        assertEquals(BufferPool.MIN_BUFFER_SIZE, small.length);
+        assertEquals(2 * BufferPool.MIN_BUFFER_SIZE, medium.length);
+        assertEquals(BufferPool.MAX_BUFFER_SIZE + 1, big.length);
+        assertEquals(3, pool.getOutstanding());
+
+        pool.release(small);
+        pool.release(medium);
+        pool.release(big);
+        assertEquals(0, pool.getOutstanding());
+
+        // released twice, ignored.
+        pool.release(small);
+        assertSame(small, pool.acquire(10));
+        assertNotSame(small, pool.acquire(10));
+    }
+
+    /**
+     * Every buffer taken by requests, error bodies and unreadable bodies is returned, and re-used.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testNoLeaks() throws Exception {
+
+        BufferPool pool = new BufferPool(4, true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pool.bindTo(registry);
+
+        StrictRestClient rrc = new StrictRestClient().withBufferPool(pool);
+        ObjectNode large = JsonNodeFactory.instance.objectNode().put("data", StringUtils.repeat("pooled ", 1_000));
+
+        for (int i = 0; i < CALLS; i++) {
+            JsonNode result = rrc.execute(rt -> rt.postForEntity("http://localhost:9090/posts/ack", large, JsonNode.class))
+                    .getBody();
+            assertEquals(large, result.get("request"));
+
+            assertEquals("This is a JSON body", rrc.execute(rt -> rt.getForEntity("http://localhost:9090/json", JsonNode.class))
+                    .getBody().get("data").asText());
+
+            HttpServerErrorException serverError = assertThrows(HttpServerErrorException.class, () -> rrc
+                    .execute(rt -> rt.getForEntity("http://localhost:9090/status500", JsonNode.class)));
+            assertEquals("<root><data>Internal Server Error</data></root>", serverError.getResponseBodyAsString());
+
+            HttpNot2xxStatusCodeException redirect = assertThrows(HttpNot2xxStatusCodeException.class, () -> rrc
+                    .execute(rt -> rt.getForEntity("http://localhost:9090/status300", JsonNode.class)));
+            assertEquals("<root><data>Redirect</data></root>", redirect.getResponseBodyAsString());
+
+            assertThrows(RestClientException.class, () -> rrc
+                    .execute(rt -> rt.getForEntity("http://localhost:9090/noJson", JsonNode.class)));
+        }
+
+        pool.logOutstanding();
+        assertEquals(0, pool.getOutstanding());
+
+        double allocated = registry.find(BufferPool.ALLOCATED).functionCounters().stream()
+                .mapToDouble(c -> c.count())
+                .sum();
+        double pooled = registry.find(BufferPool.POOLED).gauges().stream()
+                .mapToDouble(g -> g.value())
+                .sum();
+
+        System.out.format("%d calls, %.0f buffers allocated, %.0f in the pool%n", 5 * CALLS, allocated, pooled);
+
+        assertTrue(allocated <= 4, "Buffers re-used, allocated: " + allocated);
+        assertEquals(allocated, pooled);
+    }
+}
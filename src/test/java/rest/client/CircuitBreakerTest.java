@@ -0,0 +1,184 @@
+package rest.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import rest.client.breaker.CircuitBreaker;
+import rest.client.breaker.CircuitBreakerOpenException;
+import rest.client.breaker.CircuitBreakerRegistry;
+import rest.client.limit.ConcurrencyLimitExceededException;
+import rest.client.limit.ConcurrencyLimiter;
+import rest.client.strict.StrictRestClient;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class CircuitBreakerTest extends Assertions {
+
+    private static final String HOST = "localhost:9090";
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * 5xx open the breaker, once open requests are not sent, after the open duration
+     * a successful probe closes it.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testOpenHalfOpenClose() throws Exception {
+
+        CircuitBreakerRegistry breakers = new CircuitBreakerRegistry()
+                .withSlidingWindowSize(4)
+                .withMinimumCalls(4)
+                .withFailureRateThreshold(50)
+                .withOpenDuration(500)
+                .withHalfOpenCalls(1);
+
+        StrictRestClient rrc = new StrictRestClient().withCircuitBreaker(breakers);
+
+        ok(rrc);
+        ok(rrc);
+        assertThrows(HttpServerErrorException.class, () -> status500(rrc));
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.getStates().get(HOST));
+
+        assertThrows(HttpServerErrorException.class, () -> status500(rrc));
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getStates().get(HOST));
+
+        CircuitBreakerOpenException ex = assertThrows(CircuitBreakerOpenException.class, () -> ok(rrc));
+        assertEquals(HOST, ex.getHost());
+        assertEquals(1, breakers.getCircuitBreaker(HOST).getNotPermittedCalls());
+
+        Thread.sleep(600);
+
+        ok(rrc);
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.getStates().get(HOST));
+        assertEquals(0f, breakers.getCircuitBreaker(HOST).getFailureRate());
+    }
+
+    /**
+     * A failed probe opens the breaker again.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testHalfOpenFailure() throws Exception {
+
+        CircuitBreakerRegistry breakers = new CircuitBreakerRegistry()
+                .withMinimumCalls(1)
+                .withFailureRateThreshold(100)
+                .withOpenDuration(300);
+
+        StrictRestClient rrc = new StrictRestClient().withCircuitBreaker(breakers);
+
+        assertThrows(HttpServerErrorException.class, () -> status500(rrc));
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getStates().get(HOST));
+
+        Thread.sleep(400);
+
+        assertThrows(HttpServerErrorException.class, () -> status500(rrc));
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getStates().get(HOST));
+        assertThrows(CircuitBreakerOpenException.class, () -> ok(rrc));
+    }
+
+    /**
+     * I/O errors are failures, each host has its own breaker.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testConnectionRefusedPerHost() throws Exception {
+
+        CircuitBreakerRegistry breakers = new CircuitBreakerRegistry()
+                .withMinimumCalls(2)
+                .withFailureRateThreshold(100);
+
+        StrictRestClient rrc = new StrictRestClient(500, 500).withCircuitBreaker(breakers);
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(ResourceAccessException.class
+                    , () -> rrc.execute(rt -> rt.getForEntity("http://localhost:1/ok", JsonNode.class)));
+        }
+
+        long start = System.currentTimeMillis();
+        assertThrows(CircuitBreakerOpenException.class
+                , () -> rrc.execute(rt -> rt.getForEntity("http://localhost:1/ok", JsonNode.class)));
+        assertTrue(System.currentTimeMillis() - start < 100, "Should fail fast");
+
+        ok(rrc);
+
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getStates().get("localhost:1"));
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.getStates().get(HOST));
+    }
+
+    /**
+     * Requests shed by the concurrency limiter were not sent, they are not failures of the host.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testShedNotRecorded() throws Exception {
+
+        CircuitBreakerRegistry breakers = new CircuitBreakerRegistry()
+                .withMinimumCalls(2)
+                .withFailureRateThreshold(50);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter()
+                .withInitialLimit(1)
+                .withMinLimit(1)
+                .withMaxLimit(1)
+                .withMaxQueue(0);
+
+        StrictRestClient rrc = new StrictRestClient()
+                .withCircuitBreaker(breakers)
+                .withConcurrencyLimiter(limiter);
+
+        // holds the only permit of the host.
+        CompletableFuture<ResponseEntity<JsonNode>> slow = CompletableFuture.supplyAsync(
+                () -> rrc.execute(rt -> rt.getForEntity("http://localhost:9090/timeout/1", JsonNode.class)));
+
+        while (limiter.getHostLimit(HOST).getInFlight() == 0) {
+            Thread.sleep(10);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(ConcurrencyLimitExceededException.class, () -> ok(rrc));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.getStates().get(HOST));
+        assertEquals(0f, breakers.getCircuitBreaker(HOST).getFailureRate());
+
+        assertEquals(200, slow.get(5, TimeUnit.SECONDS).getStatusCodeValue());
+        ok(rrc);
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.getStates().get(HOST));
+    }
+
+    private static ResponseEntity<JsonNode> ok(final StrictRestClient rrc) {
+        return rrc.execute(rt -> rt.getForEntity("http://localhost:9090/ok", JsonNode.class));
+    }
+
+    private static ResponseEntity<String> status500(final StrictRestClient rrc) {
+        return rrc.execute(rt -> rt.getForEntity("http://localhost:9090/status500", String.class));
+    }
+}
@@ -0,0 +1,214 @@
+package rest.client;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import rest.client.coalesce.RequestCoalescer;
+import rest.client.strict.StrictRestClient;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class CoalescingTest extends Assertions {
+
+    private static final int CALLS = 10;
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * Identical concurrent requests share one execution, each follower gets its own copy of the body.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testCoalesced() throws Exception {
+
+        RequestCoalescer coalescer = new RequestCoalescer();
+        StrictRestClient rrc = new StrictRestClient().withCoalescing(coalescer);
+        RequestEntity<Void> request = RequestEntity.get(URI.create("http://localhost:9090/person/hot")).build();
+
+        List<ResponseEntity<JsonNode>> results = concurrently(() -> rrc.executeCoalesced(request, JsonNode.class));
+
+        assertEquals(1, coalescer.getExecuted());
+        assertEquals(CALLS - 1, coalescer.getCollapsed());
+        assertEquals(0, coalescer.getInFlight());
+
+        JsonNode first = results.get(0).getBody();
+
+        for (ResponseEntity<JsonNode> result : results.subList(1, CALLS)) {
+            assertEquals(first, result.getBody());
+            assertNotSame(first, result.getBody());
+        }
+    }
+
+    /**
+     * Requests differing in a key header are not coalesced.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testKeyHeaders() throws Exception {
+
+        RequestCoalescer coalescer = new RequestCoalescer();
+        StrictRestClient rrc = new StrictRestClient().withCoalescing(coalescer);
+
+        URI uri = URI.create("http://localhost:9090/person/lang");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<?> en = executor.submit(() -> rrc.executeCoalesced(
+                    RequestEntity.get(uri).header(HttpHeaders.ACCEPT_LANGUAGE, "en").build(), JsonNode.class));
+            Future<?> es = executor.submit(() -> rrc.executeCoalesced(
+                    RequestEntity.get(uri).header(HttpHeaders.ACCEPT_LANGUAGE, "es").build(), JsonNode.class));
+
+            en.get(10, TimeUnit.SECONDS);
+            es.get(10, TimeUnit.SECONDS);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, coalescer.getExecuted());
+        assertEquals(0, coalescer.getCollapsed());
+    }
+
+    /**
+     * The failure of the execution is thrown to the whole group.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testFailureShared() throws Exception {
+
+        RequestCoalescer coalescer = new RequestCoalescer();
+        StrictRestClient rrc = new StrictRestClient(500, 1_500).withCoalescing(coalescer);
+        RequestEntity<Void> request = RequestEntity.get(URI.create("http://localhost:9090/timeout/2")).build();
+
+        List<ResponseEntity<JsonNode>> results = concurrently(() -> {
+            try {
+                rrc.executeCoalesced(request, JsonNode.class);
+                fail("No exception thrown");
+            }
+            catch (ResourceAccessException ex) {
+                // OK, read timeout
+            }
+            return null;
+        });
+
+        assertEquals(CALLS, results.size());
+        assertEquals(1, coalescer.getExecuted());
+        assertEquals(CALLS - 1, coalescer.getCollapsed());
+    }
+
+    /**
+     * The request executing the call gets a copy too, changing its body while the others copy it is safe.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testLeaderMutates() throws Exception {
+
+        RequestCoalescer coalescer = new RequestCoalescer();
+        RequestEntity<Void> request = RequestEntity.get(URI.create("http://localhost:9090/person/hot")).build();
+
+        ObjectNode expected = JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < 20_000; i++) {
+            expected.put("field-" + i, i);
+        }
+
+        AtomicReference<Thread> leader = new AtomicReference<>();
+
+        List<ResponseEntity<JsonNode>> results = concurrently(() -> {
+            ResponseEntity<JsonNode> response = coalescer.execute(request, JsonNode.class, () -> {
+                leader.set(Thread.currentThread());
+                // executed once every other request is waiting for it.
+                while (coalescer.getCollapsed() < CALLS - 1) {
+                    Thread.yield();
+                }
+                return ResponseEntity.ok(expected.deepCopy());
+            });
+
+            if (leader.get() == Thread.currentThread()) {
+                ObjectNode body = (ObjectNode) response.getBody();
+                for (int i = 0; i < 50; i++) {
+                    body.removeAll();
+                    for (int j = 0; j < 1_000; j++) {
+                        body.put("changed-" + j, j);
+                    }
+                }
+                return null;
+            }
+            return response;
+        });
+
+        assertEquals(1, coalescer.getExecuted());
+
+        for (ResponseEntity<JsonNode> result : results) {
+            if (result != null) {
+                assertEquals(expected, result.getBody());
+            }
+        }
+    }
+
+    private static List<ResponseEntity<JsonNode>> concurrently(final Supplier<ResponseEntity<JsonNode>> call)
+            throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLS);
+        CountDownLatch ready = new CountDownLatch(CALLS);
+        List<Future<ResponseEntity<JsonNode>>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < CALLS; i++) {
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return call.get();
+                }));
+            }
+
+            List<ResponseEntity<JsonNode>> results = new ArrayList<>();
+
+            for (Future<ResponseEntity<JsonNode>> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+
+            return results;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
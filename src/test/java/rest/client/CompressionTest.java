@@ -0,0 +1,286 @@
+package rest.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import rest.client.basic.ResponseBodyCapture;
+import rest.client.compress.CompressionInterceptor;
+import rest.client.models.ModelPerson;
+import rest.client.strict.StrictRestClient;
+import rest.client.ta.TaRestTemplate;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class CompressionTest extends Assertions {
+
+    private static final int SIZE = 20_000;
+    private static final int CALLS = 20;
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * Responses come gzipped and are read decompressed.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testResponseDecompressed() throws Exception {
+
+        WireCounter wire = new WireCounter();
+        StrictRestClient rrc = withWire(new StrictRestClient()
+                .withCompression(new CompressionInterceptor()), wire);
+
+        ModelPerson[] persons = rrc.execute(rt -> rt.getForEntity(persons(1_000), ModelPerson[].class)).getBody();
+
+        assertEquals(1_000, persons.length);
+        assertEquals("person-999", persons[999].getName());
+        assertEquals("gzip", wire.responseEncoding.get());
+        assertTrue(wire.responseBytes.get() > 0);
+        assertTrue(wire.responseBytes.get() < 60 * 1_000 / 4, "Compressed on the wire: " + wire.responseBytes.get());
+    }
+
+    /**
+     * Request bodies over the threshold are sent gzipped, smaller ones as they are.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testRequestCompressed() throws Exception {
+
+        WireCounter wire = new WireCounter();
+        StrictRestClient rrc = withWire(new StrictRestClient()
+                .withCompression(new CompressionInterceptor().withRequestCompression(1_024)), wire);
+
+        ObjectNode large = JsonNodeFactory.instance.objectNode().put("data", StringUtils.repeat("compress me ", 1_000));
+
+        JsonNode result = rrc.execute(rt -> rt.postForEntity("http://localhost:9090/posts/ack", large, JsonNode.class))
+                .getBody();
+
+        assertEquals(large, result.get("request"));
+        assertEquals("gzip", wire.requestEncoding.get());
+        assertTrue(wire.requestBytes.get() < 1_024, "Compressed request: " + wire.requestBytes.get());
+
+        ObjectNode small = JsonNodeFactory.instance.objectNode().put("data", "small");
+
+        result = rrc.execute(rt -> rt.postForEntity("http://localhost:9090/posts/ack", small, JsonNode.class))
+                .getBody();
+
+        assertEquals(small, result.get("request"));
+        assertNull(wire.requestEncoding.get());
+    }
+
+    /**
+     * The body captured for logging is the decompressed one, still bounded.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testCaptureDecompressed() throws Exception {
+
+        AtomicReference<ResponseBodyCapture> captured = new AtomicReference<>();
+        WireCounter wire = new WireCounter();
+
+        StrictRestClient rrc = withWire(new StrictRestClient() {
+            @Override
+            protected void logUnreadableBody(final Throwable th, final ResponseBodyCapture capture) {
+                captured.set(capture);
+            }
+        }
+                .withMaxBodyCapture(100)
+                .withCompression(new CompressionInterceptor()), wire);
+
+        String id = StringUtils.repeat("x", 4_000);
+
+        assertThrows(RestClientException.class, () -> rrc
+                .execute(rt -> rt.getForEntity("http://localhost:9090/noJson/" + id, JsonNode.class)));
+
+        assertEquals("gzip", wire.responseEncoding.get());
+        assertTrue(captured.get().isTruncated());
+        assertEquals(100, captured.get().getBody().length);
+        assertTrue(captured.get().getBodyAsString().startsWith("<root><data>xxxx"));
+    }
+
+    /**
+     * TaRestTemplate with compression.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testTaRestTemplate() throws Exception {
+
+        TaRestTemplate taRest = new TaRestTemplate(5, 10)
+                .withCompression(new CompressionInterceptor().withRequestCompression(1_024));
+
+        assertEquals(1_000, taRest.execute(rt -> rt.getForEntity(persons(1_000), ModelPerson[].class))
+                .getBody().length);
+
+        ObjectNode large = JsonNodeFactory.instance.objectNode().put("data", StringUtils.repeat("compress me ", 1_000));
+
+        assertEquals(large, taRest.execute(rt -> rt.postForEntity("http://localhost:9090/posts/ack", large, JsonNode.class))
+                .getBody().get("request"));
+    }
+
+    /**
+     * Bytes on the wire and latency of large lists of persons, with and without compression.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testBenchmark() throws Exception {
+
+        WireCounter plainWire = new WireCounter();
+        WireCounter gzipWire = new WireCounter();
+
+        StrictRestClient plain = withWire(new StrictRestClient(), plainWire);
+        StrictRestClient gzip = withWire(new StrictRestClient()
+                .withCompression(new CompressionInterceptor()), gzipWire);
+
+        // warm up both, JIT and server threads
+        run(plain, 5);
+        run(gzip, 5);
+        plainWire.responseBytes.set(0);
+        gzipWire.responseBytes.set(0);
+
+        long plainNanos = run(plain, CALLS);
+        long gzipNanos = run(gzip, CALLS);
+
+        System.out.format("plain: %d calls of %d persons, %d bytes per call, %.1f ms per call%n"
+                , CALLS, SIZE, plainWire.responseBytes.get() / CALLS, plainNanos / 1e6 / CALLS);
+        System.out.format("gzip:  %d calls of %d persons, %d bytes per call, %.1f ms per call, %.1fx smaller%n"
+                , CALLS, SIZE, gzipWire.responseBytes.get() / CALLS, gzipNanos / 1e6 / CALLS
+                , (double) plainWire.responseBytes.get() / gzipWire.responseBytes.get());
+
+        assertNull(plainWire.responseEncoding.get());
+        assertEquals("gzip", gzipWire.responseEncoding.get());
+        assertTrue(gzipWire.responseBytes.get() * 4 < plainWire.responseBytes.get(), "At least 4x smaller");
+    }
+
+    private static long run(final StrictRestClient client, final int calls) {
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < calls; i++) {
+            assertEquals(SIZE, client.execute(rt -> rt.getForEntity(persons(SIZE), ModelPerson[].class))
+                    .getBody().length);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Adds the counter as the last interceptor, it sees the bytes as they are sent and received.
+     */
+    private static StrictRestClient withWire(final StrictRestClient client, final WireCounter wire) {
+
+        RestTemplate rt = client.getRestTemplate();
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(rt.getInterceptors());
+        interceptors.add(wire);
+        rt.setInterceptors(interceptors);
+
+        return client;
+    }
+
+    private static String persons(final int size) {
+        return "http://localhost:9090/persons/" + size;
+    }
+
+    /**
+     * Counts what is sent and received on the wire, the last interceptor of the client.
+     */
+    private static class WireCounter implements ClientHttpRequestInterceptor {
+
+        private final AtomicReference<String> requestEncoding = new AtomicReference<>();
+        private final AtomicReference<String> responseEncoding = new AtomicReference<>();
+        private final AtomicLong requestBytes = new AtomicLong();
+        private final AtomicLong responseBytes = new AtomicLong();
+
+        @Override
+        public ClientHttpResponse intercept(final HttpRequest request
+                , final byte[] body
+                , final ClientHttpRequestExecution execution) throws IOException {
+
+            this.requestEncoding.set(request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            this.requestBytes.set(body.length);
+
+            ClientHttpResponse response = execution.execute(request, body);
+            this.responseEncoding.set(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+            return new ClientHttpResponse() {
+
+                private CountingInputStream counting;
+
+                @Override
+                public InputStream getBody() throws IOException {
+                    if (this.counting == null) {
+                        this.counting = new CountingInputStream(response.getBody());
+                    }
+                    return this.counting;
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return response.getHeaders();
+                }
+
+                @Override
+                public HttpStatus getStatusCode() throws IOException {
+                    return response.getStatusCode();
+                }
+
+                @Override
+                public int getRawStatusCode() throws IOException {
+                    return response.getRawStatusCode();
+                }
+
+                @Override
+                public String getStatusText() throws IOException {
+                    return response.getStatusText();
+                }
+
+                @Override
+                public void close() {
+                    if (this.counting != null) {
+                        WireCounter.this.responseBytes.addAndGet(this.counting.getByteCount());
+                    }
+                    response.close();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package rest.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import rest.client.limit.ConcurrencyLimitExceededException;
+import rest.client.limit.ConcurrencyLimiter;
+import rest.client.limit.HostLimit;
+import rest.client.limit.OkHttpConcurrencyLimitInterceptor;
+import rest.client.limit.WebClientConcurrencyLimitFilter;
+import rest.client.strict.StrictRestClient;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class ConcurrencyLimitTest extends Assertions {
+
+    private static final String HOST = "localhost:9090";
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * Over the limit requests wait in the queue, when it is full or the queue timeout elapses
+     * they are shed, never sent nor retried.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testShedding() throws Exception {
+
+        ConcurrencyLimiter limiter = fixed(2)
+                .withMaxQueue(2)
+                .withQueueTimeout(300);
+
+        StrictRestClient rrc = new StrictRestClient().withConcurrencyLimiter(limiter);
+
+        final int calls = 8;
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(calls);
+
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+            for (int i = 0; i < calls; i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        rrc.execute(rt -> rt.getForEntity("http://localhost:9090/timeout/1", JsonNode.class));
+                        ok.incrementAndGet();
+                    }
+                    catch (ConcurrencyLimitExceededException ex) {
+                        assertEquals(HOST, ex.getHost());
+                        shed.incrementAndGet();
+                    }
+                }, executor));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        HostLimit hostLimit = limiter.getHostLimit(HOST);
+
+        assertEquals(2, ok.get());
+        assertEquals(calls - 2, shed.get());
+        assertEquals(calls - 2, hostLimit.getShed());
+        assertEquals(0, hostLimit.getInFlight());
+        assertEquals(0, hostLimit.getWaiting());
+    }
+
+    /**
+     * Overload responses (503) decrease the limit, successful responses increase it again.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testAdaptiveLimit() throws Exception {
+
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter()
+                .withInitialLimit(16)
+                .withBackOffRatio(0.5)
+                // loopback RTT jitter should not decrease the limit in this test.
+                .withRttTolerance(100);
+
+        StrictRestClient rrc = new StrictRestClient().withConcurrencyLimiter(limiter);
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(HttpServerErrorException.class
+                    , () -> rrc.execute(rt -> rt.getForEntity("http://localhost:9090/status503", JsonNode.class)));
+        }
+
+        assertEquals(1, limiter.getLimits().get(HOST));
+
+        for (int i = 0; i < 5; i++) {
+            rrc.execute(rt -> rt.getForEntity("http://localhost:9090/ok", JsonNode.class));
+        }
+
+        assertTrue(limiter.getLimits().get(HOST) > 1, "Limit should increase");
+    }
+
+    /**
+     * Retrofit / OkHttp calls share the limit through the interceptor.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testOkHttp() throws Exception {
+
+        ConcurrencyLimiter limiter = fixed(1).withMaxQueue(0);
+
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new OkHttpConcurrencyLimitInterceptor(limiter))
+                .build();
+
+        Call slow = client.newCall(new Request.Builder().url("http://localhost:9090/timeout/1").build());
+        CompletableFuture<Integer> slowStatus = CompletableFuture.supplyAsync(() -> {
+            try (Response response = slow.execute()) {
+                return response.code();
+            }
+            catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        waitInFlight(limiter.getHostLimit(HOST));
+
+        IOException ex = assertThrows(IOException.class, () -> client
+                .newCall(new Request.Builder().url("http://localhost:9090/ok").build())
+                .execute()
+                .close());
+        assertTrue(ex.getCause() instanceof ConcurrencyLimitExceededException);
+
+        assertEquals(200, slowStatus.get(5, TimeUnit.SECONDS));
+
+        try (Response response = client
+                .newCall(new Request.Builder().url("http://localhost:9090/ok").build())
+                .execute()) {
+            assertEquals(200, response.code());
+        }
+    }
+
+    /**
+     * WebClient exchanges share the limit through the filter.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testWebClient() throws Exception {
+
+        ConcurrencyLimiter limiter = fixed(1).withMaxQueue(0);
+
+        WebClient client = WebClient.builder()
+                .baseUrl("http://localhost:9090")
+                .filter(new WebClientConcurrencyLimitFilter(limiter))
+                .build();
+
+        CompletableFuture<JsonNode> slow = new CompletableFuture<>();
+        Disposable subscription = client.get().uri("/timeout/1")
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .subscribe(slow::complete, slow::completeExceptionally);
+
+        try {
+            waitInFlight(limiter.getHostLimit(HOST));
+
+            assertThrows(ConcurrencyLimitExceededException.class
+                    , () -> client.get().uri("/ok").retrieve().bodyToMono(JsonNode.class).block());
+
+            assertEquals("OK", slow.get(5, TimeUnit.SECONDS).get("status").asText());
+            assertNotNull(client.get().uri("/ok").retrieve().bodyToMono(JsonNode.class).block());
+        }
+        finally {
+            subscription.dispose();
+        }
+
+        assertEquals(0, limiter.getHostLimit(HOST).getInFlight());
+    }
+
+    /**
+     * An exchange cancelled while its permit is being granted gives it back.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testWebClientCancelledWait() throws Exception {
+
+        ConcurrencyLimiter limiter = fixed(1).withQueueTimeout(5_000);
+        HostLimit hostLimit = limiter.getHostLimit("cancelled:1");
+        WebClientConcurrencyLimitFilter filter = new WebClientConcurrencyLimitFilter(limiter);
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://cancelled:1/never")).build();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                HostLimit.Permit held = hostLimit.acquire();
+                Disposable exchange = filter.filter(request, r -> Mono.never()).subscribe();
+
+                // the permit is granted to the exchange while it is cancelled.
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<?> release = executor.submit(() -> {
+                    barrier.await();
+                    held.onSuccess();
+                    return null;
+                });
+                barrier.await();
+                exchange.dispose();
+                release.get(5, TimeUnit.SECONDS);
+
+                assertEquals(0, hostLimit.getInFlight(), "Permit leaked at " + i);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A wait interrupted gives no permit away, granted meanwhile or not.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testInterruptedWait() throws Exception {
+
+        HostLimit hostLimit = fixed(1).withQueueTimeout(5_000).getHostLimit("interrupted:1");
+        HostLimit.Permit held = hostLimit.acquire();
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread waiting = new Thread(() -> {
+            try {
+                hostLimit.acquire().onSuccess();
+            }
+            catch (InterruptedException | RuntimeException ex) {
+                error.set(ex);
+            }
+        });
+        waiting.start();
+
+        while (hostLimit.getWaiting() == 0) {
+            Thread.sleep(10);
+        }
+
+        waiting.interrupt();
+        waiting.join(5_000);
+        held.onSuccess();
+
+        assertTrue(error.get() instanceof InterruptedException);
+        assertEquals(0, hostLimit.getInFlight());
+        assertEquals(0, hostLimit.getWaiting());
+
+        hostLimit.acquire().onSuccess();
+        assertEquals(0, hostLimit.getInFlight());
+    }
+
+    private static ConcurrencyLimiter fixed(final int limit) {
+        return new ConcurrencyLimiter()
+                .withInitialLimit(limit)
+                .withMinLimit(limit)
+                .withMaxLimit(limit);
+    }
+
+    private static void waitInFlight(final HostLimit hostLimit) throws InterruptedException {
+
+        for (int i = 0; i < 50  &&  hostLimit.getInFlight() == 0; i++) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(1, hostLimit.getInFlight());
+    }
+}
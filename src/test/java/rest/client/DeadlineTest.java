@@ -0,0 +1,125 @@
+package rest.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import rest.client.deadline.Deadline;
+import rest.client.deadline.DeadlineExceededException;
+import rest.client.strict.StrictRestClient;
+import rest.client.transport.PooledClientTransport;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class DeadlineTest extends Assertions {
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * The read timeout (30 secs.) is shrunk to the deadline.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testReadTimeoutShrunk() throws Exception {
+
+        StrictRestClient rrc = new StrictRestClient();
+
+        long start = System.currentTimeMillis();
+
+        DeadlineExceededException ex = assertThrows(DeadlineExceededException.class, () -> rrc
+                .execute(Deadline.afterMillis(1_000)
+                        , rt -> rt.getForEntity("http://localhost:9090/timeout/5", String.class)));
+
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue(elapsed < 1_500, "Deadline respected: " + elapsed);
+        assertTrue(ex.getCause() instanceof ResourceAccessException, "Caused by the read timeout");
+    }
+
+    /**
+     * Same with the pooled transport.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testReadTimeoutShrunkPooled() throws Exception {
+
+        try (PooledClientTransport transport = new PooledClientTransport()) {
+            StrictRestClient rrc = new StrictRestClient(0, 0, transport);
+
+            long start = System.currentTimeMillis();
+
+            assertThrows(DeadlineExceededException.class, () -> rrc
+                    .execute(Deadline.afterMillis(1_000)
+                            , rt -> rt.getForEntity("http://localhost:9090/timeout/5", String.class)));
+
+            assertTrue(System.currentTimeMillis() - start < 1_500, "Deadline respected");
+        }
+    }
+
+    /**
+     * The default back off (7.5 secs.) is not waited when it ends after the deadline.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testNoBackOffPastDeadline() throws Exception {
+
+        StrictRestClient rrc = new StrictRestClient();
+        AtomicInteger attempts = new AtomicInteger();
+
+        long start = System.currentTimeMillis();
+
+        DeadlineExceededException ex = assertThrows(DeadlineExceededException.class, () -> rrc
+                .execute(Deadline.afterMillis(3_000), rt -> {
+                    attempts.incrementAndGet();
+                    throw new ResourceAccessException("I/O error: connect timed out");
+                }));
+
+        assertTrue(System.currentTimeMillis() - start < 500, "Failed without waiting");
+        assertEquals(1, attempts.get(), "Attempts");
+        assertTrue(ex.getCause() instanceof ResourceAccessException, "Caused by the connect timeout");
+    }
+
+    /**
+     * The time left is sent downstream.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testDeadlineHeader() throws Exception {
+
+        StrictRestClient rrc = new StrictRestClient();
+
+        ResponseEntity<JsonNode> result = rrc.execute(Deadline.afterMillis(3_000)
+                , rt -> rt.getForEntity("http://localhost:9090/deadline", JsonNode.class));
+
+        long remaining = result.getBody().get("remaining").asLong();
+        assertTrue(remaining > 0  &&  remaining <= 3_000, "Remaining sent: " + remaining);
+
+        // without deadline no header
+        result = rrc.execute(rt -> rt.getForEntity("http://localhost:9090/deadline", JsonNode.class));
+        assertTrue(result.getBody().get("remaining").isNull(), "No header");
+    }
+}
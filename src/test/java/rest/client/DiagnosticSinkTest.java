@@ -0,0 +1,155 @@
+package rest.client;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.client.RestClientException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import rest.client.diagnostic.DiagnosticSink;
+import rest.client.strict.StrictRestClient;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class DiagnosticSinkTest extends Assertions {
+
+    private static final Logger log = LoggerFactory.getLogger(DiagnosticSinkTest.class);
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * Only the permits of each host and media type are logged, the rest counted as dropped.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testSampling() throws Exception {
+
+        try (DiagnosticSink sink = new DiagnosticSink(64, 2)) {
+            byte[] body = "<root>not json</root>".getBytes(StandardCharsets.UTF_8);
+
+            int accepted = 0;
+
+            for (int i = 0; i < 100; i++) {
+                accepted += (sink.report(log, "hostA:80", "text/xml", "Sampled: ", body, body.length, null) ? 1 : 0);
+                accepted += (sink.report(log, "hostB:80", "text/xml", "Sampled: ", "text body") ? 1 : 0);
+            }
+
+            assertTrue(sink.awaitDrained(5_000));
+
+            // the loop may cross a second, at most two windows each.
+            assertTrue(accepted >= 4  &&  accepted <= 8, "Accepted: " + accepted);
+            assertEquals(accepted, sink.getLogged());
+            assertEquals(200 - accepted, sink.getDroppedSampled());
+            assertEquals(0, sink.getDroppedFull());
+        }
+    }
+
+    /**
+     * When the logger is slower than the reporters, the ring fills and events are dropped, never blocking.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testFull() throws Exception {
+
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Logger slow = (Logger) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Logger.class}
+                , (proxy, method, args) -> {
+                    if ("error".equals(method.getName())) {
+                        blocked.countDown();
+                        release.await();
+                    }
+                    return (method.getReturnType() == boolean.class ? Boolean.TRUE : null);
+                });
+
+        try (DiagnosticSink sink = new DiagnosticSink(4, 1_000)) {
+
+            assertTrue(sink.report(slow, "host:80", "a", "first", null));
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            int accepted = 0;
+
+            for (int i = 0; i < 10; i++) {
+                accepted += (sink.report(slow, "host:80", "b", "next", null) ? 1 : 0);
+            }
+
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "Reporters never wait");
+            // the slot of the event being logged is still taken.
+            assertEquals(3, accepted);
+            assertEquals(7, sink.getDroppedFull());
+
+            release.countDown();
+            assertTrue(sink.awaitDrained(5_000));
+            assertEquals(4, sink.getLogged());
+        }
+    }
+
+    /**
+     * Unreadable bodies of many threads are reported to the sink of the client.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testUnreadableBodies() throws Exception {
+
+        try (DiagnosticSink sink = new DiagnosticSink(DiagnosticSink.DEFAULT_CAPACITY, 3)) {
+
+            StrictRestClient rrc = new StrictRestClient().withDiagnosticSink(sink);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+
+            try {
+                List<Future<?>> calls = new ArrayList<>();
+
+                for (int i = 0; i < 80; i++) {
+                    calls.add(executor.submit(() -> assertThrows(RestClientException.class, () -> rrc
+                            .execute(rt -> rt.getForEntity("http://localhost:9090/noJson", JsonNode.class)))));
+                }
+
+                for (Future<?> call : calls) {
+                    call.get(30, TimeUnit.SECONDS);
+                }
+            }
+            finally {
+                executor.shutdown();
+            }
+
+            assertTrue(sink.awaitDrained(5_000));
+
+            System.out.format("logged: %d, dropped: %d%n", sink.getLogged(), sink.getDroppedSampled());
+
+            assertTrue(sink.getLogged() > 0);
+            assertTrue(sink.getDroppedSampled() > 0);
+            assertEquals(0, sink.getDroppedFull());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package rest.client;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import rest.api.ErrorBodyWriter;
+import rest.api.ErrorHdlBaseController;
+import rest.api.ErrorHdlInheritedRestController;
+import rest.api.OMError;
+import rest.api.TaCheckedException;
+import rest.api.TaDataException;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+public class ErrorBodyWriterTest extends Assertions {
+
+    private final ErrorBodyWriter writer = ErrorBodyWriter.getDefault();
+
+    /**
+     * A known source and code with a plain message is copied as is.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testPlainMessage() throws Exception {
+
+        assertEquals("{\"errorSoruce\":\"OM\",\"errorCode\":\"OM_TIMEOUT\",\"errorMsg\":\"Timed out, try later\"}"
+                , json(this.writer.write("OM", "OM_TIMEOUT", "Timed out, try later")));
+        assertEquals("{\"errorSoruce\":\"om\",\"errorCode\":\"unexpected\",\"errorMsg\":\"Boom\"}"
+                , json(this.writer.writeUnexpected("Boom")));
+    }
+
+    /**
+     * Quotes, backslashes, control chars and non ASCII are escaped or written in UTF-8,
+     * the same as the streamed fallback.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testEscapedMessage() throws Exception {
+
+        String message = "Say \"hi\" to C:\\tmp\tnow\n\u0001 ñandú €";
+        String escaped = "Say \\\"hi\\\" to C:\\\\tmp\\tnow\\n\\u0001 ñandú €";
+
+        assertEquals("{\"errorSoruce\":\"HUAWEI\",\"errorCode\":\"OM_TIMEOUT\",\"errorMsg\":\"" + escaped + "\"}"
+                , json(this.writer.write("HUAWEI", "OM_TIMEOUT", message)));
+        assertEquals("{\"errorSoruce\":\"HUAWEI\",\"errorCode\":\"OTHER\",\"errorMsg\":\"" + escaped + "\"}"
+                , json(this.writer.write("HUAWEI", "OTHER", message)));
+
+        // the last char, the only one to escape.
+        assertEquals("{\"errorSoruce\":\"OM\",\"errorCode\":\"OM_TIMEOUT\",\"errorMsg\":\"end\\\"\"}"
+                , json(this.writer.write("OM", "OM_TIMEOUT", "end\"")));
+    }
+
+    /**
+     * A null message is written as null, an empty one as an empty string.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testNullMessage() throws Exception {
+
+        assertEquals("{\"errorSoruce\":\"OM\",\"errorCode\":\"OM_TIMEOUT\",\"errorMsg\":null}"
+                , json(this.writer.write("OM", "OM_TIMEOUT", null)));
+        assertEquals("{\"errorSoruce\":\"OM\",\"errorCode\":\"OM_TIMEOUT\",\"errorMsg\":\"\"}"
+                , json(this.writer.write("OM", "OM_TIMEOUT", "")));
+        assertEquals("{\"errorSoruce\":\"OTHER\",\"errorCode\":\"OM_TIMEOUT\",\"errorMsg\":null}"
+                , json(this.writer.write("OTHER", "OM_TIMEOUT", null)));
+    }
+
+    /**
+     * Unknown or null sources and codes are streamed.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testUnknownSourceOrCode() throws Exception {
+
+        assertEquals("{\"errorSoruce\":\"OTHER\",\"errorCode\":\"OM_TIMEOUT\",\"errorMsg\":\"Failed\"}"
+                , json(this.writer.write("OTHER", "OM_TIMEOUT", "Failed")));
+        assertEquals("{\"errorSoruce\":\"OM\",\"errorCode\":\"CHECKED_ERROR\",\"errorMsg\":\"Failed\"}"
+                , json(this.writer.write("OM", "CHECKED_ERROR", "Failed")));
+        assertEquals("{\"errorSoruce\":\"Q\\\"S\",\"errorCode\":\"C\\\\D\",\"errorMsg\":\"Failed\"}"
+                , json(this.writer.write("Q\"S", "C\\D", "Failed")));
+        assertEquals("{\"errorSoruce\":null,\"errorCode\":null,\"errorMsg\":\"Failed\"}"
+                , json(this.writer.write(null, null, "Failed")));
+    }
+
+    /**
+     * The field names are escaped in the templates and in the streamed fallback.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testFieldNames() throws Exception {
+
+        ErrorBodyWriter quoted = new ErrorBodyWriter("so\"urce", "co\\de", "msg");
+
+        assertEquals("{\"so\\\"urce\":\"OM\",\"co\\\\de\":\"OM_TIMEOUT\",\"msg\":\"Failed\"}"
+                , json(quoted.write("OM", "OM_TIMEOUT", "Failed")));
+        assertEquals("{\"so\\\"urce\":\"OM\",\"co\\\\de\":\"OTHER\",\"msg\":\"Failed\"}"
+                , json(quoted.write("OM", "OTHER", "Failed")));
+    }
+
+    /**
+     * The controllers write the JSON body with their field names and the status of the exception.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testControllers() throws Exception {
+
+        ErrorHdlBaseController base = new ErrorHdlBaseController();
+        ErrorHdlInheritedRestController inherited = new ErrorHdlInheritedRestController();
+        TaDataException data = new TaDataException("No \"items\"");
+
+        ResponseEntity<?> baseData = base.handleException((OMError) data);
+        assertEquals(HttpStatus.BAD_REQUEST, baseData.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, baseData.getHeaders().getContentType());
+        assertEquals("{\"errorSoruce\":\"OM\",\"errorCode\":\"OM_DATA_INCONSISTENCY\",\"errorMsg\":\"No \\\"items\\\"\"}"
+                , json(baseData));
+
+        ResponseEntity<?> taData = inherited.handleException((OMError) data);
+        assertEquals(HttpStatus.BAD_REQUEST, taData.getStatusCode());
+        assertEquals(
+                "{\"taErrorSoruce\":\"OM\",\"taErrorCode\":\"OM_DATA_INCONSISTENCY\",\"taErrorMsg\":\"No \\\"items\\\"\"}"
+                , json(taData));
+
+        TaCheckedException checked = new TaCheckedException("This is a checked error")
+                .withErrorCode("CHECKED_ERROR");
+        assertEquals(
+                "{\"taErrorSoruce\":\"OM\",\"taErrorCode\":\"CHECKED_ERROR\",\"taErrorMsg\":\"This is a checked error\"}"
+                , json(inherited.handleException((OMError) checked)));
+
+        ResponseEntity<?> unexpected = inherited.handleException(new IllegalStateException("Broken\tstate"));
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, unexpected.getStatusCode());
+        assertEquals("{\"errorSoruce\":\"om\",\"errorCode\":\"unexpected\",\"errorMsg\":\"Broken\\tstate\"}"
+                , json(unexpected));
+    }
+
+    private static String json(final ResponseEntity<?> response) {
+        return json((byte[]) response.getBody());
+    }
+
+    private static String json(final byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
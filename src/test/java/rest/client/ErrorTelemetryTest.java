@@ -0,0 +1,175 @@
+package rest.client;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.web.client.RestClientResponseException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import rest.api.ErrorCount;
+import rest.api.ErrorTelemetry;
+import rest.api.ErrorTelemetryConfiguration;
+import rest.api.OMErrorEnum;
+import rest.client.strict.StrictRestClient;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class ErrorTelemetryTest extends Assertions {
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * Errors handled by the controllers are counted by code, source and status.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testControllerErrors() throws Exception {
+
+        ErrorTelemetry telemetry = ErrorTelemetry.shared();
+        long dataBefore = count(telemetry, OMErrorEnum.OM_DATA_INCONSISTENCY.getErrorCode(), 400);
+        long timeoutBefore = count(telemetry, OMErrorEnum.OM_TIMEOUT.getErrorCode(), 500);
+
+        StrictRestClient rrc = new StrictRestClient();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RestClientResponseException.class, () -> rrc
+                    .execute(rt -> rt.getForEntity("http://localhost:9090/omError/data", JsonNode.class)));
+        }
+        assertThrows(RestClientResponseException.class, () -> rrc
+                .execute(rt -> rt.getForEntity("http://localhost:9090/omError/timeout", JsonNode.class)));
+
+        assertEquals(dataBefore + 3, count(telemetry, OMErrorEnum.OM_DATA_INCONSISTENCY.getErrorCode(), 400));
+        assertEquals(timeoutBefore + 1, count(telemetry, OMErrorEnum.OM_TIMEOUT.getErrorCode(), 500));
+
+        ErrorCount timeout = telemetry.topErrors(Integer.MAX_VALUE).stream()
+                .filter(c -> c.getCode().equals(OMErrorEnum.OM_TIMEOUT.getErrorCode()))
+                .findFirst()
+                .get();
+        assertEquals("HUAWEI", timeout.getSource());
+        assertTrue(timeout.getPerSecond() > 0);
+    }
+
+    /**
+     * Top errors, rates, meters and JMX, recording known errors does not allocate.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testTelemetry() throws Exception {
+
+        ErrorTelemetry telemetry = new ErrorTelemetry();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        telemetry.bindTo(registry);
+
+        for (int i = 0; i < 120; i++) {
+            telemetry.record("OM", "OM_TIMEOUT", 504);
+        }
+        for (int i = 0; i < 60; i++) {
+            telemetry.record("HUAWEI", "OM_LEGACY_UNEXPECTED", 500);
+        }
+        telemetry.record("OM", "OM_DATA_INCONSISTENCY", 400);
+
+        List<ErrorCount> top = telemetry.topErrors(2);
+        assertEquals(2, top.size());
+        assertEquals("OM_TIMEOUT", top.get(0).getCode());
+        assertEquals(504, top.get(0).getStatus());
+        assertEquals(120, top.get(0).getCount());
+        assertEquals(2.0, top.get(0).getPerSecond(), 0.001);
+        assertEquals("OM_LEGACY_UNEXPECTED", top.get(1).getCode());
+
+        assertEquals(181, telemetry.getTotalErrors());
+        assertEquals(181.0 / ErrorTelemetry.WINDOW_SECONDS, telemetry.getErrorsPerSecond(), 0.001);
+
+        assertEquals(120, registry.get(ErrorTelemetry.ERRORS)
+                .tag("code", "OM_TIMEOUT").tag("source", "OM").tag("status", "504")
+                .functionCounter().count());
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+        for (int i = 0; i < 100_000; i++) {
+            telemetry.record("OM", "OM_TIMEOUT", 504);
+        }
+
+        allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocated;
+        assertTrue(allocated < 10_000, "Allocated: " + allocated);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(ErrorTelemetry.OBJECT_NAME);
+
+        try {
+            assertTrue(telemetry.registerMBean());
+            assertEquals(100_181L, server.getAttribute(name, "TotalErrors"));
+
+            CompositeData[] errors = (CompositeData[]) server.getAttribute(name, "TopErrors");
+            assertEquals("OM_TIMEOUT", errors[0].get("code"));
+        }
+        finally {
+            telemetry.unregisterMBean();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    /**
+     * The configuration binds the shared telemetry to the registry of the context, until it is closed.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testConfiguration() throws Exception {
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ErrorTelemetry telemetry;
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(MeterRegistry.class, () -> registry);
+            context.register(ErrorTelemetryConfiguration.class);
+            context.refresh();
+
+            telemetry = context.getBean(ErrorTelemetry.class);
+            assertSame(ErrorTelemetry.shared(), telemetry);
+
+            telemetry.record("CONFIG_TEST", "OM_TIMEOUT", 504);
+            assertEquals(1, registry.get(ErrorTelemetry.ERRORS)
+                    .tag("code", "OM_TIMEOUT").tag("source", "CONFIG_TEST").tag("status", "504")
+                    .functionCounter().count());
+        }
+
+        telemetry.record("CONFIG_TEST", "OM_IOERROR", 500);
+        assertNull(registry.find(ErrorTelemetry.ERRORS).tag("code", "OM_IOERROR").tag("source", "CONFIG_TEST")
+                .functionCounter());
+    }
+
+    private static long count(final ErrorTelemetry telemetry, final String code, final int status) {
+        return telemetry.topErrors(Integer.MAX_VALUE).stream()
+                .filter(c -> c.getCode().equals(code)  &&  c.getStatus() == status)
+                .mapToLong(ErrorCount::getCount)
+                .sum();
+    }
+}
@@ -0,0 +1,95 @@
+package rest.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Demo server side of the request compression, gzipped request bodies are decompressed while read,
+ * Tomcat only compresses responses.
+ *
+ * @author tonioc
+ */
+@Component
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request
+            , final HttpServletResponse response
+            , final FilterChain filterChain) throws ServletException, IOException {
+
+        if (!"gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        InputStream body = new GZIPInputStream(request.getInputStream());
+
+        filterChain.doFilter(new HttpServletRequestWrapper(request) {
+
+            @Override
+            public ServletInputStream getInputStream() {
+                return new ServletInputStream() {
+
+                    private boolean finished;
+
+                    @Override
+                    public int read() throws IOException {
+                        int b = body.read();
+                        this.finished = (b < 0);
+                        return b;
+                    }
+
+                    @Override
+                    public int read(final byte[] b, final int off, final int len) throws IOException {
+                        int n = body.read(b, off, len);
+                        this.finished = (n < 0);
+                        return n;
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return this.finished;
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setReadListener(final ReadListener readListener) {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public String getHeader(final String name) {
+                return (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) ? null : super.getHeader(name));
+            }
+
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return -1L;
+            }
+        }, response);
+    }
+}
@@ -0,0 +1,158 @@
+package rest.client;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import rest.client.budget.RetryBudget;
+import rest.client.hedge.HedgePolicy;
+import rest.client.limit.ConcurrencyLimiter;
+import rest.client.limit.HostLimit;
+import rest.client.models.ModelPerson;
+import rest.client.strict.StrictRestClient;
+import rest.client.transport.ClientTransport;
+import rest.client.transport.PooledClientTransport;
+import rest.client.transport.SimpleClientTransport;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class HedgingTest extends Assertions {
+
+    private static final int CALLS = 40;
+    private static final String URL = "http://localhost:9090/straggler/john";
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * The primary request of one call out of 10 takes 2 seconds, hedging cuts the tail latency.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testHedgingReducesTailLatency() throws Exception {
+
+        StrictRestClient plain = new StrictRestClient();
+        long plainMax = maxLatency(plain, "plain");
+
+        HedgePolicy policy = new HedgePolicy()
+                .withDelay(200)
+                .withPercentileDelay(80)
+                .withMinSamples(10)
+                .withBudget(new RetryBudget().withRetryRatio(0.2f));
+
+        StrictRestClient hedged = new StrictRestClient().withHedging(policy);
+        long hedgedMax = maxLatency(hedged, "straggler");
+
+        System.out.format("Max latency plain: %d ms, hedged: %d ms, hedges sent: %d, won: %d%n"
+                , plainMax, hedgedMax, policy.getHedgesSent(), policy.getHedgesWon());
+
+        assertTrue(plainMax >= 2_000, "Plain calls hit the straggler");
+        assertTrue(hedgedMax < 1_000, "Hedged calls do not wait the straggler");
+        assertTrue(policy.getHedgesWon() > 0, "Hedges won");
+        assertTrue(policy.getHedgesSent() < CALLS / 2, "Hedges do not double the load");
+        assertTrue(policy.getDelay("straggler") < 1_000, "Percentile delay used");
+    }
+
+    /**
+     * Without budget no hedge is sent.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testHedgeBudget() throws Exception {
+
+        HedgePolicy policy = new HedgePolicy()
+                .withDelay(50)
+                .withBudget(new RetryBudget().withRetryRatio(0).withMinRetriesPerSecond(0));
+
+        StrictRestClient hedged = new StrictRestClient().withHedging(policy);
+        maxLatency(hedged, "straggler");
+
+        assertEquals(0, policy.getHedgesSent());
+        assertTrue(policy.getBudget().getGlobal().getRetriesDenied() > 0, "Hedges denied");
+    }
+
+    /**
+     * The loser is aborted, its connection and concurrency permit are not held until the straggler answers.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testLoserAborted() throws Exception {
+
+        assertLoserAborted(new SimpleClientTransport());
+
+        try (PooledClientTransport transport = new PooledClientTransport()) {
+            assertLoserAborted(transport);
+        }
+    }
+
+    private static void assertLoserAborted(final ClientTransport transport) throws Exception {
+
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter()
+                .withInitialLimit(10)
+                .withMinLimit(10)
+                .withMaxLimit(10);
+        HedgePolicy policy = new HedgePolicy()
+                .withDelay(50)
+                .withBudget(new RetryBudget().withRetryRatio(1f));
+
+        StrictRestClient hedged = new StrictRestClient(0, 0, transport)
+                .withHedging(policy)
+                .withConcurrencyLimiter(limiter);
+        AtomicBoolean straggler = new AtomicBoolean(true);
+
+        ModelPerson person = hedged.executeHedged("aborted", rt -> rt.getForEntity(
+                        URL + "?straggler={straggler}", ModelPerson.class, straggler.getAndSet(false)))
+                .getBody();
+
+        assertEquals("john", person.getName());
+        assertEquals(1, policy.getHedgesWon());
+
+        // the straggler answers after 2 seconds, its permit is given back long before.
+        HostLimit hostLimit = limiter.getHostLimit("localhost:9090");
+        long start = System.currentTimeMillis();
+
+        while (hostLimit.getInFlight() > 0  &&  System.currentTimeMillis() - start < 1_000) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, hostLimit.getInFlight(), "Loser still in flight");
+    }
+
+    private static long maxLatency(final StrictRestClient client, final String endpoint) {
+
+        long max = 0;
+
+        for (int i = 0; i < CALLS; i++) {
+
+            // only the first request of the call is a straggler, never its hedge.
+            AtomicBoolean straggler = new AtomicBoolean(i % 10 == 0);
+
+            long start = System.currentTimeMillis();
+            ModelPerson person = client.executeHedged(endpoint, rt -> rt.getForEntity(
+                            URL + "?straggler={straggler}", ModelPerson.class, straggler.getAndSet(false)))
+                    .getBody();
+            max = Math.max(max, System.currentTimeMillis() - start);
+            assertEquals("john", person.getName());
+        }
+
+        return max;
+    }
+}
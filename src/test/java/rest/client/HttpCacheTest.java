@@ -0,0 +1,202 @@
+package rest.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import rest.client.cache.HttpCache;
+import rest.client.metrics.ClientMetrics;
+import rest.client.strict.StrictRestClient;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class HttpCacheTest extends Assertions {
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * Fresh responses are served from the cache, without entering the retry machinery.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testFreshHit() throws Exception {
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HttpCache cache = new HttpCache();
+        StrictRestClient rrc = new StrictRestClient()
+                .withMetrics(new ClientMetrics(registry))
+                .withCache(cache);
+
+        JsonNode first = get(rrc, "fresh", 60, null).getBody();
+        ResponseEntity<JsonNode> second = get(rrc, "fresh", 60, null);
+
+        assertEquals(first, second.getBody());
+        assertNotNull(second.getHeaders().getFirst(HttpHeaders.AGE));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getSize());
+
+        // only the miss was a call.
+        assertEquals(1, registry.get(ClientMetrics.CALLS).tags("uri", "/cached/{name}").timer().count());
+    }
+
+    /**
+     * Stale responses are revalidated, a 304 serves the cached one, a POST to the same URI invalidates it.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testRevalidation() throws Exception {
+
+        HttpCache cache = new HttpCache();
+        StrictRestClient rrc = new StrictRestClient().withCache(cache);
+
+        JsonNode first = get(rrc, "stale", 0, null).getBody();
+        assertEquals(first, get(rrc, "stale", 0, null).getBody());
+        assertEquals(1, cache.getRevalidations());
+
+        rrc.execute(rt -> rt.postForEntity("http://localhost:9090/cached/stale?maxAge=0", null, JsonNode.class));
+        assertEquals(0, cache.getSize());
+
+        JsonNode updated = get(rrc, "stale", 0, null).getBody();
+        assertEquals(first.get("version").asInt() + 1, updated.get("version").asInt());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    /**
+     * A response is cached per value of the request headers in its Vary header.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testVary() throws Exception {
+
+        HttpCache cache = new HttpCache();
+        StrictRestClient rrc = new StrictRestClient().withCache(cache);
+
+        JsonNode en = get(rrc, "vary", 60, "en").getBody();
+        JsonNode es = get(rrc, "vary", 60, "es").getBody();
+
+        assertEquals("es", es.get("language").asText());
+        assertEquals(en, get(rrc, "vary", 60, "en").getBody());
+        assertEquals(es, get(rrc, "vary", 60, "es").getBody());
+
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getSize());
+    }
+
+    /**
+     * Request no-cache revalidates, the least recently used URIs are evicted.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testNoCacheAndEviction() throws Exception {
+
+        HttpCache cache = new HttpCache().withMaxEntries(2);
+        StrictRestClient rrc = new StrictRestClient().withCache(cache);
+
+        get(rrc, "lru1", 60, null);
+        rrc.execute(rt -> {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setCacheControl("no-cache");
+            return rt.exchange("http://localhost:9090/cached/lru1?maxAge=60"
+                    , HttpMethod.GET, new HttpEntity<>(headers), JsonNode.class);
+        });
+        assertEquals(1, cache.getRevalidations());
+
+        get(rrc, "lru2", 60, null);
+        get(rrc, "lru3", 60, null);
+        assertEquals(2, cache.getSize());
+
+        long misses = cache.getMisses();
+        get(rrc, "lru1", 60, null);
+        assertEquals(misses + 1, cache.getMisses());
+    }
+
+    /**
+     * The function runs once per call, hit or miss, and each hit is counted once.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testFunctionRunOnce() throws Exception {
+
+        HttpCache cache = new HttpCache();
+        StrictRestClient rrc = new StrictRestClient().withCache(cache);
+        AtomicInteger runs = new AtomicInteger();
+
+        rrc.execute(rt -> {
+            runs.incrementAndGet();
+            return rt.getForEntity("http://localhost:9090/cached/once1?maxAge=60", JsonNode.class);
+        });
+        assertEquals(1, runs.get());
+        assertEquals(1, cache.getMisses());
+
+        rrc.execute(rt -> {
+            runs.incrementAndGet();
+            return rt.getForEntity("http://localhost:9090/cached/once1?maxAge=60", JsonNode.class);
+        });
+        assertEquals(2, runs.get());
+        assertEquals(1, cache.getHits());
+
+        // a hit followed by a miss in the same call.
+        rrc.execute(rt -> {
+            runs.incrementAndGet();
+            rt.getForEntity("http://localhost:9090/cached/once1?maxAge=60", JsonNode.class);
+            return rt.getForEntity("http://localhost:9090/cached/once2?maxAge=60", JsonNode.class);
+        });
+        assertEquals(3, runs.get());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        rrc.execute(rt -> {
+            runs.incrementAndGet();
+            return rt.postForEntity("http://localhost:9090/cached/once2?maxAge=60", null, JsonNode.class);
+        });
+        assertEquals(4, runs.get());
+    }
+
+    private static ResponseEntity<JsonNode> get(final StrictRestClient rrc
+            , final String name
+            , final int maxAge
+            , final String language) {
+
+        return rrc.execute(rt -> {
+            HttpHeaders headers = new HttpHeaders();
+
+            if (language != null) {
+                headers.set(HttpHeaders.ACCEPT_LANGUAGE, language);
+            }
+
+            return rt.exchange("http://localhost:9090/cached/{name}?maxAge={maxAge}"
+                    , HttpMethod.GET, new HttpEntity<>(headers), JsonNode.class, name, maxAge);
+        });
+    }
+}
@@ -0,0 +1,279 @@
+package rest.client;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import rest.client.metrics.ClientMetrics;
+import rest.client.strict.StrictRestClient;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class MetricsTest extends Assertions {
+
+    private static final String HOST = "localhost:9090";
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * Calls and attempts are tagged with the URI template, not the expanded URI.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testSuccess() throws Exception {
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StrictRestClient rrc = new StrictRestClient().withMetrics(new ClientMetrics(registry));
+
+        rrc.execute(rt -> rt.getForEntity("http://localhost:9090/person/{name}", JsonNode.class, "john"));
+        rrc.execute(rt -> rt.getForEntity("http://localhost:9090/person/{name}", JsonNode.class, "mary"));
+
+        Timer calls = registry.get(ClientMetrics.CALLS)
+                .tags("host", HOST, "uri", "/person/{name}", "method", "GET", "status", "2xx", "exception", "none")
+                .timer();
+        assertEquals(2, calls.count());
+
+        Timer attempts = registry.get(ClientMetrics.ATTEMPTS)
+                .tags("uri", "/person/{name}", "status", "2xx", "attempt", "1")
+                .timer();
+        assertEquals(2, attempts.count());
+
+        assertEquals(0, registry.get(ClientMetrics.RETRIES).tags("uri", "/person/{name}")
+                .functionCounter().count());
+        assertEquals(0, registry.get(ClientMetrics.IN_FLIGHT).tags("uri", "/person/{name}").gauge().value());
+    }
+
+    /**
+     * Requests sent with an URI have no template, they are not tagged with the expanded URI.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testNoTemplate() throws Exception {
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StrictRestClient rrc = new StrictRestClient().withMetrics(new ClientMetrics(registry));
+
+        for (String name : new String[] {"john", "mary", "paul"}) {
+            RequestEntity<Void> request = RequestEntity
+                    .get(URI.create("http://localhost:9090/person/" + name))
+                    .build();
+            rrc.execute(rt -> rt.exchange(request, JsonNode.class));
+        }
+
+        assertEquals(1, registry.get(ClientMetrics.CALLS).timers().size());
+        assertEquals(3, registry.get(ClientMetrics.CALLS)
+                .tags("host", HOST, "uri", ClientMetrics.NO_TEMPLATE, "method", "GET", "status", "2xx")
+                .timer().count());
+        assertEquals(0, registry.get(ClientMetrics.IN_FLIGHT).tags("uri", ClientMetrics.NO_TEMPLATE)
+                .gauge().value());
+    }
+
+    /**
+     * URLs built by concatenation have no variables, they are not templates.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testConcatenatedUrl() throws Exception {
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StrictRestClient rrc = new StrictRestClient().withMetrics(new ClientMetrics(registry));
+
+        for (String name : new String[] {"john", "mary", "paul"}) {
+            rrc.execute(rt -> rt.getForEntity("http://localhost:9090/person/" + name, JsonNode.class));
+        }
+
+        assertEquals(1, registry.get(ClientMetrics.CALLS).timers().size());
+        assertEquals(3, registry.get(ClientMetrics.CALLS)
+                .tags("host", HOST, "uri", ClientMetrics.NO_TEMPLATE, "method", "GET", "status", "2xx")
+                .timer().count());
+    }
+
+    /**
+     * Templates beyond the max are tagged as other routes.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testMaxRoutes() throws Exception {
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StrictRestClient rrc = new StrictRestClient().withMetrics(new ClientMetrics(registry));
+        int templates = ClientMetrics.MAX_ROUTES + 10;
+
+        for (int i = 0; i < templates; i++) {
+            String template = "http://localhost:9090/missing" + i + "/{name}";
+            assertThrows(HttpClientErrorException.class
+                    , () -> rrc.execute(rt -> rt.getForEntity(template, String.class, "john")));
+        }
+
+        Collection<Timer> calls = registry.get(ClientMetrics.CALLS).timers();
+        assertEquals(ClientMetrics.MAX_ROUTES + 1, calls.size());
+        assertEquals(10, registry.get(ClientMetrics.CALLS)
+                .tags("host", ClientMetrics.OTHER_ROUTE, "uri", ClientMetrics.OTHER_ROUTE)
+                .timer().count());
+    }
+
+    /**
+     * Retried attempts are tagged by attempt number, the call time includes the back offs.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testRetries() throws Exception {
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StrictRestClient rrc = new StrictRestClient().withMetrics(new ClientMetrics(registry));
+
+        AtomicInteger count = new AtomicInteger();
+
+        // A connect timeout cannot be reproduced here, it is simulated after the request.
+        ResponseEntity<JsonNode> result = rrc.execute(rt -> {
+            ResponseEntity<JsonNode> response = rt.getForEntity("http://localhost:9090/ok", JsonNode.class);
+
+            if (count.incrementAndGet() < 3) {
+                throw new ResourceAccessException("I/O error: connect timed out");
+            }
+
+            return response;
+        });
+
+        assertEquals(200, result.getStatusCodeValue());
+
+        FunctionCounter retries = registry.get(ClientMetrics.RETRIES).tags("uri", ClientMetrics.NO_TEMPLATE).functionCounter();
+        assertEquals(2, retries.count());
+
+        for (String attempt : new String[] {"1", "2", "3"}) {
+            assertEquals(1, registry.get(ClientMetrics.ATTEMPTS)
+                    .tags("uri", ClientMetrics.NO_TEMPLATE, "attempt", attempt)
+                    .timer().count());
+        }
+
+        Timer calls = registry.get(ClientMetrics.CALLS)
+                .tags("uri", ClientMetrics.NO_TEMPLATE, "status", "2xx", "exception", "none")
+                .timer();
+        assertEquals(1, calls.count());
+
+        double wire = registry.get(ClientMetrics.ATTEMPTS).tags("uri", ClientMetrics.NO_TEMPLATE).timers().stream()
+                .mapToDouble(t -> t.totalTime(TimeUnit.MILLISECONDS))
+                .sum();
+        assertTrue(calls.totalTime(TimeUnit.MILLISECONDS) > wire
+                , "Call time should include back offs");
+    }
+
+    /**
+     * Failed calls are tagged with the exception thrown and the status received.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testFailures() throws Exception {
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ClientMetrics metrics = new ClientMetrics();
+        StrictRestClient rrc = new StrictRestClient(500, 500).withMetrics(metrics);
+
+        assertThrows(HttpServerErrorException.class
+                , () -> rrc.execute(rt -> rt.getForEntity("http://localhost:9090/status500", String.class)));
+
+        // bound after, meters already created are registered, values recorded before are not.
+        metrics.bindTo(registry);
+        assertEquals(0, registry.get(ClientMetrics.CALLS).tags("uri", ClientMetrics.NO_TEMPLATE).timer().count());
+
+        assertThrows(HttpServerErrorException.class
+                , () -> rrc.execute(rt -> rt.getForEntity("http://localhost:9090/status500", String.class)));
+        assertThrows(ResourceAccessException.class
+                , () -> rrc.execute(rt -> rt.getForEntity("http://localhost:9090/timeout/2", String.class)));
+
+        assertEquals(1, registry.get(ClientMetrics.CALLS)
+                .tags("uri", ClientMetrics.NO_TEMPLATE, "status", "5xx", "exception", "InternalServerError")
+                .timer().count());
+        assertEquals(1, registry.get(ClientMetrics.ATTEMPTS)
+                .tags("uri", ClientMetrics.NO_TEMPLATE, "status", "5xx", "exception", "none")
+                .timer().count());
+
+        assertEquals(1, registry.get(ClientMetrics.CALLS)
+                .tags("uri", ClientMetrics.NO_TEMPLATE, "status", "NONE", "exception", "ResourceAccessException")
+                .timer().count());
+        assertEquals(1, registry.get(ClientMetrics.ATTEMPTS)
+                .tags("uri", ClientMetrics.NO_TEMPLATE, "status", "NONE", "exception", "SocketTimeoutException")
+                .timer().count());
+
+        Gauge inFlight = registry.get(ClientMetrics.IN_FLIGHT).tags("uri", ClientMetrics.NO_TEMPLATE).gauge();
+        assertEquals(0, inFlight.value());
+    }
+
+    /**
+     * An async call cancelled during the back off is closed, it is not left in flight.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testAsyncCancelled() throws Exception {
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StrictRestClient rrc = new StrictRestClient(500) {
+            @Override
+            public BackOffPolicy createBackOffPolicy() {
+                FixedBackOffPolicy bop = new FixedBackOffPolicy();
+                bop.setBackOffPeriod(10_000L);
+                return bop;
+            }
+        }.withMetrics(new ClientMetrics(registry));
+
+        CompletableFuture<ResponseEntity<JsonNode>> future = rrc.executeAsync(rt -> {
+            rt.getForEntity("http://localhost:9090/ok", JsonNode.class);
+            throw new ResourceAccessException("I/O error: connect timed out");
+        });
+
+        Gauge inFlight = null;
+
+        for (int i = 0; i < 100  &&  inFlight == null; i++) {
+            Thread.sleep(20L);
+            inFlight = registry.find(ClientMetrics.IN_FLIGHT).tags("uri", ClientMetrics.NO_TEMPLATE).gauge();
+        }
+
+        assertNotNull(inFlight);
+        Thread.sleep(200L);
+        assertEquals(1, inFlight.value());
+
+        assertTrue(future.cancel(true));
+        assertEquals(0, inFlight.value());
+        assertEquals(1, registry.get(ClientMetrics.CALLS).tags("uri", ClientMetrics.NO_TEMPLATE).timer().count());
+    }
+}
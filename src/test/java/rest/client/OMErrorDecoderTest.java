@@ -0,0 +1,142 @@
+package rest.client;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientResponseException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import rest.api.OMErrorEnum;
+import rest.api.OMErrorSourceEnum;
+import rest.api.TaConfigException;
+import rest.api.TaDataException;
+import rest.api.TaException;
+import rest.client.error.OMErrorBody;
+import rest.client.error.OMErrorDecoder;
+import rest.client.retrofit.ReliantCallAdapterFactory;
+import rest.client.retrofit.RetrofitTestService;
+import rest.client.strict.StrictRestClient;
+import retrofit2.HttpException;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class OMErrorDecoderTest extends Assertions {
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * Only the root fields are read, both field name variants, anything else is not an OMError.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testBody() throws Exception {
+
+        OMErrorBody body = body("{\"extra\": {\"errorCode\": \"NESTED\"}, \"errorSoruce\": \"HUAWEI\""
+                + ", \"errorCode\": \"OM_TIMEOUT\", \"errorMsg\": \"Timeout\"}");
+
+        assertTrue(body.isOMError());
+        assertEquals("OM_TIMEOUT", body.getErrorCode());
+        assertEquals(OMErrorEnum.OM_TIMEOUT, body.getErrorCodeEnum().get());
+        assertEquals(OMErrorSourceEnum.HUAWEI, body.getErrorSourceEnum().get());
+        assertEquals("Timeout", body.getErrorMessage());
+
+        OMErrorBody inherited = body("{\"taErrorSoruce\": \"LEGACY\", \"taErrorCode\": \"CHECKED_ERROR\", \"taErrorMsg\": \"m\"}");
+        assertEquals("CHECKED_ERROR", inherited.getErrorCode());
+        assertFalse(inherited.getErrorCodeEnum().isPresent());
+        assertFalse(inherited.getErrorSourceEnum().isPresent());
+
+        assertFalse(body("<root><data>Internal Server Error</data></root>").isOMError());
+        assertFalse(body("[1, 2]").isOMError());
+        assertFalse(body("{\"errorCode\": ").isOMError());
+    }
+
+    /**
+     * RestTemplate errors with an OMError body are thrown as the TaException of their code.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testStrictRestClient() throws Exception {
+
+        StrictRestClient rrc = new StrictRestClient().withErrorDecoder(new OMErrorDecoder());
+
+        TaDataException data = assertThrows(TaDataException.class, () -> get(rrc, "omError/data"));
+        assertEquals(OMErrorEnum.OM_DATA_INCONSISTENCY.getErrorCode(), data.getErrorCode());
+        assertEquals("This is a data error", data.getErrorMessage());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), ((RestClientResponseException) data.getCause()).getRawStatusCode());
+
+        assertThrows(TaConfigException.class, () -> get(rrc, "omError/config"));
+
+        TaException timeout = assertThrows(TaException.class, () -> get(rrc, "omError/timeout"));
+        assertEquals(TaException.class, timeout.getClass());
+        assertEquals(OMErrorEnum.OM_TIMEOUT.getErrorCode(), timeout.getErrorCode());
+        assertEquals(OMErrorSourceEnum.HUAWEI.getCode(), timeout.getErrorSource());
+        assertTrue(timeout.getCause() instanceof HttpServerErrorException);
+
+        TaException checked = assertThrows(TaException.class, () -> get(rrc, "omError/checked"));
+        assertEquals("CHECKED_ERROR", checked.getErrorCode());
+
+        // not OMError bodies, as they are.
+        assertThrows(HttpServerErrorException.class, () -> get(rrc, "status500"));
+
+        // without decoder, as they are.
+        assertThrows(HttpClientErrorException.class, () -> get(new StrictRestClient(), "omError/data"));
+    }
+
+    /**
+     * Retrofit errors with an OMError body fail with the TaException of their code, the body can still be read.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testRetrofit() throws Exception {
+
+        RetrofitTestService service = new Retrofit.Builder()
+                .baseUrl("http://localhost:9090/")
+                .addCallAdapterFactory(ReliantCallAdapterFactory.create().withErrorDecoder(new OMErrorDecoder()))
+                .addConverterFactory(JacksonConverterFactory.create())
+                .build()
+                .create(RetrofitTestService.class);
+
+        TaDataException data = assertThrows(TaDataException.class, () -> service.omError("data").execute());
+        HttpException http = (HttpException) data.getCause();
+        assertEquals(400, http.code());
+        assertTrue(http.response().errorBody().string().contains("OM_DATA_INCONSISTENCY"));
+
+        TaException timeout = assertThrows(TaException.class, () -> service.omError("timeout").execute());
+        assertEquals(OMErrorEnum.OM_TIMEOUT.getErrorCode(), timeout.getErrorCode());
+
+        assertThrows(HttpException.class, () -> service.noJsonError().execute());
+    }
+
+    private static OMErrorBody body(final String json) {
+        return new OMErrorBody(json.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    private static JsonNode get(final StrictRestClient rrc, final String path) {
+        return rrc.execute(rt -> rt.getForEntity("http://localhost:9090/" + path, JsonNode.class)).getBody();
+    }
+}
@@ -0,0 +1,48 @@
+package rest.client;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import rest.api.ErrorHdlBaseController;
+import rest.api.OMErrorEnum;
+import rest.api.OMErrorSourceEnum;
+import rest.api.TaCheckedException;
+import rest.api.TaConfigException;
+import rest.api.TaDataException;
+import rest.api.TaException;
+
+/**
+ * The Class OMErrorDemoRest, errors written by {@link ErrorHdlBaseController}.
+ *
+ * @author tonioc
+ */
+@RestController
+@RequestMapping("omError")
+public class OMErrorDemoRest extends ErrorHdlBaseController {
+
+    @GetMapping("/data")
+    public ResponseEntity<String> data() {
+        throw new TaDataException("This is a data error");
+    }
+
+    @GetMapping("/config")
+    public ResponseEntity<String> config() {
+        throw new TaConfigException("This is a configuration error");
+    }
+
+    @GetMapping("/timeout")
+    public ResponseEntity<String> timeout() {
+        throw new TaException("Legacy did not answer")
+            .withErrorSource(OMErrorSourceEnum.HUAWEI)
+            .withErrorCode(OMErrorEnum.OM_TIMEOUT);
+    }
+
+    @GetMapping("/checked")
+    public ResponseEntity<String> checked() throws TaCheckedException {
+        throw new TaCheckedException("This is a checked error")
+            .withErrorSource(OMErrorSourceEnum.OM)
+            .withErrorCode("CHECKED_ERROR");
+    }
+}
@@ -13,7 +13,8 @@ public class ReliantDemoApplication {
 	public static void main(final String... args) {
 
 	   builder = new SpringApplicationBuilder(ReliantDemoApplication.class)
-		    .properties("server.port=9090");
+		    .properties("server.port=9090"
+		            , "server.compression.enabled=true");
 
 	   builder.run(args);
 	}
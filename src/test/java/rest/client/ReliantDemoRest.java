@@ -1,5 +1,7 @@
 package rest.client;
 
+import javax.servlet.http.HttpServletRequest;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -31,6 +33,20 @@ public class ReliantDemoRest {
         return this.jsonFactory.objectNode().put("status", "OK");
     }
 
+    @RequestMapping(value = {"/conn"}, method = {RequestMethod.GET}, produces = "application/json")
+    @ResponseBody
+    public JsonNode conn(final HttpServletRequest request) {
+        // the client port identifies the TCP connection used by the caller.
+        return this.jsonFactory.objectNode().put("port", request.getRemotePort());
+    }
+
+    @RequestMapping(value = {"/deadline"}, method = {RequestMethod.GET}, produces = "application/json")
+    @ResponseBody
+    public JsonNode deadline(final HttpServletRequest request) {
+        // echoes the time left to the caller deadline.
+        return this.jsonFactory.objectNode().put("remaining", request.getHeader("X-Deadline-Remaining-Ms"));
+    }
+
     @RequestMapping(value = {"/empty"}, method = {RequestMethod.GET}, produces = "application/json")
     @ResponseBody
     public ResponseEntity<Void> empty() {
@@ -50,6 +66,12 @@ public class ReliantDemoRest {
         return "<root><data>This is not a JSON</data></root>";
     }
 
+    @RequestMapping(value = {"/noJson/{id}"}, method = {RequestMethod.GET}, produces = "text/html")
+    @ResponseBody
+    public String noJsonWithId(@PathVariable("id") final String id) {
+        return "<root><data>" + id + "</data></root>";
+    }
+
     @RequestMapping(value = {"/json"}, method = {RequestMethod.GET}, produces = "application/json")
     @ResponseBody
     public JsonNode json() throws InterruptedException {
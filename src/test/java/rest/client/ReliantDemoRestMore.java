@@ -1,15 +1,32 @@
 package rest.client;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
@@ -51,6 +68,85 @@ public class ReliantDemoRestMore {
         return person;
     }
 
+    @RequestMapping(value = {"/straggler/{name}"}, method = {RequestMethod.GET}, produces = "application/json")
+    @ResponseBody
+    public ModelPerson getPersonStraggler(@PathVariable("name") final String name
+            , @RequestParam(value = "straggler", defaultValue = "false") final boolean straggler)
+                    throws InterruptedException {
+
+        // the caller decides which requests are stragglers
+        if (straggler) {
+            Thread.sleep(2000L);
+        }
+        else {
+            Thread.sleep(20L);
+        }
+
+        return new ModelPerson(name)
+                .addAddr("Superi", 2019);
+    }
+
+    Map<String, AtomicInteger> cachedVersions = new ConcurrentHashMap<>();
+    AtomicInteger cachedServed = new AtomicInteger();
+    @RequestMapping(value = {"/cached/{name}"}, method = {RequestMethod.GET}, produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<JsonNode> getCached(@PathVariable("name") final String name
+            , @RequestParam(value = "maxAge", defaultValue = "60") final int maxAge
+            , @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch
+            , @RequestHeader(value = HttpHeaders.ACCEPT_LANGUAGE, defaultValue = "en") final String language) {
+
+        int version = this.cachedVersions.computeIfAbsent(name, n -> new AtomicInteger()).get();
+        String etag = "\"" + name + "-" + language + "-" + version + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(maxAge, TimeUnit.SECONDS);
+
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        // served counts the responses sent with a body, a cached one repeats it.
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_LANGUAGE)
+                .body(this.jsonFactory.objectNode()
+                        .put("name", name)
+                        .put("language", language)
+                        .put("version", version)
+                        .put("served", this.cachedServed.incrementAndGet()));
+    }
+
+    @RequestMapping(value = {"/cached/{name}"}, method = {RequestMethod.POST}, produces = "application/json")
+    @ResponseBody
+    public JsonNode updateCached(@PathVariable("name") final String name) {
+        int version = this.cachedVersions.computeIfAbsent(name, n -> new AtomicInteger()).incrementAndGet();
+        return this.jsonFactory.objectNode().put("status", "OK").put("version", version);
+    }
+
+    @RequestMapping(value = {"/persons/{size}"}, method = {RequestMethod.GET}, produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<StreamingResponseBody> getPersons(@PathVariable("size") final int size
+            , @RequestParam(value = "pauseMillis", defaultValue = "0") final long pauseMillis) {
+
+        // written one person at a time, never in memory as a whole, pausing every 1000 if asked.
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write('[');
+
+            for (int i = 0; i < size; i++) {
+                writer.write((i == 0 ? "" : ",")
+                        + "{\"name\":\"person-" + i + "\",\"addresses\":[{\"calle\":\"Superi\",\"numero\":" + i + "}]}");
+
+                if (pauseMillis > 0  &&  i % 1_000 == 999) {
+                    writer.flush();
+                    pause(pauseMillis);
+                }
+            }
+
+            writer.write(']');
+            writer.flush();
+        });
+    }
+
     @RequestMapping(value = {"/person"}, method = {RequestMethod.POST}, produces = "application/json")
     @ResponseBody
     public JsonNode storePerson(@RequestBody final ModelPerson person) {
@@ -60,4 +156,13 @@ public class ReliantDemoRestMore {
 
     }
 
-}
\ No newline at end of file
+    private static void pause(final long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted");
+        }
+    }
+}
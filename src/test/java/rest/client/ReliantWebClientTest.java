@@ -0,0 +1,170 @@
+package rest.client;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.UnsupportedMediaTypeException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.netty.channel.ConnectTimeoutException;
+import reactor.core.publisher.Mono;
+import rest.client.reactive.ReliantWebClient;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class ReliantWebClientTest extends Assertions {
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * A 2xx is answered as with a plain WebClient.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testGetPerson() throws Exception {
+
+        ReliantWebClient rwc = new ReliantWebClient();
+
+        ResponseEntity<JsonNode> result = rwc.execute(wc -> wc.get()
+                .uri("http://localhost:9090/person/{name}", "Andres")
+                .retrieve()
+                .toEntity(JsonNode.class))
+            .block();
+
+        assertEquals(200, result.getStatusCodeValue());
+        assertEquals("Andres", result.getBody().get("name").asText());
+    }
+
+    /**
+     * Status 3xx and 5xx are errors, not retried.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testStrictStatus() throws Exception {
+
+        ReliantWebClient rwc = new ReliantWebClient().withBackOff(10, 100);
+        AtomicInteger attempts = new AtomicInteger();
+
+        WebClientResponseException ex = assertThrows(WebClientResponseException.class, () -> rwc
+                .execute(wc -> {
+                    attempts.incrementAndGet();
+                    return wc.get().uri("http://localhost:9090/status300").retrieve().toEntity(String.class);
+                })
+                .block());
+
+        assertEquals(308, ex.getRawStatusCode());
+        assertTrue(ex.getResponseBodyAsString().contains("Redirect"));
+        assertEquals(1, attempts.get());
+
+        assertThrows(WebClientResponseException.InternalServerError.class, () -> rwc
+                .execute(wc -> wc.get().uri("http://localhost:9090/status500").retrieve().toEntity(String.class))
+                .block());
+    }
+
+    /**
+     * Connect timeouts are retried, with back off, until they succeed or the retries are exhausted.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testConnectTimeoutRetried() throws Exception {
+
+        ReliantWebClient rwc = new ReliantWebClient().withBackOff(10, 100);
+        AtomicInteger attempts = new AtomicInteger();
+
+        ResponseEntity<JsonNode> result = rwc.execute(wc -> {
+                    if (attempts.incrementAndGet() < 3) {
+                        return Mono.error(connectTimeout());
+                    }
+                    return wc.get().uri("http://localhost:9090/ok").retrieve().toEntity(JsonNode.class);
+                })
+            .block();
+
+        assertEquals("OK", result.getBody().get("status").asText());
+        assertEquals(3, attempts.get());
+
+        attempts.set(0);
+
+        WebClientRequestException ex = assertThrows(WebClientRequestException.class, () -> rwc
+                .execute(wc -> {
+                    attempts.incrementAndGet();
+                    return Mono.error(connectTimeout());
+                })
+                .block());
+
+        assertTrue(ex.getCause() instanceof ConnectTimeoutException);
+        assertEquals(1 + ReliantWebClient.DEFAULT_MAX_RETRIES, attempts.get());
+    }
+
+    /**
+     * Read timeouts are not retried.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testReadTimeoutNotRetried() throws Exception {
+
+        ReliantWebClient rwc = new ReliantWebClient(0, 500).withBackOff(10, 100);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(WebClientRequestException.class, () -> rwc
+                .execute(wc -> {
+                    attempts.incrementAndGet();
+                    return wc.get().uri("http://localhost:9090/timeout/2").retrieve().toEntity(JsonNode.class);
+                })
+                .block());
+
+        assertEquals(1, attempts.get());
+    }
+
+    /**
+     * A body no reader can read fails, after logging its first bytes.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testNoJson() throws Exception {
+
+        ReliantWebClient rwc = new ReliantWebClient();
+
+        // retrieve() wraps the errors reading the body.
+        WebClientResponseException ex = assertThrows(WebClientResponseException.class, () -> rwc
+                .execute(wc -> wc.get().uri("http://localhost:9090/noJson").retrieve().toEntity(JsonNode.class))
+                .block());
+
+        assertEquals(200, ex.getRawStatusCode());
+        assertTrue(ex.getCause() instanceof UnsupportedMediaTypeException);
+    }
+
+    private static WebClientRequestException connectTimeout() {
+        return new WebClientRequestException(new ConnectTimeoutException("connection timed out: localhost")
+                , HttpMethod.GET
+                , URI.create("http://localhost:9090/ok")
+                , HttpHeaders.EMPTY);
+    }
+}
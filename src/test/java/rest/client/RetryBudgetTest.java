@@ -0,0 +1,109 @@
+package rest.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import rest.client.budget.RetryBudget;
+import rest.client.strict.StrictRestClient;
+import rest.client.ta.TaRestTemplate;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class RetryBudgetTest extends Assertions {
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * Each call deposits 1 token, a call retrying twice gets only one retry.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testStrictBudgetExhausted() throws Exception {
+
+        RetryBudget budget = new RetryBudget()
+                .withRetryRatio(1)
+                .withMinRetriesPerSecond(0);
+
+        StrictRestClient rrc = new StrictRestClient() {
+            @Override
+            public BackOffPolicy createBackOffPolicy() {
+                FixedBackOffPolicy bop = new FixedBackOffPolicy();
+                bop.setBackOffPeriod(10L);
+                return bop;
+            }
+        }.withRetryBudget(budget);
+
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ResourceAccessException.class, () -> rrc.execute(rt -> {
+            attempts.incrementAndGet();
+            throw new ResourceAccessException("I/O error: connect timed out");
+        }));
+
+        assertEquals(2, attempts.get(), "Attempts");
+        assertEquals(1, budget.getGlobal().getFirstAttempts());
+        assertEquals(1, budget.getGlobal().getRetriesAllowed());
+        assertEquals(1, budget.getGlobal().getRetriesDenied());
+
+        // with budget a call succeeding after one retry is not affected.
+        attempts.set(0);
+        ResponseEntity<String> result = rrc.execute(rt -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new ResourceAccessException("I/O error: connect timed out");
+            }
+            return rt.getForEntity("http://localhost:9090/json", String.class);
+        });
+
+        assertEquals(2, attempts.get(), "Attempts");
+        assertTrue(result.getBody().contains("JSON"));
+        assertEquals(1, budget.getHost("localhost:9090").getFirstAttempts());
+    }
+
+    /**
+     * TaRestTemplate does not retry a 503 when the host budget is empty.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testTaBudgetExhausted() throws Exception {
+
+        RetryBudget budget = new RetryBudget()
+                .withRetryRatio(0)
+                .withMinRetriesPerSecond(0);
+
+        TaRestTemplate rrc = new TaRestTemplate(5, 5).withRetryBudget(budget);
+
+        long start = System.currentTimeMillis();
+
+        assertThrows(HttpServerErrorException.class
+                , () -> rrc.execute(rt -> rt.getForEntity("http://localhost:9090/status503", String.class)));
+
+        assertTrue(System.currentTimeMillis() - start < 2_000, "Not retried");
+        assertEquals(1, budget.getGlobal().getFirstAttempts());
+        assertEquals(1, budget.getHost("localhost:9090").getFirstAttempts());
+        assertEquals(1, budget.getHost("localhost:9090").getRetriesDenied());
+    }
+}
@@ -0,0 +1,128 @@
+package rest.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import rest.client.deadline.Deadline;
+import rest.client.deadline.DeadlineExceededException;
+import rest.client.strict.ScatterResult;
+import rest.client.strict.StrictRestClient;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class ScatterGatherTest extends Assertions {
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * Results are in the order of the functions, each one with its response or its error.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testOrderedResults() throws Exception {
+
+        StrictRestClient rrc = new StrictRestClient();
+
+        List<ScatterResult<JsonNode>> results = rrc.scatterGather(Arrays.asList(
+                get("/person/scatter")
+                , get("/status500")
+                , get("/ok"))
+                , 3
+                , Deadline.afterMillis(10_000));
+
+        assertEquals(3, results.size());
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("scatter", results.get(0).getResponse().getBody().get("name").asText());
+        assertFalse(results.get(1).isSuccess());
+        assertNotNull(results.get(1).getError());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals("OK", results.get(2).getOrThrow().getBody().get("status").asText());
+    }
+
+    /**
+     * No more than parallelism functions run at the same time.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testParallelism() throws Exception {
+
+        StrictRestClient rrc = new StrictRestClient();
+        List<Function<RestTemplate, ResponseEntity<JsonNode>>> functions = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            functions.add(get("/timeout/1"));
+        }
+
+        long start = System.currentTimeMillis();
+        List<ScatterResult<JsonNode>> results = rrc.scatterGather(functions, 2, Deadline.afterMillis(10_000));
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue(results.stream().allMatch(ScatterResult::isSuccess));
+        assertTrue(elapsed >= 2_000  &&  elapsed < 3_500, "Two rounds of two calls: " + elapsed);
+    }
+
+    /**
+     * At the deadline the slow branches fail, the ended ones keep their responses.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testPartialResults() throws Exception {
+
+        StrictRestClient rrc = new StrictRestClient();
+
+        long start = System.currentTimeMillis();
+
+        List<ScatterResult<JsonNode>> results = rrc.scatterGather(Arrays.asList(
+                get("/ok")
+                , get("/timeout/5")
+                , get("/ok")
+                , get("/timeout/5"))
+                , 4
+                , Deadline.afterMillis(1_000));
+
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue(elapsed < 1_500, "Deadline respected: " + elapsed);
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertTrue(results.get(1).getError() instanceof DeadlineExceededException);
+        assertTrue(results.get(3).getError() instanceof DeadlineExceededException);
+        assertThrows(DeadlineExceededException.class, () -> results.get(1).getOrThrow());
+    }
+
+    private static Function<RestTemplate, ResponseEntity<JsonNode>> get(final String path) {
+        return rt -> rt.getForEntity("http://localhost:9090" + path, JsonNode.class);
+    }
+}
@@ -0,0 +1,163 @@
+package rest.client;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import okhttp3.OkHttpClient;
+import rest.client.models.ModelPerson;
+import rest.client.retrofit.JacksonConverterFactoryForTA;
+import rest.client.retrofit.RetrofitTestService;
+import rest.client.strict.StrictRestClient;
+import rest.client.transport.PooledClientTransport;
+import retrofit2.Retrofit;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class StreamingTest extends Assertions {
+
+    private static final int SIZE = 200_000;
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * The whole array is read one person at a time.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testStream() throws Exception {
+
+        StrictRestClient rrc = new StrictRestClient();
+        AtomicInteger count = new AtomicInteger();
+        ModelPerson[] last = new ModelPerson[1];
+
+        try (Stream<ModelPerson> persons = rrc.executeStream(persons(SIZE), ModelPerson.class)) {
+            persons.forEach(person -> {
+                count.incrementAndGet();
+                last[0] = person;
+            });
+        }
+
+        assertEquals(SIZE, count.get());
+        assertEquals("person-" + (SIZE - 1), last[0].getName());
+        assertEquals(SIZE - 1, last[0].getAddresses().get(0).getNumero().intValue());
+    }
+
+    /**
+     * Closing the stream before the end aborts the connection, the rest of the body is not downloaded.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testEarlyClose() throws Exception {
+
+        try (PooledClientTransport transport = new PooledClientTransport()
+                .withMaxConnectionsPerHost(1)
+                .withAcquireTimeout(1_000)) {
+
+            // the pool has a single connection, it must be given back each time.
+            StrictRestClient rrc = new StrictRestClient(0, 0, transport);
+
+            for (int i = 0; i < 3; i++) {
+                assertEarlyCloseIsFast(rrc);
+            }
+        }
+
+        assertEarlyCloseIsFast(new StrictRestClient());
+    }
+
+    /**
+     * Status errors and bodies not being an array fail as with execute.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testErrors() throws Exception {
+
+        StrictRestClient rrc = new StrictRestClient();
+
+        assertThrows(HttpServerErrorException.class, () -> rrc.executeStream(
+                RequestEntity.get(URI.create("http://localhost:9090/status500")).build(), ModelPerson.class));
+
+        assertThrows(HttpMessageNotReadableException.class, () -> rrc.executeStream(
+                RequestEntity.get(URI.create("http://localhost:9090/ok")).build(), ModelPerson.class));
+    }
+
+    /**
+     * Retrofit streaming converter, as Stream and as Iterator.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testRetrofit() throws Exception {
+
+        RetrofitTestService service = new Retrofit.Builder()
+                .baseUrl("http://localhost:9090/")
+                .client(new OkHttpClient())
+                .addConverterFactory(JacksonConverterFactoryForTA.createConverterForStreaming())
+                .build()
+                .create(RetrofitTestService.class);
+
+        try (Stream<ModelPerson> persons = service.getPersons(SIZE).execute().body()) {
+            assertEquals(SIZE, persons.count());
+        }
+
+        Iterator<ModelPerson> iterator = service.getPersonsIterator(SIZE).execute().body();
+
+        try {
+            assertEquals("person-0", iterator.next().getName());
+            assertEquals("person-1", iterator.next().getName());
+        }
+        finally {
+            ((Closeable) iterator).close();
+        }
+    }
+
+    private static void assertEarlyCloseIsFast(final StrictRestClient rrc) {
+
+        // the whole body takes 2 seconds to be sent.
+        RequestEntity<Void> slowPersons = RequestEntity
+                .get(URI.create("http://localhost:9090/persons/" + SIZE + "?pauseMillis=10"))
+                .build();
+        Stream<ModelPerson> persons = rrc.executeStream(slowPersons, ModelPerson.class);
+
+        try {
+            assertEquals(10, persons.limit(10).collect(Collectors.toList()).size());
+        }
+        finally {
+            long start = System.currentTimeMillis();
+            persons.close();
+            long closeMillis = System.currentTimeMillis() - start;
+            assertTrue(closeMillis < 500, "Close took " + closeMillis + " ms");
+        }
+    }
+
+    private static RequestEntity<Void> persons(final int size) {
+        return RequestEntity.get(URI.create("http://localhost:9090/persons/" + size)).build();
+    }
+}
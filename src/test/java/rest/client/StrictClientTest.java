@@ -1,5 +1,13 @@
 package rest.client;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -7,9 +15,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import rest.client.basic.ResponseBodyCapture;
 import rest.client.strict.HttpNot2xxStatusCodeException;
 import rest.client.strict.StrictRestClient;
 
@@ -154,6 +167,125 @@ public class StrictClientTest extends Assertions {
         assertTrue("Read time out",  stop - start < 500 * 3);
     }
 
+    /**
+     * Test one client shared by many threads, each logged body should be the one
+     * received by the same call.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testConcurrentBodyCapture() throws Exception {
+
+        int threads = 32;
+        int callsPerThread = 50;
+
+        ThreadLocal<String> expectedId = new ThreadLocal<>();
+        AtomicInteger logged = new AtomicInteger();
+        AtomicInteger mismatches = new AtomicInteger();
+
+        // the first calls of all the threads at once may be slow, a read timeout would not be logged.
+        StrictRestClient rrc = new StrictRestClient(10_000) {
+            @Override
+            protected void logUnreadableBody(final Throwable th, final ResponseBodyCapture capture) {
+                logged.incrementAndGet();
+                if (!capture.getBodyAsString().contains("<data>" + expectedId.get() + "</data>")) {
+                    mismatches.incrementAndGet();
+                }
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < callsPerThread; i++) {
+                        String id = "id-" + thread + "-" + i;
+                        expectedId.set(id);
+                        try {
+                            rrc.execute(rt -> rt.getForEntity("http://localhost:9090/noJson/" + id, JsonNode.class));
+                            mismatches.incrementAndGet();
+                        }
+                        catch (RestClientException ex) {
+                            // OK, body is not a JSON
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * callsPerThread, logged.get(), "Bodies logged");
+        assertEquals(0, mismatches.get(), "Bodies from other calls");
+    }
+
+    /**
+     * Test execute async, connect timeouts are retried after a scheduled back off.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testExecuteAsyncRetries() throws Exception {
+
+        StrictRestClient rrc = createClientWithBackOff(200L);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<ResponseEntity<String>> future = rrc.executeAsync(rt -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ResourceAccessException("I/O error: connect timed out");
+            }
+            return rt.getForEntity("http://localhost:9090/json", String.class);
+        });
+
+        ResponseEntity<String> result = future.get();
+
+        assertEquals(3, attempts.get(), "Attempts");
+        assertTrue("Body received", result.getBody().contains("JSON"));
+    }
+
+    /**
+     * Test cancelling execute async while waiting the back off, no more attempts are done.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testExecuteAsyncCancel() throws Exception {
+
+        StrictRestClient rrc = createClientWithBackOff(10_000L);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<ResponseEntity<String>> future = rrc.executeAsync(rt -> {
+            attempts.incrementAndGet();
+            throw new ResourceAccessException("I/O error: connect timed out");
+        });
+
+        Thread.sleep(300L);
+        assertTrue("Cancelled", future.cancel(true));
+
+        Thread.sleep(300L);
+        assertEquals(1, attempts.get(), "Attempts");
+    }
+
+    private StrictRestClient createClientWithBackOff(final long backOffPeriod) {
+        return new StrictRestClient(500) {
+            @Override
+            public BackOffPolicy createBackOffPolicy() {
+                FixedBackOffPolicy bop = new FixedBackOffPolicy();
+                bop.setBackOffPeriod(backOffPeriod);
+                return bop;
+            }
+        };
+    }
+
     void assertTrue(final String msg, final boolean b) {
         Assertions.assertTrue(b, msg);
     }
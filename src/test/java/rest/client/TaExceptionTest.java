@@ -0,0 +1,74 @@
+package rest.client;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import rest.api.OMErrorEnum;
+import rest.api.OMErrorSourceEnum;
+import rest.api.TaCheckedException;
+import rest.api.TaConfigException;
+import rest.api.TaDataException;
+import rest.api.TaException;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+public class TaExceptionTest extends Assertions {
+
+    /**
+     * Stackless exceptions have no stack trace, the message is the same and follows the error code.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testStackless() throws Exception {
+
+        TaDataException stack = new TaDataException("No items");
+        TaDataException stackless = new TaDataException("No items", null, false);
+        TaCheckedException checked = new TaCheckedException("No items", null, false);
+
+        assertTrue(stack.getStackTrace().length > 0);
+        assertEquals(0, stackless.getStackTrace().length);
+        assertEquals(0, checked.getStackTrace().length);
+
+        assertEquals("[OM_DATA_INCONSISTENCY] No items", stackless.getMessage());
+        assertEquals(stack.getMessage(), stackless.getMessage());
+        assertSame(stackless.getMessage(), stackless.getMessage());
+
+        stackless.withErrorCode(OMErrorEnum.OM_LEGACY_DATA_INCONSISTENCY);
+        assertEquals("[OM_LEGACY_DATA_INCONSISTENCY] No items", stackless.getMessage());
+        assertEquals("[OM_UNEXPECTED] No items", checked.getMessage());
+    }
+
+    /**
+     * Shared instances are of the class of their code, and can not be changed.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testShared() throws Exception {
+
+        TaException data = TaException.shared(OMErrorEnum.OM_DATA_INCONSISTENCY);
+
+        assertSame(data, TaException.shared(OMErrorEnum.OM_DATA_INCONSISTENCY));
+        assertTrue(data instanceof TaDataException);
+        assertTrue(TaException.shared(OMErrorEnum.OM_CONFIG_ERROR) instanceof TaConfigException);
+        assertEquals(TaException.class, TaException.shared(OMErrorEnum.OM_TIMEOUT).getClass());
+
+        assertEquals(OMErrorEnum.OM_DATA_INCONSISTENCY.getErrorCode(), data.getErrorCode());
+        assertEquals(OMErrorSourceEnum.OM.getCode(), data.getErrorSource());
+        assertEquals(OMErrorEnum.OM_DATA_INCONSISTENCY.getErrorDescription(), data.getErrorMessage());
+        assertEquals(0, data.getStackTrace().length);
+
+        assertThrows(UnsupportedOperationException.class, () -> data.withErrorCode("OTHER"));
+        assertThrows(UnsupportedOperationException.class, () -> data.withErrorSource(OMErrorSourceEnum.HUAWEI));
+        assertThrows(UnsupportedOperationException.class, () -> data.withFriendlyMessage("Try later"));
+        assertThrows(IllegalStateException.class, () -> data.initCause(new RuntimeException()));
+
+        data.addSuppressed(new RuntimeException());
+        assertEquals(0, data.getSuppressed().length);
+        assertEquals(OMErrorEnum.OM_DATA_INCONSISTENCY.getErrorCode(), data.getErrorCode());
+    }
+}
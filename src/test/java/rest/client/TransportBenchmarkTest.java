@@ -0,0 +1,137 @@
+package rest.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import rest.client.strict.StrictRestClient;
+import rest.client.transport.PooledClientTransport;
+import rest.client.transport.SimpleClientTransport;
+
+/**
+ * Compares the default HttpURLConnection transport with the pooled one against
+ * the local demo server, the server answers with the client port so we can count
+ * how many TCP connections were really opened.
+ *
+ * @author tonioc
+ */
+@SpringBootTest
+public class TransportBenchmarkTest extends Assertions {
+
+    private static final int THREADS = 32;
+    private static final int CALLS_PER_THREAD = 200;
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    @Test
+    public void testPooledReusesConnections() throws Exception {
+
+        try (PooledClientTransport transport = new PooledClientTransport()
+                .withMaxConnectionsPerHost(THREADS)) {
+
+            StrictRestClient pooled = new StrictRestClient(2_000, 5_000, transport);
+            StrictRestClient simple = new StrictRestClient(2_000, 5_000, new SimpleClientTransport());
+
+            // warm up both, JIT and server threads
+            run(simple, 20);
+            run(pooled, 20);
+
+            Result simpleResult = run(simple, CALLS_PER_THREAD);
+            Result pooledResult = run(pooled, CALLS_PER_THREAD);
+
+            System.out.format("simple: %s%n", simpleResult);
+            System.out.format("pooled: %s, connections created by transport %d%n"
+                    , pooledResult, transport.getConnectionsCreated());
+
+            // Tomcat closes a keep-alive connection after 100 requests (maxKeepAliveRequests)
+            // so connections are re-created, but never once per call.
+            assertTrue(pooledResult.connections < pooledResult.calls / 50, "Connections re-used");
+            assertEquals(0, transport.getPoolStats().getLeased(), "All connections returned to the pool");
+        }
+    }
+
+    /**
+     * Run THREADS threads, each one calling callsPerThread times.
+     *
+     * @param client the client
+     * @param callsPerThread the calls per thread
+     * @return the result
+     * @throws Exception the exception
+     */
+    private Result run(final StrictRestClient client, final int callsPerThread) throws Exception {
+
+        Set<Integer> ports = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < callsPerThread; i++) {
+                        ResponseEntity<JsonNode> result = client
+                                .execute(rt -> rt.getForEntity("http://localhost:9090/conn", JsonNode.class));
+                        ports.add(result.getBody().get("port").asInt());
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+
+            long elapsed = System.nanoTime() - start;
+            return new Result(THREADS * callsPerThread, elapsed, ports.size());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The Class Result.
+     */
+    private static class Result {
+
+        private final int calls;
+        private final long elapsedNanos;
+        private final int connections;
+
+        Result(final int calls, final long elapsedNanos, final int connections) {
+            this.calls = calls;
+            this.elapsedNanos = elapsedNanos;
+            this.connections = connections;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d calls in %d ms, %.0f calls/sec, %d distinct connections"
+                    , this.calls
+                    , this.elapsedNanos / 1_000_000
+                    , this.calls * 1e9 / this.elapsedNanos
+                    , this.connections);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package rest.client.retrofit;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,6 +12,7 @@ import com.fasterxml.jackson.databind.ObjectReader;
 
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
+import rest.client.stream.JsonArrayIterator;
 import retrofit2.Converter;
 import retrofit2.Retrofit;
 import retrofit2.converter.jackson.JacksonConverterFactory;
@@ -88,7 +92,8 @@ public final class JacksonConverterFactoryForTA extends Converter.Factory {
      * @param cacheBodyInString if <b>true</b> this parameter makes the converter to store first the response in an String
      * and then parse it from it, in this way in case of converter error we can show the received response in the log,
      * if <b>false</b> ObjectMapper uses the response stream to read it and <b>no</b> information about the request
-     * can be fetched in case of parsing error.
+     * can be fetched in case of parsing error, and <code>Stream&lt;Foo&gt;</code> or <code>Iterator&lt;Foo&gt;</code>
+     * responses are read from a JSON array while iterated, see {@link JsonArrayIterator}.
      *
      * @return the jackson converter factory for TA
      */
@@ -105,6 +110,23 @@ public final class JacksonConverterFactoryForTA extends Converter.Factory {
     @Override
     public Converter<ResponseBody, ?> responseBodyConverter(final Type type, final Annotation[] annotations,
         final Retrofit retrofit) {
+
+      Class<?> rawType = getRawType(type);
+
+      if (!this.cacheBodyInString
+              &&  (rawType == Stream.class  ||  rawType == Iterator.class)
+              &&  type instanceof ParameterizedType) {
+
+          // Stream<Foo> or Iterator<Foo> of a JSON array, read while iterated, closing it closes the body.
+          ObjectReader elementReader = this.mapper.readerFor(this.mapper.getTypeFactory()
+                  .constructType(getParameterUpperBound(0, (ParameterizedType) type)));
+
+          return body -> {
+              JsonArrayIterator<Object> iterator = JsonArrayIterator.of(this.mapper, body.byteStream(), elementReader, body);
+              return (rawType == Stream.class ? iterator.stream() : iterator);
+          };
+      }
+
       JavaType javaType = this.mapper.getTypeFactory().constructType(type);
       ObjectReader reader = this.mapper.readerFor(javaType);
       return new JacksonResponseBodyConverterForTA<>(reader, this.cacheBodyInString);
@@ -12,6 +12,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectReader;
 
 import okhttp3.ResponseBody;
+import rest.client.diagnostic.DiagnosticSink;
 import retrofit2.Converter;
 
 /**
@@ -55,7 +56,7 @@ public class JacksonResponseBodyConverterForTA<T> implements Converter<ResponseB
         catch (JsonProcessingException ex) {
 
             if (this.cacheBodyInString) {
-                log.error("Error processing response body: " + body);
+                DiagnosticSink.shared().report(log, null, value.contentType(), "Error processing response body: ", body);
             }
 
             throw ex;
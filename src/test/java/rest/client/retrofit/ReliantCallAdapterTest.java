@@ -0,0 +1,198 @@
+package rest.client.retrofit;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import okhttp3.OkHttpClient;
+import rest.client.ReliantDemoApplication;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.HttpException;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.scalars.ScalarsConverterFactory;
+
+/**
+ * DOCUMENT .
+ * @author tonioc
+ *
+ */
+@SpringBootTest
+public class ReliantCallAdapterTest extends Assertions {
+
+    @BeforeAll
+    public static void start() {
+        ReliantDemoApplication.main("");
+    }
+
+    @AfterAll
+    public static void end() {
+        ReliantDemoApplication.shutdown();
+    }
+
+    /**
+     * 2xx responses are returned, 3xx and 5xx fail with an HttpException, in execute and enqueue.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testStrictStatus() throws Exception {
+
+        RetrofitTestService service = getService(10, new AtomicInteger(), 0, 100L);
+
+        Response<JsonNode> person = service.getPerson("Andres").execute();
+        assertEquals("Andres", person.body().get("name").asText());
+
+        HttpException ex = assertThrows(HttpException.class, () -> service.status300().execute());
+        assertEquals(308, ex.code());
+        assertTrue(ex.response().errorBody().string().contains("Redirect"));
+
+        Throwable th = enqueue(service.status500()).handle((r, t) -> t).get(10, TimeUnit.SECONDS);
+        assertTrue(th instanceof HttpException);
+        assertEquals(500, ((HttpException) th).code());
+
+        assertEquals("Andres", enqueue(service.getPerson("Andres")).get(10, TimeUnit.SECONDS)
+                .body().get("name").asText());
+    }
+
+    /**
+     * Connect timeouts are retried, in execute and enqueue.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testConnectTimeoutRetried() throws Exception {
+
+        AtomicInteger attempts = new AtomicInteger();
+        RetrofitTestService service = getService(10, attempts, 2, 100L);
+
+        assertTrue(service.jsonAsString().execute().isSuccessful());
+        assertEquals(3, attempts.get());
+
+        attempts.set(0);
+        assertTrue(enqueue(service.jsonAsString()).get(10, TimeUnit.SECONDS).isSuccessful());
+        assertEquals(3, attempts.get());
+
+        attempts.set(0);
+        RetrofitTestService failing = getService(10, attempts, Integer.MAX_VALUE, 100L);
+        IOException ex = assertThrows(IOException.class, () -> failing.jsonAsString().execute());
+
+        assertTrue(ReliantCallAdapterFactory.isConnectTimeout(ex));
+        assertEquals(4, attempts.get());
+    }
+
+    /**
+     * Read timeouts are not retried.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testReadTimeoutNotRetried() throws Exception {
+
+        AtomicInteger attempts = new AtomicInteger();
+        RetrofitTestService service = getService(1, attempts, 0, 100L);
+
+        assertThrows(SocketTimeoutException.class, () -> service.timeout(2).execute());
+        assertEquals(1, attempts.get());
+    }
+
+    /**
+     * Cancelling during the back off ends the call at once.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testCancelDuringBackOff() throws Exception {
+
+        AtomicInteger attempts = new AtomicInteger();
+        RetrofitTestService service = getService(10, attempts, Integer.MAX_VALUE, 10_000L);
+
+        Call<String> call = service.jsonAsString();
+        CompletableFuture<Response<String>> result = enqueue(call);
+
+        Thread.sleep(500L);
+        call.cancel();
+
+        Throwable th = result.handle((r, t) -> t).get(1, TimeUnit.SECONDS);
+
+        assertTrue(call.isCanceled());
+        assertEquals("Canceled", th.getMessage());
+        assertEquals(1, attempts.get());
+    }
+
+    /**
+     * Gets the service, its first calls fail as connect timeouts.
+     *
+     * @param secondsReadTimeout the seconds read timeout
+     * @param attempts the attempts counter
+     * @param connectTimeouts the attempts failing as connect timeouts
+     * @param backOffMillis the back off between retries
+     * @return the service
+     */
+    private static RetrofitTestService getService(final int secondsReadTimeout
+            , final AtomicInteger attempts
+            , final int connectTimeouts
+            , final long backOffMillis) {
+
+        OkHttpClient client = new OkHttpClient.Builder()
+                .readTimeout(secondsReadTimeout, TimeUnit.SECONDS)
+                .addInterceptor(chain -> {
+                    if (attempts.incrementAndGet() <= connectTimeouts) {
+                        throw new SocketTimeoutException("connect timed out");
+                    }
+                    return chain.proceed(chain.request());
+                })
+                .build();
+
+        ReliantCallAdapterFactory factory = new ReliantCallAdapterFactory() {
+            @Override
+            public BackOffPolicy createBackOffPolicy() {
+                FixedBackOffPolicy bop = new FixedBackOffPolicy();
+                bop.setBackOffPeriod(backOffMillis);
+                return bop;
+            }
+        };
+
+        return new Retrofit.Builder()
+                .baseUrl("http://localhost:9090/")
+                .client(client)
+                .addCallAdapterFactory(factory)
+                .addConverterFactory(ScalarsConverterFactory.create())
+                .addConverterFactory(JacksonConverterFactoryForTA.create(null, true))
+                .build()
+                .create(RetrofitTestService.class);
+    }
+
+    private static <T> CompletableFuture<Response<T>> enqueue(final Call<T> call) {
+
+        CompletableFuture<Response<T>> result = new CompletableFuture<>();
+
+        call.enqueue(new Callback<T>() {
+
+            @Override
+            public void onResponse(final Call<T> c, final Response<T> response) {
+                result.complete(response);
+            }
+
+            @Override
+            public void onFailure(final Call<T> c, final Throwable th) {
+                result.completeExceptionally(th);
+            }
+        });
+
+        return result;
+    }
+}
@@ -1,5 +1,8 @@
 package rest.client.retrofit;
 
+import java.util.Iterator;
+import java.util.stream.Stream;
+
 import com.fasterxml.jackson.databind.JsonNode;
 
 import rest.client.models.ModelPerson;
@@ -8,6 +11,7 @@ import retrofit2.http.Body;
 import retrofit2.http.GET;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
+import retrofit2.http.Streaming;
 
 /**
  * DOCUMENT .
@@ -43,9 +47,20 @@ public interface RetrofitTestService {
     @GET("person/{name}")
     Call<ModelPerson> getPersonModel(@Path("name") String name);
 
+    @Streaming
+    @GET("persons/{size}")
+    Call<Stream<ModelPerson>> getPersons(@Path("size") int size);
+
+    @Streaming
+    @GET("persons/{size}")
+    Call<Iterator<ModelPerson>> getPersonsIterator(@Path("size") int size);
+
     @POST("person")
     Call<JsonNode> storePerson(@Body ModelPerson person);
 
+    @GET("omError/{kind}")
+    Call<JsonNode> omError(@Path("kind") String kind);
+
 
 
 }
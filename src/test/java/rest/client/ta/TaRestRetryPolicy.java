@@ -5,6 +5,8 @@ import java.util.Random;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import rest.client.budget.RetryBudget;
+
 /**
  * The Class TaRestRetryPolicy.
  *
@@ -32,6 +34,7 @@ public class TaRestRetryPolicy implements Cloneable {
     private int maxRetries;
     private int retry = 0;
     private Random random = new Random(System.currentTimeMillis());
+    private RetryBudget retryBudget;
 
     /**
      * Constructor.
@@ -57,11 +60,24 @@ public class TaRestRetryPolicy implements Cloneable {
         return this.retry;
     }
 
+    /**
+     * Sets the retry budget, retries are done only if the budget allows them.
+     *
+     * @param retryBudget the retry budget, may be null.
+     */
+    public void setRetryBudget(final RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+
     /**
      * Init policy, so it can start a new cycle.
      */
     public void initPolicy() {
         this.retry = 0;
+
+        if (this.retryBudget != null) {
+            this.retryBudget.onFirstAttempt();
+        }
     }
 
     /**
@@ -70,12 +86,27 @@ public class TaRestRetryPolicy implements Cloneable {
      * @return true, if a retry should be performed
      */
     public boolean retryWait() {
+        return retryWait(null);
+    }
+
+    /**
+     * Waits a configured time before returning.
+     *
+     * @param host the host of the failed attempt as <i>host:port</i>, null if unknown.
+     * @return true, if a retry should be performed
+     */
+    public boolean retryWait(final String host) {
         this.retry++;
 
         if (this.retry > this.maxRetries) {
             return false;
         }
 
+        if (this.retryBudget != null  &&  !this.retryBudget.tryAcquireRetry(host)) {
+            log.info("Retry budget exhausted, not retrying");
+            return false;
+        }
+
         double factor = 1;
         for (int i=1; i<this.retry; i++) {
             factor *= (1 + this.random.nextDouble());
@@ -1,6 +1,8 @@
 package rest.client.ta;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 
 import org.apache.commons.lang3.Validate;
@@ -8,10 +10,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import rest.client.basic.Hosts;
+import rest.client.budget.RetryBudget;
+import rest.client.compress.CompressionInterceptor;
+
 /**
  * TaRestTemplate a wrapper over RestTemplate with easy configurable timeouts and a standard
  * retry policy {@link TaRestRetryPolicy}, for HttpStatus 503 and connection timeout errors.
@@ -43,6 +50,8 @@ public class TaRestTemplate {
     private final TaRestRetryPolicy retryPolicy = new TaRestRetryPolicy(-1, -1);
     private int connectTO;
     private int readTO;
+    private RetryBudget retryBudget;
+    private final ThreadLocal<String> attemptHost = new ThreadLocal<>();
 
     /*
      * Instantiates a new rest template factory.
@@ -73,6 +82,52 @@ public class TaRestTemplate {
         this.restTemplate = builder.build();
     }
 
+    /**
+     * Retries are done only if the budget, global and of the host, allows them.
+     *
+     * @param budget the retry budget, may be shared with other clients.
+     * @return the ta rest template
+     */
+    public TaRestTemplate withRetryBudget(final RetryBudget budget) {
+        Validate.notNull(budget, "Retry budget should not be null");
+
+        this.retryBudget = budget;
+        this.retryPolicy.setRetryBudget(budget);
+
+        // keeps the host of the attempt, and records the first attempt in its budget.
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(this.restTemplate.getInterceptors());
+        interceptors.add((request, body, execution) -> {
+            String host = Hosts.hostOf(request.getURI());
+
+            if (this.attemptHost.get() == null) {
+                this.retryBudget.onFirstAttemptToHost(host);
+            }
+
+            this.attemptHost.set(host);
+            return execution.execute(request, body);
+        });
+        this.restTemplate.setInterceptors(interceptors);
+
+        return this;
+    }
+
+    /**
+     * Asks for compressed responses and decompresses them while they are read, request bodies are
+     * compressed as configured in the interceptor.
+     *
+     * @param interceptor the compression interceptor
+     * @return the ta rest template
+     */
+    public TaRestTemplate withCompression(final CompressionInterceptor interceptor) {
+        Validate.notNull(interceptor, "Compression interceptor should not be null");
+
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(this.restTemplate.getInterceptors());
+        interceptors.add(interceptor);
+        this.restTemplate.setInterceptors(interceptors);
+
+        return this;
+    }
+
     /**
      * Gets the rest template.
      *
@@ -121,6 +176,7 @@ public class TaRestTemplate {
 
         // Init retry policy in case the template is used more than once.
         this.retryPolicy.initPolicy();
+        this.attemptHost.remove();
 
         do {
 
@@ -138,7 +194,7 @@ public class TaRestTemplate {
                 // A way to differentiate connection timeout from read timeout.
                 if (ex.toString().contains("connect timed out")) {
 
-                    if (this.retryPolicy.retryWait()) {
+                    if (this.retryPolicy.retryWait(this.attemptHost.get())) {
                         log.info("Recieved Connection Timeout, retrying...");
                         continue;
                     }
@@ -150,7 +206,7 @@ public class TaRestTemplate {
 
                 if (ex.getRawStatusCode() == 503) {
 
-                    if (this.retryPolicy.retryWait()) {
+                    if (this.retryPolicy.retryWait(this.attemptHost.get())) {
                         log.info("Recieved HttpStatus 503, retrying...");
                         continue;
                     }